@@ -1,15 +1,24 @@
 package hr.algebra.common;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.time.Instant;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 public abstract class AbstractCrud<E, DTO>{
 
     private final JpaRepository<E, Long> baseRepository;
     private final GenericMapper<DTO, E> mapper;
+    private ChangeRecorder changeRecorder = ChangeRecorder.NONE;
+    private CacheInvalidator cacheInvalidator = CacheInvalidator.NONE;
+    private JsonMapper jsonMapper;
 
     protected AbstractCrud(JpaRepository<E, Long> baseRepository,
                            GenericMapper<DTO, E> mapper) {
@@ -17,47 +26,107 @@ public abstract class AbstractCrud<E, DTO>{
         this.mapper = mapper;
     }
 
+    // setter injected so subclasses keep their constructors
+    @Autowired(required = false)
+    public void setChangeRecorder(ChangeRecorder changeRecorder) {
+        this.changeRecorder = changeRecorder;
+    }
+
+    @Autowired(required = false)
+    public void setCacheInvalidator(CacheInvalidator cacheInvalidator) {
+        this.cacheInvalidator = cacheInvalidator;
+    }
+
+    @Autowired
+    public void setJsonMapper(JsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+    }
+
     public Optional<DTO> findById(Long id) {
         LoggerSingleton.INSTANCE.debug("Calling findById for id: " + id);
-        return baseRepository.findById(id).map(mapper::toDto);
+        return onShard(id, () -> baseRepository.findById(id).map(mapper::toDto));
     }
 
     @Transactional
     public DTO create(DTO dto) {
         LoggerSingleton.INSTANCE.debug("Calling create");
-        E entity = mapper.dtoToEntity(dto);
-        this.preCreate(entity, dto);
-        E saved = baseRepository.save(entity);
-        LoggerSingleton.INSTANCE.info("Created: " + entity.getClass().getSimpleName());
-        return mapper.toDto(saved);
+        return onNewShard(dto, () -> {
+            E entity = mapper.dtoToEntity(dto);
+            this.preCreate(entity, dto);
+            E saved = baseRepository.save(entity);
+            recordChange(saved, ChangeType.CREATED);
+            LoggerSingleton.INSTANCE.info("Created: " + entity.getClass().getSimpleName());
+            return mapper.toDto(saved);
+        });
     }
 
     @Transactional
     public DTO update(Long id, DTO dto) {
         LoggerSingleton.INSTANCE.debug("Calling update");
-        E existing = baseRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Not found: " + id));
+        return onShard(id, () -> {
+            E existing = baseRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Not found: " + id));
+
+            E updated = updateEntity(existing, dto);
+            this.preUpdate(updated);
+            E saved = baseRepository.save(updated);
+            recordChange(saved, ChangeType.UPDATED);
+            LoggerSingleton.INSTANCE.info("Updated: " + saved.getClass().getSimpleName());
+            return mapper.toDto(saved);
+        });
+    }
 
-        E updated = updateEntity(existing, dto);
-        this.preUpdate(updated);
-        E saved = baseRepository.save(updated);
-        LoggerSingleton.INSTANCE.info("Updated: " + saved.getClass().getSimpleName());
-        return mapper.toDto(saved);
+    // JSON Merge Patch: only the fields present are applied and null clears one, so with dynamic updates only
+    // those columns are written; an expected version that is no longer current, or Versioned.NO_MATCH, fails the
+    // patch
+    @Transactional
+    public DTO patch(Long id, JsonNode patch, Long expectedVersion) {
+        LoggerSingleton.INSTANCE.debug("Calling patch");
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Merge patch must be a JSON object");
+        }
+        for (String field : patch.propertyNames()) {
+            if (!patchableFields().contains(field)) {
+                throw new IllegalArgumentException("Field cannot be patched: " + field);
+            }
+        }
+        return onShard(id, () -> {
+            E existing = baseRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Not found: " + id));
+            if (expectedVersion != null && existing instanceof Versioned versioned
+                    && !expectedVersion.equals(versioned.getVersion())) {
+                throw new OptimisticLockingFailureException("Stale version " + expectedVersion + " for " + id);
+            }
+
+            DTO merged = jsonMapper.readerForUpdating(mapper.toDto(existing)).readValue(patch);
+            E updated = updateEntity(existing, merged);
+            this.preUpdate(updated);
+            // flushed here so the returned version already counts this change
+            E saved = baseRepository.saveAndFlush(updated);
+            recordChange(saved, ChangeType.UPDATED);
+            LoggerSingleton.INSTANCE.info("Patched: " + saved.getClass().getSimpleName());
+            return mapper.toDto(saved);
+        });
     }
 
+    @Transactional
     public void delete(Long id) {
         LoggerSingleton.INSTANCE.debug("Calling delete");
-        E entity = baseRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Not found: " + id));
-        this.preDelete(entity);
-        if (entity instanceof SoftDeletableEntity sd){
-            sd.setDeletedAt(Instant.now());
-            LoggerSingleton.INSTANCE.info("Deleted: " + entity.getClass().getSimpleName());;
-        }
-        else{
-            baseRepository.deleteById(id);
-            LoggerSingleton.INSTANCE.info("Entity hard deleted");
-        }
+        onShard(id, () -> {
+            E entity = baseRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Not found: " + id));
+            this.preDelete(entity);
+            recordChange(entity, ChangeType.DELETED);
+            if (entity instanceof SoftDeletableEntity sd){
+                sd.setDeletedAt(Instant.now());
+                LoggerSingleton.INSTANCE.info("Deleted: " + entity.getClass().getSimpleName());;
+            }
+            else{
+                baseRepository.deleteById(id);
+                LoggerSingleton.INSTANCE.info("Entity hard deleted");
+            }
+            return null;
+        });
     }
 
     protected E updateEntity(E existing, DTO dto) {
@@ -65,6 +134,21 @@ public abstract class AbstractCrud<E, DTO>{
         return existing;
     }
 
+    // sharded services run the work on the shard the id belongs to, everything else stays on the one datasource
+    protected <T> T onShard(Long id, Supplier<T> work) {
+        return work.get();
+    }
+
+    // same for a row that has no id yet, the dto says whose it is
+    protected <T> T onNewShard(DTO dto, Supplier<T> work) {
+        return work.get();
+    }
+
+    // nothing is patchable unless a subclass says so
+    protected Set<String> patchableFields() {
+        return Set.of();
+    }
+
     protected void preCreate(E entity, DTO dto) {
         LoggerSingleton.INSTANCE.debug("Calling preCreate for: " + entity.getClass().getSimpleName());
         // intentionally empty
@@ -78,6 +162,19 @@ public abstract class AbstractCrud<E, DTO>{
         // intentionally empty
     }
 
+    // "RecipeEntity" is recorded as "Recipe"
+    protected String aggregateType(E entity) {
+        return entity.getClass().getSimpleName().replaceFirst("Entity$", "");
+    }
+
+    private void recordChange(E entity, ChangeType type) {
+        if (entity instanceof AbstractEntity ae) {
+            changeRecorder.record(aggregateType(entity), ae.getId(), type);
+            cacheInvalidator.invalidate(aggregateType(entity), ae.getId(), () ->
+                    entity instanceof Versioned v && v.getVersion() != null ? v.getVersion() : CacheInvalidator.NO_VERSION);
+        }
+    }
+
     protected JpaRepository<E, Long> getBaseRepository() {
         return baseRepository;
     }
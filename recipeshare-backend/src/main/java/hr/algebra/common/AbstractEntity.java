@@ -17,8 +17,8 @@ import java.time.Instant;
 public abstract class AbstractEntity implements SoftDeletableEntity {
 
     @Id
+    @ShardedId
     @Setter(AccessLevel.NONE)
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @Column(name = "created_at")
@@ -0,0 +1,83 @@
+package hr.algebra.common;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// set membership of strings in fixed memory: a key sets a few bits and a key with any of its bits clear was never
+// put, so a miss is certain and a hit only probable. sized for an expected count at a target false positive rate,
+// puts are lock free so a filter can be filled from several threads at once
+public class BloomFilter {
+
+    private static final long SEED_A = 0xCBF29CE484222325L;
+    private static final long SEED_B = 0x9E3779B97F4A7C15L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    public BloomFilter(long expected, double falsePositiveRate) {
+        if (expected <= 0) {
+            throw new IllegalArgumentException("Expected count must be positive: " + expected);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        long optimal = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray(Math.toIntExact(Math.max(1, (optimal + 63) / 64)));
+        this.bits = words.length() * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expected * Math.log(2)));
+    }
+
+    public void put(String key) {
+        long hashA = hash(key, SEED_A);
+        long hashB = hash(key, SEED_B) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hashA + i * hashB, bits);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((words.get(word) & mask) == 0) {
+                words.getAndAccumulate(word, mask, (current, set) -> current | set);
+            }
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long hashA = hash(key, SEED_A);
+        long hashB = hash(key, SEED_B) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hashA + i * hashB, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bits() {
+        return bits;
+    }
+
+    public int hashes() {
+        return hashes;
+    }
+
+    // the share of bits set to the power of the hash count, what a key never put is likely to hit
+    public double expectedFalsePositiveRate() {
+        long set = 0;
+        for (int i = 0; i < words.length(); i++) {
+            set += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) set / bits, hashes);
+    }
+
+    // FNV-1a over the chars, finished with the murmur mix so the low bits spread too
+    private static long hash(String key, long seed) {
+        long hash = seed;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * FNV_PRIME;
+        }
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,15 @@
+package hr.algebra.common;
+
+import java.util.function.LongSupplier;
+
+// told about every row AbstractCrud wrote, caches holding it are dropped once the transaction commits;
+// the version is read only then, after the flush has bumped it
+public interface CacheInvalidator {
+
+    CacheInvalidator NONE = (aggregateType, id, version) -> {
+    };
+
+    long NO_VERSION = -1;
+
+    void invalidate(String aggregateType, Long id, LongSupplier version);
+}
@@ -0,0 +1,10 @@
+package hr.algebra.common;
+
+// told about every write AbstractCrud makes, inside the transaction that makes it
+public interface ChangeRecorder {
+
+    ChangeRecorder NONE = (aggregateType, aggregateId, type) -> {
+    };
+
+    void record(String aggregateType, Long aggregateId, ChangeType type);
+}
@@ -0,0 +1,7 @@
+package hr.algebra.common;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
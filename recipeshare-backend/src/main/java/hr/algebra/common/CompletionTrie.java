@@ -0,0 +1,284 @@
+package hr.algebra.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// radix trie of keys where every node caches the k best completions below it,
+// so a lookup is one walk down the prefix and no subtree is ever scanned
+public class CompletionTrie {
+
+    public record Completion(long id, String text, long score) {
+    }
+
+    private static final Comparator<Completion> ORDER = Comparator
+            .comparingLong(Completion::score).reversed()
+            .thenComparingLong(Completion::id);
+    private static final Completion[] NONE = new Completion[0];
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+
+    private final int k;
+    private final Node root = new Node("");
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int size;
+
+    public CompletionTrie(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("K must be positive: " + k);
+        }
+        this.k = k;
+    }
+
+    // a completion with the same id already under the key is replaced
+    public void insert(String key, Completion completion) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key, completion.id());
+            List<Node> path = new ArrayList<>();
+            path.add(root);
+            Node node = root;
+            int i = 0;
+            while (i < key.length()) {
+                int index = Arrays.binarySearch(node.firstChars, key.charAt(i));
+                if (index < 0) {
+                    Node leaf = new Node(key.substring(i));
+                    node.addChild(-index - 1, leaf);
+                    node = leaf;
+                    path.add(leaf);
+                    break;
+                }
+                Node child = node.children[index];
+                int common = commonPrefix(child.label, key, i);
+                if (common < child.label.length()) {
+                    // the key ends or diverges inside the edge, split it
+                    Node middle = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    middle.firstChars = new char[]{child.label.charAt(0)};
+                    middle.children = new Node[]{child};
+                    middle.top = child.top;
+                    node.children[index] = middle;
+                    child = middle;
+                }
+                node = child;
+                path.add(node);
+                i += common;
+            }
+            node.terminals = append(node.terminals, completion);
+            for (Node onPath : path) {
+                onPath.offer(completion, k);
+            }
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // returns what was removed, null when the key holds no completion with that id
+    public Completion remove(String key, long id) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(key, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Completion> complete(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Node> path = find(prefix, false);
+            if (path == null) {
+                return List.of();
+            }
+            Completion[] top = path.getLast().top;
+            return List.of(Arrays.copyOf(top, Math.max(0, Math.min(limit, top.length))));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void forEach(Consumer<Completion> consumer) {
+        lock.readLock().lock();
+        try {
+            forEach(root, consumer);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Completion removeLocked(String key, long id) {
+        List<Node> path = find(key, true);
+        if (path == null) {
+            return null;
+        }
+        Node last = path.getLast();
+        Completion removed = null;
+        for (Completion terminal : last.terminals) {
+            if (terminal.id() == id) {
+                removed = terminal;
+            }
+        }
+        if (removed == null) {
+            return null;
+        }
+        last.terminals = without(last.terminals, id);
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            if (i > 0 && node.terminals.length == 0 && node.children.length == 0) {
+                path.get(i - 1).removeChild(node);
+            } else if (i > 0 && node.terminals.length == 0 && node.children.length == 1) {
+                node.absorbOnlyChild();
+            } else if (node.contains(id)) {
+                node.recompute(k);
+            }
+        }
+        size--;
+        return removed;
+    }
+
+    // nodes from the root down; exact requires the key to end on a node, otherwise it may end inside an edge
+    private List<Node> find(String key, boolean exact) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = Arrays.binarySearch(node.firstChars, key.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            node = node.children[index];
+            int common = commonPrefix(node.label, key, i);
+            path.add(node);
+            if (common < node.label.length()) {
+                return !exact && i + common == key.length() ? path : null;
+            }
+            i += common;
+        }
+        return path;
+    }
+
+    private static void forEach(Node node, Consumer<Completion> consumer) {
+        for (Completion terminal : node.terminals) {
+            consumer.accept(terminal);
+        }
+        for (Node child : node.children) {
+            forEach(child, consumer);
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int from) {
+        int max = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Completion[] append(Completion[] completions, Completion completion) {
+        Completion[] result = Arrays.copyOf(completions, completions.length + 1);
+        result[completions.length] = completion;
+        return result;
+    }
+
+    private static Completion[] without(Completion[] completions, long id) {
+        return Arrays.stream(completions).filter(c -> c.id() != id).toArray(Completion[]::new);
+    }
+
+    // children are kept sorted by first character in two plain arrays instead of a map per node
+    private static final class Node {
+        private String label;
+        private char[] firstChars = NO_CHARS;
+        private Node[] children = NO_NODES;
+        private Completion[] terminals = NONE;
+        private Completion[] top = NONE;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private void addChild(int position, Node child) {
+            char[] chars = new char[firstChars.length + 1];
+            Node[] nodes = new Node[children.length + 1];
+            System.arraycopy(firstChars, 0, chars, 0, position);
+            System.arraycopy(children, 0, nodes, 0, position);
+            chars[position] = child.label.charAt(0);
+            nodes[position] = child;
+            System.arraycopy(firstChars, position, chars, position + 1, firstChars.length - position);
+            System.arraycopy(children, position, nodes, position + 1, children.length - position);
+            firstChars = chars;
+            children = nodes;
+        }
+
+        private void removeChild(Node child) {
+            int position = Arrays.binarySearch(firstChars, child.label.charAt(0));
+            char[] chars = new char[firstChars.length - 1];
+            Node[] nodes = new Node[children.length - 1];
+            System.arraycopy(firstChars, 0, chars, 0, position);
+            System.arraycopy(children, 0, nodes, 0, position);
+            System.arraycopy(firstChars, position + 1, chars, position, chars.length - position);
+            System.arraycopy(children, position + 1, nodes, position, nodes.length - position);
+            firstChars = chars;
+            children = nodes;
+        }
+
+        // keeps the trie compressed, a node without completions never has a single child
+        private void absorbOnlyChild() {
+            Node child = children[0];
+            label = label + child.label;
+            firstChars = child.firstChars;
+            children = child.children;
+            terminals = child.terminals;
+            top = child.top;
+        }
+
+        private boolean contains(long id) {
+            for (Completion completion : top) {
+                if (completion.id() == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void offer(Completion completion, int k) {
+            if (top.length == k && ORDER.compare(completion, top[k - 1]) >= 0) {
+                return;
+            }
+            int position = top.length;
+            while (position > 0 && ORDER.compare(completion, top[position - 1]) < 0) {
+                position--;
+            }
+            Completion[] next = new Completion[Math.min(k, top.length + 1)];
+            System.arraycopy(top, 0, next, 0, position);
+            next[position] = completion;
+            System.arraycopy(top, position, next, position + 1, next.length - position - 1);
+            top = next;
+        }
+
+        // only the children's cached tops can hold the best of this subtree
+        private void recompute(int k) {
+            List<Completion> candidates = new ArrayList<>(Arrays.asList(terminals));
+            for (Node child : children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            candidates.sort(ORDER);
+            top = candidates.subList(0, Math.min(k, candidates.size())).toArray(NONE);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package hr.algebra.common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// members are spread over the ring as many virtual nodes, so adding one takes a roughly equal share of keys
+// from every other member and removing one hands its keys out the same way; immutable, changes return a new ring
+public final class ConsistentHashRing<N> {
+
+    private final int virtualNodes;
+    private final Set<N> members;
+    private final TreeMap<Long, N> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<N> members, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Virtual nodes must be positive: " + virtualNodes);
+        }
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("A ring needs at least one member");
+        }
+        this.virtualNodes = virtualNodes;
+        this.members = new LinkedHashSet<>(members);
+        for (N member : this.members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // on the rare collision the first member keeps the point, every member still has the others
+                ring.putIfAbsent(hash(member + "#" + i), member);
+            }
+        }
+    }
+
+    public N nodeFor(long key) {
+        Map.Entry<Long, N> entry = ring.ceilingEntry(mix(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public ConsistentHashRing<N> with(N member) {
+        Set<N> next = new LinkedHashSet<>(members);
+        next.add(member);
+        return new ConsistentHashRing<>(next, virtualNodes);
+    }
+
+    public ConsistentHashRing<N> without(N member) {
+        Set<N> next = new LinkedHashSet<>(members);
+        next.remove(member);
+        return new ConsistentHashRing<>(next, virtualNodes);
+    }
+
+    public List<N> members() {
+        return List.copyOf(members);
+    }
+
+    public boolean contains(N member) {
+        return members.contains(member);
+    }
+
+    // FNV-1a over the name, finished with the same mix the keys get
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // murmur3 finalizer, neighbouring keys end up far apart on the ring
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
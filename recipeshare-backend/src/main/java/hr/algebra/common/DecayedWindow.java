@@ -0,0 +1,216 @@
+package hr.algebra.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// exponentially decayed scores of keys over a sliding window, kept per key as a ring of one weight per time bucket.
+// a weight is scaled up by how long after the landmark it happened (forward decay), so an add never touches the
+// older weights and a key's total ranks the same as its decayed score. every advance drops the buckets that slid
+// out of the window, moves the landmark to now and rebuilds the ranking; in between, adds that beat the weakest
+// ranked key update the ranking in place. at most maxKeys keys are tracked: a new key is only given its ring once a
+// count-min sketch saw it admitAfter times, so one-off keys cost a few sketch cells and no memory of their own, and
+// every advance drops the weakest unranked keys to make room again
+public class DecayedWindow {
+
+    private final int buckets;
+    private final long bucketMillis;
+    private final double tauMillis;
+    private final int capacity;
+    private final int maxKeys;
+    private final int admitAfter;
+    // how often keys not tracked yet were added, halved every advance
+    private final CountMinSketch seen;
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    // adds share it, an advance takes it alone
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long landmark;
+    private volatile long newestBucket;
+    private volatile TopK ranking;
+    private volatile double threshold = Double.NEGATIVE_INFINITY;
+
+    // one key's ring, guarded by its own monitor while adds run
+    private static final class Counter {
+        private final double[] weights;
+        private final long[] bucketOf;
+        private double total;
+
+        private Counter(int buckets) {
+            this.weights = new double[buckets];
+            this.bucketOf = new long[buckets];
+            Arrays.fill(bucketOf, Long.MIN_VALUE);
+        }
+    }
+
+    public DecayedWindow(int buckets, long bucketMillis, long halfLifeMillis, int capacity, int maxKeys,
+                         int admitAfter, long now) {
+        if (buckets <= 0 || bucketMillis <= 0 || halfLifeMillis <= 0) {
+            throw new IllegalArgumentException("Buckets, bucket length and half-life must be positive");
+        }
+        if (maxKeys < 2 * capacity) {
+            throw new IllegalArgumentException("Max keys must be at least twice the capacity: " + maxKeys);
+        }
+        this.buckets = buckets;
+        this.bucketMillis = bucketMillis;
+        this.tauMillis = halfLifeMillis / Math.log(2);
+        this.capacity = capacity;
+        this.maxKeys = maxKeys;
+        this.admitAfter = admitAfter;
+        this.seen = new CountMinSketch(Integer.highestOneBit(maxKeys - 1) << 1, 4);
+        this.landmark = now;
+        this.newestBucket = Math.floorDiv(now, bucketMillis);
+        this.ranking = new TopK(capacity);
+    }
+
+    // false when the moment already slid out of the window or the key was not admitted
+    public boolean add(long key, double weight, long at) {
+        return add(key, weight, at, true);
+    }
+
+    // a key known to matter, like a restored score, skips the sketch; it still needs room
+    public boolean seed(long key, double weight, long at) {
+        return add(key, weight, at, false);
+    }
+
+    private boolean add(long key, double weight, long at, boolean throughSketch) {
+        long bucket = Math.floorDiv(at, bucketMillis);
+        lock.readLock().lock();
+        try {
+            if (bucket <= newestBucket - buckets) {
+                return false;
+            }
+            Counter counter = counters.get(key);
+            if (counter == null) {
+                if (throughSketch && seen.add(key, 1) < admitAfter) {
+                    return false;
+                }
+                // concurrent adds of new keys may overshoot by a few, the next advance trims them
+                if (counters.size() >= maxKeys) {
+                    return false;
+                }
+                counter = counters.computeIfAbsent(key, _ -> new Counter(buckets));
+            }
+            double scaled = weight * Math.exp((at - landmark) / tauMillis);
+            double total;
+            synchronized (counter) {
+                int slot = Math.floorMod(bucket, buckets);
+                if (counter.bucketOf[slot] != bucket) {
+                    if (counter.bucketOf[slot] > bucket) {
+                        return false;
+                    }
+                    // the slot still holds a bucket that slid out since the last advance
+                    counter.total -= counter.weights[slot];
+                    counter.weights[slot] = 0;
+                    counter.bucketOf[slot] = bucket;
+                }
+                counter.weights[slot] += scaled;
+                counter.total += scaled;
+                total = counter.total;
+            }
+            if (total > threshold) {
+                TopK current = ranking;
+                current.offer(key, total);
+                threshold = current.threshold();
+            }
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void remove(long key) {
+        lock.readLock().lock();
+        try {
+            counters.remove(key);
+            TopK current = ranking;
+            current.remove(key);
+            threshold = current.threshold();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // totals are rescaled to the new landmark here, which keeps the exponent of an add small
+    public void advance(long now) {
+        lock.writeLock().lock();
+        try {
+            long newest = Math.max(newestBucket, Math.floorDiv(now, bucketMillis));
+            long oldest = newest - buckets + 1;
+            double rescale = Math.exp((landmark - now) / tauMillis);
+            TopK rebuilt = new TopK(capacity);
+            Iterator<Map.Entry<Long, Counter>> entries = counters.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<Long, Counter> entry = entries.next();
+                Counter counter = entry.getValue();
+                double total = 0;
+                for (int slot = 0; slot < buckets; slot++) {
+                    if (counter.bucketOf[slot] < oldest) {
+                        counter.weights[slot] = 0;
+                    } else {
+                        counter.weights[slot] *= rescale;
+                        total += counter.weights[slot];
+                    }
+                }
+                // summed again rather than adjusted, so rounding does not pile up across advances
+                counter.total = total;
+                if (total <= 0) {
+                    entries.remove();
+                } else {
+                    rebuilt.offer(entry.getKey(), total);
+                }
+            }
+            trim(rebuilt);
+            seen.decay();
+            landmark = now;
+            newestBucket = newest;
+            ranking = rebuilt;
+            threshold = rebuilt.threshold();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // scores decayed to now
+    public List<TopK.Ranked> top(int limit, long now) {
+        lock.readLock().lock();
+        try {
+            double decay = Math.exp((landmark - now) / tauMillis);
+            List<TopK.Ranked> top = ranking.top(limit);
+            List<TopK.Ranked> result = new ArrayList<>(top.size());
+            for (TopK.Ranked entry : top) {
+                result.add(new TopK.Ranked(entry.id(), entry.score() * decay));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    // down to nine tenths of maxKeys, the weakest first and never a ranked key
+    private void trim(TopK ranked) {
+        int excess = counters.size() - (maxKeys - maxKeys / 10);
+        if (excess <= 0) {
+            return;
+        }
+        Set<Long> kept = ranked.top(capacity).stream().map(TopK.Ranked::id).collect(Collectors.toSet());
+        counters.entrySet().stream()
+                .filter(entry -> !kept.contains(entry.getKey()))
+                .sorted(Comparator.comparingDouble(entry -> entry.getValue().total))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(counters::remove);
+    }
+}
@@ -0,0 +1,64 @@
+package hr.algebra.common;
+
+import java.util.List;
+
+// the most frequent keys of a stream, counted in a count-min sketch and ranked in a TopK. the ranking's lock is
+// taken only by keys whose estimate beats the weakest ranked one, and by those only some 16 times per doubling of
+// their count, so the long tail and the steady hits of hot keys stay lock free
+public class HeavyHitters {
+
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private volatile TopK ranking;
+    private volatile long threshold;
+
+    public HeavyHitters(int capacity, int width, int depth) {
+        this.sketch = new CountMinSketch(width, depth);
+        this.capacity = capacity;
+        this.ranking = new TopK(capacity);
+    }
+
+    public void add(long key) {
+        add(key, 1);
+    }
+
+    public void add(long key, long count) {
+        long estimate = sketch.add(key, count);
+        if (estimate <= threshold || !due(estimate, count)) {
+            return;
+        }
+        TopK current = ranking;
+        current.offer(key, estimate);
+        if (current.size() >= capacity) {
+            List<TopK.Ranked> top = current.top(capacity);
+            threshold = (long) top.getLast().score();
+        }
+    }
+
+    public List<TopK.Ranked> top(int limit) {
+        return ranking.top(limit);
+    }
+
+    // halves the counts and the ranking with them, a key that stopped being read falls out over a few windows
+    public void decay() {
+        sketch.decay();
+        TopK decayed = new TopK(capacity);
+        for (TopK.Ranked entry : ranking.top(capacity)) {
+            long halved = (long) entry.score() >> 1;
+            if (halved > 0) {
+                decayed.offer(entry.id(), halved);
+            }
+        }
+        ranking = decayed;
+        threshold = decayed.size() >= capacity ? (long) decayed.top(capacity).getLast().score() : 0;
+    }
+
+    // an estimate whose low bits are zero down to its 16th part; a bulk add is always offered
+    private static boolean due(long estimate, long count) {
+        if (count > 1) {
+            return true;
+        }
+        int significant = 64 - Long.numberOfLeadingZeros(estimate);
+        return Long.numberOfTrailingZeros(estimate) >= significant - 5;
+    }
+}
@@ -0,0 +1,89 @@
+package hr.algebra.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// locality-sensitive banding over MinHash signatures: ids sharing any whole band land in the same bucket,
+// so likely near-duplicates are found without comparing against every indexed signature
+public class LshIndex {
+
+    private final int bands;
+    private final int rows;
+    private final Map<Long, Set<Long>> buckets = new HashMap<>();
+    private final Map<Long, int[]> signatures = new HashMap<>();
+
+    public LshIndex(int bands, int rows) {
+        if (bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Bands and rows must be positive: " + bands + "x" + rows);
+        }
+        this.bands = bands;
+        this.rows = rows;
+    }
+
+    public synchronized void add(long id, int[] signature) {
+        requireLength(signature);
+        remove(id);
+        signatures.put(id, signature);
+        for (int band = 0; band < bands; band++) {
+            buckets.computeIfAbsent(bucket(signature, band), _ -> new HashSet<>()).add(id);
+        }
+    }
+
+    public synchronized void remove(long id) {
+        int[] previous = signatures.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (int band = 0; band < bands; band++) {
+            long key = bucket(previous, band);
+            Set<Long> ids = buckets.get(key);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    // indexed ids sharing at least one band with the signature, to be verified by MinHash.similarity
+    public synchronized Set<Long> candidates(int[] signature) {
+        requireLength(signature);
+        Set<Long> result = new HashSet<>();
+        for (int band = 0; band < bands; band++) {
+            Set<Long> ids = buckets.get(bucket(signature, band));
+            if (ids != null) {
+                result.addAll(ids);
+            }
+        }
+        return result;
+    }
+
+    public synchronized int[] signature(long id) {
+        return signatures.get(id);
+    }
+
+    public synchronized List<Long> ids() {
+        return new ArrayList<>(signatures.keySet());
+    }
+
+    public synchronized int size() {
+        return signatures.size();
+    }
+
+    // band number in the high half, so equal row hashes in different bands never share a bucket
+    private long bucket(int[] signature, int band) {
+        long hash = band;
+        for (int r = band * rows; r < (band + 1) * rows; r++) {
+            hash = MinHash.mix(hash * 31 + signature[r]);
+        }
+        return ((long) band << 32) | (hash & 0xFFFFFFFFL);
+    }
+
+    private void requireLength(int[] signature) {
+        if (signature.length != bands * rows) {
+            throw new IllegalArgumentException("Signature length " + signature.length + " is not " + bands + "x" + rows);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package hr.algebra.common;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// fixed-length signatures whose agreement estimates the Jaccard similarity of two shingle sets
+public class MinHash {
+
+    private final long[] multipliers;
+    private final long[] offsets;
+
+    public MinHash(int numHashes, long seed) {
+        if (numHashes <= 0) {
+            throw new IllegalArgumentException("Number of hashes must be positive: " + numHashes);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        multipliers = new long[numHashes];
+        offsets = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            multipliers[i] = random.nextLong() | 1;
+            offsets[i] = random.nextLong();
+        }
+    }
+
+    public int size() {
+        return multipliers.length;
+    }
+
+    public int[] signature(long[] shingles) {
+        int[] signature = new int[multipliers.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (long shingle : shingles) {
+            for (int i = 0; i < signature.length; i++) {
+                int hash = (int) (mix(shingle * multipliers[i] + offsets[i]) >>> 33);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    public static double similarity(int[] a, int[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Signatures differ in length: " + a.length + " vs " + b.length);
+        }
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    // stafford variant 13 of the murmur3 finalizer
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
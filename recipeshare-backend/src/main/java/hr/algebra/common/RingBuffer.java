@@ -0,0 +1,53 @@
+package hr.algebra.common;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// fixed size buffer that overwrites its oldest element, not thread safe
+public class RingBuffer<T> {
+
+    private final Object[] items;
+    private int head;
+    private int size;
+
+    public RingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.items = new Object[capacity];
+    }
+
+    public void add(T item) {
+        items[(head + size) % items.length] = item;
+        if (size < items.length) {
+            size++;
+        } else {
+            head = (head + 1) % items.length;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (T) items[(head + index) % items.length];
+    }
+
+    // oldest first
+    public List<T> toList() {
+        List<T> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(get(i));
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+}
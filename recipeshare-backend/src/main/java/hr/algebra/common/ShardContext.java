@@ -0,0 +1,34 @@
+package hr.algebra.common;
+
+import java.util.function.Supplier;
+
+// the slot and shard the current thread works on, read when a connection is picked and when an id is generated;
+// nothing set means the home shard
+public final class ShardContext {
+
+    public record Route(int slot, String shard) {
+    }
+
+    private static final ThreadLocal<Route> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Route current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T call(Route route, Supplier<T> work) {
+        Route previous = CURRENT.get();
+        CURRENT.set(route);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
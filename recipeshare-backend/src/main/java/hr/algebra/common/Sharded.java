@@ -0,0 +1,12 @@
+package hr.algebra.common;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// entities whose rows are spread over the shards by user, their ids come from ShardedIds once sharding is on
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Sharded {
+}
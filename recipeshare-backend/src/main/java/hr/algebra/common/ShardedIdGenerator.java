@@ -0,0 +1,74 @@
+package hr.algebra.common;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.generator.OnExecutionGenerator;
+import org.hibernate.id.IdentityGenerator;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+import java.util.Map;
+
+// an identity column like before, unless sharding is on and the entity is @Sharded: then the id is made here
+// from the slot of the current ShardContext
+public class ShardedIdGenerator implements OnExecutionGenerator, BeforeExecutionGenerator {
+
+    public static final String ENABLED = "recipeshare.sharding.enabled";
+    public static final String NODE = "recipeshare.sharding.node-id";
+
+    private final IdentityGenerator identity = new IdentityGenerator();
+    private final ShardedIds ids;
+
+    public ShardedIdGenerator(ShardedId config, Member member, GeneratorCreationContext context) {
+        Map<String, Object> settings = context.getServiceRegistry().requireService(ConfigurationService.class).getSettings();
+        boolean enabled = Boolean.parseBoolean(String.valueOf(settings.getOrDefault(ENABLED, "false")));
+        boolean sharded = context.getPersistentClass().getMappedClass().isAnnotationPresent(Sharded.class);
+        this.ids = enabled && sharded
+                ? new ShardedIds(Integer.parseInt(String.valueOf(settings.getOrDefault(NODE, "0"))))
+                : null;
+        if (ids == null) {
+            // the same column flag @GeneratedValue(IDENTITY) sets, so the DDL keeps its identity column
+            context.getProperty().getValue().getColumns().getFirst().setIdentity(true);
+        }
+    }
+
+    @Override
+    public boolean generatedOnExecution() {
+        return ids == null;
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        ShardContext.Route route = ShardContext.current();
+        if (route == null) {
+            throw new IllegalStateException(owner.getClass().getSimpleName() + " inserted outside a shard route");
+        }
+        return ids.next(route.slot());
+    }
+
+    @Override
+    public boolean referenceColumnsInSql(Dialect dialect) {
+        return identity.referenceColumnsInSql(dialect);
+    }
+
+    @Override
+    public boolean writePropertyValue() {
+        return identity.writePropertyValue();
+    }
+
+    @Override
+    public String[] getReferencedColumnValues(Dialect dialect) {
+        return identity.getReferencedColumnValues(dialect);
+    }
+}
@@ -0,0 +1,62 @@
+package hr.algebra.common;
+
+// 64-bit ids that carry the slot of the user their row belongs to, so any id routes to its shard on its own:
+// | 41 bits ms since EPOCH | 10 bits slot | 4 bits node | 8 bits sequence |
+public final class ShardedIds {
+
+    public static final int SLOT_BITS = 10;
+    public static final int SLOTS = 1 << SLOT_BITS;
+    public static final int NODE_BITS = 4;
+    public static final int NODES = 1 << NODE_BITS;
+    private static final int SEQUENCE_BITS = 8;
+    private static final int SEQUENCE_MASK = (1 << SEQUENCE_BITS) - 1;
+    private static final int SLOT_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    private static final int TIME_SHIFT = SLOT_BITS + SLOT_SHIFT;
+    // 2026-01-01T00:00:00Z
+    private static final long EPOCH = 1767225600000L;
+    // database-generated ids from before sharding have no time part and all belong to slot 0
+    private static final long FIRST_SHARDED_ID = 1L << TIME_SHIFT;
+
+    private final int node;
+    private long lastMillis;
+    private int sequence;
+
+    public ShardedIds(int node) {
+        if (node < 0 || node >= NODES) {
+            throw new IllegalArgumentException("Node must be within 0.." + (NODES - 1) + ": " + node);
+        }
+        this.node = node;
+    }
+
+    public static int slotOf(long id) {
+        return id < FIRST_SHARDED_ID ? 0 : (int) ((id >>> SLOT_SHIFT) & (SLOTS - 1));
+    }
+
+    // slotOf as a SQL expression over an id column, plain integer arithmetic so H2 and PostgreSQL agree
+    public static String slotSql(String column) {
+        return "CASE WHEN " + column + " < " + FIRST_SHARDED_ID + " THEN 0 ELSE MOD(" + column + " / "
+                + (1L << SLOT_SHIFT) + ", " + SLOTS + ") END";
+    }
+
+    // unique per node, increasing per node; a clock stepping back keeps counting on the last millisecond
+    public synchronized long next(int slot) {
+        if (slot < 0 || slot >= SLOTS) {
+            throw new IllegalArgumentException("Slot must be within 0.." + (SLOTS - 1) + ": " + slot);
+        }
+        long now = Math.max(System.currentTimeMillis() - EPOCH, lastMillis);
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // this millisecond is used up
+                while (now <= lastMillis) {
+                    Thread.onSpinWait();
+                    now = System.currentTimeMillis() - EPOCH;
+                }
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+        return now << TIME_SHIFT | (long) slot << SLOT_SHIFT | (long) node << SEQUENCE_BITS | sequence;
+    }
+}
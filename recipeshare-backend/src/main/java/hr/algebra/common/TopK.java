@@ -0,0 +1,81 @@
+package hr.algebra.common;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// bounded ranking of ids by score, offer/remove are O(log capacity)
+public class TopK {
+
+    public record Ranked(long id, double score) {
+    }
+
+    private static final Comparator<Ranked> ORDER = Comparator
+            .comparingDouble(Ranked::score).reversed()
+            .thenComparingLong(Ranked::id);
+
+    private final int capacity;
+    private final TreeSet<Ranked> ranked = new TreeSet<>(ORDER);
+    private final Map<Long, Ranked> index = new HashMap<>();
+
+    public TopK(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    public synchronized void offer(long id, double score) {
+        Ranked previous = index.remove(id);
+        if (previous != null) {
+            ranked.remove(previous);
+        }
+        Ranked entry = new Ranked(id, score);
+        if (ranked.size() >= capacity && ORDER.compare(entry, ranked.last()) >= 0) {
+            return;
+        }
+        ranked.add(entry);
+        index.put(id, entry);
+        if (ranked.size() > capacity) {
+            index.remove(ranked.pollLast().id());
+        }
+    }
+
+    public synchronized void remove(long id) {
+        Ranked previous = index.remove(id);
+        if (previous != null) {
+            ranked.remove(previous);
+        }
+    }
+
+    public synchronized List<Ranked> top(int limit) {
+        List<Ranked> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (Ranked entry : ranked) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return ranked.size();
+    }
+
+    // the score a new id has to beat to get in, negative infinity while there is room
+    public synchronized double threshold() {
+        return ranked.size() < capacity ? Double.NEGATIVE_INFINITY : ranked.last().score();
+    }
+
+    // folds another ranking into this one, used when rankings are built in parallel
+    public TopK merge(TopK other) {
+        for (Ranked entry : other.top(other.capacity)) {
+            offer(entry.id(), entry.score());
+        }
+        return this;
+    }
+}
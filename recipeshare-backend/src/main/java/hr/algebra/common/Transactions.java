@@ -0,0 +1,25 @@
+package hr.algebra.common;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// side effects outside the database (caches, indexes, queues) only happen once the change is committed
+public final class Transactions {
+
+    private Transactions() {
+    }
+
+    // runs the action after the current transaction commits, never on rollback; right away without one
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
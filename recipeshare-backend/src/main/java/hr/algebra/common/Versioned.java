@@ -0,0 +1,38 @@
+package hr.algebra.common;
+
+public interface Versioned {
+
+    // no row ever has it, an expected version that can never match
+    long NO_MATCH = -1;
+
+    Long getVersion();
+
+    // the version out of an If-Match value such as "3", W/"3" or the W/"3:12" of a recipe; null only for a
+    // missing header or *, anything else that does not name one version never matches
+    static Long fromETag(String etag) {
+        if (etag == null) {
+            return null;
+        }
+        String value = etag.strip();
+        if (value.isEmpty() || value.equals("*")) {
+            return null;
+        }
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+            return NO_MATCH;
+        }
+        value = value.substring(1, value.length() - 1);
+        int colon = value.indexOf(':');
+        if (colon > 0) {
+            value = value.substring(0, colon);
+        }
+        try {
+            long version = Long.parseLong(value);
+            return version < 0 ? NO_MATCH : version;
+        } catch (NumberFormatException e) {
+            return NO_MATCH;
+        }
+    }
+}
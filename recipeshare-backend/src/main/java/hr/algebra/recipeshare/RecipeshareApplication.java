@@ -2,8 +2,10 @@ package hr.algebra.recipeshare;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class RecipeshareApplication {
 
 	public static void main(String[] args) {
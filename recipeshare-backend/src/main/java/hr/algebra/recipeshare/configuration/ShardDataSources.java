@@ -0,0 +1,57 @@
+package hr.algebra.recipeshare.configuration;
+
+import hr.algebra.common.LoggerSingleton;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// the physical datasource of every shard by name; the home shard is spring.datasource and also keeps
+// every table that is not sharded
+public class ShardDataSources implements AutoCloseable {
+
+    private final String home;
+    private final Map<String, DataSource> dataSources;
+
+    public ShardDataSources(String home, Map<String, DataSource> dataSources) {
+        if (!dataSources.containsKey(home)) {
+            throw new IllegalArgumentException("Home shard has no datasource: " + home);
+        }
+        this.home = home;
+        this.dataSources = new LinkedHashMap<>(dataSources);
+    }
+
+    public String home() {
+        return home;
+    }
+
+    public List<String> names() {
+        return List.copyOf(dataSources.keySet());
+    }
+
+    public DataSource get(String shard) {
+        DataSource dataSource = dataSources.get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        return dataSource;
+    }
+
+    Map<Object, Object> targets() {
+        return new LinkedHashMap<>(dataSources);
+    }
+
+    @Override
+    public void close() {
+        dataSources.forEach((name, dataSource) -> {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    LoggerSingleton.INSTANCE.warn("Closing shard " + name + " failed: " + e.getMessage());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package hr.algebra.recipeshare.configuration;
+
+import hr.algebra.common.ShardContext;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// picks the shard of the current ShardContext when a connection is opened, the home shard without one
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource(ShardDataSources shards) {
+        setTargetDataSources(shards.targets());
+        setDefaultTargetDataSource(shards.get(shards.home()));
+        // a shard name nobody configured must fail, not quietly land on the home shard
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        ShardContext.Route route = ShardContext.current();
+        return route == null ? null : route.shard();
+    }
+}
@@ -0,0 +1,65 @@
+package hr.algebra.recipeshare.configuration;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// spring.datasource becomes the home shard and sharding.datasources.<name> the others; everything that asks for
+// "the" DataSource gets the routing one, which only opens a connection on the first statement, by then the
+// service has set the ShardContext of the user it works for
+@Configuration
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    public ShardDataSources shardDataSources(DataSourceProperties dataSourceProperties, Environment environment,
+                                             @Value("${sharding.home:home}") String home) {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        dataSources.put(home, dataSourceProperties.initializeDataSourceBuilder().build());
+        Binder.get(environment)
+                .bind("sharding.datasources", Bindable.mapOf(String.class, DataSourceProperties.class))
+                .orElse(Map.of())
+                .forEach((name, properties) -> dataSources.put(name, properties.initializeDataSourceBuilder().build()));
+        return new ShardDataSources(home, dataSources);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        return new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(shardDataSources));
+    }
+
+    // the home shard is migrated by the regular liquibase bean, the others get the same changelog here
+    @Bean
+    @ConditionalOnProperty(name = "spring.liquibase.enabled", matchIfMissing = true)
+    public InitializingBean shardMigrations(ShardDataSources shardDataSources, ResourceLoader resourceLoader,
+                                            @Value("${spring.liquibase.change-log}") String changeLog) {
+        return () -> {
+            for (String shard : shardDataSources.names()) {
+                if (shard.equals(shardDataSources.home())) {
+                    continue;
+                }
+                SpringLiquibase liquibase = new SpringLiquibase();
+                liquibase.setDataSource(shardDataSources.get(shard));
+                liquibase.setChangeLog(changeLog);
+                liquibase.setResourceLoader(resourceLoader);
+                liquibase.setChangeLogParameters(Map.of("sharded", "true"));
+                liquibase.afterPropertiesSet();
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.model.ExportJobDto;
+import hr.algebra.recipeshare.service.AccountExportService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping("/api/users")
+public class AccountExportController {
+
+    private static final MediaType ZIP = MediaType.parseMediaType("application/zip");
+
+    private final AccountExportService accountExportService;
+
+    public AccountExportController(AccountExportService accountExportService) {
+        this.accountExportService = accountExportService;
+    }
+
+    // written to the response while it is read from the database, there is no content length up front
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable Long id) {
+        if (!accountExportService.userExists(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(ZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(id))
+                .body(out -> accountExportService.stream(id, out));
+    }
+
+    @PostMapping("/{id}/exports")
+    public ResponseEntity<ExportJobDto> startExport(@PathVariable Long id) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(accountExportService.start(id));
+    }
+
+    @GetMapping("/{id}/exports/{jobId}")
+    public ResponseEntity<ExportJobDto> exportJob(@PathVariable Long id, @PathVariable Long jobId) {
+        return accountExportService.job(id, jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // the finished archive comes from disk, range requests let a broken download continue
+    @GetMapping("/{id}/exports/{jobId}/archive")
+    public ResponseEntity<Resource> archive(@PathVariable Long id, @PathVariable Long jobId) {
+        Path archive = accountExportService.archive(id, jobId);
+        if (archive == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(ZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(id))
+                .body(new FileSystemResource(archive));
+    }
+
+    private static String attachment(Long userId) {
+        return ContentDisposition.attachment().filename("recipeshare-export-" + userId + ".zip").build().toString();
+    }
+}
@@ -0,0 +1,86 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.service.AvatarService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+public class AvatarController {
+
+    private static final String RETRY_AFTER_SECONDS = "30";
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "no-cache";
+    // tomcat writes the file itself with sendfile once the request completes
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final AvatarService avatarService;
+
+    public AvatarController(AvatarService avatarService) {
+        this.avatarService = avatarService;
+    }
+
+    // the raw image is the request body, not a multipart form, so nothing buffers it before the service
+    @PostMapping(value = "/users/{id}/avatar", consumes = {"image/png", "image/jpeg", "image/gif"})
+    public ResponseEntity<Map<String, String>> upload(@PathVariable Long id, InputStream body) throws IOException {
+        AvatarService.Upload upload = avatarService.upload(id, body);
+        return switch (upload.outcome()) {
+            case ACCEPTED -> ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("avatarUrl", upload.avatarUrl()));
+            case TOO_LARGE -> ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE).build();
+            case UNSUPPORTED -> ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+            case BUSY -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .build();
+        };
+    }
+
+    // the bytes go from the file to the socket, through sendfile when the connector offers it
+    // and through a channel transfer otherwise, never into a heap buffer of the whole image
+    @GetMapping("/avatars/{hash}")
+    public void serve(@PathVariable String hash, @RequestParam(required = false) Integer size,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        AvatarService.AvatarFile file = avatarService.file(hash, avatarService.size(size));
+        if (file == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        String etag = "\"" + file.path().getFileName() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, file.immutable() ? IMMUTABLE : REVALIDATE);
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.path())) {
+            long length = channel.size();
+            response.setContentType(file.contentType());
+            response.setContentLengthLong(length);
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, file.path().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, length);
+                return;
+            }
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < length) {
+                position += channel.transferTo(position, length - position, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.recipeshare.service.ChatBroker;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+// one websocket client: frames go into a bounded queue drained by a single sender task,
+// a client whose queue fills up is disconnected instead of holding up the room. deliver runs under the
+// room's lock, so it only marks the connection closed; the socket is closed by the sender task once
+// no drain is running, the session is never used by two threads at once
+final class ChatConnection implements ChatBroker.Subscriber {
+
+    private final WebSocketSession session;
+    private final long userId;
+    private final BlockingQueue<String> outbound;
+    private final Executor sender;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final Set<Long> chats = ConcurrentHashMap.newKeySet();
+    // the first status asked for wins
+    private final AtomicReference<CloseStatus> closeStatus = new AtomicReference<>();
+    private final AtomicBoolean sessionClosed = new AtomicBoolean();
+    private volatile boolean closed;
+
+    ChatConnection(WebSocketSession session, long userId, int queueSize, Executor sender) {
+        this.session = session;
+        this.userId = userId;
+        this.outbound = new ArrayBlockingQueue<>(queueSize);
+        this.sender = sender;
+    }
+
+    @Override
+    public long userId() {
+        return userId;
+    }
+
+    @Override
+    public boolean deliver(String payload) {
+        if (closed) {
+            return false;
+        }
+        if (!outbound.offer(payload)) {
+            LoggerSingleton.INSTANCE.warn("Dropping slow chat connection " + session.getId() + " of user " + userId);
+            close(CloseStatus.SESSION_NOT_RELIABLE);
+            return false;
+        }
+        scheduleDrain();
+        return true;
+    }
+
+    Set<Long> chats() {
+        return chats;
+    }
+
+    // returns right away, the sender task closes the socket
+    void close(CloseStatus status) {
+        closeStatus.compareAndSet(null, status);
+        closed = true;
+        outbound.clear();
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+    }
+
+    // only one drain runs at a time, which is what WebSocketSession.sendMessage requires; the same goes for
+    // closing, so a close is done by the drain after its last send
+    private void drain() {
+        try {
+            String payload;
+            while (!closed && (payload = outbound.poll()) != null) {
+                session.sendMessage(new TextMessage(payload));
+            }
+        } catch (IOException | IllegalStateException e) {
+            closeStatus.compareAndSet(null, CloseStatus.SERVER_ERROR);
+            closed = true;
+            outbound.clear();
+        }
+        try {
+            if (closed) {
+                closeSession();
+            }
+        } finally {
+            draining.set(false);
+        }
+        // a frame or a close that came between the last check and resetting the flag would otherwise wait
+        if (closed ? !sessionClosed.get() : !outbound.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private void closeSession() {
+        if (!sessionClosed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            session.close(closeStatus.get());
+        } catch (IOException e) {
+            LoggerSingleton.INSTANCE.debug("Closing chat connection failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.model.ChatDto;
+import hr.algebra.recipeshare.model.ChatMessageDto;
+import hr.algebra.recipeshare.model.ChatMessageRequest;
+import hr.algebra.recipeshare.service.ChatService;
+import hr.algebra.recipeshare.service.UserService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/chats")
+public class ChatController {
+
+    private final ChatService chatService;
+    private final UserService userService;
+
+    public ChatController(ChatService chatService, UserService userService) {
+        this.chatService = chatService;
+        this.userService = userService;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ChatDto> findById(@PathVariable Long id) {
+        return chatService.findById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<List<ChatDto>> getChatsForUser(@PathVariable Long userId) {
+        return ResponseEntity.ok(chatService.getChatsForUser(userId));
+    }
+
+    @PostMapping
+    public ResponseEntity<ChatDto> create(@RequestBody ChatDto dto) {
+        ChatDto savedDto = chatService.create(dto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(savedDto);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<ChatDto> update(@PathVariable Long id, @RequestBody ChatDto dto) {
+        return ResponseEntity.ok(chatService.update(id, dto));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        chatService.delete(id);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+
+    @PutMapping("/{id}/members/{userId}")
+    public ResponseEntity<Void> addMember(@PathVariable Long id, @PathVariable Long userId) {
+        chatService.addMember(id, userId);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+
+    @DeleteMapping("/{id}/members/{userId}")
+    public ResponseEntity<Void> removeMember(@PathVariable Long id, @PathVariable Long userId) {
+        chatService.removeMember(id, userId);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+
+    @GetMapping("/{id}/messages")
+    public ResponseEntity<List<ChatMessageDto>> getMessages(@PathVariable Long id,
+                                                            @RequestParam(required = false) Long beforeSeq,
+                                                            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(chatService.getMessages(id, beforeSeq, limit));
+    }
+
+    // the sender is whoever the token was issued to, like on the websocket
+    @PostMapping("/{id}/messages")
+    public ResponseEntity<ChatMessageDto> send(@PathVariable Long id, @RequestBody ChatMessageRequest request,
+                                               Principal principal) {
+        Optional<Long> senderId = principal == null
+                ? Optional.empty()
+                : userService.findIdByUsername(principal.getName());
+        if (senderId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        ChatMessageDto sent = chatService.send(id, senderId.get(), request.getBody());
+        return ResponseEntity.status(HttpStatus.CREATED).body(sent);
+    }
+}
@@ -0,0 +1,89 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.filters.ChatHandshakeInterceptor;
+import hr.algebra.recipeshare.model.ChatCommand;
+import hr.algebra.recipeshare.service.ChatBroker;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Component
+public class ChatWebSocketHandler extends TextWebSocketHandler {
+
+    private final ChatBroker chatBroker;
+    private final JsonMapper jsonMapper;
+    private final int outboundQueueSize;
+    // sends block on the socket, virtual threads keep a slow client from pinning a platform thread
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, ChatConnection> connections = new ConcurrentHashMap<>();
+
+    public ChatWebSocketHandler(ChatBroker chatBroker, JsonMapper jsonMapper,
+                                @Value("${chat.outbound-queue-size:256}") int outboundQueueSize) {
+        this.chatBroker = chatBroker;
+        this.jsonMapper = jsonMapper;
+        this.outboundQueueSize = outboundQueueSize;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        Long userId = (Long) session.getAttributes().get(ChatHandshakeInterceptor.USER_ID_ATTRIBUTE);
+        connections.put(session.getId(), new ChatConnection(session, userId, outboundQueueSize, sender));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        ChatConnection connection = connections.get(session.getId());
+        if (connection == null) {
+            return;
+        }
+        ChatCommand command;
+        try {
+            command = jsonMapper.readValue(message.getPayload(), ChatCommand.class);
+        } catch (JacksonException e) {
+            connection.deliver(chatBroker.errorFrame(null, "Malformed frame"));
+            return;
+        }
+        Long chatId = command.getChatId();
+        try {
+            switch (command.getType() == null ? "" : command.getType()) {
+                case "join" -> {
+                    chatBroker.join(connection, chatId, command.getAfterSeq());
+                    connection.chats().add(chatId);
+                }
+                case "send" -> chatBroker.publish(chatId, connection.userId(), command.getBody());
+                case "leave" -> {
+                    chatBroker.leave(connection, chatId);
+                    connection.chats().remove(chatId);
+                }
+                default -> connection.deliver(chatBroker.errorFrame(chatId, "Unknown frame type: " + command.getType()));
+            }
+        } catch (RuntimeException e) {
+            connection.deliver(chatBroker.errorFrame(chatId, e.getMessage()));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        ChatConnection connection = connections.remove(session.getId());
+        if (connection != null) {
+            connection.chats().forEach(chatId -> chatBroker.leave(connection, chatId));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connections.values().forEach(connection -> connection.close(CloseStatus.GOING_AWAY));
+        sender.shutdown();
+    }
+}
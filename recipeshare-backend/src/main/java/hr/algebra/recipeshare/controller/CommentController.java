@@ -0,0 +1,66 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.model.CommentDto;
+import hr.algebra.recipeshare.model.CommentPageDto;
+import hr.algebra.recipeshare.service.CommentService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/recipe/{recipeId}/comments")
+public class CommentController {
+
+    private final CommentService commentService;
+
+    public CommentController(CommentService commentService) {
+        this.commentService = commentService;
+    }
+
+    @GetMapping
+    public ResponseEntity<CommentPageDto> getTopLevel(@PathVariable Long recipeId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(commentService.getTopLevel(recipeId, cursor, limit));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<CommentDto> findById(@PathVariable Long recipeId, @PathVariable Long id) {
+        return commentService.findById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/replies")
+    public ResponseEntity<CommentPageDto> getReplies(@PathVariable Long recipeId, @PathVariable Long id,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(commentService.getReplies(id, cursor, limit));
+    }
+
+    @GetMapping("/{id}/thread")
+    public ResponseEntity<CommentPageDto> getThread(@PathVariable Long recipeId, @PathVariable Long id,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(commentService.getThread(id, cursor, limit));
+    }
+
+    @PostMapping
+    public ResponseEntity<CommentDto> create(@PathVariable Long recipeId, @RequestBody CommentDto dto) {
+        dto.setRecipeId(recipeId);
+        CommentDto savedDto = commentService.create(dto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(savedDto);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<CommentDto> update(@PathVariable Long recipeId, @PathVariable Long id,
+                                             @RequestBody CommentDto dto) {
+        return ResponseEntity.ok(commentService.update(id, dto));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long recipeId, @PathVariable Long id) {
+        commentService.delete(id);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+}
@@ -0,0 +1,37 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.model.CommentReportRequest;
+import hr.algebra.recipeshare.model.ReportQueueStatsDto;
+import hr.algebra.recipeshare.service.CommentReportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/comment-reports")
+public class CommentReportController {
+
+    private static final String RETRY_AFTER_SECONDS = "30";
+
+    private final CommentReportService commentReportService;
+
+    public CommentReportController(CommentReportService commentReportService) {
+        this.commentReportService = commentReportService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Void> report(@RequestBody CommentReportRequest request) {
+        return switch (commentReportService.report(request.getCommentId(), request.getReporterId(), request.getReason())) {
+            case QUEUED, DUPLICATE -> ResponseEntity.status(HttpStatus.ACCEPTED).build();
+            case REJECTED -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .build();
+        };
+    }
+
+    @GetMapping("/queue")
+    public ResponseEntity<ReportQueueStatsDto> queueStats() {
+        return ResponseEntity.ok(commentReportService.stats());
+    }
+}
@@ -0,0 +1,22 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.model.HotKeysDto;
+import hr.algebra.recipeshare.service.HotKeyService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/hot-keys")
+public class HotKeyController {
+
+    private final HotKeyService hotKeyService;
+
+    public HotKeyController(HotKeyService hotKeyService) {
+        this.hotKeyService = hotKeyService;
+    }
+
+    @GetMapping
+    public ResponseEntity<HotKeysDto> top(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(hotKeyService.top(limit));
+    }
+}
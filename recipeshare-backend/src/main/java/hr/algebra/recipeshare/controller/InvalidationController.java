@@ -0,0 +1,22 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.model.InvalidationStatsDto;
+import hr.algebra.recipeshare.service.InvalidationBus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/invalidations")
+public class InvalidationController {
+
+    private final InvalidationBus invalidationBus;
+
+    public InvalidationController(InvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<InvalidationStatsDto> stats() {
+        return ResponseEntity.ok(invalidationBus.stats());
+    }
+}
@@ -0,0 +1,97 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.model.GeneratedMealPlanDto;
+import hr.algebra.recipeshare.model.MealPlanDto;
+import hr.algebra.recipeshare.model.MealPlanGenerationRequest;
+import hr.algebra.recipeshare.model.ShoppingListDto;
+import hr.algebra.recipeshare.model.MealPlanItemDto;
+import hr.algebra.recipeshare.service.MealPlanGeneratorService;
+import hr.algebra.recipeshare.service.MealPlanItemService;
+import hr.algebra.recipeshare.service.MealPlanService;
+import hr.algebra.recipeshare.service.ShoppingListService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/meal-plans")
+public class MealPlanController {
+
+    private final MealPlanService mealPlanService;
+    private final MealPlanItemService mealPlanItemService;
+    private final MealPlanGeneratorService mealPlanGeneratorService;
+    private final ShoppingListService shoppingListService;
+
+    public MealPlanController(MealPlanService mealPlanService, MealPlanItemService mealPlanItemService,
+                              MealPlanGeneratorService mealPlanGeneratorService,
+                              ShoppingListService shoppingListService) {
+        this.mealPlanService = mealPlanService;
+        this.mealPlanItemService = mealPlanItemService;
+        this.mealPlanGeneratorService = mealPlanGeneratorService;
+        this.shoppingListService = shoppingListService;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<MealPlanDto> findById(@PathVariable Long id) {
+        return mealPlanService.findById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<List<MealPlanDto>> getAllByUserId(@PathVariable Long userId) {
+        return ResponseEntity.ok(mealPlanService.getAllByUserId(userId));
+    }
+
+    @PostMapping
+    public ResponseEntity<MealPlanDto> create(@RequestBody MealPlanDto dto) {
+        MealPlanDto savedDto = mealPlanService.create(dto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(savedDto);
+    }
+
+    @PostMapping("/generate")
+    public ResponseEntity<GeneratedMealPlanDto> generate(@RequestBody MealPlanGenerationRequest request) {
+        return ResponseEntity.ok(mealPlanGeneratorService.generate(request));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<MealPlanDto> update(@PathVariable Long id, @RequestBody MealPlanDto dto) {
+        return ResponseEntity.ok(mealPlanService.update(id, dto));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        mealPlanService.delete(id);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+
+    @GetMapping("/{id}/items")
+    public ResponseEntity<List<MealPlanItemDto>> getItems(@PathVariable Long id) {
+        return ResponseEntity.ok(mealPlanItemService.getItems(id));
+    }
+
+    @PostMapping("/{id}/items")
+    public ResponseEntity<MealPlanItemDto> addItem(@PathVariable Long id, @RequestBody MealPlanItemDto dto) {
+        MealPlanItemDto savedDto = mealPlanItemService.addItem(id, dto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(savedDto);
+    }
+
+    @PutMapping("/{id}/items/{itemId}")
+    public ResponseEntity<MealPlanItemDto> updateItem(@PathVariable Long id, @PathVariable Long itemId,
+                                                      @RequestBody MealPlanItemDto dto) {
+        return ResponseEntity.ok(mealPlanItemService.updateItem(id, itemId, dto));
+    }
+
+    @DeleteMapping("/{id}/items/{itemId}")
+    public ResponseEntity<Void> removeItem(@PathVariable Long id, @PathVariable Long itemId) {
+        mealPlanItemService.removeItem(id, itemId);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+
+    @GetMapping("/{id}/shopping-list")
+    public ResponseEntity<ShoppingListDto> getShoppingList(@PathVariable Long id) {
+        return ResponseEntity.ok(shoppingListService.build(id));
+    }
+}
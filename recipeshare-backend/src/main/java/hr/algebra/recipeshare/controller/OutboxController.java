@@ -0,0 +1,22 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.model.OutboxStatsDto;
+import hr.algebra.recipeshare.service.OutboxRelay;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/outbox")
+public class OutboxController {
+
+    private final OutboxRelay outboxRelay;
+
+    public OutboxController(OutboxRelay outboxRelay) {
+        this.outboxRelay = outboxRelay;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<OutboxStatsDto> stats() {
+        return ResponseEntity.ok(outboxRelay.stats());
+    }
+}
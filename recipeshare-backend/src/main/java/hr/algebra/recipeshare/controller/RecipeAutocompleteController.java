@@ -0,0 +1,25 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.model.AutocompleteSuggestionDto;
+import hr.algebra.recipeshare.service.RecipeAutocompleteService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/recipe")
+public class RecipeAutocompleteController {
+
+    private final RecipeAutocompleteService autocompleteService;
+
+    public RecipeAutocompleteController(RecipeAutocompleteService autocompleteService) {
+        this.autocompleteService = autocompleteService;
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteSuggestionDto>> complete(@RequestParam String q,
+                                                                    @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(autocompleteService.complete(q, limit));
+    }
+}
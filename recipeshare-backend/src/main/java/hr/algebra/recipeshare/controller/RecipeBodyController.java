@@ -0,0 +1,22 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.model.RecipeBodyStatsDto;
+import hr.algebra.recipeshare.service.RecipeBodyStore;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/recipe-bodies")
+public class RecipeBodyController {
+
+    private final RecipeBodyStore recipeBodyStore;
+
+    public RecipeBodyController(RecipeBodyStore recipeBodyStore) {
+        this.recipeBodyStore = recipeBodyStore;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<RecipeBodyStatsDto> stats() {
+        return ResponseEntity.ok(recipeBodyStore.stats());
+    }
+}
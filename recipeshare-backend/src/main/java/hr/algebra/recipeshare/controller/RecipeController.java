@@ -1,13 +1,26 @@
 package hr.algebra.recipeshare.controller;
 
+import hr.algebra.common.Versioned;
 import hr.algebra.recipeshare.mapper.RecipeMapper;
 import hr.algebra.recipeshare.model.RecipeDto;
+import hr.algebra.recipeshare.service.HotKeyService;
+import hr.algebra.recipeshare.service.RecipeBodyStore;
+import hr.algebra.recipeshare.service.RecipeDuplicateService;
 import hr.algebra.recipeshare.service.RecipeService;
+import hr.algebra.recipeshare.service.ResponseBodyCache;
+import hr.algebra.recipeshare.service.TrendingService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.JsonNode;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/recipe")
@@ -15,10 +28,15 @@ public class RecipeController {
 
     private final RecipeService recipeService;
     private final RecipeMapper recipeMapper;
+    private final HotKeyService hotKeyService;
+    private final TrendingService trendingService;
 
-    public RecipeController(RecipeService recipeService, RecipeMapper recipeMapper) {
+    public RecipeController(RecipeService recipeService, RecipeMapper recipeMapper, HotKeyService hotKeyService,
+                            TrendingService trendingService) {
         this.recipeService = recipeService;
         this.recipeMapper = recipeMapper;
+        this.hotKeyService = hotKeyService;
+        this.trendingService = trendingService;
     }
 
     @GetMapping("/users/{id}")
@@ -30,10 +48,38 @@ public class RecipeController {
         return ResponseEntity.ok(recipes);
     }
 
+    // JSON goes out as held by the response cache, cbor and smile are encoded per request
     @GetMapping("/{id}")
-    public ResponseEntity<RecipeDto> findById(@PathVariable Long id) {
+    public ResponseEntity<?> findById(@PathVariable Long id,
+                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (ResponseBodyCache.acceptsJson(accept)) {
+            Optional<ResponseBodyCache.Encoded> encoded = recipeService.findEncoded(id);
+            if (encoded.isPresent()) {
+                viewed(id);
+                return ResponseBodyCache.respond(encoded.get(), acceptEncoding);
+            }
+        }
         return recipeService.findById(id)
-                .map(ResponseEntity::ok)
+                .map(dto -> {
+                    viewed(id);
+                    return ResponseEntity.ok().eTag(eTag(dto)).body(dto);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // one text field as plain utf-8, inflated from the body store straight into the response
+    @GetMapping(value = "/{id}/text/{field}", produces = "text/plain;charset=UTF-8")
+    public ResponseEntity<StreamingResponseBody> text(@PathVariable Long id, @PathVariable String field) {
+        RecipeBodyStore.Field textField;
+        try {
+            textField = RecipeBodyStore.Field.valueOf(field.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return recipeService.findBodyVersion(id)
+                .map(version -> ResponseEntity.ok().eTag(eTag(version))
+                        .body((StreamingResponseBody) out -> recipeService.writeText(id, version, textField, out)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -42,10 +88,29 @@ public class RecipeController {
         return ResponseEntity.ok(recipeService.update(id, dto));
     }
 
+    // application/merge-patch+json, If-Match carries the version from the ETag of the last read
+    @PatchMapping(value = "/{id}", consumes = "application/merge-patch+json")
+    public ResponseEntity<RecipeDto> patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            RecipeDto patched = recipeService.patch(id, patch, Versioned.fromETag(ifMatch));
+            return ResponseEntity.ok().eTag(eTag(patched)).body(patched);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+    }
+
+    // with duplicates.reject-on-create a near-duplicate is refused, naming the recipes it is close to
     @PostMapping
-    public ResponseEntity<RecipeDto> create(@RequestBody RecipeDto dto) {
-        RecipeDto savedDto = recipeService.create(dto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedDto);
+    public ResponseEntity<?> create(@RequestBody RecipeDto dto) {
+        try {
+            RecipeDto savedDto = recipeService.create(dto);
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedDto);
+        } catch (RecipeDuplicateService.DuplicateRecipeException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("duplicates", e.getDuplicates()));
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -54,4 +119,19 @@ public class RecipeController {
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
+    // only recipes that exist count, misses would fill the sketches with ids nobody can open
+    private void viewed(Long id) {
+        hotKeyService.recordRecipe(id);
+        trendingService.onViewed(id);
+    }
+
+    private static String eTag(Long version) {
+        return version == null ? null : String.valueOf(version);
+    }
+
+    // the same weak ETag the response cache gives a recipe, like_count moves without the version
+    private static String eTag(RecipeDto dto) {
+        return dto.getVersion() == null ? null : ResponseBodyCache.weakETag(
+                RecipeService.validator(dto.getVersion(), dto.getLikeCount() == null ? 0 : dto.getLikeCount()));
+    }
 }
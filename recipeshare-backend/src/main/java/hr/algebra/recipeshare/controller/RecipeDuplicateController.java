@@ -0,0 +1,29 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.model.DuplicateReportDto;
+import hr.algebra.recipeshare.service.RecipeDuplicateService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/recipe")
+public class RecipeDuplicateController {
+
+    private final RecipeDuplicateService duplicateService;
+
+    public RecipeDuplicateController(RecipeDuplicateService duplicateService) {
+        this.duplicateService = duplicateService;
+    }
+
+    @GetMapping("/duplicates")
+    public ResponseEntity<DuplicateReportDto> getReport() {
+        return ResponseEntity.ok(duplicateService.getReport());
+    }
+
+    @GetMapping("/{id}/duplicates")
+    public ResponseEntity<List<Long>> duplicatesOf(@PathVariable Long id) {
+        return ResponseEntity.ok(duplicateService.duplicatesOf(id));
+    }
+}
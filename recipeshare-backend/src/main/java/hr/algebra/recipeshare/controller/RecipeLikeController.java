@@ -0,0 +1,34 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.service.RecipeLikeService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/recipe/{id}/likes")
+public class RecipeLikeController {
+
+    private final RecipeLikeService recipeLikeService;
+
+    public RecipeLikeController(RecipeLikeService recipeLikeService) {
+        this.recipeLikeService = recipeLikeService;
+    }
+
+    @GetMapping("/{userId}")
+    public ResponseEntity<Boolean> isLiked(@PathVariable Long id, @PathVariable Long userId) {
+        return ResponseEntity.ok(recipeLikeService.isLiked(id, userId));
+    }
+
+    @PutMapping("/{userId}")
+    public ResponseEntity<Void> like(@PathVariable Long id, @PathVariable Long userId) {
+        recipeLikeService.like(id, userId);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+
+    @DeleteMapping("/{userId}")
+    public ResponseEntity<Void> unlike(@PathVariable Long id, @PathVariable Long userId) {
+        recipeLikeService.unlike(id, userId);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+}
@@ -0,0 +1,44 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.model.CookTimeBucket;
+import hr.algebra.recipeshare.model.LeaderboardEntryDto;
+import hr.algebra.recipeshare.model.RatingRequest;
+import hr.algebra.recipeshare.model.RecipeRatingStatsDto;
+import hr.algebra.recipeshare.service.RatingLeaderboardService;
+import hr.algebra.recipeshare.service.RecipeRatingService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/recipe")
+public class RecipeRatingController {
+
+    private final RecipeRatingService recipeRatingService;
+    private final RatingLeaderboardService leaderboardService;
+
+    public RecipeRatingController(RecipeRatingService recipeRatingService, RatingLeaderboardService leaderboardService) {
+        this.recipeRatingService = recipeRatingService;
+        this.leaderboardService = leaderboardService;
+    }
+
+    @GetMapping("/{id}/ratings")
+    public ResponseEntity<RecipeRatingStatsDto> getStats(@PathVariable Long id) {
+        return recipeRatingService.getStats(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}/ratings/{userId}")
+    public ResponseEntity<RecipeRatingStatsDto> rate(@PathVariable Long id, @PathVariable Long userId,
+                                                     @RequestBody RatingRequest request) {
+        return ResponseEntity.ok(recipeRatingService.rate(id, userId, request.getRating()));
+    }
+
+    @GetMapping("/ratings/top")
+    public ResponseEntity<List<LeaderboardEntryDto>> top(@RequestParam(required = false) CookTimeBucket bucket,
+                                                         @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(leaderboardService.top(bucket, limit));
+    }
+}
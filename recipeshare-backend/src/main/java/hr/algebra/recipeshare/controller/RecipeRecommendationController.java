@@ -0,0 +1,25 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.model.SimilarRecipeDto;
+import hr.algebra.recipeshare.service.RecipeRecommendationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/recipe")
+public class RecipeRecommendationController {
+
+    private final RecipeRecommendationService recommendationService;
+
+    public RecipeRecommendationController(RecipeRecommendationService recommendationService) {
+        this.recommendationService = recommendationService;
+    }
+
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<SimilarRecipeDto>> similar(@PathVariable Long id,
+                                                          @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(recommendationService.similar(id, limit));
+    }
+}
@@ -0,0 +1,22 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.model.ResponseCacheStatsDto;
+import hr.algebra.recipeshare.service.ResponseBodyCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/response-cache")
+public class ResponseCacheController {
+
+    private final ResponseBodyCache responseBodyCache;
+
+    public ResponseCacheController(ResponseBodyCache responseBodyCache) {
+        this.responseBodyCache = responseBodyCache;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<ResponseCacheStatsDto> stats() {
+        return ResponseEntity.ok(responseBodyCache.stats());
+    }
+}
@@ -0,0 +1,37 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.model.ShardStatsDto;
+import hr.algebra.recipeshare.service.ShardRebalancer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/shards")
+public class ShardController {
+
+    private final ShardRebalancer shardRebalancer;
+
+    public ShardController(ShardRebalancer shardRebalancer) {
+        this.shardRebalancer = shardRebalancer;
+    }
+
+    @GetMapping
+    public ResponseEntity<ShardStatsDto> stats() {
+        return ResponseEntity.ok(shardRebalancer.stats());
+    }
+
+    // the body is the new ring, e.g. ["home","shard1","shard2"]; answers once every slot sits where it says
+    @PostMapping("/rebalance")
+    public ResponseEntity<ShardStatsDto> rebalance(@RequestBody List<String> ring) {
+        try {
+            return ResponseEntity.ok(shardRebalancer.rebalance(ring));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
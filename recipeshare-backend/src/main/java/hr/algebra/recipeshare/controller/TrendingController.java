@@ -0,0 +1,23 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.model.TrendingPageDto;
+import hr.algebra.recipeshare.service.TrendingService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/trending")
+public class TrendingController {
+
+    private final TrendingService trendingService;
+
+    public TrendingController(TrendingService trendingService) {
+        this.trendingService = trendingService;
+    }
+
+    @GetMapping
+    public ResponseEntity<TrendingPageDto> page(@RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(trendingService.page(cursor, limit));
+    }
+}
@@ -1,16 +1,27 @@
 package hr.algebra.recipeshare.controller;
 
+import hr.algebra.common.Versioned;
 import hr.algebra.recipeshare.facade.CreateUserWithRecipesRequest;
 import hr.algebra.recipeshare.facade.UserRecipeFacade;
 import hr.algebra.recipeshare.facade.UserWithRecipesDto;
 import hr.algebra.recipeshare.mapper.UserMapper;
+import hr.algebra.recipeshare.model.AvailabilityDto;
+import hr.algebra.recipeshare.model.AvailabilityStatsDto;
 import hr.algebra.recipeshare.model.LoginRequest;
 import hr.algebra.recipeshare.model.LoginResponse;
 import hr.algebra.recipeshare.model.UserDto;
+import hr.algebra.recipeshare.service.HotKeyService;
+import hr.algebra.recipeshare.service.ResponseBodyCache;
+import hr.algebra.recipeshare.service.UserAvailabilityService;
 import hr.algebra.recipeshare.service.UserService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tools.jackson.databind.JsonNode;
+
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/users")
@@ -19,17 +30,40 @@ public class UserController {
     private final UserService userService;
     private final UserRecipeFacade userRecipeFacade;
     private final UserMapper userMapper;
+    private final HotKeyService hotKeyService;
+    private final UserAvailabilityService userAvailabilityService;
 
-    public UserController(UserService userService, UserRecipeFacade userRecipeFacade, UserMapper userMapper) {
+    public UserController(UserService userService, UserRecipeFacade userRecipeFacade, UserMapper userMapper,
+                          HotKeyService hotKeyService, UserAvailabilityService userAvailabilityService) {
         this.userService = userService;
         this.userRecipeFacade = userRecipeFacade;
         this.userMapper = userMapper;
+        this.hotKeyService = hotKeyService;
+        this.userAvailabilityService = userAvailabilityService;
+    }
+
+    // cheap enough to call on every keystroke the register form debounces
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityDto> availability(@RequestParam(required = false) String username,
+                                                        @RequestParam(required = false) String email) {
+        if (username == null && email == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userAvailabilityService.check(username, email));
+    }
+
+    @GetMapping("/availability/stats")
+    public ResponseEntity<AvailabilityStatsDto> availabilityStats() {
+        return ResponseEntity.ok(userAvailabilityService.stats());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<UserDto> findById(@PathVariable Long id) {
         return userService.findById(id)
-                .map(ResponseEntity::ok)
+                .map(dto -> {
+                    hotKeyService.recordUser(id);
+                    return ResponseEntity.ok().eTag(eTag(dto.getVersion())).body(dto);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -38,6 +72,20 @@ public class UserController {
         return ResponseEntity.ok(userService.update(id, dto));
     }
 
+    // application/merge-patch+json, If-Match carries the version from the ETag of the last read
+    @PatchMapping(value = "/{id}", consumes = "application/merge-patch+json")
+    public ResponseEntity<UserDto> patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            UserDto patched = userService.patch(id, patch, Versioned.fromETag(ifMatch));
+            return ResponseEntity.ok().eTag(eTag(patched.getVersion())).body(patched);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+    }
+
     @PostMapping
     public ResponseEntity<UserDto> create(@RequestBody UserDto dto) {
         UserDto savedDto = userService.create(dto);
@@ -56,9 +104,18 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    // JSON goes out as held by the response cache, cbor and smile are encoded per request
     @GetMapping("/{id}/with-recipes")
-    public UserWithRecipesDto getWithRecipes(@PathVariable Long id) {
-        return userRecipeFacade.getUserWithRecipes(id);
+    public ResponseEntity<?> getWithRecipes(@PathVariable Long id,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (ResponseBodyCache.acceptsJson(accept)) {
+            Optional<ResponseBodyCache.Encoded> encoded = userRecipeFacade.findEncodedWithRecipes(id);
+            if (encoded.isPresent()) {
+                return ResponseBodyCache.respond(encoded.get(), acceptEncoding);
+            }
+        }
+        return ResponseEntity.ok(userRecipeFacade.getUserWithRecipes(id));
     }
 
     @PostMapping("/with-recipes")
@@ -66,5 +123,7 @@ public class UserController {
         return userRecipeFacade.createUserWithRecipes(request.getUserDto(), request.getRecipes());
     }
 
+    private static String eTag(Long version) {
+        return version == null ? null : String.valueOf(version);
+    }
 }
-
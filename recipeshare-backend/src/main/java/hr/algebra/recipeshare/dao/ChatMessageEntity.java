@@ -0,0 +1,28 @@
+package hr.algebra.recipeshare.dao;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// rows are written in batches by ChatMessageWriter, never through JPA
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "chat_messages")
+public class ChatMessageEntity {
+
+    @EmbeddedId
+    private ChatMessageId id;
+
+    @Column(name = "sender_id", nullable = false)
+    private Long senderId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Column(name = "sent_at", nullable = false)
+    private Instant sentAt;
+}
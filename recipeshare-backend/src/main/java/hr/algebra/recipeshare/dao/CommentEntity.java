@@ -0,0 +1,42 @@
+package hr.algebra.recipeshare.dao;
+
+import hr.algebra.common.AbstractEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+// recipe, author and parent are plain ids so a page of comments never lazy-loads per row
+@Data
+@Entity
+@SuperBuilder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "comments", indexes = {
+        @Index(name = "idx_comments_recipe_path", columnList = "recipe_id, path"),
+        @Index(name = "idx_comments_recipe_parent_id", columnList = "recipe_id, parent_id, id"),
+        @Index(name = "idx_comments_parent_id", columnList = "parent_id, id")
+})
+@EqualsAndHashCode(callSuper = true)
+public class CommentEntity extends AbstractEntity {
+
+    @Column(name = "recipe_id", nullable = false)
+    private Long recipeId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    @Column(nullable = false)
+    private String path;
+
+    @Column(nullable = false)
+    private Integer depth;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Column(name = "reply_count", nullable = false)
+    private Integer replyCount;
+}
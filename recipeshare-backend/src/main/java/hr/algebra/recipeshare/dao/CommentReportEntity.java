@@ -0,0 +1,38 @@
+package hr.algebra.recipeshare.dao;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+
+import java.time.Instant;
+
+// rows are queued and claimed by CommentReportService through JDBC, never through JPA
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "comment_reports", uniqueConstraints =
+        @UniqueConstraint(name = "uq_comment_reports_comment_reporter", columnNames = {"comment_id", "reporter_id"}))
+public class CommentReportEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "comment_id", nullable = false)
+    private Long commentId;
+
+    @Column(name = "reporter_id", nullable = false)
+    private Long reporterId;
+
+    private String reason;
+
+    @Column(name = "created_at", nullable = false)
+    @CreationTimestamp(source = SourceType.DB)
+    private Instant createdAt;
+
+    @Column(name = "processed_at")
+    private Instant processedAt;
+}
@@ -0,0 +1,57 @@
+package hr.algebra.recipeshare.dao;
+
+import hr.algebra.recipeshare.model.ExportJobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+
+import java.time.Instant;
+
+// the checkpoint columns are advanced by AccountExportService after every flushed page
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "export_jobs", indexes = @Index(name = "idx_export_jobs_user_id", columnList = "user_id"))
+public class ExportJobEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ExportJobStatus status;
+
+    @Column(nullable = false)
+    private Integer section;
+
+    @Column(name = "last_key", nullable = false)
+    private Long lastKey;
+
+    @Column(name = "written_bytes", nullable = false)
+    private Long writtenBytes;
+
+    @Column(name = "exported_rows", nullable = false)
+    private Long exportedRows;
+
+    @Column(name = "archive_bytes")
+    private Long archiveBytes;
+
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    @CreationTimestamp(source = SourceType.DB)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+}
@@ -0,0 +1,73 @@
+package hr.algebra.recipeshare.dao;
+
+import hr.algebra.common.AbstractEntity;
+import hr.algebra.recipeshare.model.Macros;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDate;
+
+// per-day macro totals live on the plan row itself, maintained by MealPlanItemService
+@Data
+@Entity
+@SuperBuilder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "meal_plans", indexes = @Index(name = "idx_meal_plans_user_id", columnList = "user_id"))
+@EqualsAndHashCode(callSuper = true)
+public class MealPlanEntity extends AbstractEntity {
+
+    public static final int DAYS_PER_WEEK = 7;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "start_date")
+    private LocalDate startDate;
+
+    @Column(nullable = false)
+    private Integer days;
+
+    @Column(name = "day_calories", nullable = false)
+    private int[] dayCalories;
+    @Column(name = "day_protein", nullable = false)
+    private int[] dayProtein;
+    @Column(name = "day_fat", nullable = false)
+    private int[] dayFat;
+    @Column(name = "day_carbs", nullable = false)
+    private int[] dayCarbs;
+
+    public void resetTotals() {
+        dayCalories = new int[days];
+        dayProtein = new int[days];
+        dayFat = new int[days];
+        dayCarbs = new int[days];
+    }
+
+    public void apply(int day, Macros delta) {
+        dayCalories[day] += delta.calories();
+        dayProtein[day] += delta.protein();
+        dayFat[day] += delta.fat();
+        dayCarbs[day] += delta.carbs();
+    }
+
+    public Macros getDay(int day) {
+        return new Macros(dayCalories[day], dayProtein[day], dayFat[day], dayCarbs[day]);
+    }
+
+    // sum of days [from, to)
+    public Macros sum(int from, int to) {
+        int calories = 0, protein = 0, fat = 0, carbs = 0;
+        for (int day = from; day < to; day++) {
+            calories += dayCalories[day];
+            protein += dayProtein[day];
+            fat += dayFat[day];
+            carbs += dayCarbs[day];
+        }
+        return new Macros(calories, protein, fat, carbs);
+    }
+}
@@ -0,0 +1,71 @@
+package hr.algebra.recipeshare.dao;
+
+import hr.algebra.recipeshare.model.Macros;
+import hr.algebra.recipeshare.model.MealSlot;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "meal_plan_items", indexes = {
+        @Index(name = "idx_meal_plan_items_plan_day", columnList = "meal_plan_id, day_index"),
+        @Index(name = "idx_meal_plan_items_recipe_id", columnList = "recipe_id")
+})
+public class MealPlanItemEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "meal_plan_id", nullable = false)
+    private Long mealPlanId;
+
+    @Column(name = "recipe_id", nullable = false)
+    private Long recipeId;
+
+    @Column(name = "day_index", nullable = false)
+    private Integer dayIndex;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "meal_slot", nullable = false, length = 20)
+    private MealSlot mealSlot;
+
+    @Column(nullable = false)
+    private Double servings;
+
+    // contribution to the plan totals as of the last change
+    @Column(nullable = false)
+    private int calories;
+    @Column(nullable = false)
+    private int protein;
+    @Column(nullable = false)
+    private int fat;
+    @Column(nullable = false)
+    private int carbs;
+
+    @Column(name = "created_at")
+    @CreationTimestamp(source = SourceType.DB)
+    private Instant createdAt;
+    @Column(name = "updated_at")
+    @UpdateTimestamp(source = SourceType.DB)
+    private Instant updatedAt;
+
+    public Macros getContribution() {
+        return new Macros(calories, protein, fat, carbs);
+    }
+
+    public void setContribution(Macros macros) {
+        calories = macros.calories();
+        protein = macros.protein();
+        fat = macros.fat();
+        carbs = macros.carbs();
+    }
+}
@@ -0,0 +1,51 @@
+package hr.algebra.recipeshare.dao;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+
+import java.time.Instant;
+
+// rows are written and relayed by OutboxRelay through JDBC, never through JPA
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "outbox_events")
+public class OutboxEventEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "aggregate_type", nullable = false, length = 50)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "change_type", nullable = false, length = 20)
+    private String changeType;
+
+    @Column(name = "created_at", nullable = false)
+    @CreationTimestamp(source = SourceType.DB)
+    private Instant createdAt;
+
+    @Column(name = "published_at")
+    private Instant publishedAt;
+
+    @ColumnDefault("0")
+    @Column(name = "attempts", nullable = false, insertable = false)
+    private Integer attempts;
+
+    // lease of the relay delivering the row, or the earliest retry after a failed delivery
+    @Column(name = "claimed_until")
+    private Instant claimedUntil;
+
+    // dead letter: delivery failed max-attempts times and the relay gave up on it
+    @Column(name = "failed_at")
+    private Instant failedAt;
+}
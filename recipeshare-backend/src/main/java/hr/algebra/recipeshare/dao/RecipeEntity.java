@@ -1,18 +1,25 @@
 package hr.algebra.recipeshare.dao;
 
 import hr.algebra.common.AbstractEntity;
+import hr.algebra.common.Sharded;
+import hr.algebra.common.Versioned;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.ColumnDefault;
 
+// updates write only the changed columns, a small edit leaves the large TEXT columns alone
 @Data
 @Entity
 @SuperBuilder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "recipes")
+@Sharded
+@Table(name = "recipes", indexes = @Index(name = "idx_recipes_user_id", columnList = "user_id"))
+@DynamicUpdate
 @EqualsAndHashCode(callSuper = true)
-public class RecipeEntity extends AbstractEntity {
+public class RecipeEntity extends AbstractEntity implements Versioned {
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -37,4 +44,18 @@ public class RecipeEntity extends AbstractEntity {
     private Integer protein;
     private Integer fat;
     private Integer carbs;
+
+    // maintained by RecipeLikeService flushes only
+    @ColumnDefault("0")
+    @Column(name = "like_count", insertable = false, updatable = false)
+    private Long likeCount;
+
+    // null until RecipeDuplicateService has signed the current text
+    @Column(name = "minhash")
+    private int[] minhash;
+
+    // optimistic lock, clients see it as the ETag
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
@@ -0,0 +1,25 @@
+package hr.algebra.recipeshare.dao;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+
+import java.time.Instant;
+
+// rows are written in batches by RecipeLikeService, never through JPA
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "recipe_likes")
+public class RecipeLikeEntity {
+
+    @EmbeddedId
+    private RecipeLikeId id;
+
+    @Column(name = "created_at")
+    @CreationTimestamp(source = SourceType.DB)
+    private Instant createdAt;
+}
@@ -0,0 +1,31 @@
+package hr.algebra.recipeshare.dao;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "recipe_ratings")
+public class RecipeRatingEntity {
+
+    @EmbeddedId
+    private RecipeRatingId id;
+
+    @Column(nullable = false)
+    private Integer rating;
+
+    @Column(name = "created_at")
+    @CreationTimestamp(source = SourceType.DB)
+    private Instant createdAt;
+    @Column(name = "updated_at")
+    @UpdateTimestamp(source = SourceType.DB)
+    private Instant updatedAt;
+}
@@ -0,0 +1,68 @@
+package hr.algebra.recipeshare.dao;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// running aggregates per recipe, kept in step with recipe_ratings by RecipeRatingService
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "recipe_rating_stats")
+public class RecipeRatingStatsEntity {
+
+    public static final int MIN_RATING = 1;
+    public static final int MAX_RATING = 5;
+
+    @Id
+    @Column(name = "recipe_id")
+    private Long recipeId;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    @Column(name = "count_1", nullable = false)
+    private long count1;
+    @Column(name = "count_2", nullable = false)
+    private long count2;
+    @Column(name = "count_3", nullable = false)
+    private long count3;
+    @Column(name = "count_4", nullable = false)
+    private long count4;
+    @Column(name = "count_5", nullable = false)
+    private long count5;
+
+    public double getAverage() {
+        return ratingCount == 0 ? 0 : (double) ratingSum / ratingCount;
+    }
+
+    public long[] getHistogram() {
+        return new long[]{count1, count2, count3, count4, count5};
+    }
+
+    // previous is null for a first-time rating
+    public void apply(Integer previous, int rating) {
+        if (previous != null) {
+            ratingSum -= previous;
+            adjustBucket(previous, -1);
+        } else {
+            ratingCount++;
+        }
+        ratingSum += rating;
+        adjustBucket(rating, 1);
+    }
+
+    private void adjustBucket(int rating, long delta) {
+        switch (rating) {
+            case 1 -> count1 += delta;
+            case 2 -> count2 += delta;
+            case 3 -> count3 += delta;
+            case 4 -> count4 += delta;
+            case 5 -> count5 += delta;
+            default -> throw new IllegalArgumentException("Rating out of range: " + rating);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package hr.algebra.recipeshare.dao;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// rows are replaced in bulk by RecipeRecommendationService through JDBC, never through JPA
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "recipe_similarities")
+public class RecipeSimilarityEntity {
+
+    @Id
+    @Column(name = "recipe_id")
+    private Long recipeId;
+
+    @Column(name = "neighbor_ids", nullable = false)
+    private long[] neighborIds;
+
+    @Column(nullable = false)
+    private float[] scores;
+
+    @Column(name = "computed_at", nullable = false)
+    private Instant computedAt;
+}
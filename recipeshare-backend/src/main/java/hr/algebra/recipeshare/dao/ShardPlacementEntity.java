@@ -0,0 +1,25 @@
+package hr.algebra.recipeshare.dao;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// where each of the ShardedIds slots lives, kept on the home shard and only changed by ShardRebalancer
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "shard_placements")
+public class ShardPlacementEntity {
+
+    @Id
+    private Integer slot;
+
+    @Column(nullable = false, length = 50)
+    private String shard;
+
+    @Column(name = "placed_at", nullable = false)
+    private Instant placedAt;
+}
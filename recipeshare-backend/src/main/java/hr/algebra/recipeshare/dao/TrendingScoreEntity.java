@@ -0,0 +1,26 @@
+package hr.algebra.recipeshare.dao;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// a recipe's trending score as of the last snapshot, kept on the home shard and only written by TrendingService
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "trending_scores")
+public class TrendingScoreEntity {
+
+    @Id
+    @Column(name = "recipe_id")
+    private Long recipeId;
+
+    @Column(nullable = false)
+    private Double score;
+
+    @Column(name = "snapshot_at", nullable = false)
+    private Instant snapshotAt;
+}
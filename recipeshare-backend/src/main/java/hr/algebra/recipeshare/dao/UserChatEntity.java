@@ -0,0 +1,23 @@
+package hr.algebra.recipeshare.dao;
+
+import hr.algebra.common.AbstractEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@Data
+@Entity
+@SuperBuilder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "user_chats")
+@EqualsAndHashCode(callSuper = true)
+public class UserChatEntity extends AbstractEntity {
+
+    // null for direct chats
+    @Column(length = 100)
+    private String name;
+
+    @Column(name = "is_group", nullable = false)
+    private Boolean group;
+}
@@ -0,0 +1,24 @@
+package hr.algebra.recipeshare.dao;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+
+import java.time.Instant;
+
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "user_chat_members", indexes = @Index(name = "idx_user_chat_members_user_id", columnList = "user_id"))
+public class UserChatMemberEntity {
+
+    @EmbeddedId
+    private UserChatMemberId id;
+
+    @Column(name = "joined_at")
+    @CreationTimestamp(source = SourceType.DB)
+    private Instant joinedAt;
+}
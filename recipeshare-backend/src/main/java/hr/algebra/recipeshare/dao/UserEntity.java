@@ -1,18 +1,23 @@
 package hr.algebra.recipeshare.dao;
 
 import hr.algebra.common.AbstractEntity;
+import hr.algebra.common.Sharded;
+import hr.algebra.common.Versioned;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Data
 @Entity
 @SuperBuilder
 @AllArgsConstructor
 @NoArgsConstructor
+@Sharded
 @Table(name = "users")
+@DynamicUpdate
 @EqualsAndHashCode(callSuper = true)
-public class UserEntity extends AbstractEntity {
+public class UserEntity extends AbstractEntity implements Versioned {
 
     @Column(nullable = false, unique = true)
     private String username;
@@ -29,4 +34,8 @@ public class UserEntity extends AbstractEntity {
     @Column(name = "avatar_url")
     private String avatarUrl;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
 }
@@ -0,0 +1,26 @@
+package hr.algebra.recipeshare.dao;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// every username and email in use across the shards, kept on the home shard and only written by UserNameService;
+// a claim has no user until the transaction that wrote the user committed
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "user_names")
+public class UserNameEntity {
+
+    @EmbeddedId
+    private UserNameId id;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "claimed_at", nullable = false)
+    private Instant claimedAt;
+}
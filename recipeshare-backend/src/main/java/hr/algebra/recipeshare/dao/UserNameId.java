@@ -0,0 +1,22 @@
+package hr.algebra.recipeshare.dao;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@Embeddable
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserNameId implements Serializable {
+
+    @Column(nullable = false, length = 10)
+    private String kind;
+
+    @Column(nullable = false)
+    private String name;
+}
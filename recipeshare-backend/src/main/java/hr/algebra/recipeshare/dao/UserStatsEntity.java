@@ -0,0 +1,146 @@
+package hr.algebra.recipeshare.dao;
+
+import hr.algebra.recipeshare.model.CookTimeBucket;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// running aggregates over a user's live recipes, kept in step with recipes by UserStatsService
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "user_stats")
+public class UserStatsEntity {
+
+    // what one recipe adds to its owner's stats
+    public record Contribution(Integer calories, Integer protein, Integer fat, Integer carbs, Integer cookTimeMinutes) {
+
+        public static Contribution of(RecipeEntity recipe) {
+            return new Contribution(recipe.getCalories(), recipe.getProtein(), recipe.getFat(), recipe.getCarbs(),
+                    recipe.getCookTimeMinutes());
+        }
+    }
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "recipe_count", nullable = false)
+    private long recipeCount;
+
+    @Embedded
+    @AttributeOverride(name = "count", column = @Column(name = "calories_count", nullable = false))
+    @AttributeOverride(name = "sum", column = @Column(name = "calories_sum", nullable = false))
+    @AttributeOverride(name = "min", column = @Column(name = "calories_min"))
+    @AttributeOverride(name = "max", column = @Column(name = "calories_max"))
+    @Builder.Default
+    private ValueStats calories = new ValueStats();
+
+    @Embedded
+    @AttributeOverride(name = "count", column = @Column(name = "protein_count", nullable = false))
+    @AttributeOverride(name = "sum", column = @Column(name = "protein_sum", nullable = false))
+    @AttributeOverride(name = "min", column = @Column(name = "protein_min"))
+    @AttributeOverride(name = "max", column = @Column(name = "protein_max"))
+    @Builder.Default
+    private ValueStats protein = new ValueStats();
+
+    @Embedded
+    @AttributeOverride(name = "count", column = @Column(name = "fat_count", nullable = false))
+    @AttributeOverride(name = "sum", column = @Column(name = "fat_sum", nullable = false))
+    @AttributeOverride(name = "min", column = @Column(name = "fat_min"))
+    @AttributeOverride(name = "max", column = @Column(name = "fat_max"))
+    @Builder.Default
+    private ValueStats fat = new ValueStats();
+
+    @Embedded
+    @AttributeOverride(name = "count", column = @Column(name = "carbs_count", nullable = false))
+    @AttributeOverride(name = "sum", column = @Column(name = "carbs_sum", nullable = false))
+    @AttributeOverride(name = "min", column = @Column(name = "carbs_min"))
+    @AttributeOverride(name = "max", column = @Column(name = "carbs_max"))
+    @Builder.Default
+    private ValueStats carbs = new ValueStats();
+
+    @Embedded
+    @AttributeOverride(name = "count", column = @Column(name = "cook_time_count", nullable = false))
+    @AttributeOverride(name = "sum", column = @Column(name = "cook_time_sum", nullable = false))
+    @AttributeOverride(name = "min", column = @Column(name = "cook_time_min"))
+    @AttributeOverride(name = "max", column = @Column(name = "cook_time_max"))
+    @Builder.Default
+    private ValueStats cookTime = new ValueStats();
+
+    // one column per CookTimeBucket
+    @Column(name = "cook_quick", nullable = false)
+    private long cookQuick;
+    @Column(name = "cook_short", nullable = false)
+    private long cookShort;
+    @Column(name = "cook_medium", nullable = false)
+    private long cookMedium;
+    @Column(name = "cook_long", nullable = false)
+    private long cookLong;
+
+    // what a user without a stats row has
+    public static UserStatsEntity empty(Long userId) {
+        return UserStatsEntity.builder().userId(userId).build();
+    }
+
+    public Map<CookTimeBucket, Long> getCookTimeHistogram() {
+        Map<CookTimeBucket, Long> histogram = new EnumMap<>(CookTimeBucket.class);
+        histogram.put(CookTimeBucket.QUICK, cookQuick);
+        histogram.put(CookTimeBucket.SHORT, cookShort);
+        histogram.put(CookTimeBucket.MEDIUM, cookMedium);
+        histogram.put(CookTimeBucket.LONG, cookLong);
+        return histogram;
+    }
+
+    public void add(Contribution recipe) {
+        recipeCount++;
+        calories.add(recipe.calories());
+        protein.add(recipe.protein());
+        fat.add(recipe.fat());
+        carbs.add(recipe.carbs());
+        cookTime.add(recipe.cookTimeMinutes());
+        adjustBucket(recipe.cookTimeMinutes(), 1);
+    }
+
+    // false when a min or max went with the recipe, see recomputeRanges in UserStatsService
+    public boolean remove(Contribution recipe) {
+        recipeCount--;
+        boolean exact = calories.remove(recipe.calories());
+        exact &= protein.remove(recipe.protein());
+        exact &= fat.remove(recipe.fat());
+        exact &= carbs.remove(recipe.carbs());
+        exact &= cookTime.remove(recipe.cookTimeMinutes());
+        adjustBucket(recipe.cookTimeMinutes(), -1);
+        return exact;
+    }
+
+    public void reset() {
+        recipeCount = 0;
+        calories.reset();
+        protein.reset();
+        fat.reset();
+        carbs.reset();
+        cookTime.reset();
+        cookQuick = 0;
+        cookShort = 0;
+        cookMedium = 0;
+        cookLong = 0;
+    }
+
+    private void adjustBucket(Integer cookTimeMinutes, long delta) {
+        CookTimeBucket bucket = CookTimeBucket.of(cookTimeMinutes);
+        if (bucket == null) {
+            return;
+        }
+        switch (bucket) {
+            case QUICK -> cookQuick += delta;
+            case SHORT -> cookShort += delta;
+            case MEDIUM -> cookMedium += delta;
+            case LONG -> cookLong += delta;
+        }
+    }
+}
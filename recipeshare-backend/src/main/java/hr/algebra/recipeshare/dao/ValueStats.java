@@ -0,0 +1,57 @@
+package hr.algebra.recipeshare.dao;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+// count, sum and range of one recipe column over a user's recipes, recipes without a value are not counted
+@Data
+@Embeddable
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ValueStats {
+
+    @Column(nullable = false)
+    private long count;
+    @Column(nullable = false)
+    private long sum;
+    private Integer min;
+    private Integer max;
+
+    public Double getAverage() {
+        return count == 0 ? null : (double) sum / count;
+    }
+
+    public void add(Integer value) {
+        if (value == null) {
+            return;
+        }
+        count++;
+        sum += value;
+        min = min == null ? value : Math.min(min, value);
+        max = max == null ? value : Math.max(max, value);
+    }
+
+    // false when the value was the min or the max, the range is only known again after a recompute
+    public boolean remove(Integer value) {
+        if (value == null) {
+            return true;
+        }
+        count--;
+        sum -= value;
+        if (count == 0) {
+            min = null;
+            max = null;
+            return true;
+        }
+        return !value.equals(min) && !value.equals(max);
+    }
+
+    public void reset() {
+        count = 0;
+        sum = 0;
+        min = null;
+        max = null;
+    }
+}
@@ -0,0 +1,70 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public class AccountExportJdbcRepository {
+
+    // one archive entry each, in archive order; the first column is the key rows are ordered and resumed by.
+    // the user and recipe rows live on the user's shard, the rest on the home shard
+    public enum Section {
+        USER("user.ndjson", true,
+                "SELECT id, username, email, bio, avatar_url, created_at, updated_at FROM users "
+                        + "WHERE id = ? AND id > ? ORDER BY id LIMIT ?"),
+        RECIPES("recipes.ndjson", true,
+                "SELECT id, title, description, ingredients, instructions, cook_time_minutes, "
+                        + "calories, protein, fat, carbs, created_at, updated_at FROM recipes "
+                        + "WHERE user_id = ? AND id > ? AND deleted_at IS NULL ORDER BY id LIMIT ?"),
+        COMMENTS("comments.ndjson", false,
+                "SELECT id, recipe_id, parent_id, body, created_at, updated_at FROM comments "
+                        + "WHERE user_id = ? AND id > ? AND deleted_at IS NULL ORDER BY id LIMIT ?"),
+        LIKES("likes.ndjson", false,
+                "SELECT recipe_id, created_at FROM recipe_likes "
+                        + "WHERE user_id = ? AND recipe_id > ? ORDER BY recipe_id LIMIT ?"),
+        RATINGS("ratings.ndjson", false,
+                "SELECT recipe_id, rating, created_at, updated_at FROM recipe_ratings "
+                        + "WHERE user_id = ? AND recipe_id > ? ORDER BY recipe_id LIMIT ?");
+
+        private final String entryName;
+        private final boolean sharded;
+        private final String sql;
+
+        Section(String entryName, boolean sharded, String sql) {
+            this.entryName = entryName;
+            this.sharded = sharded;
+            this.sql = sql;
+        }
+
+        public String entryName() {
+            return entryName;
+        }
+
+        public boolean sharded() {
+            return sharded;
+        }
+    }
+
+    private static final int FETCH_SIZE = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccountExportJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // forward-only cursor, postgres only honours the fetch size inside a transaction
+    @Transactional(readOnly = true)
+    public void forEachRow(Section section, long userId, long afterKey, int limit, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(section.sql);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setLong(1, userId);
+            ps.setLong(2, afterKey);
+            ps.setInt(3, limit);
+            return ps;
+        }, handler);
+    }
+}
@@ -0,0 +1,49 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import hr.algebra.recipeshare.model.ChatMessageDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+public class ChatMessageJdbcRepository {
+
+    private static final String INSERT_MESSAGE =
+            "INSERT INTO chat_messages (chat_id, seq, sender_id, body, sent_at) VALUES (?, ?, ?, ?, ?) "
+                    + "ON CONFLICT DO NOTHING";
+    private static final String SELECT_BEFORE =
+            "SELECT chat_id, seq, sender_id, body, sent_at FROM chat_messages "
+                    + "WHERE chat_id = ? AND seq < ? ORDER BY seq DESC LIMIT ?";
+
+    private static final RowMapper<ChatMessageDto> ROW_MAPPER = (rs, _) -> ChatMessageDto.builder()
+            .chatId(rs.getLong(1))
+            .seq(rs.getLong(2))
+            .senderId(rs.getLong(3))
+            .body(rs.getString(4))
+            .sentAt(rs.getTimestamp(5).toInstant())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ChatMessageJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertMessages(List<ChatMessageDto> messages) {
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE, messages, messages.size(), (ps, message) -> {
+            ps.setLong(1, message.getChatId());
+            ps.setLong(2, message.getSeq());
+            ps.setLong(3, message.getSenderId());
+            ps.setString(4, message.getBody());
+            ps.setTimestamp(5, Timestamp.from(message.getSentAt()));
+        });
+    }
+
+    // newest first
+    public List<ChatMessageDto> findBefore(long chatId, long beforeSeq, int limit) {
+        return jdbcTemplate.query(SELECT_BEFORE, ROW_MAPPER, chatId, beforeSeq, limit);
+    }
+}
@@ -0,0 +1,31 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import hr.algebra.recipeshare.dao.CommentEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CommentJpaRepository extends JpaRepository<CommentEntity, Long> {
+
+    @Query("select c from CommentEntity c where c.recipeId = :recipeId and c.parentId is null " +
+            "and c.id < :beforeId order by c.id desc")
+    List<CommentEntity> findTopLevel(@Param("recipeId") Long recipeId, @Param("beforeId") Long beforeId, Limit limit);
+
+    @Query("select c from CommentEntity c where c.parentId = :parentId and c.id > :afterId order by c.id")
+    List<CommentEntity> findReplies(@Param("parentId") Long parentId, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("select c from CommentEntity c where c.recipeId = :recipeId " +
+            "and c.path > :afterPath and c.path < :upperPath order by c.path")
+    List<CommentEntity> findPathRange(@Param("recipeId") Long recipeId, @Param("afterPath") String afterPath,
+                                      @Param("upperPath") String upperPath, Limit limit);
+
+    @Modifying
+    @Query("update CommentEntity c set c.replyCount = c.replyCount + 1 where c.id = :id")
+    void incrementReplyCount(@Param("id") Long id);
+}
@@ -0,0 +1,76 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class CommentReportJdbcRepository {
+
+    private static final String INSERT_REPORT =
+            "INSERT INTO comment_reports (comment_id, reporter_id, reason, created_at) VALUES (?, ?, ?, NOW()) "
+                    + "ON CONFLICT DO NOTHING";
+    // concurrent workers skip rows another worker holds instead of queueing behind its lock
+    private static final String CLAIM_PENDING =
+            "SELECT id, comment_id, created_at FROM comment_reports WHERE processed_at IS NULL "
+                    + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String MARK_PROCESSED =
+            "UPDATE comment_reports SET processed_at = NOW() WHERE id = ?";
+    private static final String HIDE_REPORTED_COMMENT =
+            "UPDATE comments SET deleted_at = NOW() WHERE id = ? AND deleted_at IS NULL "
+                    + "AND (SELECT COUNT(*) FROM comment_reports WHERE comment_id = ?) >= ?";
+    private static final String COUNT_PENDING =
+            "SELECT COUNT(*) FROM comment_reports WHERE processed_at IS NULL";
+    private static final String OLDEST_PENDING =
+            "SELECT created_at FROM comment_reports WHERE processed_at IS NULL ORDER BY id LIMIT 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CommentReportJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // false when the reporter already reported the comment
+    public boolean insertReport(long commentId, long reporterId, String reason) {
+        return jdbcTemplate.update(INSERT_REPORT, commentId, reporterId, reason) > 0;
+    }
+
+    // must run inside a transaction, the row locks are held until it commits
+    public List<ClaimedReport> claimPending(int batchSize) {
+        return jdbcTemplate.query(CLAIM_PENDING, (rs, _) -> new ClaimedReport(
+                rs.getLong(1), rs.getLong(2), rs.getTimestamp(3).toInstant()), batchSize);
+    }
+
+    public void markProcessed(List<ClaimedReport> reports) {
+        jdbcTemplate.batchUpdate(MARK_PROCESSED, reports, reports.size(),
+                (ps, report) -> ps.setLong(1, report.id()));
+    }
+
+    // soft deletes every comment that reached the threshold, returns how many were hidden now
+    public int hideReportedComments(List<Long> commentIds, int threshold) {
+        int[][] updated = jdbcTemplate.batchUpdate(HIDE_REPORTED_COMMENT, commentIds, commentIds.size(), (ps, commentId) -> {
+            ps.setLong(1, commentId);
+            ps.setLong(2, commentId);
+            ps.setInt(3, threshold);
+        });
+        return Arrays.stream(updated).flatMapToInt(Arrays::stream).filter(count -> count > 0).sum();
+    }
+
+    public long countPending() {
+        Long count = jdbcTemplate.queryForObject(COUNT_PENDING, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    public Optional<Instant> oldestPending() {
+        return jdbcTemplate.query(OLDEST_PENDING, (rs, _) -> rs.getTimestamp(1))
+                .stream().findFirst().map(Timestamp::toInstant);
+    }
+
+    public record ClaimedReport(long id, long commentId, Instant createdAt) {
+    }
+}
@@ -0,0 +1,68 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import hr.algebra.recipeshare.dao.ExportJobEntity;
+import hr.algebra.recipeshare.model.ExportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExportJobJpaRepository extends JpaRepository<ExportJobEntity, Long> {
+
+    Optional<ExportJobEntity> findFirstByUserIdAndStatusIn(Long userId, Collection<ExportJobStatus> statuses);
+
+    List<ExportJobEntity> findByFinishedAtBefore(Instant cutoff);
+
+    // queued jobs, and running ones whose worker stopped sending heartbeats
+    @Query("select j.id from ExportJobEntity j where j.status = :queued "
+            + "or (j.status = :running and j.updatedAt < :stale) order by j.id")
+    List<Long> findResumable(@Param("queued") ExportJobStatus queued,
+                             @Param("running") ExportJobStatus running,
+                             @Param("stale") Instant stale);
+
+    // 1 for the one worker that gets the job, 0 for everyone else
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ExportJobEntity j set j.status = :running, j.updatedAt = :now where j.id = :id "
+            + "and (j.status = :queued or (j.status = :running and j.updatedAt < :stale))")
+    int claim(@Param("id") Long id,
+              @Param("queued") ExportJobStatus queued,
+              @Param("running") ExportJobStatus running,
+              @Param("now") Instant now,
+              @Param("stale") Instant stale);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ExportJobEntity j set j.section = :section, j.lastKey = :lastKey, j.writtenBytes = :writtenBytes, "
+            + "j.exportedRows = :exportedRows, j.updatedAt = :now where j.id = :id")
+    int checkpoint(@Param("id") Long id,
+                   @Param("section") Integer section,
+                   @Param("lastKey") Long lastKey,
+                   @Param("writtenBytes") Long writtenBytes,
+                   @Param("exportedRows") Long exportedRows,
+                   @Param("now") Instant now);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ExportJobEntity j set j.updatedAt = :now where j.id = :id")
+    int heartbeat(@Param("id") Long id, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ExportJobEntity j set j.status = :status, j.archiveBytes = :archiveBytes, j.error = :error, "
+            + "j.updatedAt = :now, j.finishedAt = :finishedAt where j.id = :id")
+    int finish(@Param("id") Long id,
+               @Param("status") ExportJobStatus status,
+               @Param("archiveBytes") Long archiveBytes,
+               @Param("error") String error,
+               @Param("now") Instant now,
+               @Param("finishedAt") Instant finishedAt);
+}
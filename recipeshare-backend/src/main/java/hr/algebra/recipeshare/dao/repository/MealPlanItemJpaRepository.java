@@ -0,0 +1,20 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import hr.algebra.recipeshare.dao.MealPlanItemEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MealPlanItemJpaRepository extends JpaRepository<MealPlanItemEntity, Long> {
+
+    List<MealPlanItemEntity> findAllByMealPlanIdOrderByDayIndexAscIdAsc(Long mealPlanId);
+
+    List<MealPlanItemEntity> findAllByRecipeIdIn(Collection<Long> recipeIds);
+
+    @Query("select distinct i.recipeId from MealPlanItemEntity i")
+    List<Long> findDistinctRecipeIds();
+}
@@ -0,0 +1,29 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import hr.algebra.recipeshare.dao.MealPlanEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MealPlanJpaRepository extends JpaRepository<MealPlanEntity, Long> {
+
+    List<MealPlanEntity> findAllByUserIdAndDeletedAtIsNullOrderByIdDesc(Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from MealPlanEntity p where p.id = :id")
+    Optional<MealPlanEntity> lockById(@Param("id") Long id);
+
+    // id order so concurrent passes always lock plans in the same sequence
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from MealPlanEntity p where p.id in " +
+            "(select i.mealPlanId from MealPlanItemEntity i where i.recipeId in :recipeIds) order by p.id")
+    List<MealPlanEntity> lockAllContainingRecipes(@Param("recipeIds") Collection<Long> recipeIds);
+}
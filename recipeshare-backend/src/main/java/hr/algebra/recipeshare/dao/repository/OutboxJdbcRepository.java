@@ -0,0 +1,112 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import hr.algebra.common.ChangeType;
+import hr.algebra.recipeshare.model.ChangeEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class OutboxJdbcRepository {
+
+    private static final String INSERT_EVENT =
+            "INSERT INTO outbox_events (aggregate_type, aggregate_id, change_type, created_at) VALUES (?, ?, ?, NOW())";
+    // relays on other nodes skip rows another relay holds instead of queueing behind its lock; rows leased by a
+    // relay that is still delivering them or backing off after a failure are left alone until claimed_until
+    private static final String CLAIM_PENDING =
+            "SELECT id, aggregate_type, aggregate_id, change_type, created_at FROM outbox_events "
+                    + "WHERE published_at IS NULL AND failed_at IS NULL AND (claimed_until IS NULL OR claimed_until <= ?) "
+                    + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String LEASE =
+            "UPDATE outbox_events SET claimed_until = ? WHERE id = ?";
+    private static final String MARK_PUBLISHED =
+            "UPDATE outbox_events SET published_at = NOW() WHERE id = ?";
+    private static final String RELEASE =
+            "UPDATE outbox_events SET claimed_until = NULL WHERE id = ?";
+    private static final String SELECT_ATTEMPTS =
+            "SELECT attempts FROM outbox_events WHERE id = ?";
+    private static final String RETRY_LATER =
+            "UPDATE outbox_events SET attempts = attempts + 1, claimed_until = ? WHERE id = ?";
+    private static final String DEAD_LETTER =
+            "UPDATE outbox_events SET attempts = attempts + 1, failed_at = NOW() WHERE id = ?";
+    private static final String DELETE_PUBLISHED_BEFORE =
+            "DELETE FROM outbox_events WHERE published_at < ?";
+    private static final String COUNT_PENDING =
+            "SELECT COUNT(*) FROM outbox_events WHERE published_at IS NULL AND failed_at IS NULL";
+    private static final String COUNT_DEAD_LETTERS =
+            "SELECT COUNT(*) FROM outbox_events WHERE failed_at IS NOT NULL";
+    private static final String OLDEST_PENDING =
+            "SELECT created_at FROM outbox_events WHERE published_at IS NULL AND failed_at IS NULL ORDER BY id LIMIT 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // joins the caller's transaction, the event commits or rolls back with the change itself
+    public void insert(String aggregateType, long aggregateId, ChangeType type) {
+        jdbcTemplate.update(INSERT_EVENT, aggregateType, aggregateId, type.name());
+    }
+
+    // must run inside a transaction, the row locks only guard the claim itself; once it commits the lease
+    // keeps the rows to the caller until leaseUntil
+    public List<ChangeEvent> claimPending(int batchSize, Instant leaseUntil) {
+        List<ChangeEvent> events = jdbcTemplate.query(CLAIM_PENDING, (rs, _) -> new ChangeEvent(
+                rs.getLong(1), rs.getString(2), rs.getLong(3), ChangeType.valueOf(rs.getString(4)),
+                rs.getTimestamp(5).toInstant()), Timestamp.from(Instant.now()), batchSize);
+        Timestamp until = Timestamp.from(leaseUntil);
+        jdbcTemplate.batchUpdate(LEASE, events, events.size(), (ps, event) -> {
+            ps.setTimestamp(1, until);
+            ps.setLong(2, event.id());
+        });
+        return events;
+    }
+
+    public void markPublished(List<ChangeEvent> events) {
+        jdbcTemplate.batchUpdate(MARK_PUBLISHED, events, events.size(),
+                (ps, event) -> ps.setLong(1, event.id()));
+    }
+
+    // gives the lease back without counting an attempt, the next claim takes the rows again
+    public void release(List<ChangeEvent> events) {
+        jdbcTemplate.batchUpdate(RELEASE, events, events.size(),
+                (ps, event) -> ps.setLong(1, event.id()));
+    }
+
+    public int attempts(long id) {
+        Integer attempts = jdbcTemplate.queryForObject(SELECT_ATTEMPTS, Integer.class, id);
+        return attempts == null ? 0 : attempts;
+    }
+
+    public void retryLater(long id, Instant retryAt) {
+        jdbcTemplate.update(RETRY_LATER, Timestamp.from(retryAt), id);
+    }
+
+    public void deadLetter(long id) {
+        jdbcTemplate.update(DEAD_LETTER, id);
+    }
+
+    public int deletePublishedBefore(Instant cutoff) {
+        return jdbcTemplate.update(DELETE_PUBLISHED_BEFORE, Timestamp.from(cutoff));
+    }
+
+    public long countPending() {
+        Long count = jdbcTemplate.queryForObject(COUNT_PENDING, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    public long countDeadLetters() {
+        Long count = jdbcTemplate.queryForObject(COUNT_DEAD_LETTERS, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    public Optional<Instant> oldestPending() {
+        return jdbcTemplate.query(OLDEST_PENDING, (rs, _) -> rs.getTimestamp(1))
+                .stream().findFirst().map(Timestamp::toInstant);
+    }
+}
@@ -2,11 +2,146 @@ package hr.algebra.recipeshare.dao.repository;
 
 import hr.algebra.recipeshare.dao.RecipeEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RecipeJpaRepository extends JpaRepository<RecipeEntity, Long> {
+
+    interface MacroRow {
+        Long getId();
+        Integer getCalories();
+        Integer getProtein();
+        Integer getFat();
+        Integer getCarbs();
+        Integer getCookTimeMinutes();
+    }
+
+    interface IngredientsRow {
+        Long getId();
+        String getIngredients();
+    }
+
+    interface SignatureRow {
+        Long getId();
+        int[] getMinhash();
+    }
+
+    interface CookTimeRow {
+        Long getId();
+        Integer getCookTimeMinutes();
+    }
+
+    interface TitleRow {
+        Long getId();
+        String getTitle();
+        Long getLikeCount();
+    }
+
+    // everything but the text columns
+    interface HeaderRow {
+        Long getId();
+        Long getUserId();
+        String getTitle();
+        Integer getCookTimeMinutes();
+        Integer getCalories();
+        Integer getProtein();
+        Integer getFat();
+        Integer getCarbs();
+        Long getLikeCount();
+        Long getVersion();
+    }
+
+    interface VersionRow {
+        Long getId();
+        Long getVersion();
+        Long getLikeCount();
+    }
+
+    interface StatsRow {
+        Long getUserId();
+        Integer getCalories();
+        Integer getProtein();
+        Integer getFat();
+        Integer getCarbs();
+        Integer getCookTimeMinutes();
+    }
+
+    interface RangeRow {
+        Integer getMinCalories();
+        Integer getMaxCalories();
+        Integer getMinProtein();
+        Integer getMaxProtein();
+        Integer getMinFat();
+        Integer getMaxFat();
+        Integer getMinCarbs();
+        Integer getMaxCarbs();
+        Integer getMinCookTime();
+        Integer getMaxCookTime();
+    }
+
     List<RecipeEntity> getAllByUserId(Long userId);
-}
\ No newline at end of file
+
+    @Query("select r.id as id, r.version as version, r.likeCount as likeCount from RecipeEntity r " +
+            "where r.user.id = :userId order by r.id")
+    List<VersionRow> findVersionRowsByUserId(@Param("userId") Long userId);
+
+    @Query("select r.id as id, r.user.id as userId, r.title as title, r.cookTimeMinutes as cookTimeMinutes, " +
+            "r.calories as calories, r.protein as protein, r.fat as fat, r.carbs as carbs, " +
+            "r.likeCount as likeCount, r.version as version from RecipeEntity r where r.id = :id")
+    Optional<HeaderRow> findHeaderById(@Param("id") Long id);
+
+    @Query("select r.id as id, r.calories as calories, r.protein as protein, r.fat as fat, r.carbs as carbs, " +
+            "r.cookTimeMinutes as cookTimeMinutes " +
+            "from RecipeEntity r where r.deletedAt is null and r.calories is not null order by r.id")
+    List<MacroRow> findMacroRows();
+
+    @Query("select r.id as id, r.ingredients as ingredients from RecipeEntity r where r.id in :ids")
+    List<IngredientsRow> findIngredientsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select r.id as id, r.minhash as minhash from RecipeEntity r " +
+            "where r.deletedAt is null and r.minhash is not null")
+    List<SignatureRow> findSignatureRows();
+
+    @Query("select r.id as id, r.title as title, r.likeCount as likeCount from RecipeEntity r " +
+            "where r.deletedAt is null and r.title is not null")
+    List<TitleRow> findTitleRows();
+
+    @Query("select r.id as id, r.title as title, r.likeCount as likeCount from RecipeEntity r " +
+            "where r.id in :ids and r.deletedAt is null")
+    List<TitleRow> findTitleRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select r.id as id, r.cookTimeMinutes as cookTimeMinutes from RecipeEntity r " +
+            "where r.id in :ids and r.deletedAt is null")
+    List<CookTimeRow> findCookTimeRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // only the macro columns, a concurrent edit of the recipe text is never overwritten; bumps the version like any
+    // other change and updates nothing once the recipe moved past the version the macros were computed from
+    @Modifying
+    @Query("update RecipeEntity r set r.calories = :calories, r.protein = :protein, r.fat = :fat, r.carbs = :carbs, " +
+            "r.version = r.version + 1 where r.id = :id and r.version = :version")
+    int updateMacros(@Param("id") Long id, @Param("version") Long version, @Param("calories") Integer calories,
+                     @Param("protein") Integer protein, @Param("fat") Integer fat, @Param("carbs") Integer carbs);
+
+    List<RecipeEntity> findTop500ByMinhashIsNullAndDeletedAtIsNullOrderByIdAsc();
+
+    @Query("select r.user.id as userId, r.calories as calories, r.protein as protein, r.fat as fat, " +
+            "r.carbs as carbs, r.cookTimeMinutes as cookTimeMinutes " +
+            "from RecipeEntity r where r.user.id in :userIds and r.deletedAt is null")
+    List<StatsRow> findStatsRowsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    // excluded is a recipe still counted in this transaction that is about to go
+    @Query("select min(r.calories) as minCalories, max(r.calories) as maxCalories, " +
+            "min(r.protein) as minProtein, max(r.protein) as maxProtein, min(r.fat) as minFat, max(r.fat) as maxFat, " +
+            "min(r.carbs) as minCarbs, max(r.carbs) as maxCarbs, " +
+            "min(r.cookTimeMinutes) as minCookTime, max(r.cookTimeMinutes) as maxCookTime " +
+            "from RecipeEntity r where r.user.id = :userId and r.deletedAt is null " +
+            "and (:excluded is null or r.id <> :excluded)")
+    RangeRow findRanges(@Param("userId") Long userId, @Param("excluded") Long excluded);
+}
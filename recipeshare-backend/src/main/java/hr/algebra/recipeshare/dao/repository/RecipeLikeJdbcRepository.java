@@ -0,0 +1,72 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+@Repository
+public class RecipeLikeJdbcRepository {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private static final String SELECT_ALL =
+            "SELECT recipe_id, user_id FROM recipe_likes";
+    private static final String INSERT_LIKE =
+            "INSERT INTO recipe_likes (recipe_id, user_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
+    private static final String DELETE_LIKE =
+            "DELETE FROM recipe_likes WHERE recipe_id = ? AND user_id = ?";
+    private static final String INCREMENT_LIKE_COUNT =
+            "UPDATE recipes SET like_count = like_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RecipeLikeJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // postgres only honours the fetch size inside a transaction
+    @Transactional(readOnly = true)
+    public void forEachLike(BiConsumer<Long, Long> consumer) {
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(SELECT_ALL);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(rs.getLong(1), rs.getLong(2)));
+    }
+
+    // each pair is {recipeId, userId}; the rows each pair inserted or deleted, in the order of the pairs
+    public int[] insertLikes(List<long[]> likes) {
+        return batch(INSERT_LIKE, likes);
+    }
+
+    public int insertLike(long recipeId, long userId) {
+        return jdbcTemplate.update(INSERT_LIKE, recipeId, userId);
+    }
+
+    public int[] deleteLikes(List<long[]> likes) {
+        return batch(DELETE_LIKE, likes);
+    }
+
+    // the rows each entry updated, in the order of entries
+    @Transactional
+    public int[] incrementLikeCounts(List<Map.Entry<Long, Long>> entries) {
+        int[][] updated = jdbcTemplate.batchUpdate(INCREMENT_LIKE_COUNT, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+        });
+        return updated.length == 0 ? new int[0] : updated[0];
+    }
+
+    private int[] batch(String sql, List<long[]> likes) {
+        int[][] rows = jdbcTemplate.batchUpdate(sql, likes, likes.size(), (ps, like) -> {
+            ps.setLong(1, like[0]);
+            ps.setLong(2, like[1]);
+        });
+        return rows.length == 0 ? new int[0] : rows[0];
+    }
+}
@@ -0,0 +1,10 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import hr.algebra.recipeshare.dao.RecipeRatingEntity;
+import hr.algebra.recipeshare.dao.RecipeRatingId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RecipeRatingJpaRepository extends JpaRepository<RecipeRatingEntity, RecipeRatingId> {
+}
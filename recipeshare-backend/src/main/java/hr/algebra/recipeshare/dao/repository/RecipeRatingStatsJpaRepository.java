@@ -0,0 +1,38 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import hr.algebra.recipeshare.dao.RecipeRatingStatsEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RecipeRatingStatsJpaRepository extends JpaRepository<RecipeRatingStatsEntity, Long> {
+
+    interface LeaderboardRow {
+        Long getRecipeId();
+        long getRatingSum();
+        long getRatingCount();
+    }
+
+    @Modifying
+    @Query(value = "INSERT INTO recipe_rating_stats " +
+            "(recipe_id, rating_sum, rating_count, count_1, count_2, count_3, count_4, count_5) " +
+            "VALUES (:recipeId, 0, 0, 0, 0, 0, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    void ensureExists(@Param("recipeId") Long recipeId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from RecipeRatingStatsEntity s where s.recipeId = :recipeId")
+    Optional<RecipeRatingStatsEntity> lockByRecipeId(@Param("recipeId") Long recipeId);
+
+    // the recipes may live on other shards, their cook times are looked up there
+    @Query("select s.recipeId as recipeId, s.ratingSum as ratingSum, s.ratingCount as ratingCount " +
+            "from RecipeRatingStatsEntity s where s.ratingCount >= :minCount")
+    List<LeaderboardRow> findLeaderboardRows(@Param("minCount") long minCount);
+}
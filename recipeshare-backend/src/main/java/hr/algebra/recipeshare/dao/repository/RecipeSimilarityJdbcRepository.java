@@ -0,0 +1,112 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Repository
+public class RecipeSimilarityJdbcRepository {
+
+    @FunctionalInterface
+    public interface InteractionHandler {
+        void accept(long recipeId, long userId, double weight);
+    }
+
+    public record Neighbors(long recipeId, long[] neighborIds, float[] scores) {
+    }
+
+    public record Authorship(long recipeId, long userId) {
+    }
+
+    private static final int FETCH_SIZE = 10_000;
+
+    // a like counts 1, a rating -1..1 around the neutral 3; one row per (recipe, user), recipe-major. both tables are
+    // on the home shard, authorship comes from the recipes on every shard
+    private static final String SELECT_INTERACTIONS =
+            "SELECT i.recipe_id, i.user_id, SUM(i.weight) FROM ("
+                    + "SELECT recipe_id, user_id, CAST(1 AS DOUBLE PRECISION) AS weight FROM recipe_likes "
+                    + "UNION ALL SELECT recipe_id, user_id, (rating - 3) / CAST(2 AS DOUBLE PRECISION) FROM recipe_ratings"
+                    + ") i GROUP BY i.recipe_id, i.user_id "
+                    + "ORDER BY i.recipe_id, i.user_id";
+    private static final String SELECT_AUTHORS =
+            "SELECT id, user_id FROM recipes WHERE deleted_at IS NULL";
+    private static final String SELECT_ALL =
+            "SELECT recipe_id, neighbor_ids, scores FROM recipe_similarities";
+    private static final String DELETE_ALL =
+            "DELETE FROM recipe_similarities";
+    private static final String INSERT_NEIGHBORS =
+            "INSERT INTO recipe_similarities (recipe_id, neighbor_ids, scores, computed_at) VALUES (?, ?, ?, NOW())";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RecipeSimilarityJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // postgres only honours the fetch size inside a transaction
+    @Transactional(readOnly = true)
+    public void forEachInteraction(InteractionHandler handler) {
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(SELECT_INTERACTIONS);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> handler.accept(rs.getLong(1), rs.getLong(2), rs.getDouble(3)));
+    }
+
+    public List<Authorship> findAuthors() {
+        return jdbcTemplate.query(SELECT_AUTHORS, (rs, _) -> new Authorship(rs.getLong(1), rs.getLong(2)));
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachNeighbors(Consumer<Neighbors> consumer) {
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(SELECT_ALL);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            Object[] ids = (Object[]) rs.getArray(2).getArray();
+            Object[] scores = (Object[]) rs.getArray(3).getArray();
+            long[] neighborIds = new long[ids.length];
+            float[] neighborScores = new float[scores.length];
+            for (int i = 0; i < ids.length; i++) {
+                neighborIds[i] = ((Number) ids[i]).longValue();
+                neighborScores[i] = ((Number) scores[i]).floatValue();
+            }
+            consumer.accept(new Neighbors(rs.getLong(1), neighborIds, neighborScores));
+        });
+    }
+
+    // readers see either the previous run or this one, never a mix
+    @Transactional
+    public void replaceAll(List<Neighbors> rows) {
+        jdbcTemplate.update(DELETE_ALL);
+        jdbcTemplate.batchUpdate(INSERT_NEIGHBORS, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.recipeId());
+            ps.setArray(2, bigintArray(ps.getConnection(), row.neighborIds()));
+            ps.setArray(3, realArray(ps.getConnection(), row.scores()));
+        });
+    }
+
+    private static Array bigintArray(Connection con, long[] values) throws SQLException {
+        Long[] boxed = new Long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return con.createArrayOf("bigint", boxed);
+    }
+
+    private static Array realArray(Connection con, float[] values) throws SQLException {
+        Float[] boxed = new Float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return con.createArrayOf("real", boxed);
+    }
+}
@@ -0,0 +1,9 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import hr.algebra.recipeshare.dao.ShardPlacementEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ShardPlacementJpaRepository extends JpaRepository<ShardPlacementEntity, Integer> {
+}
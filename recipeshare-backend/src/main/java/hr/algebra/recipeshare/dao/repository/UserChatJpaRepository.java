@@ -0,0 +1,20 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import hr.algebra.recipeshare.dao.UserChatEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserChatJpaRepository extends JpaRepository<UserChatEntity, Long> {
+
+    @Query("""
+            SELECT c FROM UserChatEntity c, UserChatMemberEntity m
+            WHERE m.id.chatId = c.id AND m.id.userId = :userId AND c.deletedAt IS NULL
+            ORDER BY c.id DESC
+            """)
+    List<UserChatEntity> findAllByMember(@Param("userId") Long userId);
+}
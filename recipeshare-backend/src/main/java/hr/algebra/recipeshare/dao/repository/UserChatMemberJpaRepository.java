@@ -0,0 +1,20 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import hr.algebra.recipeshare.dao.UserChatMemberEntity;
+import hr.algebra.recipeshare.dao.UserChatMemberId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserChatMemberJpaRepository extends JpaRepository<UserChatMemberEntity, UserChatMemberId> {
+
+    @Query("SELECT m.id.userId FROM UserChatMemberEntity m WHERE m.id.chatId = :chatId ORDER BY m.id.userId")
+    List<Long> findUserIdsByChatId(@Param("chatId") Long chatId);
+
+    List<UserChatMemberEntity> findAllByIdChatIdIn(Collection<Long> chatIds);
+}
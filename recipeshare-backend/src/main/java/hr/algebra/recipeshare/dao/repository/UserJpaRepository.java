@@ -1,7 +1,11 @@
 package hr.algebra.recipeshare.dao.repository;
 
 import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.UserStatsEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +14,42 @@ import java.util.Optional;
 @Repository
 public interface UserJpaRepository extends JpaRepository<UserEntity,Long> {
     Optional<UserEntity> findByEmail(String email);
+    Optional<UserEntity> findByUsername(String username);
+
+    interface NameRow {
+        Long getId();
+        String getUsername();
+        String getEmail();
+    }
+
+    interface UserWithStats {
+        UserEntity getUser();
+        UserStatsEntity getStats();
+    }
+
+    // profile and stats in one statement, both by primary key
+    @Query("select u as user, s as stats from UserEntity u left join UserStatsEntity s on s.userId = u.id " +
+            "where u.id = :id")
+    Optional<UserWithStats> findWithStats(@Param("id") Long id);
+
+    @Query("select u.version from UserEntity u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select u.id from UserEntity u where u.deletedAt is null")
+    List<Long> findAllIds();
+
+    // soft deleted users included, their names still hold the unique constraints
+    @Query("select u.id as id, u.username as username, u.email as email from UserEntity u")
+    List<NameRow> findNameRows();
+
+    // served by the lower() expression indexes
+    @Query("select u.id from UserEntity u where lower(u.username) = :username")
+    List<Long> findIdsByLowerUsername(@Param("username") String username);
+
+    @Query("select u.id from UserEntity u where lower(u.email) = :email")
+    List<Long> findIdsByLowerEmail(@Param("email") String email);
+
+    @Modifying
+    @Query("update UserEntity u set u.avatarUrl = :avatarUrl where u.id = :id")
+    int updateAvatarUrl(@Param("id") Long id, @Param("avatarUrl") String avatarUrl);
 }
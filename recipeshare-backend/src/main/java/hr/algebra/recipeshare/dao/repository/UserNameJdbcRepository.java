@@ -0,0 +1,85 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// only ever called on the home shard
+@Repository
+public class UserNameJdbcRepository {
+
+    private static final String INSERT_NAME =
+            "INSERT INTO user_names (kind, name, user_id, claimed_at) VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String ASSIGN_NAME =
+            "UPDATE user_names SET user_id = ? WHERE kind = ? AND name = ? AND user_id IS NULL";
+    private static final String DELETE_UNASSIGNED =
+            "DELETE FROM user_names WHERE kind = ? AND name = ? AND user_id IS NULL";
+    private static final String DELETE_ASSIGNED =
+            "DELETE FROM user_names WHERE kind = ? AND name = ? AND user_id = ?";
+    private static final String SELECT_USER_ID =
+            "SELECT user_id FROM user_names WHERE kind = ? AND name = ? AND user_id IS NOT NULL";
+    private static final String SELECT_BY_USER_ID =
+            "SELECT kind, name FROM user_names WHERE user_id = ?";
+    private static final String SELECT_UNASSIGNED =
+            "SELECT kind, name FROM user_names WHERE user_id IS NULL AND claimed_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserNameJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // 1 when the name was free, 0 when someone holds it; a null user is a claim still waiting for its user
+    public int insert(String kind, String name, Long userId) {
+        return jdbcTemplate.update(INSERT_NAME, kind, name, userId, Timestamp.from(Instant.now()));
+    }
+
+    // each entry is {kind, name, userId}, the rows each one inserted in the same order
+    public int[] insertAll(List<Object[]> names) {
+        Timestamp now = Timestamp.from(Instant.now());
+        int[][] inserted = jdbcTemplate.batchUpdate(INSERT_NAME, names, names.size(), (ps, name) -> {
+            ps.setString(1, (String) name[0]);
+            ps.setString(2, (String) name[1]);
+            ps.setLong(3, (Long) name[2]);
+            ps.setTimestamp(4, now);
+        });
+        return inserted.length == 0 ? new int[0] : inserted[0];
+    }
+
+    public int assign(String kind, String name, long userId) {
+        return jdbcTemplate.update(ASSIGN_NAME, userId, kind, name);
+    }
+
+    public int deleteUnassigned(String kind, String name) {
+        return jdbcTemplate.update(DELETE_UNASSIGNED, kind, name);
+    }
+
+    public int deleteAssigned(String kind, String name, long userId) {
+        return jdbcTemplate.update(DELETE_ASSIGNED, kind, name, userId);
+    }
+
+    public Optional<Long> findUserId(String kind, String name) {
+        return jdbcTemplate.queryForList(SELECT_USER_ID, Long.class, kind, name).stream().findFirst();
+    }
+
+    // kind to name
+    public Map<String, String> findNamesByUserId(long userId) {
+        Map<String, String> names = new HashMap<>();
+        jdbcTemplate.query(SELECT_BY_USER_ID, (RowCallbackHandler) rs -> names.put(rs.getString(1), rs.getString(2)),
+                userId);
+        return names;
+    }
+
+    // each pair is {kind, name}
+    public List<String[]> findUnassigned(Instant claimedBefore) {
+        return jdbcTemplate.query(SELECT_UNASSIGNED, (rs, _) -> new String[]{rs.getString(1), rs.getString(2)},
+                Timestamp.from(claimedBefore));
+    }
+}
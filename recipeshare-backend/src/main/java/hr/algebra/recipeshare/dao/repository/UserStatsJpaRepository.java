@@ -0,0 +1,34 @@
+package hr.algebra.recipeshare.dao.repository;
+
+import hr.algebra.recipeshare.dao.UserStatsEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserStatsJpaRepository extends JpaRepository<UserStatsEntity, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO user_stats " +
+            "(user_id, recipe_count, calories_count, calories_sum, protein_count, protein_sum, fat_count, fat_sum, " +
+            "carbs_count, carbs_sum, cook_time_count, cook_time_sum, cook_quick, cook_short, cook_medium, cook_long) " +
+            "VALUES (:userId, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    void ensureExists(@Param("userId") Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UserStatsEntity s where s.userId = :userId")
+    Optional<UserStatsEntity> lockByUserId(@Param("userId") Long userId);
+
+    // always in id order, so two lockers of overlapping chunks cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UserStatsEntity s where s.userId in :userIds order by s.userId")
+    List<UserStatsEntity> lockAllByUserIdIn(@Param("userIds") Collection<Long> userIds);
+}
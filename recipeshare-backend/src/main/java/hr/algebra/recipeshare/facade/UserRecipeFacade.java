@@ -3,21 +3,26 @@ package hr.algebra.recipeshare.facade;
 import hr.algebra.recipeshare.model.RecipeDto;
 import hr.algebra.recipeshare.model.UserDto;
 import hr.algebra.recipeshare.service.RecipeService;
+import hr.algebra.recipeshare.service.ResponseBodyCache;
 import hr.algebra.recipeshare.service.UserService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class UserRecipeFacade {
 
     private final UserService userService;
     private final RecipeService recipeService;
+    private final ResponseBodyCache responseBodyCache;
 
-    public UserRecipeFacade(UserService userService, RecipeService recipeService) {
+    public UserRecipeFacade(UserService userService, RecipeService recipeService,
+                            ResponseBodyCache responseBodyCache) {
         this.userService = userService;
         this.recipeService = recipeService;
+        this.responseBodyCache = responseBodyCache;
     }
 
     @Transactional
@@ -39,4 +44,11 @@ public class UserRecipeFacade {
         return new UserWithRecipesDto(user, recipes);
     }
 
+    // held under the user's row, good while neither the user nor any of their recipes changed
+    public Optional<ResponseBodyCache.Encoded> findEncodedWithRecipes(Long userId) {
+        return userService.findVersion(userId).flatMap(version -> responseBodyCache.encoded("User", userId,
+                version + "/" + recipeService.listValidator(userId), false,
+                () -> Optional.of(getUserWithRecipes(userId))));
+    }
+
 }
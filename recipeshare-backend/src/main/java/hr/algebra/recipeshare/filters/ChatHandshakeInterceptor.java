@@ -0,0 +1,64 @@
+package hr.algebra.recipeshare.filters;
+
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.service.JwtService;
+import hr.algebra.recipeshare.service.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+import java.util.Optional;
+
+// browsers cannot set headers on a websocket upgrade, so the token may also come as ?token=
+@Component
+@RequiredArgsConstructor
+public class ChatHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String USER_ID_ATTRIBUTE = "userId";
+
+    private final JwtService jwtService;
+    private final UserJpaRepository userJpaRepository;
+    private final ShardRouter shardRouter;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String token = token(request);
+        Optional<UserEntity> user = token != null && jwtService.validateToken(token)
+                ? findByUsername(jwtService.getUsernameFromToken(token))
+                : Optional.empty();
+        if (user.isEmpty()) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        attributes.put(USER_ID_ATTRIBUTE, user.get().getId());
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+        // nothing to clean up
+    }
+
+    private Optional<UserEntity> findByUsername(String username) {
+        return shardRouter.scatter(() -> userJpaRepository.findByUsername(username).stream().toList()).stream()
+                .findFirst();
+    }
+
+    private static String token(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith("Bearer ")) {
+            return header.substring(7);
+        }
+        return UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+    }
+}
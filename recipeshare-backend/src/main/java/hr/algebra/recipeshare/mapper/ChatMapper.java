@@ -0,0 +1,28 @@
+package hr.algebra.recipeshare.mapper;
+
+import hr.algebra.common.GenericMapper;
+import hr.algebra.recipeshare.dao.UserChatEntity;
+import hr.algebra.recipeshare.model.ChatDto;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+@Mapper(componentModel = "spring")
+public interface ChatMapper extends GenericMapper<ChatDto, UserChatEntity> {
+
+    @Override
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    UserChatEntity dtoToEntity(ChatDto dto);
+
+    @Override
+    @Mapping(target = "memberIds", ignore = true)
+    ChatDto toDto(UserChatEntity entity);
+
+    // members change through their own endpoints, only a group name can be edited
+    @Override
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "name")
+    void updateEntityFromDto(ChatDto dto, @MappingTarget UserChatEntity entity);
+}
@@ -0,0 +1,34 @@
+package hr.algebra.recipeshare.mapper;
+
+import hr.algebra.common.GenericMapper;
+import hr.algebra.recipeshare.dao.CommentEntity;
+import hr.algebra.recipeshare.model.CommentDto;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+@Mapper(componentModel = "spring")
+public interface CommentMapper extends GenericMapper<CommentDto, CommentEntity> {
+
+    @Override
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "path", ignore = true)
+    @Mapping(target = "depth", ignore = true)
+    @Mapping(target = "replyCount", ignore = true)
+    CommentEntity dtoToEntity(CommentDto dto);
+
+    @Override
+    @Mapping(target = "deleted", expression = "java(entity.getDeletedAt() != null)")
+    @Mapping(target = "body", expression = "java(entity.getDeletedAt() == null ? entity.getBody() : null)")
+    @Mapping(target = "authorUsername", ignore = true)
+    @Mapping(target = "authorAvatarUrl", ignore = true)
+    CommentDto toDto(CommentEntity entity);
+
+    // only the text of a comment can be edited
+    @Override
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "body")
+    void updateEntityFromDto(CommentDto dto, @MappingTarget CommentEntity entity);
+}
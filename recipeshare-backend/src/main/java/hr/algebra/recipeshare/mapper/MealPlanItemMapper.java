@@ -0,0 +1,39 @@
+package hr.algebra.recipeshare.mapper;
+
+import hr.algebra.common.GenericMapper;
+import hr.algebra.recipeshare.dao.MealPlanItemEntity;
+import hr.algebra.recipeshare.model.MealPlanItemDto;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface MealPlanItemMapper extends GenericMapper<MealPlanItemDto, MealPlanItemEntity> {
+
+    @Override
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "calories", ignore = true)
+    @Mapping(target = "protein", ignore = true)
+    @Mapping(target = "fat", ignore = true)
+    @Mapping(target = "carbs", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    MealPlanItemEntity dtoToEntity(MealPlanItemDto dto);
+
+    @Override
+    MealPlanItemDto toDto(MealPlanItemEntity entity);
+
+    // moving or re-portioning an item, the recipe stays the same
+    @Override
+    @BeanMapping(ignoreByDefault = true, nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "dayIndex")
+    @Mapping(target = "mealSlot")
+    @Mapping(target = "servings")
+    void updateEntityFromDto(MealPlanItemDto dto, @MappingTarget MealPlanItemEntity entity);
+
+    List<MealPlanItemDto> toDtoList(List<MealPlanItemEntity> entities);
+}
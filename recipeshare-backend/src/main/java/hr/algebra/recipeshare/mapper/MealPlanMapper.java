@@ -0,0 +1,60 @@
+package hr.algebra.recipeshare.mapper;
+
+import hr.algebra.common.GenericMapper;
+import hr.algebra.recipeshare.dao.MealPlanEntity;
+import hr.algebra.recipeshare.model.Macros;
+import hr.algebra.recipeshare.model.MealPlanDto;
+import org.mapstruct.AfterMapping;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface MealPlanMapper extends GenericMapper<MealPlanDto, MealPlanEntity> {
+
+    @Override
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "dayCalories", ignore = true)
+    @Mapping(target = "dayProtein", ignore = true)
+    @Mapping(target = "dayFat", ignore = true)
+    @Mapping(target = "dayCarbs", ignore = true)
+    MealPlanEntity dtoToEntity(MealPlanDto dto);
+
+    @Override
+    @Mapping(target = "daily", ignore = true)
+    @Mapping(target = "weekly", ignore = true)
+    @Mapping(target = "total", ignore = true)
+    MealPlanDto toDto(MealPlanEntity entity);
+
+    // the length of a plan is fixed once it has totals
+    @Override
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "name")
+    @Mapping(target = "startDate")
+    void updateEntityFromDto(MealPlanDto dto, @MappingTarget MealPlanEntity entity);
+
+    // a few additions over the stored arrays, no query against the items
+    @AfterMapping
+    default void addTotals(MealPlanEntity entity, @MappingTarget MealPlanDto dto) {
+        if (entity.getDayCalories() == null) {
+            return;
+        }
+        int days = entity.getDays();
+        List<Macros> daily = new ArrayList<>(days);
+        for (int day = 0; day < days; day++) {
+            daily.add(entity.getDay(day));
+        }
+        List<Macros> weekly = new ArrayList<>();
+        for (int from = 0; from < days; from += MealPlanEntity.DAYS_PER_WEEK) {
+            weekly.add(entity.sum(from, Math.min(days, from + MealPlanEntity.DAYS_PER_WEEK)));
+        }
+        dto.setDaily(daily);
+        dto.setWeekly(weekly);
+        dto.setTotal(entity.sum(0, days));
+    }
+}
@@ -15,6 +15,9 @@ public interface RecipeMapper extends GenericMapper<RecipeDto, RecipeEntity> {
 
     @Override
     @Mapping(target = "user", ignore = true)
+    @Mapping(target = "likeCount", ignore = true)
+    @Mapping(target = "minhash", ignore = true)
+    @Mapping(target = "version", ignore = true)
     RecipeEntity dtoToEntity(RecipeDto dto);
 
     @Override
@@ -22,6 +25,9 @@ public interface RecipeMapper extends GenericMapper<RecipeDto, RecipeEntity> {
     RecipeDto toDto(RecipeEntity entity);
 
     @Override
+    @Mapping(target = "likeCount", ignore = true)
+    @Mapping(target = "minhash", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updateEntityFromDto(RecipeDto dto, @MappingTarget RecipeEntity entity);
 
     List<RecipeDto> toDtoList(List<RecipeEntity> entities);
@@ -0,0 +1,13 @@
+package hr.algebra.recipeshare.mapper;
+
+import hr.algebra.recipeshare.dao.RecipeRatingStatsEntity;
+import hr.algebra.recipeshare.model.RecipeRatingStatsDto;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface RecipeRatingStatsMapper {
+
+    @Mapping(target = "count", source = "ratingCount")
+    RecipeRatingStatsDto toDto(RecipeRatingStatsEntity entity);
+}
@@ -12,12 +12,15 @@ public interface UserMapper extends GenericMapper<UserDto, UserEntity> {
 
     @Override
     //@Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     UserEntity dtoToEntity(UserDto dto);
 
     @Override
+    @Mapping(target = "stats", ignore = true)
     UserDto toDto(UserEntity entity);
 
     @Override
+    @Mapping(target = "version", ignore = true)
     void updateEntityFromDto(UserDto dto, @MappingTarget UserEntity entity);
 }
 
@@ -0,0 +1,15 @@
+package hr.algebra.recipeshare.mapper;
+
+import hr.algebra.recipeshare.dao.UserStatsEntity;
+import hr.algebra.recipeshare.dao.ValueStats;
+import hr.algebra.recipeshare.model.UserStatsDto;
+import hr.algebra.recipeshare.model.ValueStatsDto;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface UserStatsMapper {
+
+    UserStatsDto toDto(UserStatsEntity entity);
+
+    ValueStatsDto toDto(ValueStats stats);
+}
@@ -0,0 +1,15 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AutocompleteSuggestionDto {
+    private Long recipeId;
+    private String title;
+}
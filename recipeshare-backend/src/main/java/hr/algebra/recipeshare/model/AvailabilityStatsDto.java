@@ -0,0 +1,23 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityStatsDto {
+    private Boolean ready;
+    private Long bits;
+    private Integer hashes;
+    // answered from the filters alone
+    private Long definitelyFree;
+    private Long lookups;
+    // lookups that found the name free after all
+    private Long falsePositives;
+    private Double expectedUsernameFalsePositiveRate;
+    private Double expectedEmailFalsePositiveRate;
+}
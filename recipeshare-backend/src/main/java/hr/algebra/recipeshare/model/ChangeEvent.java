@@ -0,0 +1,9 @@
+package hr.algebra.recipeshare.model;
+
+import hr.algebra.common.ChangeType;
+
+import java.time.Instant;
+
+// one outbox row as subscribers see it; id grows with every write, a redelivered event keeps its id
+public record ChangeEvent(long id, String aggregateType, long aggregateId, ChangeType type, Instant occurredAt) {
+}
@@ -0,0 +1,16 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// frame sent by a websocket client: join (with the last seq it has seen), send or leave
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatCommand {
+    private String type;
+    private Long chatId;
+    private Long afterSeq;
+    private String body;
+}
@@ -0,0 +1,21 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChatDto {
+    private Long id;
+    private String name;
+    private Boolean group;
+    private List<Long> memberIds;
+    private Instant createdAt;
+}
@@ -0,0 +1,26 @@
+package hr.algebra.recipeshare.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// frame pushed to websocket clients
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChatEvent {
+    public static final String MESSAGE = "message";
+    public static final String JOINED = "joined";
+    public static final String ERROR = "error";
+
+    private String type;
+    private Long chatId;
+    private ChatMessageDto message;
+    // oldest seq still replayable from memory, older history is served by the REST endpoint
+    private Long oldestSeq;
+    private String error;
+}
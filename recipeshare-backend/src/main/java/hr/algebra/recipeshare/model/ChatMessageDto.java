@@ -0,0 +1,20 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChatMessageDto {
+    private Long chatId;
+    private Long seq;
+    private Long senderId;
+    private String body;
+    private Instant sentAt;
+}
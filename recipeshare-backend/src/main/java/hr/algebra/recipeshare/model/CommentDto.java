@@ -0,0 +1,26 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentDto {
+    private Long id;
+    private Long recipeId;
+    private Long userId;
+    private Long parentId;
+    private Integer depth;
+    private String body;
+    private Integer replyCount;
+    private Boolean deleted;
+    private Instant createdAt;
+    private String authorUsername;
+    private String authorAvatarUrl;
+}
@@ -0,0 +1,14 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentReportRequest {
+    private Long commentId;
+    private Long reporterId;
+    private String reason;
+}
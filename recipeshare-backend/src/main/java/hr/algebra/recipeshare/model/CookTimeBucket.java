@@ -0,0 +1,24 @@
+package hr.algebra.recipeshare.model;
+
+public enum CookTimeBucket {
+    QUICK(15), SHORT(30), MEDIUM(60), LONG(Integer.MAX_VALUE);
+
+    private final int maxMinutes;
+
+    CookTimeBucket(int maxMinutes) {
+        this.maxMinutes = maxMinutes;
+    }
+
+    // null when the recipe has no cook time
+    public static CookTimeBucket of(Integer cookTimeMinutes) {
+        if (cookTimeMinutes == null) {
+            return null;
+        }
+        for (CookTimeBucket bucket : values()) {
+            if (cookTimeMinutes <= bucket.maxMinutes) {
+                return bucket;
+            }
+        }
+        return LONG;
+    }
+}
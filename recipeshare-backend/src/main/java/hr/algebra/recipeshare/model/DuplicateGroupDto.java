@@ -0,0 +1,18 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DuplicateGroupDto {
+    private List<Long> recipeIds;
+    // highest estimated Jaccard similarity between two recipes of the group
+    private Double similarity;
+}
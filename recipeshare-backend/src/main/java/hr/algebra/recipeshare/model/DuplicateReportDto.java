@@ -0,0 +1,20 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DuplicateReportDto {
+    // null until the first sweep has run
+    private Instant sweptAt;
+    private Integer recipes;
+    private List<DuplicateGroupDto> groups;
+}
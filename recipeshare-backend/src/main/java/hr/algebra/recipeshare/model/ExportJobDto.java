@@ -0,0 +1,25 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExportJobDto {
+    private Long id;
+    private Long userId;
+    private ExportJobStatus status;
+    private Long exportedRows;
+    private Long archiveBytes;
+    private String error;
+    private Instant createdAt;
+    private Instant finishedAt;
+    // set once the archive is ready
+    private String downloadUrl;
+}
@@ -0,0 +1,5 @@
+package hr.algebra.recipeshare.model;
+
+public enum ExportJobStatus {
+    QUEUED, RUNNING, DONE, FAILED
+}
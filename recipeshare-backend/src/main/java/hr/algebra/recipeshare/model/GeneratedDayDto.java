@@ -0,0 +1,19 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class GeneratedDayDto {
+    private List<Long> recipeIds;
+    private Macros totals;
+    // weighted squared relative distance from the targets, 0 is a perfect day
+    private Double error;
+}
@@ -0,0 +1,20 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class GeneratedMealPlanDto {
+    private List<GeneratedDayDto> days;
+    // false when the time budget ran out and some days were finished greedily
+    private Boolean complete;
+    private Long elapsedMs;
+    private Integer candidates;
+}
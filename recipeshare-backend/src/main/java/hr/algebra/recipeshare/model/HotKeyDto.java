@@ -0,0 +1,16 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class HotKeyDto {
+    private Long id;
+    // reads estimated for the current window, earlier windows counted at half per window
+    private Long score;
+}
@@ -0,0 +1,17 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class HotKeysDto {
+    private List<HotKeyDto> recipes;
+    private List<HotKeyDto> users;
+}
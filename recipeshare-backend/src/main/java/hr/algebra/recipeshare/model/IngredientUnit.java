@@ -0,0 +1,68 @@
+package hr.algebra.recipeshare.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// units an ingredient line can use; each converts to the base unit it is merged in,
+// the first alias is the one shown on a shopping list
+public enum IngredientUnit {
+    G(null, 1, "g", "gr", "gram", "grams"),
+    ML(null, 1, "ml", "milliliter", "milliliters", "millilitre", "millilitres"),
+    PIECE(null, 1, "pcs", "pc", "piece", "pieces"),
+    CLOVE(null, 1, "clove", "cloves"),
+    CAN(null, 1, "can", "cans", "tin", "tins"),
+    SLICE(null, 1, "slice", "slices"),
+    PINCH(null, 1, "pinch", "pinches"),
+    BUNCH(null, 1, "bunch", "bunches"),
+    MG(G, 0.001, "mg"),
+    KG(G, 1000, "kg", "kilo", "kilos", "kilogram", "kilograms"),
+    OZ(G, 28.3495, "oz", "ounce", "ounces"),
+    LB(G, 453.592, "lb", "lbs", "pound", "pounds"),
+    L(ML, 1000, "l", "liter", "liters", "litre", "litres"),
+    DL(ML, 100, "dl"),
+    CL(ML, 10, "cl"),
+    TSP(ML, 5, "tsp", "teaspoon", "teaspoons"),
+    TBSP(ML, 15, "tbsp", "tablespoon", "tablespoons"),
+    CUP(ML, 240, "cup", "cups");
+
+    private static final Map<String, IngredientUnit> BY_ALIAS = new HashMap<>();
+
+    static {
+        for (IngredientUnit unit : values()) {
+            for (String alias : unit.aliases) {
+                BY_ALIAS.put(alias, unit);
+            }
+        }
+    }
+
+    private final IngredientUnit base;
+    private final double factor;
+    private final String[] aliases;
+
+    IngredientUnit(IngredientUnit base, double factor, String... aliases) {
+        this.base = base;
+        this.factor = factor;
+        this.aliases = aliases;
+    }
+
+    // null when the word is not a unit
+    public static IngredientUnit of(String word) {
+        return BY_ALIAS.get(word);
+    }
+
+    public IngredientUnit base() {
+        return base == null ? this : base;
+    }
+
+    public double toBase(double amount) {
+        return amount * factor;
+    }
+
+    public double fromBase(double amount) {
+        return amount / factor;
+    }
+
+    public String symbol() {
+        return aliases[0];
+    }
+}
@@ -0,0 +1,5 @@
+package hr.algebra.recipeshare.model;
+
+// one committed write as caches see it; version is the row's version after the write, -1 when it has none
+public record Invalidation(String aggregateType, long id, long version) {
+}
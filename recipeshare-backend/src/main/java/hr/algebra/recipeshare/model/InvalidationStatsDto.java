@@ -0,0 +1,24 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvalidationStatsDto {
+    private String node;
+    // false on databases without LISTEN/NOTIFY, then only this node's caches are kept in step
+    private Boolean clustered;
+    private Boolean listening;
+    private Long published;
+    private Long notifications;
+    private Long received;
+    private Long batches;
+    private Long fullFlushes;
+    private Long reconnects;
+    private Long dropped;
+}
@@ -0,0 +1,25 @@
+package hr.algebra.recipeshare.model;
+
+// calories, protein, fat and carbs of one portion or of a running total
+public record Macros(int calories, int protein, int fat, int carbs) {
+
+    public static final Macros ZERO = new Macros(0, 0, 0, 0);
+
+    public static Macros of(Integer calories, Integer protein, Integer fat, Integer carbs, double servings) {
+        return new Macros(scale(calories, servings), scale(protein, servings),
+                scale(fat, servings), scale(carbs, servings));
+    }
+
+    public Macros minus(Macros other) {
+        return new Macros(calories - other.calories, protein - other.protein,
+                fat - other.fat, carbs - other.carbs);
+    }
+
+    public boolean isZero() {
+        return calories == 0 && protein == 0 && fat == 0 && carbs == 0;
+    }
+
+    private static int scale(Integer value, double servings) {
+        return value == null ? 0 : (int) Math.round(value * servings);
+    }
+}
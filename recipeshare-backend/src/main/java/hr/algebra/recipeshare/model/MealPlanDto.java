@@ -0,0 +1,25 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MealPlanDto {
+    private Long id;
+    private Long userId;
+    private String name;
+    private LocalDate startDate;
+    private Integer days;
+    // read only, derived from the stored per-day totals
+    private List<Macros> daily;
+    private List<Macros> weekly;
+    private Macros total;
+}
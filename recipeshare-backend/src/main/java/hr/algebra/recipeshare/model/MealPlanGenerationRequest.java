@@ -0,0 +1,20 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealPlanGenerationRequest {
+    // daily targets, a macro left empty is not optimized for
+    private Integer calories;
+    private Integer protein;
+    private Integer fat;
+    private Integer carbs;
+    private Integer days;
+    private Integer mealsPerDay;
+    private Integer maxCookTimeMinutes;
+    private Long timeBudgetMs;
+}
@@ -0,0 +1,24 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MealPlanItemDto {
+    private Long id;
+    private Long mealPlanId;
+    private Long recipeId;
+    private Integer dayIndex;
+    private MealSlot mealSlot;
+    private Double servings;
+    // read only, what the item currently contributes to the plan
+    private Integer calories;
+    private Integer protein;
+    private Integer fat;
+    private Integer carbs;
+}
@@ -0,0 +1,5 @@
+package hr.algebra.recipeshare.model;
+
+public enum MealSlot {
+    BREAKFAST, LUNCH, DINNER, SNACK
+}
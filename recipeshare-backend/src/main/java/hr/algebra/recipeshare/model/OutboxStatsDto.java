@@ -0,0 +1,23 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxStatsDto {
+    private Long pending;
+    // age of the oldest unpublished event, 0 when everything is relayed
+    private Long lagMillis;
+    private Long published;
+    private Long redeliveries;
+    // events the relay gave up on after max-attempts failed deliveries, kept in the outbox for inspection
+    private Long deadLetters;
+    private List<SubscriberStatsDto> subscribers;
+}
@@ -0,0 +1,24 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecipeBodyStatsDto {
+    private Long entries;
+    private Long capacityBytes;
+    // deflated bytes in the slab against the text they hold
+    private Long usedBytes;
+    private Long rawBytes;
+    private Long hits;
+    private Long misses;
+    private Long stored;
+    // bodies not kept because they did not fit or would have overwritten one being read
+    private Long skipped;
+    private Long evicted;
+}
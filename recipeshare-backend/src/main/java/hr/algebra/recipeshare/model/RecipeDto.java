@@ -22,4 +22,6 @@ public class RecipeDto {
     private Integer protein;
     private Integer fat;
     private Integer carbs;
+    private Long likeCount;
+    private Long version;
 }
@@ -0,0 +1,18 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecipeRatingStatsDto {
+    private Long recipeId;
+    private Double average;
+    private Long count;
+    // index 0 holds the number of 1-star ratings
+    private long[] histogram;
+}
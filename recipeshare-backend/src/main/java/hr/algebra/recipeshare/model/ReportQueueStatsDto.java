@@ -0,0 +1,19 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportQueueStatsDto {
+    private Long depth;
+    private Long capacity;
+    // age of the oldest unprocessed report, 0 when the queue is empty
+    private Long lagMillis;
+    private Long processed;
+    private Long hiddenComments;
+}
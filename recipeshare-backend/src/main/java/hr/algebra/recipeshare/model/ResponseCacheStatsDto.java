@@ -0,0 +1,21 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResponseCacheStatsDto {
+    private Long entries;
+    // encoded bytes held, gzipped copies included
+    private Long bytes;
+    private Long maxBytes;
+    private Long hits;
+    private Long misses;
+    private Long evicted;
+    private Long invalidated;
+}
@@ -0,0 +1,24 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShardStatsDto {
+    private List<String> shards;
+    private List<String> ring;
+    // id slots each shard holds right now
+    private Map<String, Long> slots;
+    // slots still placed on another shard than the ring asks for, a rebalance moves them
+    private Long misplaced;
+    // slots the last rebalance moved
+    private Long moved;
+}
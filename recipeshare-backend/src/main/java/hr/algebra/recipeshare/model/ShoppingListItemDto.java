@@ -0,0 +1,18 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShoppingListItemDto {
+    private String name;
+    // both null when no recipe gave a quantity, e.g. "salt to taste"
+    private Double quantity;
+    private String unit;
+    private Integer recipes;
+}
@@ -0,0 +1,16 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SimilarRecipeDto {
+    private Long recipeId;
+    // cosine similarity of who liked, rated and wrote the two recipes
+    private Double score;
+}
@@ -0,0 +1,23 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubscriberStatsDto {
+    private String name;
+    private Long queued;
+    private Long capacity;
+    private Long handled;
+    private Long failed;
+    // deliveries of abandoned batches, not handled since the batch comes again
+    private Long skipped;
+    private Long lastEventId;
+    // from the change being written to this subscriber handling it, for the last event handled
+    private Long lagMillis;
+}
@@ -0,0 +1,18 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrendingPageDto {
+    private List<TrendingRecipeDto> recipes;
+    // null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrendingRecipeDto {
+    private Long id;
+    private String title;
+    private Long likeCount;
+    // weighted views, likes and creation within the window, halving every half-life, as of the feed's render
+    private Double score;
+}
@@ -16,4 +16,7 @@ public class UserDto {
     private String passwordHash;
     private String bio;
     private String avatarUrl;
+    private Long version;
+    // read only, filled on single-user reads from the user_stats row
+    private UserStatsDto stats;
 }
@@ -0,0 +1,23 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserStatsDto {
+    private Long recipeCount;
+    private ValueStatsDto calories;
+    private ValueStatsDto protein;
+    private ValueStatsDto fat;
+    private ValueStatsDto carbs;
+    private ValueStatsDto cookTime;
+    // recipes without a cook time are in no bucket
+    private Map<CookTimeBucket, Long> cookTimeHistogram;
+}
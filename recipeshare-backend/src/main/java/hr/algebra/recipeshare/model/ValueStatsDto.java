@@ -0,0 +1,19 @@
+package hr.algebra.recipeshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ValueStatsDto {
+    // recipes that have the value at all
+    private Long count;
+    private Long sum;
+    private Double average;
+    private Integer min;
+    private Integer max;
+}
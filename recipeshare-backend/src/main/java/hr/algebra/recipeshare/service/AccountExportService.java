@@ -0,0 +1,379 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.common.Transactions;
+import hr.algebra.recipeshare.dao.ExportJobEntity;
+import hr.algebra.recipeshare.dao.repository.AccountExportJdbcRepository;
+import hr.algebra.recipeshare.dao.repository.AccountExportJdbcRepository.Section;
+import hr.algebra.recipeshare.dao.repository.ExportJobJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.model.ExportJobDto;
+import hr.algebra.recipeshare.model.ExportJobStatus;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// "download all my data": a zip with one NDJSON entry per section, written row by row from a JDBC cursor;
+// small accounts stream straight into the response, large ones go through a resumable background job
+@Service
+public class AccountExportService {
+
+    private static final List<ExportJobStatus> UNFINISHED = List.of(ExportJobStatus.QUEUED, ExportJobStatus.RUNNING);
+    private static final int ERROR_LENGTH = 255;
+
+    private final AccountExportJdbcRepository exportRepository;
+    private final ExportJobJpaRepository exportJobRepository;
+    private final UserJpaRepository userJpaRepository;
+    private final ShardRouter shardRouter;
+    private final ObjectWriter ndjsonWriter;
+    private final Path root;
+    private final int pageSize;
+    private final Duration staleAfter;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+    // jobs waiting in or running on this node's executor, so the resume sweep does not queue them twice
+    private final Set<Long> submitted = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopping;
+
+    public AccountExportService(AccountExportJdbcRepository exportRepository,
+                                ExportJobJpaRepository exportJobRepository,
+                                UserJpaRepository userJpaRepository,
+                                ShardRouter shardRouter,
+                                JsonMapper jsonMapper,
+                                @Value("${exports.storage-path:data/exports}") String storagePath,
+                                @Value("${exports.page-size:5000}") int pageSize,
+                                @Value("${exports.workers:1}") int workers,
+                                @Value("${exports.queue-capacity:20}") int queueCapacity,
+                                @Value("${exports.stale-after-ms:300000}") long staleAfterMs,
+                                @Value("${exports.retention-hours:24}") long retentionHours) throws IOException {
+        this.exportRepository = exportRepository;
+        this.exportJobRepository = exportJobRepository;
+        this.userJpaRepository = userJpaRepository;
+        this.shardRouter = shardRouter;
+        // one object per line, and closing a generator leaves the zip or file underneath open
+        this.ndjsonWriter = jsonMapper.writer()
+                .without(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator((String) null);
+        this.root = Files.createDirectories(Path.of(storagePath)).toAbsolutePath();
+        this.pageSize = pageSize;
+        this.staleAfter = Duration.ofMillis(staleAfterMs);
+        this.retention = Duration.ofHours(retentionHours);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public boolean userExists(Long userId) {
+        return shardRouter.read(userId, () -> userJpaRepository.existsById(userId));
+    }
+
+    // a single cursor per entry, nothing of the account is held beyond the row being written
+    public void stream(Long userId, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        for (Section section : Section.values()) {
+            zip.putNextEntry(new ZipEntry(section.entryName()));
+            try (JsonGenerator generator = ndjsonWriter.createGenerator(zip)) {
+                forEachRow(section, userId, 0, Integer.MAX_VALUE, rs -> writeRow(generator, rs));
+            }
+            zip.closeEntry();
+        }
+        zip.finish();
+    }
+
+    // an unfinished job of the same user is handed back instead of starting another one
+    @Transactional
+    public ExportJobDto start(Long userId) {
+        if (!userExists(userId)) {
+            throw new RuntimeException("Not found: " + userId);
+        }
+        ExportJobEntity job = exportJobRepository.findFirstByUserIdAndStatusIn(userId, UNFINISHED)
+                .orElseGet(() -> exportJobRepository.save(ExportJobEntity.builder()
+                        .userId(userId)
+                        .status(ExportJobStatus.QUEUED)
+                        .section(0)
+                        .lastKey(0L)
+                        .writtenBytes(0L)
+                        .exportedRows(0L)
+                        .updatedAt(Instant.now())
+                        .build()));
+        Long jobId = job.getId();
+        Transactions.afterCommit(() -> submit(jobId));
+        return toDto(job);
+    }
+
+    public Optional<ExportJobDto> job(Long userId, Long jobId) {
+        return exportJobRepository.findById(jobId)
+                .filter(job -> job.getUserId().equals(userId))
+                .map(this::toDto);
+    }
+
+    // null until the job is done, and for jobs of other users
+    public Path archive(Long userId, Long jobId) {
+        return exportJobRepository.findById(jobId)
+                .filter(job -> job.getUserId().equals(userId) && job.getStatus() == ExportJobStatus.DONE)
+                .map(job -> archivePath(job.getId()))
+                .filter(Files::exists)
+                .orElse(null);
+    }
+
+    // picks up jobs that were queued while the executor was full, released on shutdown,
+    // or left running by a node that died
+    @Scheduled(fixedDelayString = "${exports.resume-interval-ms:60000}",
+            initialDelayString = "${exports.resume-interval-ms:60000}")
+    public void resume() {
+        exportJobRepository.findResumable(ExportJobStatus.QUEUED, ExportJobStatus.RUNNING,
+                Instant.now().minus(staleAfter)).forEach(this::submit);
+    }
+
+    // continues from the last checkpoint: finished entries are kept as they are, the one in progress is cut back
+    // to the length flushed before its checkpoint and continues after the last key written
+    public void run(Long jobId) {
+        Instant now = Instant.now();
+        if (exportJobRepository.claim(jobId, ExportJobStatus.QUEUED, ExportJobStatus.RUNNING,
+                now, now.minus(staleAfter)) == 0) {
+            return;
+        }
+        ExportJobEntity job = exportJobRepository.findById(jobId).orElseThrow();
+        Path dir = root.resolve(String.valueOf(jobId));
+        try {
+            Files.createDirectories(dir);
+            Progress progress = new Progress(job.getExportedRows());
+            Section[] sections = Section.values();
+            for (int i = job.getSection(); i < sections.length; i++) {
+                boolean resumed = i == job.getSection();
+                if (!exportSection(job, sections[i], dir,
+                        resumed ? job.getLastKey() : 0, resumed ? job.getWrittenBytes() : 0, progress)) {
+                    // shutting down: back to the queue, the next node or start picks it up from here
+                    exportJobRepository.finish(jobId, ExportJobStatus.QUEUED, null, null, Instant.now(), null);
+                    return;
+                }
+                exportJobRepository.checkpoint(jobId, i + 1, 0L, 0L, progress.rows, Instant.now());
+            }
+            Path archive = assemble(jobId, dir);
+            exportJobRepository.finish(jobId, ExportJobStatus.DONE, Files.size(archive), null,
+                    Instant.now(), Instant.now());
+            deleteRecursively(dir);
+            LoggerSingleton.INSTANCE.info("Export " + jobId + " of user " + job.getUserId() + " finished with "
+                    + progress.rows + " rows");
+        } catch (IOException | RuntimeException e) {
+            LoggerSingleton.INSTANCE.error("Export " + jobId + " failed: " + e.getMessage());
+            String error = String.valueOf(e.getMessage());
+            exportJobRepository.finish(jobId, ExportJobStatus.FAILED, null,
+                    error.substring(0, Math.min(error.length(), ERROR_LENGTH)), Instant.now(), Instant.now());
+            deleteQuietly(dir);
+        }
+    }
+
+    @Scheduled(cron = "${exports.purge-cron:0 20 * * * *}")
+    public void purgeExpired() {
+        List<ExportJobEntity> expired = exportJobRepository.findByFinishedAtBefore(Instant.now().minus(retention));
+        for (ExportJobEntity job : expired) {
+            try {
+                Files.deleteIfExists(archivePath(job.getId()));
+            } catch (IOException e) {
+                LoggerSingleton.INSTANCE.warn("Could not delete export " + job.getId() + ": " + e.getMessage());
+                continue;
+            }
+            exportJobRepository.delete(job);
+        }
+        if (!expired.isEmpty()) {
+            LoggerSingleton.INSTANCE.info("Purged " + expired.size() + " expired exports");
+        }
+    }
+
+    // running jobs stop at their next page and are released, they are not interrupted mid-write
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // false when the export was stopped before the section was complete
+    private boolean exportSection(ExportJobEntity job, Section section, Path dir,
+                                  long afterKey, long offset, Progress progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir.resolve(section.entryName()),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // anything past the checkpoint came from a run that died before recording it
+            channel.truncate(offset);
+            channel.position(offset);
+            try (JsonGenerator generator = ndjsonWriter.createGenerator(Channels.newOutputStream(channel))) {
+                progress.lastKey = afterKey;
+                while (!stopping) {
+                    progress.page = 0;
+                    forEachRow(section, job.getUserId(), progress.lastKey, pageSize, rs -> {
+                        writeRow(generator, rs);
+                        progress.lastKey = rs.getLong(1);
+                        progress.page++;
+                    });
+                    generator.flush();
+                    channel.force(false);
+                    progress.rows += progress.page;
+                    exportJobRepository.checkpoint(job.getId(), section.ordinal(), progress.lastKey,
+                            channel.position(), progress.rows, Instant.now());
+                    if (progress.page < pageSize) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+    }
+
+    private void forEachRow(Section section, long userId, long afterKey, int limit, RowCallbackHandler handler) {
+        if (!section.sharded()) {
+            exportRepository.forEachRow(section, userId, afterKey, limit, handler);
+            return;
+        }
+        shardRouter.on(userId, () -> {
+            exportRepository.forEachRow(section, userId, afterKey, limit, handler);
+            return null;
+        });
+    }
+
+    // the entries are copied in from disk, the part file only becomes the archive once it is complete
+    private Path assemble(Long jobId, Path dir) throws IOException {
+        Path part = root.resolve(jobId + ".zip.part");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(part))) {
+            for (Section section : Section.values()) {
+                zip.putNextEntry(new ZipEntry(section.entryName()));
+                Files.copy(dir.resolve(section.entryName()), zip);
+                zip.closeEntry();
+                exportJobRepository.heartbeat(jobId, Instant.now());
+            }
+        }
+        Path archive = archivePath(jobId);
+        Files.move(part, archive, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return archive;
+    }
+
+    private void submit(Long jobId) {
+        if (!submitted.add(jobId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    submitted.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // stays queued, the resume sweep offers it again
+            submitted.remove(jobId);
+            LoggerSingleton.INSTANCE.warn("Export queue is full, job " + jobId + " waits for the next sweep");
+        }
+    }
+
+    // column labels become the field names, values keep their JSON type and timestamps are ISO-8601
+    private static void writeRow(JsonGenerator generator, ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        generator.writeStartObject();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            generator.writeName(meta.getColumnLabel(i).toLowerCase(Locale.ROOT));
+            switch (rs.getObject(i)) {
+                case null -> generator.writeNull();
+                case Integer value -> generator.writeNumber(value);
+                case Long value -> generator.writeNumber(value);
+                case Short value -> generator.writeNumber(value);
+                case BigDecimal value -> generator.writeNumber(value);
+                case Number value -> generator.writeNumber(value.doubleValue());
+                case Boolean value -> generator.writeBoolean(value);
+                case Timestamp value -> generator.writeString(value.toInstant().toString());
+                case Object value -> generator.writeString(value.toString());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private Path archivePath(Long jobId) {
+        return root.resolve(jobId + ".zip");
+    }
+
+    private ExportJobDto toDto(ExportJobEntity job) {
+        return ExportJobDto.builder()
+                .id(job.getId())
+                .userId(job.getUserId())
+                .status(job.getStatus())
+                .exportedRows(job.getExportedRows())
+                .archiveBytes(job.getArchiveBytes())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .downloadUrl(job.getStatus() == ExportJobStatus.DONE
+                        ? "/api/users/" + job.getUserId() + "/exports/" + job.getId() + "/archive"
+                        : null)
+                .build();
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path dir) {
+        try {
+            deleteRecursively(dir);
+        } catch (IOException e) {
+            LoggerSingleton.INSTANCE.warn("Could not delete " + dir + ": " + e.getMessage());
+        }
+    }
+
+    // mutated from the row callbacks of one job run
+    private static final class Progress {
+        private long rows;
+        private long lastKey;
+        private int page;
+
+        private Progress(long rows) {
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.CacheInvalidator;
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// avatars are stored under the SHA-256 of the uploaded bytes, so the same picture is kept once however often
+// it is uploaded and every file is immutable; resizing happens on a bounded pool after the upload returns
+@Service
+public class AvatarService {
+
+    public enum Outcome {ACCEPTED, TOO_LARGE, UNSUPPORTED, BUSY}
+
+    public record Upload(Outcome outcome, String avatarUrl) {
+    }
+
+    // a resized copy never changes, the original only stands in until it exists
+    public record AvatarFile(Path path, String contentType, boolean immutable) {
+    }
+
+    private enum Format {
+        PNG("png", "image/png", new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}),
+        JPEG("jpg", "image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
+        GIF("gif", "image/gif", new byte[]{'G', 'I', 'F', '8'});
+
+        private final String extension;
+        private final String contentType;
+        private final byte[] signature;
+
+        Format(String extension, String contentType, byte[] signature) {
+            this.extension = extension;
+            this.contentType = contentType;
+            this.signature = signature;
+        }
+
+        private static Format sniff(byte[] header, int length) {
+            for (Format format : values()) {
+                if (length >= format.signature.length
+                        && Arrays.equals(header, 0, format.signature.length, format.signature, 0, format.signature.length)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    public static final String URL_PREFIX = "/api/avatars/";
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final int COPY_BUFFER = 8192;
+    // larger images are refused before decoding, a tiny png can claim enormous dimensions
+    private static final long MAX_PIXELS = 40_000_000L;
+
+    private final UserJpaRepository userJpaRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final Path root;
+    private final long maxUploadBytes;
+    private final int[] sizes;
+    private final ThreadPoolExecutor executor;
+
+    public AvatarService(UserJpaRepository userJpaRepository,
+                         CacheInvalidator cacheInvalidator,
+                         ShardRouter shardRouter,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${avatars.storage-path:data/avatars}") String storagePath,
+                         @Value("${avatars.max-upload-bytes:5242880}") long maxUploadBytes,
+                         @Value("${avatars.sizes:64,128,256}") int[] sizes,
+                         @Value("${avatars.workers:2}") int workers,
+                         @Value("${avatars.queue-capacity:100}") int queueCapacity) throws IOException {
+        this.userJpaRepository = userJpaRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = transactionTemplate;
+        this.root = Files.createDirectories(Path.of(storagePath)).toAbsolutePath();
+        this.maxUploadBytes = maxUploadBytes;
+        this.sizes = Arrays.stream(sizes).sorted().toArray();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // the body is streamed to a temp file while it is hashed, it is never held in memory as a whole; no
+    // connection is held while the client sends, the user is only looked at in a short transaction at the end
+    public Upload upload(Long userId, InputStream body) throws IOException {
+        Path temp = Files.createTempFile(root, "upload", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            byte[] header = new byte[8];
+            int headerLength = 0;
+            long total = 0;
+            byte[] buffer = new byte[COPY_BUFFER];
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    total += read;
+                    if (total > maxUploadBytes) {
+                        return new Upload(Outcome.TOO_LARGE, null);
+                    }
+                    int copy = Math.min(read, header.length - headerLength);
+                    System.arraycopy(buffer, 0, header, headerLength, copy);
+                    headerLength += copy;
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            Format format = Format.sniff(header, headerLength);
+            if (format == null) {
+                return new Upload(Outcome.UNSUPPORTED, null);
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path original = original(hash, format);
+            if (!Files.exists(original)) {
+                Files.createDirectories(original.getParent());
+                Files.move(temp, original, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (!resized(hash)) {
+                try {
+                    executor.execute(() -> resize(hash, original));
+                } catch (RejectedExecutionException e) {
+                    return new Upload(Outcome.BUSY, null);
+                }
+            }
+            String avatarUrl = URL_PREFIX + hash;
+            shardRouter.on(userId, () -> transactionTemplate.execute(_ -> {
+                if (!userJpaRepository.existsById(userId)) {
+                    throw new RuntimeException("Not found: " + userId);
+                }
+                userJpaRepository.updateAvatarUrl(userId, avatarUrl);
+                cacheInvalidator.invalidate("User", userId, () -> CacheInvalidator.NO_VERSION);
+                return null;
+            }));
+            return new Upload(Outcome.ACCEPTED, avatarUrl);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // the closest size at or above the requested one, the largest when none is asked for
+    public int size(Integer requested) {
+        if (requested == null) {
+            return sizes[sizes.length - 1];
+        }
+        for (int size : sizes) {
+            if (size >= requested) {
+                return size;
+            }
+        }
+        return sizes[sizes.length - 1];
+    }
+
+    // null for unknown hashes, found by looking at the file system only
+    public AvatarFile file(String hash, int size) {
+        if (!HASH.matcher(hash).matches()) {
+            return null;
+        }
+        Path resized = resized(hash, size);
+        if (Files.exists(resized)) {
+            return new AvatarFile(resized, Format.PNG.contentType, true);
+        }
+        for (Format format : Format.values()) {
+            Path original = original(hash, format);
+            if (Files.exists(original)) {
+                return new AvatarFile(original, format.contentType, false);
+            }
+        }
+        return null;
+    }
+
+    // center square scaled to every size, each written beside the original and moved into place
+    void resize(String hash, Path original) {
+        try {
+            BufferedImage image = read(original);
+            if (image == null) {
+                LoggerSingleton.INSTANCE.warn("Avatar " + hash + " is not a readable image");
+                return;
+            }
+            int side = Math.min(image.getWidth(), image.getHeight());
+            BufferedImage square = image.getSubimage(
+                    (image.getWidth() - side) / 2, (image.getHeight() - side) / 2, side, side);
+            for (int size : sizes) {
+                Path target = resized(hash, size);
+                if (Files.exists(target)) {
+                    continue;
+                }
+                BufferedImage scaled = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+                Graphics2D g = scaled.createGraphics();
+                try {
+                    g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                    g.drawImage(square, 0, 0, size, size, null);
+                } finally {
+                    g.dispose();
+                }
+                Path temp = Files.createTempFile(target.getParent(), "resize", ".tmp");
+                try {
+                    ImageIO.write(scaled, "png", temp.toFile());
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LoggerSingleton.INSTANCE.error("Resizing avatar " + hash + " failed: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static BufferedImage read(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private boolean resized(String hash) {
+        return Arrays.stream(sizes).allMatch(size -> Files.exists(resized(hash, size)));
+    }
+
+    // the first byte of the hash fans files out over 256 directories
+    private Path original(String hash, Format format) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash + "." + format.extension);
+    }
+
+    private Path resized(String hash, int size) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash + "-" + size + ".png");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
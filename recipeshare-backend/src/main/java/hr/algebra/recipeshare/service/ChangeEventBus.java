@@ -0,0 +1,163 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.recipeshare.model.ChangeEvent;
+import hr.algebra.recipeshare.model.SubscriberStatsDto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// in-process fan-out of outbox events: every subscriber has its own bounded queue and thread, so handlers never
+// run on each other's threads, but a batch is done only once all of them handled it and the relay publishes one
+// batch at a time, so a slow subscriber holds up every other one until the batch times out. a batch that failed or
+// timed out is abandoned, whatever of it is still queued is skipped since the whole batch comes again
+@Component
+public class ChangeEventBus {
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    // the handler runs on the subscription's own thread; throwing fails the batch, which is then delivered again
+    public Subscription subscribe(String name, int capacity, Consumer<ChangeEvent> handler) {
+        Subscription subscription = new Subscription(name, capacity, handler);
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    // true once every subscriber handled every event in time, false means the batch has to be delivered again
+    public boolean publish(List<ChangeEvent> events, Duration timeout) throws InterruptedException {
+        List<Subscription> current = List.copyOf(subscriptions);
+        if (events.isEmpty() || current.isEmpty()) {
+            return true;
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Batch batch = new Batch(events.size() * current.size());
+        for (Subscription subscription : current) {
+            for (ChangeEvent event : events) {
+                if (!subscription.queue.offer(new Delivery(event, batch), remaining(deadline), TimeUnit.NANOSECONDS)) {
+                    LoggerSingleton.INSTANCE.warn("Change subscriber " + subscription.name + " is full");
+                    batch.abandoned.set(true);
+                    return false;
+                }
+            }
+        }
+        try {
+            if (!batch.remaining.await(remaining(deadline), TimeUnit.NANOSECONDS)) {
+                LoggerSingleton.INSTANCE.warn("Change batch of " + events.size() + " events timed out");
+                batch.abandoned.set(true);
+                return false;
+            }
+        } catch (InterruptedException e) {
+            batch.abandoned.set(true);
+            throw e;
+        }
+        return !batch.abandoned.get();
+    }
+
+    public List<SubscriberStatsDto> stats() {
+        return subscriptions.stream().map(Subscription::stats).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(Subscription::close);
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private record Delivery(ChangeEvent event, Batch batch) {
+    }
+
+    private static final class Batch {
+        private final CountDownLatch remaining;
+        // set by a failed handler or by the publisher giving up on it, the batch is delivered again either way
+        private final AtomicBoolean abandoned = new AtomicBoolean();
+
+        private Batch(int deliveries) {
+            this.remaining = new CountDownLatch(deliveries);
+        }
+    }
+
+    public final class Subscription implements AutoCloseable {
+        private final String name;
+        private final int capacity;
+        private final BlockingQueue<Delivery> queue;
+        private final Consumer<ChangeEvent> handler;
+        private final Thread thread;
+        private final AtomicLong handled = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private volatile long lastEventId;
+        // delay between a change being written and this subscriber handling it
+        private volatile long lagMillis;
+
+        private Subscription(String name, int capacity, Consumer<ChangeEvent> handler) {
+            this.name = name;
+            this.capacity = capacity;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.handler = handler;
+            this.thread = Thread.ofPlatform().daemon().name("change-bus-" + name).unstarted(this::run);
+        }
+
+        private void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                Delivery delivery;
+                try {
+                    delivery = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                ChangeEvent event = delivery.event();
+                // an abandoned batch is delivered again as a whole, no use handling the rest of it
+                if (delivery.batch().abandoned.get()) {
+                    skipped.incrementAndGet();
+                } else {
+                    try {
+                        handler.accept(event);
+                        handled.incrementAndGet();
+                        lastEventId = event.id();
+                        lagMillis = Math.max(0, Duration.between(event.occurredAt(), Instant.now()).toMillis());
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                        delivery.batch().abandoned.set(true);
+                        LoggerSingleton.INSTANCE.error("Change subscriber " + name + " failed on event "
+                                + event.id() + ": " + e.getMessage());
+                    }
+                }
+                delivery.batch().remaining.countDown();
+            }
+        }
+
+        private SubscriberStatsDto stats() {
+            return SubscriberStatsDto.builder()
+                    .name(name)
+                    .queued((long) queue.size())
+                    .capacity((long) capacity)
+                    .handled(handled.get())
+                    .failed(failed.get())
+                    .skipped(skipped.get())
+                    .lastEventId(lastEventId)
+                    .lagMillis(lagMillis)
+                    .build();
+        }
+
+        @Override
+        public void close() {
+            subscriptions.remove(this);
+            thread.interrupt();
+        }
+    }
+}
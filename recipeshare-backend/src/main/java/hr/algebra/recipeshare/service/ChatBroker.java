@@ -0,0 +1,186 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.RingBuffer;
+import hr.algebra.recipeshare.dao.UserChatEntity;
+import hr.algebra.recipeshare.dao.repository.ChatMessageJdbcRepository;
+import hr.algebra.recipeshare.dao.repository.UserChatJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserChatMemberJpaRepository;
+import hr.algebra.recipeshare.model.ChatEvent;
+import hr.algebra.recipeshare.model.ChatMessageDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// in-process fan-out: every chat is a room holding its members, live subscribers and the recent messages;
+// a message is serialized once, handed to every subscriber without blocking and written behind by ChatMessageWriter
+@Service
+public class ChatBroker {
+
+    public interface Subscriber {
+        long userId();
+
+        // must not block, false means the subscriber fell behind and is dropped from the room
+        boolean deliver(String payload);
+    }
+
+    private static final int MAX_BODY_LENGTH = 4000;
+
+    private final UserChatJpaRepository chatRepository;
+    private final UserChatMemberJpaRepository memberRepository;
+    private final ChatMessageJdbcRepository messageRepository;
+    private final ChatMessageWriter messageWriter;
+    private final JsonMapper jsonMapper;
+    private final int historySize;
+
+    private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+
+    public ChatBroker(UserChatJpaRepository chatRepository,
+                      UserChatMemberJpaRepository memberRepository,
+                      ChatMessageJdbcRepository messageRepository,
+                      ChatMessageWriter messageWriter,
+                      JsonMapper jsonMapper,
+                      @Value("${chat.history-size:100}") int historySize) {
+        this.chatRepository = chatRepository;
+        this.memberRepository = memberRepository;
+        this.messageRepository = messageRepository;
+        this.messageWriter = messageWriter;
+        this.jsonMapper = jsonMapper;
+        this.historySize = historySize;
+    }
+
+    // replays everything after afterSeq that is still in the ring, then keeps the subscriber live;
+    // both happen under the room lock so nothing is missed or delivered twice
+    public void join(Subscriber subscriber, Long chatId, Long afterSeq) {
+        Room room = room(chatId);
+        requireMember(room, subscriber.userId());
+        synchronized (room) {
+            Long oldestSeq = room.history.size() == 0 ? null : room.history.get(0).seq();
+            ChatEvent joined = ChatEvent.builder().type(ChatEvent.JOINED).chatId(chatId).oldestSeq(oldestSeq).build();
+            if (!subscriber.deliver(serialize(joined))) {
+                return;
+            }
+            // seqs in the ring are contiguous, so the first entry to replay is found by arithmetic
+            int from = oldestSeq == null || afterSeq == null ? 0 : (int) Math.max(0, afterSeq - oldestSeq + 1);
+            for (int i = from; i < room.history.size(); i++) {
+                if (!subscriber.deliver(room.history.get(i).payload())) {
+                    return;
+                }
+            }
+            room.subscribers.add(subscriber);
+        }
+    }
+
+    public void leave(Subscriber subscriber, Long chatId) {
+        Room room = rooms.get(chatId);
+        if (room == null) {
+            return;
+        }
+        synchronized (room) {
+            room.subscribers.remove(subscriber);
+        }
+    }
+
+    public ChatMessageDto publish(Long chatId, Long senderId, String body) {
+        if (body == null || body.isBlank()) {
+            throw new IllegalArgumentException("Message body is required");
+        }
+        if (body.length() > MAX_BODY_LENGTH) {
+            throw new IllegalArgumentException("Message body too long: " + body.length());
+        }
+        Room room = room(chatId);
+        requireMember(room, senderId);
+        synchronized (room) {
+            ChatMessageDto message = ChatMessageDto.builder()
+                    .chatId(chatId)
+                    .seq(++room.lastSeq)
+                    .senderId(senderId)
+                    .body(body)
+                    .sentAt(Instant.now())
+                    .build();
+            String payload = serialize(ChatEvent.builder().type(ChatEvent.MESSAGE).chatId(chatId).message(message).build());
+            room.history.add(new Entry(message.getSeq(), payload));
+            room.subscribers.removeIf(subscriber -> !subscriber.deliver(payload));
+            messageWriter.enqueue(message);
+            return message;
+        }
+    }
+
+    public String errorFrame(Long chatId, String error) {
+        return serialize(ChatEvent.builder().type(ChatEvent.ERROR).chatId(chatId).error(error).build());
+    }
+
+    public void onMemberAdded(Long chatId, Long userId) {
+        Room room = rooms.get(chatId);
+        if (room != null) {
+            room.members.add(userId);
+        }
+    }
+
+    public void onMemberRemoved(Long chatId, Long userId) {
+        Room room = rooms.get(chatId);
+        if (room == null) {
+            return;
+        }
+        room.members.remove(userId);
+        synchronized (room) {
+            room.subscribers.removeIf(subscriber -> subscriber.userId() == userId);
+        }
+    }
+
+    public void onChatDeleted(Long chatId) {
+        rooms.remove(chatId);
+    }
+
+    // rooms are loaded once and kept: seqs of unflushed messages only exist here, so a reload could reuse them
+    private Room room(Long chatId) {
+        Room room = rooms.get(chatId);
+        if (room != null) {
+            return room;
+        }
+        UserChatEntity chat = chatRepository.findById(chatId)
+                .filter(c -> c.getDeletedAt() == null)
+                .orElseThrow(() -> new RuntimeException("Not found: " + chatId));
+        Room loaded = new Room(historySize);
+        loaded.members.addAll(memberRepository.findUserIdsByChatId(chat.getId()));
+        List<ChatMessageDto> recent = messageRepository.findBefore(chatId, Long.MAX_VALUE, historySize);
+        for (ChatMessageDto message : recent.reversed()) {
+            String payload = serialize(ChatEvent.builder().type(ChatEvent.MESSAGE).chatId(chatId).message(message).build());
+            loaded.history.add(new Entry(message.getSeq(), payload));
+        }
+        loaded.lastSeq = recent.isEmpty() ? 0 : recent.getFirst().getSeq();
+        Room existing = rooms.putIfAbsent(chatId, loaded);
+        return existing == null ? loaded : existing;
+    }
+
+    private static void requireMember(Room room, long userId) {
+        if (!room.members.contains(userId)) {
+            throw new IllegalArgumentException("Not a member of this chat: " + userId);
+        }
+    }
+
+    private String serialize(ChatEvent event) {
+        return jsonMapper.writeValueAsString(event);
+    }
+
+    private record Entry(long seq, String payload) {
+    }
+
+    private static final class Room {
+        private final Set<Long> members = ConcurrentHashMap.newKeySet();
+        // guarded by the room lock
+        private final RingBuffer<Entry> history;
+        private final Set<Subscriber> subscribers = new HashSet<>();
+        private long lastSeq;
+
+        private Room(int historySize) {
+            this.history = new RingBuffer<>(historySize);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.recipeshare.dao.repository.ChatMessageJdbcRepository;
+import hr.algebra.recipeshare.model.ChatMessageDto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// chat messages are delivered from memory and written behind in batches, senders never wait on the database
+@Service
+public class ChatMessageWriter {
+
+    private final ChatMessageJdbcRepository messageRepository;
+    private final int batchSize;
+
+    private final Queue<ChatMessageDto> pending = new ConcurrentLinkedQueue<>();
+    // a batch that failed is retried before anything newer, only touched by flush()
+    private List<ChatMessageDto> retry = List.of();
+
+    public ChatMessageWriter(ChatMessageJdbcRepository messageRepository,
+                             @Value("${chat.batch-size:500}") int batchSize) {
+        this.messageRepository = messageRepository;
+        this.batchSize = batchSize;
+    }
+
+    public void enqueue(ChatMessageDto message) {
+        pending.add(message);
+    }
+
+    public int pendingCount() {
+        return pending.size() + retry.size();
+    }
+
+    @Scheduled(fixedDelayString = "${chat.flush-interval-ms:200}",
+            initialDelayString = "${chat.flush-interval-ms:200}")
+    public synchronized void flush() {
+        int written = 0;
+        while (true) {
+            List<ChatMessageDto> batch = retry.isEmpty() ? nextBatch() : retry;
+            if (batch.isEmpty()) {
+                break;
+            }
+            try {
+                messageRepository.insertMessages(batch);
+            } catch (DataAccessException e) {
+                LoggerSingleton.INSTANCE.error("Chat message flush failed, retrying next round: " + e.getMessage());
+                retry = batch;
+                return;
+            }
+            retry = List.of();
+            written += batch.size();
+        }
+        if (written > 0) {
+            LoggerSingleton.INSTANCE.debug("Flushed " + written + " chat messages");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private List<ChatMessageDto> nextBatch() {
+        List<ChatMessageDto> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        ChatMessageDto message;
+        while (batch.size() < batchSize && (message = pending.poll()) != null) {
+            batch.add(message);
+        }
+        return batch;
+    }
+}
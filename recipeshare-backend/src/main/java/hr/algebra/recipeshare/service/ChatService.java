@@ -0,0 +1,145 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.AbstractCrud;
+import hr.algebra.common.Transactions;
+import hr.algebra.recipeshare.dao.UserChatEntity;
+import hr.algebra.recipeshare.dao.UserChatMemberEntity;
+import hr.algebra.recipeshare.dao.UserChatMemberId;
+import hr.algebra.recipeshare.dao.repository.ChatMessageJdbcRepository;
+import hr.algebra.recipeshare.dao.repository.UserChatJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserChatMemberJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.mapper.ChatMapper;
+import hr.algebra.recipeshare.model.ChatDto;
+import hr.algebra.recipeshare.model.ChatMessageDto;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class ChatService extends AbstractCrud<UserChatEntity, ChatDto> {
+
+    private static final int DIRECT_CHAT_MEMBERS = 2;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final UserChatJpaRepository chatRepository;
+    private final UserChatMemberJpaRepository memberRepository;
+    private final UserJpaRepository userJpaRepository;
+    private final ChatMessageJdbcRepository messageRepository;
+    private final ChatBroker chatBroker;
+    private final ChatMapper chatMapper;
+    private final ShardRouter shardRouter;
+
+    public ChatService(UserChatJpaRepository repository, ChatMapper mapper,
+                       UserChatMemberJpaRepository memberRepository, UserJpaRepository userJpaRepository,
+                       ChatMessageJdbcRepository messageRepository, ChatBroker chatBroker, ShardRouter shardRouter) {
+        super(repository, mapper);
+        this.chatRepository = repository;
+        this.memberRepository = memberRepository;
+        this.userJpaRepository = userJpaRepository;
+        this.messageRepository = messageRepository;
+        this.chatBroker = chatBroker;
+        this.chatMapper = mapper;
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public Optional<ChatDto> findById(Long id) {
+        return chatRepository.findById(id)
+                .filter(chat -> chat.getDeletedAt() == null)
+                .map(chat -> withMembers(List.of(chat)).getFirst());
+    }
+
+    @Override
+    @Transactional
+    public ChatDto create(ChatDto dto) {
+        ChatDto created = super.create(dto);
+        Set<Long> memberIds = new LinkedHashSet<>(dto.getMemberIds());
+        memberRepository.saveAll(memberIds.stream()
+                .map(userId -> UserChatMemberEntity.builder().id(new UserChatMemberId(created.getId(), userId)).build())
+                .toList());
+        created.setMemberIds(List.copyOf(memberIds));
+        return created;
+    }
+
+    public List<ChatDto> getChatsForUser(Long userId) {
+        return withMembers(chatRepository.findAllByMember(userId));
+    }
+
+    @Transactional
+    public void addMember(Long chatId, Long userId) {
+        UserChatEntity chat = ref(chatRepository, chatId);
+        if (!chat.getGroup()) {
+            throw new IllegalArgumentException("Members can only be added to group chats: " + chatId);
+        }
+        if (!shardRouter.read(userId, () -> userJpaRepository.existsById(userId))) {
+            throw new RuntimeException("Not found: " + userId);
+        }
+        memberRepository.save(UserChatMemberEntity.builder().id(new UserChatMemberId(chatId, userId)).build());
+        Transactions.afterCommit(() -> chatBroker.onMemberAdded(chatId, userId));
+    }
+
+    @Transactional
+    public void removeMember(Long chatId, Long userId) {
+        UserChatEntity chat = ref(chatRepository, chatId);
+        if (!chat.getGroup()) {
+            throw new IllegalArgumentException("Members can only be removed from group chats: " + chatId);
+        }
+        memberRepository.deleteById(new UserChatMemberId(chatId, userId));
+        Transactions.afterCommit(() -> chatBroker.onMemberRemoved(chatId, userId));
+    }
+
+    public ChatMessageDto send(Long chatId, Long senderId, String body) {
+        return chatBroker.publish(chatId, senderId, body);
+    }
+
+    // older history for clients scrolling past what the broker keeps in memory, newest first
+    public List<ChatMessageDto> getMessages(Long chatId, Long beforeSeq, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return messageRepository.findBefore(chatId, beforeSeq == null ? Long.MAX_VALUE : beforeSeq, size);
+    }
+
+    @Override
+    protected void preCreate(UserChatEntity entity, ChatDto dto) {
+        super.preCreate(entity, dto);
+        Set<Long> memberIds = dto.getMemberIds() == null ? Set.of() : new LinkedHashSet<>(dto.getMemberIds());
+        if (memberIds.isEmpty()) {
+            throw new IllegalArgumentException("A chat needs members");
+        }
+        if (shardRouter.scatter(() -> userJpaRepository.findAllById(memberIds)).size() != memberIds.size()) {
+            throw new RuntimeException("Not found: " + memberIds);
+        }
+        entity.setGroup(Boolean.TRUE.equals(dto.getGroup()));
+        if (!entity.getGroup()) {
+            if (memberIds.size() != DIRECT_CHAT_MEMBERS) {
+                throw new IllegalArgumentException("A direct chat has exactly two members");
+            }
+            entity.setName(null);
+        }
+    }
+
+    @Override
+    protected void preDelete(UserChatEntity entity) {
+        super.preDelete(entity);
+        chatBroker.onChatDeleted(entity.getId());
+    }
+
+    // one query for the members of every chat in the list
+    private List<ChatDto> withMembers(List<UserChatEntity> chats) {
+        Map<Long, List<Long>> members = chats.isEmpty() ? Map.of() : memberRepository
+                .findAllByIdChatIdIn(chats.stream().map(UserChatEntity::getId).toList()).stream()
+                .collect(Collectors.groupingBy(m -> m.getId().getChatId(),
+                        Collectors.mapping(m -> m.getId().getUserId(), Collectors.toList())));
+        return chats.stream().map(chat -> {
+            ChatDto dto = chatMapper.toDto(chat);
+            dto.setMemberIds(members.getOrDefault(chat.getId(), List.of()));
+            return dto;
+        }).toList();
+    }
+}
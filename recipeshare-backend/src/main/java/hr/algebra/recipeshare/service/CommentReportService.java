@@ -0,0 +1,188 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.recipeshare.dao.repository.CommentReportJdbcRepository;
+import hr.algebra.recipeshare.dao.repository.CommentReportJdbcRepository.ClaimedReport;
+import hr.algebra.recipeshare.model.ReportQueueStatsDto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// reporting costs one insert on the request path, moderation happens in batches on a worker pool;
+// when the queue is full new reports are refused instead of slowing everything else down
+@Service
+public class CommentReportService {
+
+    public enum Outcome { QUEUED, DUPLICATE, REJECTED }
+
+    private static final int MAX_REASON_LENGTH = 255;
+
+    private final CommentReportJdbcRepository reportRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long capacity;
+    private final int batchSize;
+    private final int workers;
+    private final int hideThreshold;
+    private final ExecutorService executor;
+
+    // approximate pending count, resynced from the table before every drain
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong hidden = new AtomicLong();
+    // (comment, reporter) pairs already queued, repeats are dropped before they reach the database
+    private final Set<Queued> queued = ConcurrentHashMap.newKeySet();
+
+    public CommentReportService(CommentReportJdbcRepository reportRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${reports.queue-capacity:10000}") long capacity,
+                                @Value("${reports.batch-size:200}") int batchSize,
+                                @Value("${reports.workers:2}") int workers,
+                                @Value("${reports.hide-threshold:5}") int hideThreshold) {
+        this.reportRepository = reportRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.hideThreshold = hideThreshold;
+        this.executor = Executors.newFixedThreadPool(workers);
+    }
+
+    public Outcome report(Long commentId, Long reporterId, String reason) {
+        Queued key = new Queued(commentId, reporterId);
+        if (queued.contains(key)) {
+            return Outcome.DUPLICATE;
+        }
+        if (depth.get() >= capacity) {
+            return Outcome.REJECTED;
+        }
+        if (reason != null && reason.length() > MAX_REASON_LENGTH) {
+            reason = reason.substring(0, MAX_REASON_LENGTH);
+        }
+
+        boolean inserted;
+        try {
+            inserted = reportRepository.insertReport(commentId, reporterId, reason);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Not found: " + commentId);
+        }
+        // the set only saves round trips, the unique constraint is what enforces one report per user
+        if (queued.size() >= capacity) {
+            queued.clear();
+        }
+        queued.add(key);
+        if (!inserted) {
+            return Outcome.DUPLICATE;
+        }
+        depth.incrementAndGet();
+        return Outcome.QUEUED;
+    }
+
+    public ReportQueueStatsDto stats() {
+        long lag = reportRepository.oldestPending()
+                .map(oldest -> Math.max(0, Duration.between(oldest, Instant.now()).toMillis()))
+                .orElse(0L);
+        return ReportQueueStatsDto.builder()
+                .depth(depth.get())
+                .capacity(capacity)
+                .lagMillis(lag)
+                .processed(processed.get())
+                .hiddenComments(hidden.get())
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadDepth() {
+        depth.set(reportRepository.countPending());
+        LoggerSingleton.INSTANCE.info("Comment report queue has " + depth.get() + " pending reports");
+    }
+
+    // every worker claims batches until the queue is empty, SKIP LOCKED keeps them off each other's rows
+    @Scheduled(fixedDelayString = "${reports.poll-interval-ms:1000}",
+            initialDelayString = "${reports.poll-interval-ms:1000}")
+    public void drain() {
+        depth.set(reportRepository.countPending());
+        if (depth.get() == 0) {
+            return;
+        }
+        List<Future<?>> running = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            running.add(executor.submit(() -> {
+                int taken;
+                do {
+                    taken = processBatch();
+                } while (taken == batchSize);
+            }));
+        }
+        for (Future<?> worker : running) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LoggerSingleton.INSTANCE.error("Comment report worker failed, retrying next round: " + e.getMessage());
+            }
+        }
+    }
+
+    // claims, coalesces and moderates one batch, returns how many reports it took
+    public int processBatch() {
+        BatchResult result;
+        try {
+            result = transactionTemplate.execute(_ -> {
+                List<ClaimedReport> batch = reportRepository.claimPending(batchSize);
+                if (batch.isEmpty()) {
+                    return new BatchResult(0, 0);
+                }
+                // many reports of the same comment end up as a single threshold check
+                List<Long> commentIds = batch.stream().map(ClaimedReport::commentId).distinct().toList();
+                reportRepository.markProcessed(batch);
+                return new BatchResult(batch.size(), reportRepository.hideReportedComments(commentIds, hideThreshold));
+            });
+        } catch (DataAccessException e) {
+            LoggerSingleton.INSTANCE.error("Comment report batch failed, retrying next round: " + e.getMessage());
+            return 0;
+        }
+        if (result == null || result.claimed() == 0) {
+            return 0;
+        }
+        depth.updateAndGet(current -> Math.max(0, current - result.claimed()));
+        processed.addAndGet(result.claimed());
+        hidden.addAndGet(result.hidden());
+        return result.claimed();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record BatchResult(int claimed, int hidden) {
+    }
+
+    private record Queued(long commentId, long reporterId) {
+    }
+}
@@ -0,0 +1,166 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.AbstractCrud;
+import hr.algebra.recipeshare.dao.CommentEntity;
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.CommentJpaRepository;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.mapper.CommentMapper;
+import hr.algebra.recipeshare.model.CommentDto;
+import hr.algebra.recipeshare.model.CommentPageDto;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// threads are stored with a materialized path of fixed-width ids, so any subtree is one range scan on (recipe_id, path)
+@Service
+public class CommentService extends AbstractCrud<CommentEntity, CommentDto> {
+
+    private static final int SEGMENT_WIDTH = 10;
+    private static final int MAX_DEPTH = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final CommentJpaRepository commentRepository;
+    private final RecipeJpaRepository recipeJpaRepository;
+    private final UserJpaRepository userJpaRepository;
+    private final ShardRouter shardRouter;
+    private final CommentMapper commentMapper;
+
+    public CommentService(CommentJpaRepository repository, CommentMapper mapper,
+                          RecipeJpaRepository recipeJpaRepository, UserJpaRepository userJpaRepository,
+                          ShardRouter shardRouter) {
+        super(repository, mapper);
+        this.commentRepository = repository;
+        this.recipeJpaRepository = recipeJpaRepository;
+        this.userJpaRepository = userJpaRepository;
+        this.commentMapper = mapper;
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public Optional<CommentDto> findById(Long id) {
+        return commentRepository.findById(id).map(entity -> withAuthors(List.of(entity)).getFirst());
+    }
+
+    @Override
+    @Transactional
+    public CommentDto create(CommentDto dto) {
+        CommentDto created = super.create(dto);
+        // the own path segment needs the generated id
+        CommentEntity saved = ref(commentRepository, created.getId());
+        saved.setPath(saved.getPath() + segment(saved.getId()));
+        return withAuthors(List.of(saved)).getFirst();
+    }
+
+    public CommentPageDto getTopLevel(Long recipeId, String cursor, int limit) {
+        int size = pageSize(limit);
+        long beforeId = cursor == null ? Long.MAX_VALUE : parseId(cursor);
+        List<CommentEntity> rows = commentRepository.findTopLevel(recipeId, beforeId, Limit.of(size + 1));
+        return page(rows, size, last -> last.getId().toString());
+    }
+
+    public CommentPageDto getReplies(Long commentId, String cursor, int limit) {
+        int size = pageSize(limit);
+        long afterId = cursor == null ? 0 : parseId(cursor);
+        List<CommentEntity> rows = commentRepository.findReplies(commentId, afterId, Limit.of(size + 1));
+        return page(rows, size, last -> last.getId().toString());
+    }
+
+    // every descendant of the comment in depth-first order
+    public CommentPageDto getThread(Long commentId, String cursor, int limit) {
+        int size = pageSize(limit);
+        CommentEntity root = ref(commentRepository, commentId);
+        String afterPath = cursor == null ? root.getPath() : parsePath(cursor);
+        List<CommentEntity> rows = commentRepository.findPathRange(
+                root.getRecipeId(), afterPath, upperBound(root), Limit.of(size + 1));
+        return page(rows, size, CommentEntity::getPath);
+    }
+
+    @Override
+    protected void preCreate(CommentEntity entity, CommentDto dto) {
+        super.preCreate(entity, dto);
+        if (!shardRouter.read(dto.getRecipeId(), () -> recipeJpaRepository.existsById(dto.getRecipeId()))) {
+            throw new RuntimeException("Not found: " + dto.getRecipeId());
+        }
+        if (!shardRouter.read(dto.getUserId(), () -> userJpaRepository.existsById(dto.getUserId()))) {
+            throw new RuntimeException("Not found: " + dto.getUserId());
+        }
+        entity.setReplyCount(0);
+        if (dto.getParentId() == null) {
+            entity.setDepth(0);
+            entity.setPath("");
+            return;
+        }
+        CommentEntity parent = ref(commentRepository, dto.getParentId());
+        if (!parent.getRecipeId().equals(dto.getRecipeId())) {
+            throw new IllegalArgumentException("Parent comment belongs to another recipe: " + dto.getParentId());
+        }
+        if (parent.getDepth() + 1 >= MAX_DEPTH) {
+            throw new IllegalArgumentException("Reply nesting too deep: " + dto.getParentId());
+        }
+        entity.setDepth(parent.getDepth() + 1);
+        entity.setPath(parent.getPath());
+        commentRepository.incrementReplyCount(parent.getId());
+    }
+
+    private CommentPageDto page(List<CommentEntity> rows, int size, Function<CommentEntity, String> cursorOf) {
+        boolean hasMore = rows.size() > size;
+        List<CommentEntity> items = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(items.getLast()) : null;
+        return new CommentPageDto(withAuthors(items), nextCursor);
+    }
+
+    // one query for all authors on the page
+    private List<CommentDto> withAuthors(List<CommentEntity> entities) {
+        Set<Long> userIds = entities.stream().map(CommentEntity::getUserId).collect(Collectors.toSet());
+        Map<Long, UserEntity> authors = userIds.isEmpty() ? Map.of()
+                : shardRouter.scatter(() -> userJpaRepository.findAllById(userIds)).stream()
+                .collect(Collectors.toMap(UserEntity::getId, Function.identity()));
+        return entities.stream().map(entity -> {
+            CommentDto dto = commentMapper.toDto(entity);
+            UserEntity author = authors.get(entity.getUserId());
+            if (author != null) {
+                dto.setAuthorUsername(author.getUsername());
+                dto.setAuthorAvatarUrl(author.getAvatarUrl());
+            }
+            return dto;
+        }).toList();
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private static String segment(long id) {
+        return String.format("%0" + SEGMENT_WIDTH + "d", id);
+    }
+
+    // first path after the subtree: the same prefix with the last segment incremented
+    private static String upperBound(CommentEntity root) {
+        String path = root.getPath();
+        return path.substring(0, path.length() - SEGMENT_WIDTH) + segment(root.getId() + 1);
+    }
+
+    private static long parseId(String cursor) {
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String parsePath(String cursor) {
+        if (cursor.isEmpty() || cursor.length() % SEGMENT_WIDTH != 0 || !cursor.chars().allMatch(Character::isDigit)) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return cursor;
+    }
+}
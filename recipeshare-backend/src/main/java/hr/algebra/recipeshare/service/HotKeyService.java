@@ -0,0 +1,164 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.HeavyHitters;
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.common.TopK;
+import hr.algebra.recipeshare.facade.UserRecipeFacade;
+import hr.algebra.recipeshare.model.HotKeyDto;
+import hr.algebra.recipeshare.model.HotKeysDto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// which recipes and users are read most, counted on their read endpoints with the counts halving every window.
+// the ranking is written to disk every few minutes; on the next start it fills the read caches in parallel, as a
+// runner, so the node only reports ready once the hot keys are warm
+@Service
+public class HotKeyService implements ApplicationRunner {
+
+    private final HeavyHitters recipes;
+    private final HeavyHitters users;
+    private final RecipeService recipeService;
+    private final UserRecipeFacade userRecipeFacade;
+    private final JsonMapper jsonMapper;
+    private final Path snapshotPath;
+    private final int capacity;
+    private final int prewarmWorkers;
+
+    public HotKeyService(RecipeService recipeService,
+                         UserRecipeFacade userRecipeFacade,
+                         JsonMapper jsonMapper,
+                         @Value("${hot-keys.capacity:100}") int capacity,
+                         @Value("${hot-keys.sketch-width:16384}") int width,
+                         @Value("${hot-keys.sketch-depth:4}") int depth,
+                         @Value("${hot-keys.snapshot-path:}") String snapshotPath,
+                         @Value("${hot-keys.prewarm-workers:4}") int prewarmWorkers) {
+        this.recipes = new HeavyHitters(capacity, width, depth);
+        this.users = new HeavyHitters(capacity, width, depth);
+        this.recipeService = recipeService;
+        this.userRecipeFacade = userRecipeFacade;
+        this.jsonMapper = jsonMapper;
+        this.snapshotPath = snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        this.capacity = capacity;
+        this.prewarmWorkers = prewarmWorkers;
+    }
+
+    public void recordRecipe(Long id) {
+        recipes.add(id);
+    }
+
+    public void recordUser(Long id) {
+        users.add(id);
+    }
+
+    public HotKeysDto top(int limit) {
+        return HotKeysDto.builder()
+                .recipes(toDtos(recipes.top(limit)))
+                .users(toDtos(users.top(limit)))
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${hot-keys.window-ms:60000}", initialDelayString = "${hot-keys.window-ms:60000}")
+    public void decay() {
+        recipes.decay();
+        users.decay();
+    }
+
+    // moved over the previous snapshot once complete; also on shutdown, so a redeploy starts from the latest ranking
+    @Scheduled(fixedDelayString = "${hot-keys.snapshot-ms:300000}", initialDelayString = "${hot-keys.snapshot-ms:300000}")
+    @PreDestroy
+    public void persist() {
+        if (snapshotPath == null) {
+            return;
+        }
+        try {
+            Path absolute = snapshotPath.toAbsolutePath();
+            Files.createDirectories(absolute.getParent());
+            Path temp = Files.createTempFile(absolute.getParent(), "hot-keys", ".tmp");
+            try {
+                Files.write(temp, jsonMapper.writeValueAsBytes(top(capacity)));
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | JacksonException e) {
+            LoggerSingleton.INSTANCE.warn("Writing hot keys to " + snapshotPath + " failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        prewarm();
+    }
+
+    // the last ranking seeds this node's and its keys are read once, through the same caches requests go through
+    public int prewarm() {
+        if (snapshotPath == null || !Files.isReadable(snapshotPath)) {
+            return 0;
+        }
+        HotKeysDto snapshot;
+        try {
+            snapshot = jsonMapper.readValue(Files.readAllBytes(snapshotPath), HotKeysDto.class);
+        } catch (IOException | JacksonException e) {
+            LoggerSingleton.INSTANCE.warn("Ignoring unreadable hot keys " + snapshotPath + ": " + e.getMessage());
+            return 0;
+        }
+        long start = System.nanoTime();
+        List<Callable<Object>> reads = new ArrayList<>();
+        for (HotKeyDto key : nullToEmpty(snapshot.getRecipes())) {
+            recipes.add(key.getId(), Math.max(1, key.getScore()));
+            reads.add(() -> recipeService.findEncoded(key.getId()));
+        }
+        for (HotKeyDto key : nullToEmpty(snapshot.getUsers())) {
+            users.add(key.getId(), Math.max(1, key.getScore()));
+            reads.add(() -> userRecipeFacade.findEncodedWithRecipes(key.getId()));
+        }
+
+        int warmed = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(prewarmWorkers);
+        try {
+            for (Future<Object> read : executor.invokeAll(reads)) {
+                try {
+                    read.get();
+                    warmed++;
+                } catch (ExecutionException e) {
+                    LoggerSingleton.INSTANCE.warn("Prewarming a hot key failed: " + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        LoggerSingleton.INSTANCE.info("Prewarmed " + warmed + " of " + reads.size() + " hot keys in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return warmed;
+    }
+
+    private static List<HotKeyDto> toDtos(List<TopK.Ranked> ranked) {
+        return ranked.stream()
+                .map(entry -> new HotKeyDto(entry.id(), (long) entry.score()))
+                .toList();
+    }
+
+    private static List<HotKeyDto> nullToEmpty(List<HotKeyDto> keys) {
+        return keys == null ? List.of() : keys;
+    }
+}
@@ -0,0 +1,197 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.model.IngredientUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// turns a recipe's free-text ingredients into (name, unit, amount) lines; results are cached by a hash
+// of the text, so a recipe is parsed again only after its ingredients change
+@Component
+public class IngredientParser {
+
+    // amounts are in the unit's base unit, NaN with a null unit when the line has no quantity
+    public static final class Parsed {
+        final String[] names;
+        final IngredientUnit[] units;
+        final double[] amounts;
+
+        private Parsed(List<String> names, List<IngredientUnit> units, List<Double> amounts) {
+            int n = names.size();
+            this.names = names.toArray(new String[0]);
+            this.units = units.toArray(new IngredientUnit[0]);
+            this.amounts = new double[n];
+            for (int i = 0; i < n; i++) {
+                this.amounts[i] = amounts.get(i);
+            }
+        }
+
+        public int size() {
+            return names.length;
+        }
+    }
+
+    // a comma between digits is a decimal separator, not a line break
+    private static final Pattern LINES = Pattern.compile("\\r?\\n|;|(?<!\\d),|,(?!\\d)");
+    private static final Pattern QUANTITY = Pattern.compile(
+            "(\\d+)\\s+(\\d+)/(\\d+)|(\\d+)/(\\d+)|(\\d+(?:[.,]\\d+)?)\\s*([½⅓⅔¼¾⅛])?|([½⅓⅔¼¾⅛])");
+    private static final Pattern RANGE = Pattern.compile("\\s*(?:-|–|to\\s)\\s*");
+    private static final Pattern PARENTHESES = Pattern.compile("\\([^)]*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final String TO_TASTE = " to taste";
+
+    private final int cacheSize;
+    private final Map<Long, Parsed> cache;
+
+    public IngredientParser(@Value("${shopping-list.parser-cache-size:10000}") int cacheSize) {
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Parsed> eldest) {
+                return size() > IngredientParser.this.cacheSize;
+            }
+        };
+    }
+
+    public Parsed parse(String text) {
+        long key = contentHash(text);
+        synchronized (cache) {
+            Parsed cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // parsing happens outside the lock, two threads racing on the same text produce equal results
+        Parsed parsed = parseUncached(text);
+        synchronized (cache) {
+            cache.put(key, parsed);
+        }
+        return parsed;
+    }
+
+    public int cachedCount() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    static Parsed parseUncached(String text) {
+        List<String> names = new ArrayList<>();
+        List<IngredientUnit> units = new ArrayList<>();
+        List<Double> amounts = new ArrayList<>();
+        for (String raw : LINES.split(text == null ? "" : text)) {
+            String line = WHITESPACE.matcher(PARENTHESES.matcher(raw.toLowerCase(Locale.ROOT)).replaceAll(" "))
+                    .replaceAll(" ").trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            int[] position = {0};
+            double quantity = quantity(line, position);
+            Matcher range = RANGE.matcher(line).region(position[0], line.length());
+            if (!Double.isNaN(quantity) && range.lookingAt()) {
+                // ranges are bought at their upper bound
+                int[] upperPosition = {range.end()};
+                double upper = quantity(line, upperPosition);
+                if (!Double.isNaN(upper)) {
+                    quantity = upper;
+                    position = upperPosition;
+                }
+            }
+            String rest = line.substring(position[0]).trim();
+
+            IngredientUnit unit = null;
+            if (!Double.isNaN(quantity)) {
+                int space = rest.indexOf(' ');
+                String word = space < 0 ? rest : rest.substring(0, space);
+                unit = IngredientUnit.of(word.endsWith(".") ? word.substring(0, word.length() - 1) : word);
+                if (unit != null) {
+                    rest = space < 0 ? "" : rest.substring(space + 1).trim();
+                } else {
+                    unit = IngredientUnit.PIECE;
+                }
+            }
+            String name = name(rest, unit);
+            if (name.isEmpty()) {
+                continue;
+            }
+            names.add(name);
+            units.add(unit == null ? null : unit.base());
+            amounts.add(unit == null ? Double.NaN : unit.toBase(quantity));
+        }
+        return new Parsed(names, units, amounts);
+    }
+
+    // reads a quantity at position[0] and moves it past the match, NaN when there is none
+    private static double quantity(String line, int[] position) {
+        Matcher m = QUANTITY.matcher(line).region(position[0], line.length());
+        if (!m.lookingAt()) {
+            return Double.NaN;
+        }
+        position[0] = m.end();
+        if (m.group(1) != null) {
+            return Integer.parseInt(m.group(1)) + fraction(m.group(2), m.group(3));
+        }
+        if (m.group(4) != null) {
+            return fraction(m.group(4), m.group(5));
+        }
+        if (m.group(6) != null) {
+            double whole = Double.parseDouble(m.group(6).replace(',', '.'));
+            return m.group(7) == null ? whole : whole + vulgarFraction(m.group(7).charAt(0));
+        }
+        return vulgarFraction(m.group(8).charAt(0));
+    }
+
+    private static double fraction(String numerator, String denominator) {
+        int d = Integer.parseInt(denominator);
+        return d == 0 ? 0 : (double) Integer.parseInt(numerator) / d;
+    }
+
+    private static double vulgarFraction(char c) {
+        return switch (c) {
+            case '½' -> 0.5;
+            case '⅓' -> 1.0 / 3;
+            case '⅔' -> 2.0 / 3;
+            case '¼' -> 0.25;
+            case '¾' -> 0.75;
+            default -> 0.125;
+        };
+    }
+
+    private static String name(String rest, IngredientUnit unit) {
+        String name = rest.startsWith("of ") ? rest.substring(3) : rest;
+        if (name.endsWith(TO_TASTE)) {
+            name = name.substring(0, name.length() - TO_TASTE.length());
+        }
+        name = name.trim();
+        // only counted things are plural in a recipe ("3 eggs"), so only those are singularized
+        if (unit == IngredientUnit.PIECE && name.length() > 3) {
+            if (name.endsWith("oes")) {
+                name = name.substring(0, name.length() - 2);
+            } else if (name.endsWith("s") && !name.endsWith("ss")) {
+                name = name.substring(0, name.length() - 1);
+            }
+        }
+        return name;
+    }
+
+    private static long contentHash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((text == null ? "" : text).getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
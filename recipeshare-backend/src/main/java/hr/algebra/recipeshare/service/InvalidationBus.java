@@ -0,0 +1,393 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.CacheInvalidator;
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.recipeshare.model.Invalidation;
+import hr.algebra.recipeshare.model.InvalidationStatsDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+// keeps node-local caches of rows in step across nodes without a broker: once a write committed its invalidations
+// go out with NOTIFY on the home database, every node LISTENs there on a connection of its own and hands what
+// arrives to its caches in coalesced batches. notifications sent while a listener was away are lost, so a
+// reconnect flushes every cache; on a database without NOTIFY only this node's caches are kept in step
+@Service
+public class InvalidationBus implements CacheInvalidator {
+
+    // told on the dispatcher thread, a handler that throws only loses that batch
+    public interface Handler {
+        void invalidate(List<Invalidation> batch);
+
+        void invalidateAll();
+    }
+
+    // NOTIFY payloads must stay below 8000 bytes
+    static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final String ALL = "*";
+    private static final Invalidation FLUSH = new Invalidation(ALL, 0, NO_VERSION);
+    private static final long KEEPALIVE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final String node = UUID.randomUUID().toString().substring(0, 8);
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final boolean clustered;
+    private final String channel;
+    private final long coalesceMillis;
+    private final int pollMillis;
+    private final long reconnectDelayMillis;
+
+    private final List<Handler> handlers = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<Invalidation> inbound;
+    private final BlockingQueue<Invalidation> outbound;
+    // set when a queue was full, what did not fit is made up for with a full flush
+    private final AtomicBoolean inboundOverflowed = new AtomicBoolean();
+    private final AtomicBoolean outboundOverflowed = new AtomicBoolean();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running = true;
+    private volatile boolean listening;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong notifications = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong fullFlushes = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public InvalidationBus(JdbcTemplate jdbcTemplate,
+                           DataSourceProperties dataSourceProperties,
+                           @Value("${invalidation.channel:recipeshare_invalidation}") String channel,
+                           @Value("${invalidation.coalesce-ms:5}") long coalesceMillis,
+                           @Value("${invalidation.poll-ms:500}") int pollMillis,
+                           @Value("${invalidation.reconnect-delay-ms:1000}") long reconnectDelayMillis,
+                           @Value("${invalidation.queue-capacity:10000}") int queueCapacity) {
+        if (!CHANNEL.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Channel must be a plain lower case identifier: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.url = dataSourceProperties.getUrl();
+        this.username = dataSourceProperties.getUsername();
+        this.password = dataSourceProperties.getPassword();
+        this.clustered = url != null && url.startsWith("jdbc:postgresql:");
+        this.channel = channel;
+        this.coalesceMillis = coalesceMillis;
+        this.pollMillis = pollMillis;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+        this.inbound = new ArrayBlockingQueue<>(queueCapacity);
+        this.outbound = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        threads.add(Thread.ofPlatform().daemon().name("invalidation-dispatcher").start(this::dispatch));
+        if (clustered) {
+            threads.add(Thread.ofPlatform().daemon().name("invalidation-sender").start(this::send));
+            threads.add(Thread.ofPlatform().daemon().name("invalidation-listener").start(this::listen));
+        }
+        LoggerSingleton.INSTANCE.info("Invalidation bus on node " + node
+                + (clustered ? ", listening on channel " + channel : ", local only"));
+    }
+
+    public void subscribe(Handler handler) {
+        handlers.add(handler);
+    }
+
+    public void unsubscribe(Handler handler) {
+        handlers.remove(handler);
+    }
+
+    // inside a transaction nothing is sent unless it commits, one row written twice is sent once
+    @Override
+    public void invalidate(String aggregateType, Long id, LongSupplier version) {
+        if (id == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed(List.of(new Invalidation(aggregateType, id, version.getAsLong())));
+            return;
+        }
+        pending().put(aggregateType + ":" + id, new Pending.Entry(aggregateType, id, version));
+    }
+
+    public InvalidationStatsDto stats() {
+        return InvalidationStatsDto.builder()
+                .node(node)
+                .clustered(clustered)
+                .listening(listening)
+                .published(published.get())
+                .notifications(notifications.get())
+                .received(received.get())
+                .batches(batches.get())
+                .fullFlushes(fullFlushes.get())
+                .reconnects(reconnects.get())
+                .dropped(dropped.get())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+    }
+
+    // every local cache is dropped with the next batch, what a listener reconnect leads to
+    void flushAll() {
+        if (!inbound.offer(FLUSH)) {
+            inboundOverflowed.set(true);
+        }
+    }
+
+    // "node|Recipe:12:3,User:4:-1", or "node|*" to flush every cache; split so no payload is too long
+    static List<String> encode(String node, List<Invalidation> batch, boolean all) {
+        String prefix = node + "|";
+        if (all) {
+            return List.of(prefix + ALL);
+        }
+        List<String> payloads = new ArrayList<>();
+        StringBuilder current = new StringBuilder(prefix);
+        for (Invalidation invalidation : batch) {
+            String entry = invalidation.aggregateType() + ":" + invalidation.id() + ":" + invalidation.version();
+            boolean first = current.length() == prefix.length();
+            if (!first && current.length() + 1 + entry.length() > MAX_PAYLOAD_BYTES) {
+                payloads.add(current.toString());
+                current.setLength(prefix.length());
+                first = true;
+            }
+            if (!first) {
+                current.append(',');
+            }
+            current.append(entry);
+        }
+        if (current.length() > prefix.length()) {
+            payloads.add(current.toString());
+        }
+        return payloads;
+    }
+
+    // null for this node's own notifications, they were handed to the local caches on commit already
+    static List<Invalidation> decode(String node, String payload) {
+        int bar = payload.indexOf('|');
+        if (bar < 0 || payload.substring(0, bar).equals(node)) {
+            return null;
+        }
+        String body = payload.substring(bar + 1);
+        if (body.equals(ALL)) {
+            return List.of(FLUSH);
+        }
+        List<Invalidation> batch = new ArrayList<>();
+        for (String entry : body.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length == 3) {
+                batch.add(new Invalidation(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2])));
+            }
+        }
+        return batch;
+    }
+
+    private Pending pending() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Pending pending) {
+                return pending;
+            }
+        }
+        Pending pending = new Pending();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private void committed(List<Invalidation> batch) {
+        for (Invalidation invalidation : batch) {
+            if (!inbound.offer(invalidation)) {
+                inboundOverflowed.set(true);
+                dropped.incrementAndGet();
+            }
+            if (clustered && !outbound.offer(invalidation)) {
+                outboundOverflowed.set(true);
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    // waits a moment after the first invalidation so a burst reaches the caches as one batch
+    private void dispatch() {
+        while (running) {
+            List<Invalidation> drained = new ArrayList<>();
+            try {
+                drained.add(inbound.take());
+                if (coalesceMillis > 0) {
+                    Thread.sleep(coalesceMillis);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            inbound.drainTo(drained);
+            boolean all = inboundOverflowed.getAndSet(false) || drained.stream().anyMatch(i -> i == FLUSH);
+            if (all) {
+                fullFlushes.incrementAndGet();
+                handlers.forEach(handler -> handle(() -> handler.invalidateAll()));
+                continue;
+            }
+            Map<String, Invalidation> latest = new LinkedHashMap<>();
+            for (Invalidation invalidation : drained) {
+                latest.merge(invalidation.aggregateType() + ":" + invalidation.id(), invalidation,
+                        (a, b) -> a.version() >= b.version() ? a : b);
+            }
+            List<Invalidation> batch = List.copyOf(latest.values());
+            received.addAndGet(drained.size());
+            batches.incrementAndGet();
+            handlers.forEach(handler -> handle(() -> handler.invalidate(batch)));
+        }
+    }
+
+    private static void handle(Runnable call) {
+        try {
+            call.run();
+        } catch (RuntimeException e) {
+            LoggerSingleton.INSTANCE.error("Invalidation handler failed: " + e.getMessage());
+        }
+    }
+
+    // whatever queued up while the previous NOTIFY ran goes out together; a failed send is tried again
+    private void send() {
+        List<Invalidation> batch = new ArrayList<>();
+        while (running) {
+            boolean all = false;
+            try {
+                if (batch.isEmpty()) {
+                    batch.add(outbound.take());
+                    outbound.drainTo(batch);
+                }
+                all = outboundOverflowed.getAndSet(false);
+                for (String payload : encode(node, batch, all)) {
+                    jdbcTemplate.query("SELECT pg_notify(?, ?)", _ -> {
+                    }, channel, payload);
+                    notifications.incrementAndGet();
+                }
+                published.addAndGet(batch.size());
+                batch.clear();
+            } catch (InterruptedException e) {
+                return;
+            } catch (DataAccessException e) {
+                LoggerSingleton.INSTANCE.warn("Sending invalidations failed, retrying: " + e.getMessage());
+                if (all) {
+                    outboundOverflowed.set(true);
+                }
+                if (!pause()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void listen() {
+        boolean missed = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password);
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + channel);
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                listening = true;
+                if (missed) {
+                    reconnects.incrementAndGet();
+                    flushAll();
+                    LoggerSingleton.INSTANCE.info("Invalidation listener reconnected, flushing local caches");
+                }
+                long lastTraffic = System.nanoTime();
+                while (running) {
+                    PGNotification[] arrived = pg.getNotifications(pollMillis);
+                    if (arrived != null && arrived.length > 0) {
+                        for (PGNotification notification : arrived) {
+                            notifications.incrementAndGet();
+                            List<Invalidation> batch = decode(node, notification.getParameter());
+                            if (batch != null) {
+                                received(batch);
+                            }
+                        }
+                        lastTraffic = System.nanoTime();
+                    } else if (System.nanoTime() - lastTraffic > KEEPALIVE_NANOS) {
+                        // a silently dropped connection only shows up once something is sent on it
+                        statement.execute("SELECT 1");
+                        lastTraffic = System.nanoTime();
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                LoggerSingleton.INSTANCE.warn("Invalidation listener lost its connection: " + e.getMessage());
+            } finally {
+                listening = false;
+            }
+            // what was sent until the next connect never reaches this node, even if the first attempt failed
+            missed = true;
+            if (!pause()) {
+                return;
+            }
+        }
+    }
+
+    private void received(List<Invalidation> batch) {
+        for (Invalidation invalidation : batch) {
+            if (!inbound.offer(invalidation)) {
+                inboundOverflowed.set(true);
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(reconnectDelayMillis);
+            return running;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    // the rows a transaction wrote, read out once it committed so the versions include its flush
+    private final class Pending implements TransactionSynchronization {
+
+        private record Entry(String aggregateType, long id, LongSupplier version) {
+        }
+
+        private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+        private void put(String key, Entry entry) {
+            entries.put(key, entry);
+        }
+
+        @Override
+        public void afterCommit() {
+            committed(entries.values().stream()
+                    .map(entry -> new Invalidation(entry.aggregateType(), entry.id(), entry.version().getAsLong()))
+                    .toList());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.repository.RecipeSimilarityJdbcRepository.Neighbors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// item-item cosine similarity over a sparse user x recipe matrix kept twice in CSR form:
+// recipe-major to walk a recipe's users, user-major to walk every recipe sharing one of them
+public final class ItemSimilarity {
+
+    private static final int MIN_RECIPES_PER_TASK = 64;
+    // a few tasks per worker so a slow range doesn't leave the others idle
+    private static final int TASKS_PER_WORKER = 4;
+
+    private final long[] recipeIds;
+    private final int[] rowStart;
+    private final int[] rowUsers;
+    private final float[] rowWeights;
+    private final int[] colStart;
+    private final int[] colRecipes;
+    private final float[] colWeights;
+    private final double[] norms;
+
+    private ItemSimilarity(long[] recipeIds, int[] rowStart, int[] rowUsers, float[] rowWeights, int users) {
+        this.recipeIds = recipeIds;
+        this.rowStart = rowStart;
+        this.rowUsers = rowUsers;
+        this.rowWeights = rowWeights;
+        int recipes = recipeIds.length;
+        int entries = rowUsers.length;
+
+        // transpose by counting sort, recipes stay in ascending order within every user
+        colStart = new int[users + 1];
+        for (int p = 0; p < entries; p++) {
+            colStart[rowUsers[p] + 1]++;
+        }
+        for (int u = 0; u < users; u++) {
+            colStart[u + 1] += colStart[u];
+        }
+        colRecipes = new int[entries];
+        colWeights = new float[entries];
+        int[] next = Arrays.copyOf(colStart, users);
+        norms = new double[recipes];
+        for (int i = 0; i < recipes; i++) {
+            double squares = 0;
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                int q = next[rowUsers[p]]++;
+                colRecipes[q] = i;
+                colWeights[q] = rowWeights[p];
+                squares += (double) rowWeights[p] * rowWeights[p];
+            }
+            norms[i] = Math.sqrt(squares);
+        }
+    }
+
+    public int recipes() {
+        return recipeIds.length;
+    }
+
+    // top k neighbors of every recipe scoring above minScore; users with more than maxUserDegree
+    // interactions say little about any single pair and would make the run quadratic, so they are skipped
+    public List<Neighbors> topNeighbors(ForkJoinPool pool, int k, int maxUserDegree, double minScore) {
+        int recipes = recipeIds.length;
+        int[][] neighbors = new int[recipes][];
+        float[][] scores = new float[recipes][];
+        int perTask = Math.max(MIN_RECIPES_PER_TASK, recipes / (pool.getParallelism() * TASKS_PER_WORKER) + 1);
+        pool.invoke(new Range(0, recipes, perTask, k, maxUserDegree, minScore, neighbors, scores));
+
+        List<Neighbors> result = new ArrayList<>();
+        for (int i = 0; i < recipes; i++) {
+            if (neighbors[i].length == 0) {
+                continue;
+            }
+            long[] ids = new long[neighbors[i].length];
+            for (int n = 0; n < ids.length; n++) {
+                ids[n] = recipeIds[neighbors[i][n]];
+            }
+            result.add(new Neighbors(recipeIds[i], ids, scores[i]));
+        }
+        return result;
+    }
+
+    private final class Range extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int perTask;
+        private final int k;
+        private final int maxUserDegree;
+        private final double minScore;
+        private final int[][] neighbors;
+        private final float[][] scores;
+
+        private Range(int from, int to, int perTask, int k, int maxUserDegree, double minScore,
+                      int[][] neighbors, float[][] scores) {
+            this.from = from;
+            this.to = to;
+            this.perTask = perTask;
+            this.k = k;
+            this.maxUserDegree = maxUserDegree;
+            this.minScore = minScore;
+            this.neighbors = neighbors;
+            this.scores = scores;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > perTask) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Range(from, mid, perTask, k, maxUserDegree, minScore, neighbors, scores),
+                        new Range(mid, to, perTask, k, maxUserDegree, minScore, neighbors, scores));
+                return;
+            }
+            int recipes = recipeIds.length;
+            // dense scratch reused for every recipe of the range, only touched slots are reset
+            double[] dot = new double[recipes];
+            int[] owner = new int[recipes];
+            Arrays.fill(owner, -1);
+            int[] touched = new int[recipes];
+            int[] topIndex = new int[k];
+            float[] topScore = new float[k];
+
+            for (int i = from; i < to; i++) {
+                int count = 0;
+                for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                    int user = rowUsers[p];
+                    if (colStart[user + 1] - colStart[user] > maxUserDegree) {
+                        continue;
+                    }
+                    float weight = rowWeights[p];
+                    for (int q = colStart[user]; q < colStart[user + 1]; q++) {
+                        int j = colRecipes[q];
+                        if (j == i) {
+                            continue;
+                        }
+                        if (owner[j] != i) {
+                            owner[j] = i;
+                            dot[j] = 0;
+                            touched[count++] = j;
+                        }
+                        dot[j] += (double) weight * colWeights[q];
+                    }
+                }
+
+                int size = 0;
+                for (int t = 0; t < count; t++) {
+                    int j = touched[t];
+                    float score = (float) (dot[j] / (norms[i] * norms[j]));
+                    if (score <= minScore || (size == k && score <= topScore[k - 1])) {
+                        continue;
+                    }
+                    int position = size < k ? size++ : k - 1;
+                    while (position > 0 && topScore[position - 1] < score) {
+                        topScore[position] = topScore[position - 1];
+                        topIndex[position] = topIndex[position - 1];
+                        position--;
+                    }
+                    topScore[position] = score;
+                    topIndex[position] = j;
+                }
+                neighbors[i] = Arrays.copyOf(topIndex, size);
+                scores[i] = Arrays.copyOf(topScore, size);
+            }
+        }
+    }
+
+    // rows must arrive grouped by recipe, each (recipe, user) pair at most once
+    public static final class Builder {
+        private final Map<Long, Integer> userIndex = new HashMap<>();
+        private long[] recipeIds = new long[1024];
+        private int[] rowStart = new int[1025];
+        private int[] users = new int[4096];
+        private float[] weights = new float[4096];
+        private int recipes;
+        private int entries;
+
+        public Builder add(long recipeId, long userId, double weight) {
+            if (recipes == 0 || recipeIds[recipes - 1] != recipeId) {
+                if (recipes == recipeIds.length) {
+                    recipeIds = Arrays.copyOf(recipeIds, recipes * 2);
+                    rowStart = Arrays.copyOf(rowStart, recipes * 2 + 1);
+                }
+                recipeIds[recipes++] = recipeId;
+            }
+            if (entries == users.length) {
+                users = Arrays.copyOf(users, entries * 2);
+                weights = Arrays.copyOf(weights, entries * 2);
+            }
+            users[entries] = userIndex.computeIfAbsent(userId, _ -> userIndex.size());
+            weights[entries] = (float) weight;
+            rowStart[recipes] = ++entries;
+            return this;
+        }
+
+        public ItemSimilarity build() {
+            return new ItemSimilarity(Arrays.copyOf(recipeIds, recipes), Arrays.copyOf(rowStart, recipes + 1),
+                    Arrays.copyOf(users, entries), Arrays.copyOf(weights, entries), userIndex.size());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.model.GeneratedDayDto;
+import hr.algebra.recipeshare.model.GeneratedMealPlanDto;
+import hr.algebra.recipeshare.model.Macros;
+import hr.algebra.recipeshare.model.MealPlanGenerationRequest;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// generates meal plans against macro targets from an in-memory catalog snapshot;
+// the search runs on its own pool so it can't starve the common pool used by request handling
+@Service
+public class MealPlanGeneratorService {
+
+    private static final int DEFAULT_DAYS = 7;
+    private static final int DEFAULT_MEALS_PER_DAY = 3;
+    private static final int MAX_MEALS_PER_DAY = 6;
+    private static final int MAX_REPEATS = 2;
+
+    private final RecipeJpaRepository recipeRepository;
+    private final ShardRouter shardRouter;
+    private final ForkJoinPool pool;
+    private final MealPlanSearch search;
+    private final long defaultBudgetMs;
+    private final long maxBudgetMs;
+
+    private volatile RecipeCatalog catalog = RecipeCatalog.of(List.of());
+
+    public MealPlanGeneratorService(RecipeJpaRepository recipeRepository,
+                                    ShardRouter shardRouter,
+                                    @Value("${meal-plans.generator.parallelism:0}") int parallelism,
+                                    @Value("${meal-plans.generator.beam-width:64}") int beamWidth,
+                                    @Value("${meal-plans.generator.max-candidates:300}") int maxCandidates,
+                                    @Value("${meal-plans.generator.time-budget-ms:500}") long defaultBudgetMs,
+                                    @Value("${meal-plans.generator.max-time-budget-ms:2000}") long maxBudgetMs) {
+        this.recipeRepository = recipeRepository;
+        this.shardRouter = shardRouter;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.search = new MealPlanSearch(pool, beamWidth, maxCandidates);
+        this.defaultBudgetMs = defaultBudgetMs;
+        this.maxBudgetMs = maxBudgetMs;
+    }
+
+    public GeneratedMealPlanDto generate(MealPlanGenerationRequest request) {
+        if (request.getCalories() == null || request.getCalories() <= 0) {
+            throw new IllegalArgumentException("A calorie target is required");
+        }
+        int days = request.getDays() == null ? DEFAULT_DAYS : request.getDays();
+        if (days < 1 || days > MealPlanService.MAX_DAYS) {
+            throw new IllegalArgumentException("A meal plan covers 1 to " + MealPlanService.MAX_DAYS + " days: " + days);
+        }
+        int meals = request.getMealsPerDay() == null ? DEFAULT_MEALS_PER_DAY : request.getMealsPerDay();
+        if (meals < 1 || meals > MAX_MEALS_PER_DAY) {
+            throw new IllegalArgumentException("Meals per day out of range: " + meals);
+        }
+        long budgetMs = request.getTimeBudgetMs() == null ? defaultBudgetMs
+                : Math.max(1, Math.min(request.getTimeBudgetMs(), maxBudgetMs));
+
+        Macros target = Macros.of(request.getCalories(), request.getProtein(), request.getFat(), request.getCarbs(), 1);
+        long start = System.nanoTime();
+        MealPlanSearch.Result result = search.search(catalog, target, days, meals, request.getMaxCookTimeMinutes(),
+                MAX_REPEATS, start + TimeUnit.MILLISECONDS.toNanos(budgetMs));
+        return GeneratedMealPlanDto.builder()
+                .days(result.days().stream()
+                        .map(day -> GeneratedDayDto.builder()
+                                .recipeIds(Arrays.stream(day.recipeIds()).boxed().toList())
+                                .totals(day.totals())
+                                .error(day.error())
+                                .build())
+                        .toList())
+                .complete(result.complete())
+                .elapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .candidates(result.candidates())
+                .build();
+    }
+
+    // a new snapshot replaces the old one whole, searches in flight keep the one they started with
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${meal-plans.generator.catalog-refresh-ms:300000}",
+            initialDelayString = "${meal-plans.generator.catalog-refresh-ms:300000}")
+    public void refreshCatalog() {
+        catalog = RecipeCatalog.of(shardRouter.scatter(recipeRepository::findMacroRows));
+        LoggerSingleton.INSTANCE.info("Loaded " + catalog.size() + " recipes into the meal plan generator");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,240 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.ChangeType;
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.common.Transactions;
+import hr.algebra.recipeshare.dao.MealPlanEntity;
+import hr.algebra.recipeshare.dao.MealPlanItemEntity;
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.repository.MealPlanItemJpaRepository;
+import hr.algebra.recipeshare.dao.repository.MealPlanJpaRepository;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.mapper.MealPlanItemMapper;
+import hr.algebra.recipeshare.model.ChangeEvent;
+import hr.algebra.recipeshare.model.Macros;
+import hr.algebra.recipeshare.model.MealPlanItemDto;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// every item stores what it added to its plan, so any change is applied to the plan's day arrays as an exact delta.
+// recipe edits reach the plans through their outbox events, which stay pending until propagated. macros the
+// nutrition estimate wrote are only remembered in memory, so on start and once a night every planned recipe is
+// propagated again, which picks up whatever a restart lost
+@Service
+public class MealPlanItemService {
+
+    private static final double MAX_SERVINGS = 20;
+
+    private final MealPlanItemJpaRepository itemRepository;
+    private final MealPlanJpaRepository mealPlanRepository;
+    private final RecipeJpaRepository recipeJpaRepository;
+    private final MealPlanItemMapper itemMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeEventBus changeEventBus;
+    private final ShardRouter shardRouter;
+    private final int batchSize;
+    private final int changeQueueCapacity;
+
+    // recipes whose macros changed since the last propagation pass
+    private final Set<Long> dirtyRecipes = ConcurrentHashMap.newKeySet();
+
+    public MealPlanItemService(MealPlanItemJpaRepository itemRepository,
+                               MealPlanJpaRepository mealPlanRepository,
+                               RecipeJpaRepository recipeJpaRepository,
+                               MealPlanItemMapper itemMapper,
+                               TransactionTemplate transactionTemplate,
+                               ChangeEventBus changeEventBus,
+                               ShardRouter shardRouter,
+                               @Value("${meal-plans.propagation-batch-size:100}") int batchSize,
+                               @Value("${meal-plans.change-queue-capacity:1000}") int changeQueueCapacity) {
+        this.itemRepository = itemRepository;
+        this.mealPlanRepository = mealPlanRepository;
+        this.recipeJpaRepository = recipeJpaRepository;
+        this.itemMapper = itemMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.changeEventBus = changeEventBus;
+        this.shardRouter = shardRouter;
+        this.batchSize = batchSize;
+        this.changeQueueCapacity = changeQueueCapacity;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        changeEventBus.subscribe("meal-plans", changeQueueCapacity, this::onChange);
+    }
+
+    public List<MealPlanItemDto> getItems(Long planId) {
+        return itemMapper.toDtoList(itemRepository.findAllByMealPlanIdOrderByDayIndexAscIdAsc(planId));
+    }
+
+    @Transactional
+    public MealPlanItemDto addItem(Long planId, MealPlanItemDto dto) {
+        MealPlanEntity plan = lockPlan(planId);
+        RecipeEntity recipe = shardRouter.read(dto.getRecipeId(), () -> recipeJpaRepository.findById(dto.getRecipeId()))
+                .filter(r -> r.getDeletedAt() == null)
+                .orElseThrow(() -> new RuntimeException("Not found: " + dto.getRecipeId()));
+        MealPlanItemEntity item = itemMapper.dtoToEntity(dto);
+        item.setMealPlanId(planId);
+        if (item.getServings() == null) {
+            item.setServings(1.0);
+        }
+        validate(plan, item);
+        item.setContribution(contribution(recipe, item.getServings()));
+        plan.apply(item.getDayIndex(), item.getContribution());
+        return itemMapper.toDto(itemRepository.save(item));
+    }
+
+    @Transactional
+    public MealPlanItemDto updateItem(Long planId, Long itemId, MealPlanItemDto dto) {
+        MealPlanEntity plan = lockPlan(planId);
+        MealPlanItemEntity item = item(planId, itemId);
+        plan.apply(item.getDayIndex(), Macros.ZERO.minus(item.getContribution()));
+        itemMapper.updateEntityFromDto(dto, item);
+        validate(plan, item);
+        RecipeEntity recipe = shardRouter.read(item.getRecipeId(), () -> recipeJpaRepository.findById(item.getRecipeId()))
+                .orElseThrow(() -> new RuntimeException("Not found: " + item.getRecipeId()));
+        item.setContribution(contribution(recipe, item.getServings()));
+        plan.apply(item.getDayIndex(), item.getContribution());
+        return itemMapper.toDto(item);
+    }
+
+    @Transactional
+    public void removeItem(Long planId, Long itemId) {
+        MealPlanEntity plan = lockPlan(planId);
+        MealPlanItemEntity item = item(planId, itemId);
+        plan.apply(item.getDayIndex(), Macros.ZERO.minus(item.getContribution()));
+        itemRepository.delete(item);
+    }
+
+    // propagated right away, a failure leaves the event pending and it comes again
+    private void onChange(ChangeEvent event) {
+        if (event.aggregateType().equals("Recipe") && event.type() == ChangeType.UPDATED) {
+            propagate(List.of(event.aggregateId()));
+        }
+    }
+
+    // called from inside the macro recompute, the recipe is only queued once that transaction commits
+    public void onRecipeMacrosChanged(Long recipeId) {
+        Transactions.afterCommit(() -> dirtyRecipes.add(recipeId));
+    }
+
+    @Scheduled(fixedDelayString = "${meal-plans.propagation-interval-ms:5000}",
+            initialDelayString = "${meal-plans.propagation-interval-ms:5000}")
+    public synchronized void propagateDirty() {
+        int updated = 0;
+        while (!dirtyRecipes.isEmpty()) {
+            List<Long> batch = new ArrayList<>(batchSize);
+            Iterator<Long> it = dirtyRecipes.iterator();
+            while (it.hasNext() && batch.size() < batchSize) {
+                batch.add(it.next());
+                it.remove();
+            }
+            try {
+                updated += propagate(batch);
+            } catch (DataAccessException e) {
+                LoggerSingleton.INSTANCE.error("Meal plan propagation failed, retrying next round: " + e.getMessage());
+                dirtyRecipes.addAll(batch);
+                return;
+            }
+        }
+        if (updated > 0) {
+            LoggerSingleton.INSTANCE.info("Propagated recipe macro changes to " + updated + " meal plan items");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcile();
+    }
+
+    // a recipe whose items already match adds nothing but a read, so propagating all of them is safe
+    @Scheduled(cron = "${meal-plans.reconcile-cron:0 20 4 * * *}")
+    public void reconcile() {
+        List<Long> recipeIds;
+        try {
+            recipeIds = itemRepository.findDistinctRecipeIds();
+        } catch (DataAccessException e) {
+            LoggerSingleton.INSTANCE.error("Meal plan reconcile failed, retrying next round: " + e.getMessage());
+            return;
+        }
+        dirtyRecipes.addAll(recipeIds);
+        propagateDirty();
+    }
+
+    // recomputes every item of the given recipes and applies the differences, safe to repeat
+    public int propagate(Collection<Long> recipeIds) {
+        Integer updated = transactionTemplate.execute(_ -> {
+            // plans are locked before their items are read, so item edits cannot interleave
+            Map<Long, MealPlanEntity> plans = mealPlanRepository.lockAllContainingRecipes(recipeIds).stream()
+                    .collect(Collectors.toMap(MealPlanEntity::getId, Function.identity()));
+            if (plans.isEmpty()) {
+                return 0;
+            }
+            Map<Long, RecipeEntity> recipes = shardRouter.scatter(() -> recipeJpaRepository.findAllById(recipeIds)).stream()
+                    .collect(Collectors.toMap(RecipeEntity::getId, Function.identity()));
+            int changed = 0;
+            for (MealPlanItemEntity item : itemRepository.findAllByRecipeIdIn(recipeIds)) {
+                RecipeEntity recipe = recipes.get(item.getRecipeId());
+                MealPlanEntity plan = plans.get(item.getMealPlanId());
+                if (recipe == null || plan == null) {
+                    continue;
+                }
+                Macros current = contribution(recipe, item.getServings());
+                Macros delta = current.minus(item.getContribution());
+                if (delta.isZero()) {
+                    continue;
+                }
+                plan.apply(item.getDayIndex(), delta);
+                item.setContribution(current);
+                changed++;
+            }
+            return changed;
+        });
+        return updated == null ? 0 : updated;
+    }
+
+    private MealPlanEntity lockPlan(Long planId) {
+        return mealPlanRepository.lockById(planId)
+                .filter(plan -> plan.getDeletedAt() == null)
+                .orElseThrow(() -> new RuntimeException("Not found: " + planId));
+    }
+
+    private MealPlanItemEntity item(Long planId, Long itemId) {
+        return itemRepository.findById(itemId)
+                .filter(item -> item.getMealPlanId().equals(planId))
+                .orElseThrow(() -> new RuntimeException("Not found: " + itemId));
+    }
+
+    private static void validate(MealPlanEntity plan, MealPlanItemEntity item) {
+        if (item.getDayIndex() == null || item.getDayIndex() < 0 || item.getDayIndex() >= plan.getDays()) {
+            throw new IllegalArgumentException("Day outside the plan: " + item.getDayIndex());
+        }
+        if (item.getMealSlot() == null) {
+            throw new IllegalArgumentException("Meal slot is required");
+        }
+        if (item.getServings() <= 0 || item.getServings() > MAX_SERVINGS) {
+            throw new IllegalArgumentException("Servings out of range: " + item.getServings());
+        }
+    }
+
+    private static Macros contribution(RecipeEntity recipe, double servings) {
+        return Macros.of(recipe.getCalories(), recipe.getProtein(), recipe.getFat(), recipe.getCarbs(), servings);
+    }
+}
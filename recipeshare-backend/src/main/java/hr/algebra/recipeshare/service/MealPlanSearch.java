@@ -0,0 +1,290 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.TopK;
+import hr.algebra.recipeshare.model.Macros;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+// picks the meals of each day with a beam search over a prefiltered candidate set;
+// every beam layer is expanded as a fork-join task and the search stops at the deadline
+// with the best plan found so far, finishing any partial day greedily
+public final class MealPlanSearch {
+
+    public record Day(long[] recipeIds, Macros totals, double error) {
+    }
+
+    public record Result(List<Day> days, boolean complete, int candidates) {
+    }
+
+    private record Partial(int[] picks, int calories, int protein, int fat, int carbs, double score) {
+    }
+
+    private static final double CALORIE_WEIGHT = 2.0;
+    // a single meal outside this share of the per-meal calorie target can't be part of a good day
+    private static final double MIN_MEAL_SHARE = 0.2;
+    private static final double MAX_MEAL_SHARE = 3.0;
+    private static final int STATES_PER_TASK = 8;
+    private static final Comparator<Partial> WORST_FIRST = Comparator.comparingDouble(Partial::score).reversed();
+
+    private final ForkJoinPool pool;
+    private final int beamWidth;
+    private final int maxCandidates;
+
+    public MealPlanSearch(ForkJoinPool pool, int beamWidth, int maxCandidates) {
+        this.pool = pool;
+        this.beamWidth = beamWidth;
+        this.maxCandidates = maxCandidates;
+    }
+
+    public Result search(RecipeCatalog catalog, Macros target, int days, int mealsPerDay,
+                         Integer maxCookTime, int maxRepeats, long deadlineNanos) {
+        Candidates candidates = prefilter(catalog, target, mealsPerDay, maxCookTime);
+        int[] used = new int[candidates.size()];
+        List<Day> result = new ArrayList<>(days);
+        boolean complete = true;
+
+        for (int day = 0; day < days; day++) {
+            // the time left is shared evenly by the days still to plan
+            long now = System.nanoTime();
+            long dayDeadline = now + Math.max(0, (deadlineNanos - now) / (days - day));
+            AtomicBoolean timedOut = new AtomicBoolean();
+            Partial best = searchDay(candidates, target, mealsPerDay, maxRepeats, used, dayDeadline, timedOut);
+            complete &= !timedOut.get();
+            if (best.picks().length == 0) {
+                break;
+            }
+            long[] recipeIds = new long[best.picks().length];
+            for (int i = 0; i < recipeIds.length; i++) {
+                used[best.picks()[i]]++;
+                recipeIds[i] = catalog.ids[candidates.index[best.picks()[i]]];
+            }
+            Macros totals = new Macros(best.calories(), best.protein(), best.fat(), best.carbs());
+            result.add(new Day(recipeIds, totals, error(target, best.calories(), best.protein(), best.fat(), best.carbs())));
+        }
+        return new Result(result, complete, candidates.size());
+    }
+
+    private Partial searchDay(Candidates candidates, Macros target, int meals, int maxRepeats, int[] used,
+                            long deadline, AtomicBoolean timedOut) {
+        List<Partial> beam = List.of(new Partial(new int[0], 0, 0, 0, 0, Double.MAX_VALUE));
+        for (int depth = 0; depth < meals; depth++) {
+            Layer layer = new Layer(candidates, target, meals, maxRepeats, used, deadline, timedOut);
+            List<Partial> next = pool.invoke(layer.task(beam, 0, beam.size()));
+            if (next.isEmpty()) {
+                break;
+            }
+            beam = next;
+            if (timedOut.get()) {
+                break;
+            }
+        }
+        Partial best = beam.stream().min(Comparator.comparingDouble(Partial::score)).orElseThrow();
+        return completeGreedily(best, candidates, target, meals, maxRepeats, used);
+    }
+
+    private static Partial completeGreedily(Partial state, Candidates candidates, Macros target,
+                                          int meals, int maxRepeats, int[] used) {
+        while (state.picks().length < meals) {
+            Partial bestNext = null;
+            for (int c = 0; c < candidates.size(); c++) {
+                if (used[c] >= maxRepeats || contains(state.picks(), c)) {
+                    continue;
+                }
+                Partial next = extend(state, c, candidates, target, meals);
+                if (bestNext == null || next.score() < bestNext.score()) {
+                    bestNext = next;
+                }
+            }
+            if (bestNext == null) {
+                return state;
+            }
+            state = bestNext;
+        }
+        return state;
+    }
+
+    private Candidates prefilter(RecipeCatalog catalog, Macros target, int meals, Integer maxCookTime) {
+        double perMealCalories = (double) target.calories() / meals;
+        double minCalories = perMealCalories * MIN_MEAL_SHARE;
+        double maxCalories = perMealCalories * MAX_MEAL_SHARE;
+        TopK ranked = pool.submit(() -> IntStream.range(0, catalog.size()).parallel()
+                .filter(i -> maxCookTime == null
+                        || (catalog.cookTime[i] != RecipeCatalog.UNKNOWN_COOK_TIME && catalog.cookTime[i] <= maxCookTime))
+                .filter(i -> catalog.calories[i] >= minCalories && catalog.calories[i] <= maxCalories)
+                .collect(() -> new TopK(maxCandidates),
+                        (topK, i) -> topK.offer(i, -mealError(catalog, i, target, meals)),
+                        TopK::merge))
+                .join();
+        int[] index = ranked.top(maxCandidates).stream().mapToInt(r -> (int) r.id()).toArray();
+        return new Candidates(catalog, index);
+    }
+
+    private static Partial extend(Partial state, int candidate, Candidates candidates, Macros target, int meals) {
+        int[] picks = Arrays.copyOf(state.picks(), state.picks().length + 1);
+        picks[picks.length - 1] = candidate;
+        int calories = state.calories() + candidates.calories[candidate];
+        int protein = state.protein() + candidates.protein[candidate];
+        int fat = state.fat() + candidates.fat[candidate];
+        int carbs = state.carbs() + candidates.carbs[candidate];
+        // meals still to add are assumed to hit the per-meal target exactly
+        double remaining = (double) (meals - picks.length) / meals;
+        double score = error(target,
+                calories + remaining * target.calories(),
+                protein + remaining * target.protein(),
+                fat + remaining * target.fat(),
+                carbs + remaining * target.carbs());
+        return new Partial(picks, calories, protein, fat, carbs, score);
+    }
+
+    private static double mealError(RecipeCatalog catalog, int i, Macros target, int meals) {
+        return error(target, (double) catalog.calories[i] * meals, (double) catalog.protein[i] * meals,
+                (double) catalog.fat[i] * meals, (double) catalog.carbs[i] * meals);
+    }
+
+    // weighted squared relative error, a macro without a target does not count
+    private static double error(Macros target, double calories, double protein, double fat, double carbs) {
+        return CALORIE_WEIGHT * term(calories, target.calories())
+                + term(protein, target.protein())
+                + term(fat, target.fat())
+                + term(carbs, target.carbs());
+    }
+
+    private static double term(double actual, int target) {
+        if (target <= 0) {
+            return 0;
+        }
+        double relative = (actual - target) / target;
+        return relative * relative;
+    }
+
+    private static boolean contains(int[] picks, int candidate) {
+        for (int pick : picks) {
+            if (pick == candidate) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Partial> best(PriorityQueue<Partial> heap) {
+        List<Partial> states = new ArrayList<>(heap);
+        states.sort(Comparator.comparingDouble(Partial::score));
+        return states;
+    }
+
+    private void offer(PriorityQueue<Partial> heap, Partial state) {
+        if (heap.size() < beamWidth) {
+            heap.add(state);
+        } else if (state.score() < heap.peek().score()) {
+            heap.poll();
+            heap.add(state);
+        }
+    }
+
+    // candidates copied into dense arrays in rank order, index points back into the catalog
+    private static final class Candidates {
+        private final int[] index;
+        private final int[] calories;
+        private final int[] protein;
+        private final int[] fat;
+        private final int[] carbs;
+
+        private Candidates(RecipeCatalog catalog, int[] index) {
+            this.index = index;
+            this.calories = new int[index.length];
+            this.protein = new int[index.length];
+            this.fat = new int[index.length];
+            this.carbs = new int[index.length];
+            for (int c = 0; c < index.length; c++) {
+                calories[c] = catalog.calories[index[c]];
+                protein[c] = catalog.protein[index[c]];
+                fat[c] = catalog.fat[index[c]];
+                carbs[c] = catalog.carbs[index[c]];
+            }
+        }
+
+        private int size() {
+            return index.length;
+        }
+    }
+
+    // one beam layer: every state is extended by every later candidate, the best beamWidth survive
+    private final class Layer {
+        private final Candidates candidates;
+        private final Macros target;
+        private final int meals;
+        private final int maxRepeats;
+        private final int[] used;
+        private final long deadline;
+        private final AtomicBoolean timedOut;
+
+        private Layer(Candidates candidates, Macros target, int meals, int maxRepeats, int[] used,
+                      long deadline, AtomicBoolean timedOut) {
+            this.candidates = candidates;
+            this.target = target;
+            this.meals = meals;
+            this.maxRepeats = maxRepeats;
+            this.used = used;
+            this.deadline = deadline;
+            this.timedOut = timedOut;
+        }
+
+        private Expand task(List<Partial> states, int from, int to) {
+            return new Expand(states, from, to);
+        }
+
+        private final class Expand extends RecursiveTask<List<Partial>> {
+            private final List<Partial> states;
+            private final int from;
+            private final int to;
+
+            private Expand(List<Partial> states, int from, int to) {
+                this.states = states;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected List<Partial> compute() {
+                if (to - from <= STATES_PER_TASK) {
+                    return expand(states, from, to);
+                }
+                int mid = (from + to) >>> 1;
+                Expand left = new Expand(states, from, mid);
+                left.fork();
+                List<Partial> right = new Expand(states, mid, to).compute();
+                PriorityQueue<Partial> merged = new PriorityQueue<>(WORST_FIRST);
+                left.join().forEach(state -> offer(merged, state));
+                right.forEach(state -> offer(merged, state));
+                return best(merged);
+            }
+        }
+
+        private List<Partial> expand(List<Partial> states, int from, int to) {
+            PriorityQueue<Partial> heap = new PriorityQueue<>(WORST_FIRST);
+            for (int s = from; s < to; s++) {
+                if (timedOut.get() || System.nanoTime() > deadline) {
+                    timedOut.set(true);
+                    break;
+                }
+                Partial state = states.get(s);
+                // candidates only ever follow the last pick, so each combination is generated once
+                int start = state.picks().length == 0 ? 0 : state.picks()[state.picks().length - 1] + 1;
+                for (int c = start; c < candidates.size(); c++) {
+                    if (used[c] < maxRepeats) {
+                        offer(heap, extend(state, c, candidates, target, meals));
+                    }
+                }
+            }
+            return best(heap);
+        }
+    }
+}
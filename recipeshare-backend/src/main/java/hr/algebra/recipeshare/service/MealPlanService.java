@@ -0,0 +1,51 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.AbstractCrud;
+import hr.algebra.recipeshare.dao.MealPlanEntity;
+import hr.algebra.recipeshare.dao.repository.MealPlanJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.mapper.MealPlanMapper;
+import hr.algebra.recipeshare.model.MealPlanDto;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class MealPlanService extends AbstractCrud<MealPlanEntity, MealPlanDto> {
+
+    public static final int MAX_DAYS = 28;
+
+    private final MealPlanJpaRepository mealPlanRepository;
+    private final UserJpaRepository userJpaRepository;
+    private final MealPlanMapper mealPlanMapper;
+    private final ShardRouter shardRouter;
+
+    public MealPlanService(MealPlanJpaRepository repository, MealPlanMapper mapper,
+                           UserJpaRepository userJpaRepository, ShardRouter shardRouter) {
+        super(repository, mapper);
+        this.mealPlanRepository = repository;
+        this.userJpaRepository = userJpaRepository;
+        this.mealPlanMapper = mapper;
+        this.shardRouter = shardRouter;
+    }
+
+    public List<MealPlanDto> getAllByUserId(Long userId) {
+        return mealPlanRepository.findAllByUserIdAndDeletedAtIsNullOrderByIdDesc(userId).stream()
+                .map(mealPlanMapper::toDto)
+                .toList();
+    }
+
+    @Override
+    protected void preCreate(MealPlanEntity entity, MealPlanDto dto) {
+        super.preCreate(entity, dto);
+        if (!shardRouter.read(dto.getUserId(), () -> userJpaRepository.existsById(dto.getUserId()))) {
+            throw new RuntimeException("Not found: " + dto.getUserId());
+        }
+        int days = dto.getDays() == null ? MealPlanEntity.DAYS_PER_WEEK : dto.getDays();
+        if (days < 1 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("A meal plan covers 1 to " + MAX_DAYS + " days: " + days);
+        }
+        entity.setDays(days);
+        entity.resetTotals();
+    }
+}
@@ -0,0 +1,187 @@
+package hr.algebra.recipeshare.service;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+// reference nutrients per 100 g in a fixed-width file that is memory-mapped instead of loaded: records are
+// sorted by name and found by binary search straight over the mapping, so the table costs no heap and opening it is instant
+public final class NutrientTable implements AutoCloseable {
+
+    public record Entry(String name, float kcal, float protein, float fat, float carbs,
+                        float gramsPerMl, float gramsPerPiece) {
+    }
+
+    private static final int MAGIC = 0x4E555452;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int NAME_BYTES = 40;
+    private static final int RECORD_BYTES = NAME_BYTES + 6 * Float.BYTES;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfFloat FLOAT = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final int size;
+    private final int sourceHash;
+
+    private NutrientTable(Arena arena, MemorySegment segment) {
+        this.arena = arena;
+        this.segment = segment;
+        if (segment.byteSize() < HEADER_BYTES || segment.get(INT, 0) != MAGIC || segment.get(INT, 4) != VERSION) {
+            throw new IllegalStateException("Not a nutrient table");
+        }
+        this.size = segment.get(INT, 8);
+        this.sourceHash = segment.get(INT, 12);
+        if (segment.byteSize() != HEADER_BYTES + (long) size * RECORD_BYTES) {
+            throw new IllegalStateException("Truncated nutrient table");
+        }
+    }
+
+    public static NutrientTable open(Path path) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new NutrientTable(arena, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    // written beside the target and moved over it, readers never map a half written file
+    public static void write(Path path, List<Entry> entries, int sourceHash) throws IOException {
+        for (Entry entry : entries) {
+            if (key(entry.name()) == null) {
+                throw new IllegalArgumentException("Nutrient name too long: " + entry.name());
+            }
+        }
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(entry -> key(entry.name()), Arrays::compareUnsigned));
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + sorted.size() * RECORD_BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(sorted.size()).putInt(sourceHash);
+        byte[] previous = null;
+        for (Entry entry : sorted) {
+            byte[] name = key(entry.name());
+            if (previous != null && Arrays.equals(previous, name)) {
+                throw new IllegalArgumentException("Duplicate nutrient name: " + entry.name());
+            }
+            previous = name;
+            buffer.put(name).put(new byte[NAME_BYTES - name.length]);
+            buffer.putFloat(entry.kcal()).putFloat(entry.protein()).putFloat(entry.fat()).putFloat(entry.carbs())
+                    .putFloat(entry.gramsPerMl()).putFloat(entry.gramsPerPiece());
+        }
+
+        Path absolute = path.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temp = Files.createTempFile(absolute.getParent(), "nutrients", ".tmp");
+        try {
+            Files.write(temp, buffer.array());
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // name,kcal,protein,fat,carbs,grams per ml,grams per piece; blank lines and # comments are skipped
+    public static List<Entry> parseCsv(String csv) {
+        List<Entry> entries = new ArrayList<>();
+        for (String line : csv.split("\\r?\\n")) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] cells = line.split(",");
+            if (cells.length != 7) {
+                throw new IllegalArgumentException("Expected 7 columns: " + line);
+            }
+            entries.add(new Entry(cells[0].trim().toLowerCase(Locale.ROOT),
+                    Float.parseFloat(cells[1]), Float.parseFloat(cells[2]), Float.parseFloat(cells[3]),
+                    Float.parseFloat(cells[4]), Float.parseFloat(cells[5]), Float.parseFloat(cells[6])));
+        }
+        return entries;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int sourceHash() {
+        return sourceHash;
+    }
+
+    // index of the exact name, -1 when absent; compares against the mapped bytes, nothing is decoded
+    public int find(String name) {
+        byte[] key = key(name);
+        if (key == null) {
+            return -1;
+        }
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareAt(mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public Entry get(int index) {
+        long offset = offset(index);
+        int length = 0;
+        while (length < NAME_BYTES && segment.get(ValueLayout.JAVA_BYTE, offset + length) != 0) {
+            length++;
+        }
+        byte[] name = segment.asSlice(offset, length).toArray(ValueLayout.JAVA_BYTE);
+        long values = offset + NAME_BYTES;
+        return new Entry(new String(name, StandardCharsets.UTF_8),
+                segment.get(FLOAT, values), segment.get(FLOAT, values + 4), segment.get(FLOAT, values + 8),
+                segment.get(FLOAT, values + 12), segment.get(FLOAT, values + 16), segment.get(FLOAT, values + 20));
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    // record name minus key, the zero padding sorts before any real byte
+    private int compareAt(int index, byte[] key) {
+        long offset = offset(index);
+        for (int i = 0; i < NAME_BYTES; i++) {
+            int stored = segment.get(ValueLayout.JAVA_BYTE, offset + i) & 0xFF;
+            int wanted = i < key.length ? key[i] & 0xFF : 0;
+            if (stored != wanted) {
+                return stored - wanted;
+            }
+        }
+        return 0;
+    }
+
+    private static long offset(int index) {
+        return HEADER_BYTES + (long) index * RECORD_BYTES;
+    }
+
+    // null when the name doesn't fit a record
+    private static byte[] key(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return bytes.length > NAME_BYTES ? null : bytes;
+    }
+}
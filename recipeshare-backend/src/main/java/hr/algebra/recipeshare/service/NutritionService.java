@@ -0,0 +1,221 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.CacheInvalidator;
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.common.Transactions;
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.UserStatsEntity.Contribution;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.model.IngredientUnit;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+// fills a recipe's macro columns from its parsed ingredients and the memory-mapped nutrient table,
+// off the request thread once the write has committed
+@Service
+public class NutritionService {
+
+    // what a line weighs when it is counted in units the table has no weight for
+    private static final double CAN_GRAMS = 400;
+    private static final double PINCH_GRAMS = 0.4;
+    private static final double BUNCH_GRAMS = 50;
+
+    // totals over the whole recipe; matched of measured lines with a quantity were found in the table
+    public record Estimate(double calories, double protein, double fat, double carbs, int matched, int measured) {
+    }
+
+    private final IngredientParser ingredientParser;
+    private final RecipeJpaRepository recipeJpaRepository;
+    private final MealPlanItemService mealPlanItemService;
+    private final UserStatsService userStatsService;
+    private final CacheInvalidator cacheInvalidator;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final NutrientTable table;
+    private final ExecutorService executor;
+
+    public NutritionService(IngredientParser ingredientParser,
+                            RecipeJpaRepository recipeJpaRepository,
+                            MealPlanItemService mealPlanItemService,
+                            UserStatsService userStatsService,
+                            CacheInvalidator cacheInvalidator,
+                            TransactionTemplate transactionTemplate,
+                            ShardRouter shardRouter,
+                            @Value("${nutrition.table-path:data/nutrients.bin}") String tablePath,
+                            @Value("${nutrition.source:classpath:nutrition/nutrients.csv}") String source,
+                            @Value("${nutrition.workers:1}") int workers) throws IOException {
+        this.ingredientParser = ingredientParser;
+        this.recipeJpaRepository = recipeJpaRepository;
+        this.mealPlanItemService = mealPlanItemService;
+        this.userStatsService = userStatsService;
+        this.cacheInvalidator = cacheInvalidator;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.table = openTable(Path.of(tablePath), source);
+        this.executor = Executors.newFixedThreadPool(workers);
+        LoggerSingleton.INSTANCE.info("Mapped nutrient table with " + table.size() + " ingredients");
+    }
+
+    public Estimate estimate(String ingredients) {
+        IngredientParser.Parsed parsed = ingredientParser.parse(ingredients);
+        double calories = 0, protein = 0, fat = 0, carbs = 0;
+        int matched = 0, measured = 0;
+        for (int i = 0; i < parsed.size(); i++) {
+            if (parsed.units[i] == null) {
+                continue;
+            }
+            measured++;
+            int index = find(parsed.names[i]);
+            if (index < 0) {
+                continue;
+            }
+            NutrientTable.Entry entry = table.get(index);
+            double grams = grams(parsed.units[i], parsed.amounts[i], entry);
+            if (grams <= 0) {
+                continue;
+            }
+            calories += entry.kcal() * grams / 100;
+            protein += entry.protein() * grams / 100;
+            fat += entry.fat() * grams / 100;
+            carbs += entry.carbs() * grams / 100;
+            matched++;
+        }
+        return new Estimate(calories, protein, fat, carbs, matched, measured);
+    }
+
+    public void onIngredientsChanged(Long recipeId) {
+        Runnable submit = () -> executor.execute(() -> {
+            try {
+                recompute(recipeId);
+            } catch (RuntimeException e) {
+                LoggerSingleton.INSTANCE.error("Nutrition recompute failed for recipe " + recipeId + ": " + e.getMessage());
+            }
+        });
+        Transactions.afterCommit(submit);
+    }
+
+    // a full match replaces whatever was typed in, a partial one only fills the columns left empty
+    public void recompute(Long recipeId) {
+        // the recipe's row lives on its owner's shard
+        shardRouter.on(recipeId, () -> {
+            transactionTemplate.executeWithoutResult(_ -> {
+                RecipeEntity recipe = recipeJpaRepository.findById(recipeId).orElse(null);
+                if (recipe == null || recipe.getDeletedAt() != null) {
+                    return;
+                }
+                Estimate estimate = estimate(recipe.getIngredients());
+                if (estimate.matched() == 0) {
+                    return;
+                }
+                boolean complete = estimate.matched() == estimate.measured();
+                Integer calories = pick(recipe.getCalories(), estimate.calories(), complete);
+                Integer protein = pick(recipe.getProtein(), estimate.protein(), complete);
+                Integer fat = pick(recipe.getFat(), estimate.fat(), complete);
+                Integer carbs = pick(recipe.getCarbs(), estimate.carbs(), complete);
+                if (Objects.equals(calories, recipe.getCalories()) && Objects.equals(protein, recipe.getProtein())
+                        && Objects.equals(fat, recipe.getFat()) && Objects.equals(carbs, recipe.getCarbs())) {
+                    return;
+                }
+                // an edit since the read brings its own recompute
+                if (recipeJpaRepository.updateMacros(recipeId, recipe.getVersion(), calories, protein, fat, carbs) == 0) {
+                    return;
+                }
+                long version = recipe.getVersion() + 1;
+                cacheInvalidator.invalidate("Recipe", recipeId, () -> version);
+                mealPlanItemService.onRecipeMacrosChanged(recipeId);
+                userStatsService.onChanged(recipe.getUser().getId(), Contribution.of(recipe),
+                        new Contribution(calories, protein, fat, carbs, recipe.getCookTimeMinutes()));
+            });
+            return null;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        table.close();
+    }
+
+    // "fresh basil" falls back to "basil", "penne pasta" to "pasta"
+    private int find(String name) {
+        String candidate = name;
+        while (true) {
+            int index = table.find(candidate);
+            if (index < 0 && candidate.length() > 3 && candidate.endsWith("s") && !candidate.endsWith("ss")) {
+                index = table.find(candidate.endsWith("oes")
+                        ? candidate.substring(0, candidate.length() - 2)
+                        : candidate.substring(0, candidate.length() - 1));
+            }
+            int space = candidate.indexOf(' ');
+            if (index >= 0 || space < 0) {
+                return index;
+            }
+            candidate = candidate.substring(space + 1);
+        }
+    }
+
+    private static double grams(IngredientUnit unit, double amount, NutrientTable.Entry entry) {
+        return switch (unit) {
+            case G -> amount;
+            case ML -> amount * entry.gramsPerMl();
+            case PIECE, CLOVE, SLICE -> amount * entry.gramsPerPiece();
+            case CAN -> amount * CAN_GRAMS;
+            case PINCH -> amount * PINCH_GRAMS;
+            case BUNCH -> amount * BUNCH_GRAMS;
+            default -> 0;
+        };
+    }
+
+    private static Integer pick(Integer current, double estimated, boolean overwrite) {
+        return current == null || overwrite ? Integer.valueOf((int) Math.round(estimated)) : current;
+    }
+
+    // the binary is compiled from the bundled csv when it is missing or the csv changed since,
+    // with no source configured the binary is expected to be provided as is
+    private static NutrientTable openTable(Path path, String source) throws IOException {
+        if (!source.isBlank()) {
+            Resource resource = new DefaultResourceLoader().getResource(source);
+            byte[] csv;
+            try (InputStream in = resource.getInputStream()) {
+                csv = in.readAllBytes();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(csv);
+            int hash = (int) crc.getValue();
+            if (!Files.exists(path) || storedHash(path) != hash) {
+                NutrientTable.write(path, NutrientTable.parseCsv(new String(csv, StandardCharsets.UTF_8)), hash);
+                LoggerSingleton.INSTANCE.info("Compiled nutrient table " + path + " from " + source);
+            }
+        }
+        return NutrientTable.open(path);
+    }
+
+    private static int storedHash(Path path) {
+        try (NutrientTable existing = NutrientTable.open(path)) {
+            return existing.sourceHash();
+        } catch (IOException | IllegalStateException e) {
+            LoggerSingleton.INSTANCE.warn("Replacing unreadable nutrient table " + path + ": " + e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.ChangeRecorder;
+import hr.algebra.common.ChangeType;
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.recipeshare.dao.repository.OutboxJdbcRepository;
+import hr.algebra.recipeshare.model.ChangeEvent;
+import hr.algebra.recipeshare.model.OutboxStatsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// transactional outbox: every AbstractCrud write adds an event row in its own transaction, the relay claims
+// unpublished rows in batches and marks them only after every subscriber handled them, so delivery is at least once;
+// with several nodes each batch goes to the relay that claimed it, SKIP LOCKED and a lease keep them off each other's
+// rows; an event that keeps failing backs off and ends up a dead letter after max-attempts, the events behind it are
+// relayed meanwhile; events are written next to the rows they describe, so with sharding every shard has its own
+// outbox to relay
+@Service
+public class OutboxRelay implements ChangeRecorder {
+
+    private final OutboxJdbcRepository outboxRepository;
+    private final ChangeEventBus changeEventBus;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final int batchSize;
+    private final Duration deliveryTimeout;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Duration retention;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong redeliveries = new AtomicLong();
+
+    public OutboxRelay(OutboxJdbcRepository outboxRepository,
+                       ChangeEventBus changeEventBus,
+                       TransactionTemplate transactionTemplate,
+                       ShardRouter shardRouter,
+                       @Value("${outbox.batch-size:200}") int batchSize,
+                       @Value("${outbox.delivery-timeout-ms:5000}") long deliveryTimeoutMs,
+                       @Value("${outbox.max-attempts:10}") int maxAttempts,
+                       @Value("${outbox.retry-delay-ms:1000}") long retryDelayMs,
+                       @Value("${outbox.retention-hours:24}") long retentionHours) {
+        this.outboxRepository = outboxRepository;
+        this.changeEventBus = changeEventBus;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.batchSize = batchSize;
+        this.deliveryTimeout = Duration.ofMillis(deliveryTimeoutMs);
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = Duration.ofMillis(retryDelayMs);
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    @Override
+    public void record(String aggregateType, Long aggregateId, ChangeType type) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox events must be written inside the changing transaction");
+        }
+        outboxRepository.insert(aggregateType, aggregateId, type);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:500}",
+            initialDelayString = "${outbox.poll-interval-ms:500}")
+    public void relay() {
+        shardRouter.forEachShard(() -> {
+            int taken;
+            do {
+                taken = relayBatch();
+            } while (taken == batchSize);
+        });
+    }
+
+    // claims one batch and publishes it, returns how many events were marked published
+    public int relayBatch() {
+        // the batch itself and then its events one by one each get a delivery timeout
+        Instant leaseUntil = Instant.now().plus(deliveryTimeout.multipliedBy(2));
+        try {
+            // the claim commits right away, the lease keeps other relays off the rows while subscribers run
+            List<ChangeEvent> batch = transactionTemplate.execute(_ -> outboxRepository.claimPending(batchSize, leaseUntil));
+            if (batch == null || batch.isEmpty()) {
+                return 0;
+            }
+            int relayed = deliver(batch, leaseUntil);
+            published.addAndGet(relayed);
+            return relayed;
+        } catch (DataAccessException e) {
+            // whatever is still leased comes back once the lease runs out
+            LoggerSingleton.INSTANCE.error("Outbox batch failed, retrying next round: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private int deliver(List<ChangeEvent> batch, Instant leaseUntil) {
+        if (publish(batch, deliveryTimeout)) {
+            outboxRepository.markPublished(batch);
+            return batch.size();
+        }
+        redeliveries.incrementAndGet();
+        if (batch.size() == 1) {
+            failed(batch.getFirst());
+            return 0;
+        }
+        // one at a time to find the event that fails: the ones before it are published, it counts an attempt,
+        // the rest go back untouched
+        for (int i = 0; i < batch.size(); i++) {
+            Duration left = Duration.between(Instant.now(), leaseUntil);
+            if (Thread.currentThread().isInterrupted() || !left.isPositive()) {
+                outboxRepository.release(batch.subList(i, batch.size()));
+                return i;
+            }
+            ChangeEvent event = batch.get(i);
+            if (!publish(List.of(event), left.compareTo(deliveryTimeout) < 0 ? left : deliveryTimeout)) {
+                failed(event);
+                outboxRepository.release(batch.subList(i + 1, batch.size()));
+                return i;
+            }
+            outboxRepository.markPublished(List.of(event));
+        }
+        return batch.size();
+    }
+
+    // backs off twice as long after every failed attempt, the last allowed one makes it a dead letter
+    private void failed(ChangeEvent event) {
+        int attempts = outboxRepository.attempts(event.id()) + 1;
+        if (attempts >= maxAttempts) {
+            outboxRepository.deadLetter(event.id());
+            LoggerSingleton.INSTANCE.error("Outbox event " + event.id() + " failed " + attempts
+                    + " times, moved to dead letters");
+            return;
+        }
+        outboxRepository.retryLater(event.id(),
+                Instant.now().plus(retryDelay.multipliedBy(1L << Math.min(attempts - 1, 10))));
+    }
+
+    private boolean publish(List<ChangeEvent> events, Duration timeout) {
+        try {
+            return changeEventBus.publish(events, timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Scheduled(cron = "${outbox.purge-cron:0 0 * * * *}")
+    public void purgePublished() {
+        shardRouter.forEachShard(() -> {
+            int deleted = outboxRepository.deletePublishedBefore(Instant.now().minus(retention));
+            if (deleted > 0) {
+                LoggerSingleton.INSTANCE.info("Purged " + deleted + " published outbox events");
+            }
+        });
+    }
+
+    public OutboxStatsDto stats() {
+        long lag = shardRouter.scatter(() -> outboxRepository.oldestPending().stream().toList()).stream()
+                .min(Instant::compareTo)
+                .map(oldest -> Math.max(0, Duration.between(oldest, Instant.now()).toMillis()))
+                .orElse(0L);
+        long pending = shardRouter.scatter(() -> List.of(outboxRepository.countPending())).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        long deadLetters = shardRouter.scatter(() -> List.of(outboxRepository.countDeadLetters())).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        return OutboxStatsDto.builder()
+                .pending(pending)
+                .lagMillis(lag)
+                .published(published.get())
+                .redeliveries(redeliveries.get())
+                .deadLetters(deadLetters)
+                .subscribers(changeEventBus.stats())
+                .build();
+    }
+}
@@ -0,0 +1,123 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.common.TopK;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.RecipeRatingStatsJpaRepository;
+import hr.algebra.recipeshare.dao.repository.RecipeRatingStatsJpaRepository.LeaderboardRow;
+import hr.algebra.recipeshare.model.CookTimeBucket;
+import hr.algebra.recipeshare.model.LeaderboardEntryDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// top rated recipes overall and per cook-time bucket, updated per rating and rebuilt from recipe_rating_stats
+@Service
+public class RatingLeaderboardService {
+
+    private static final int LOOKUP_BATCH = 1000;
+
+    private final RecipeRatingStatsJpaRepository statsRepository;
+    private final RecipeJpaRepository recipeJpaRepository;
+    private final ShardRouter shardRouter;
+    private final int size;
+    private final long minCount;
+
+    private volatile Boards boards;
+
+    public RatingLeaderboardService(RecipeRatingStatsJpaRepository statsRepository,
+                                    RecipeJpaRepository recipeJpaRepository,
+                                    ShardRouter shardRouter,
+                                    @Value("${ratings.leaderboard.size:100}") int size,
+                                    @Value("${ratings.leaderboard.min-count:3}") long minCount) {
+        this.statsRepository = statsRepository;
+        this.recipeJpaRepository = recipeJpaRepository;
+        this.shardRouter = shardRouter;
+        this.size = size;
+        this.minCount = minCount;
+        this.boards = new Boards(capacity());
+    }
+
+    // a negative limit is read as none
+    public List<LeaderboardEntryDto> top(CookTimeBucket bucket, int limit) {
+        Boards current = boards;
+        TopK board = bucket == null ? current.overall : current.byBucket.get(bucket);
+        return board.top(Math.max(0, Math.min(limit, size))).stream()
+                .map(r -> new LeaderboardEntryDto(r.id(), r.score()))
+                .toList();
+    }
+
+    public void onRatingChanged(long recipeId, Integer cookTimeMinutes, long ratingSum, long ratingCount) {
+        boards.offer(recipeId, cookTimeMinutes, ratingSum, ratingCount, minCount);
+    }
+
+    // also picks up cook time changes and deleted recipes, which single updates do not see
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${ratings.leaderboard.rebuild-cron:0 0 * * * *}")
+    public void rebuild() {
+        List<LeaderboardRow> rows = statsRepository.findLeaderboardRows(minCount);
+        // a recipe that is not found was deleted, its cook time may be null
+        Map<Long, Integer> cookTimes = new HashMap<>();
+        for (int from = 0; from < rows.size(); from += LOOKUP_BATCH) {
+            List<Long> ids = rows.subList(from, Math.min(from + LOOKUP_BATCH, rows.size())).stream()
+                    .map(LeaderboardRow::getRecipeId)
+                    .toList();
+            shardRouter.scatter(() -> recipeJpaRepository.findCookTimeRowsByIdIn(ids))
+                    .forEach(row -> cookTimes.put(row.getId(), row.getCookTimeMinutes()));
+        }
+        int capacity = capacity();
+        boards = rows.parallelStream().filter(row -> cookTimes.containsKey(row.getRecipeId())).collect(
+                () -> new Boards(capacity),
+                (b, row) -> b.offer(row.getRecipeId(), cookTimes.get(row.getRecipeId()),
+                        row.getRatingSum(), row.getRatingCount(), minCount),
+                Boards::merge);
+        LoggerSingleton.INSTANCE.info("Rebuilt rating leaderboard from " + rows.size() + " recipes");
+    }
+
+    // the slack keeps the board full when a ranked recipe drops out between rebuilds
+    private int capacity() {
+        return size * 2;
+    }
+
+    private static final class Boards {
+        private final TopK overall;
+        private final Map<CookTimeBucket, TopK> byBucket = new EnumMap<>(CookTimeBucket.class);
+
+        private Boards(int capacity) {
+            overall = new TopK(capacity);
+            for (CookTimeBucket bucket : CookTimeBucket.values()) {
+                byBucket.put(bucket, new TopK(capacity));
+            }
+        }
+
+        private void offer(long recipeId, Integer cookTimeMinutes, long ratingSum, long ratingCount, long minCount) {
+            CookTimeBucket bucket = CookTimeBucket.of(cookTimeMinutes);
+            if (ratingCount < minCount) {
+                overall.remove(recipeId);
+                byBucket.values().forEach(b -> b.remove(recipeId));
+                return;
+            }
+            double average = (double) ratingSum / ratingCount;
+            overall.offer(recipeId, average);
+            byBucket.forEach((b, board) -> {
+                if (b == bucket) {
+                    board.offer(recipeId, average);
+                } else {
+                    board.remove(recipeId);
+                }
+            });
+        }
+
+        private void merge(Boards other) {
+            overall.merge(other.overall);
+            byBucket.forEach((bucket, board) -> board.merge(other.byBucket.get(bucket)));
+        }
+    }
+}
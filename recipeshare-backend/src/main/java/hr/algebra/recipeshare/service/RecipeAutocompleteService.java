@@ -0,0 +1,212 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.CompletionTrie;
+import hr.algebra.common.CompletionTrie.Completion;
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.common.Transactions;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository.TitleRow;
+import hr.algebra.recipeshare.model.AutocompleteSuggestionDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+// title autocomplete served from an in-memory trie ranked by likes; writes are applied incrementally after commit,
+// a periodic rebuild refreshes popularity and leaves a snapshot the next startup serves from right away. the
+// snapshot misses whatever changed after it was written, so a rebuild in the background catches up on start
+@Service
+public class RecipeAutocompleteService {
+
+    private static final int SNAPSHOT_MAGIC = 0x41435431;
+    // bump whenever normalize changes, keys are recomputed from the stored titles on load
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final RecipeJpaRepository recipeJpaRepository;
+    private final ShardRouter shardRouter;
+    private final Path snapshotPath;
+    private final int topK;
+
+    private volatile CompletionTrie trie;
+    // set while a rebuild fills its replacement, so writes in the meantime land in both
+    private volatile CompletionTrie rebuilding;
+
+    public RecipeAutocompleteService(RecipeJpaRepository recipeJpaRepository,
+                                     ShardRouter shardRouter,
+                                     @Value("${autocomplete.snapshot-path:}") String snapshotPath,
+                                     @Value("${autocomplete.top-k:10}") int topK) {
+        this.recipeJpaRepository = recipeJpaRepository;
+        this.shardRouter = shardRouter;
+        this.snapshotPath = snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        this.topK = topK;
+        this.trie = new CompletionTrie(topK);
+    }
+
+    public List<AutocompleteSuggestionDto> complete(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        return trie.complete(prefix, Math.min(limit, topK)).stream()
+                .map(c -> new AutocompleteSuggestionDto(c.id(), c.text()))
+                .toList();
+    }
+
+    public void onCreated(long recipeId, String title, Long likeCount) {
+        if (title == null) {
+            return;
+        }
+        Completion completion = new Completion(recipeId, title, likeCount == null ? 0 : likeCount);
+        Transactions.afterCommit(() -> apply(target -> target.insert(normalize(title), completion)));
+    }
+
+    public void onRenamed(long recipeId, String oldTitle, String newTitle) {
+        Transactions.afterCommit(() -> apply(target -> {
+            Completion removed = oldTitle == null ? null : target.remove(normalize(oldTitle), recipeId);
+            if (newTitle != null) {
+                long score = removed == null ? 0 : removed.score();
+                target.insert(normalize(newTitle), new Completion(recipeId, newTitle, score));
+            }
+        }));
+    }
+
+    public void onDeleted(long recipeId, String title) {
+        if (title == null) {
+            return;
+        }
+        Transactions.afterCommit(() -> apply(target -> target.remove(normalize(title), recipeId)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (loadSnapshot()) {
+            Thread.ofPlatform().daemon().name("autocomplete-catch-up").start(this::catchUp);
+            return;
+        }
+        rebuild();
+    }
+
+    // true once the trie was replaced by the snapshot, writes committed while it was read only reach the old trie
+    boolean loadSnapshot() {
+        if (snapshotPath == null || !Files.isReadable(snapshotPath)) {
+            return false;
+        }
+        try {
+            trie = readSnapshot();
+            LoggerSingleton.INSTANCE.info("Loaded autocomplete snapshot with " + trie.size() + " titles");
+            return true;
+        } catch (IOException e) {
+            LoggerSingleton.INSTANCE.warn("Unreadable autocomplete snapshot, rebuilding: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Scheduled(cron = "${autocomplete.rebuild-cron:0 30 * * * *}")
+    public synchronized void rebuild() {
+        CompletionTrie next = new CompletionTrie(topK);
+        rebuilding = next;
+        try {
+            for (TitleRow row : shardRouter.scatter(recipeJpaRepository::findTitleRows)) {
+                long score = row.getLikeCount() == null ? 0 : row.getLikeCount();
+                next.insert(normalize(row.getTitle()), new Completion(row.getId(), row.getTitle(), score));
+            }
+            trie = next;
+        } finally {
+            rebuilding = null;
+        }
+        LoggerSingleton.INSTANCE.info("Rebuilt autocomplete for " + next.size() + " titles");
+        if (snapshotPath != null) {
+            try {
+                writeSnapshot(next);
+            } catch (IOException e) {
+                LoggerSingleton.INSTANCE.warn("Could not write autocomplete snapshot: " + e.getMessage());
+            }
+        }
+    }
+
+    private void catchUp() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            LoggerSingleton.INSTANCE.error("Autocomplete catch-up failed, serving the snapshot until the next rebuild: "
+                    + e.getMessage());
+        }
+    }
+
+    // lowercase without diacritics and punctuation, so "Crème brûlée" is found by "creme bru"
+    public static String normalize(String text) {
+        String stripped = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_WORD.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+
+    private CompletionTrie readSnapshot() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Unknown snapshot format");
+            }
+            CompletionTrie loaded = new CompletionTrie(topK);
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                long score = in.readLong();
+                String title = in.readUTF();
+                loaded.insert(normalize(title), new Completion(id, title, score));
+            }
+            return loaded;
+        }
+    }
+
+    // written next to the target and moved over it, a crash never leaves half a snapshot behind
+    private void writeSnapshot(CompletionTrie source) throws IOException {
+        Path absolute = snapshotPath.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temp = Files.createTempFile(absolute.getParent(), "autocomplete", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(source.size());
+            IOException[] failure = new IOException[1];
+            source.forEach(completion -> {
+                try {
+                    out.writeLong(completion.id());
+                    out.writeLong(completion.score());
+                    out.writeUTF(completion.text());
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void apply(Consumer<CompletionTrie> change) {
+        change.accept(trie);
+        CompletionTrie next = rebuilding;
+        if (next != null) {
+            change.accept(next);
+        }
+    }
+}
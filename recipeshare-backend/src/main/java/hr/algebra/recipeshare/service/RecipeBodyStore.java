@@ -0,0 +1,335 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.model.Invalidation;
+import hr.algebra.recipeshare.model.RecipeBodyStatsDto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// the long text of popular recipes kept off the heap: description, instructions and ingredients are deflated into
+// one slab that is written like a ring, the oldest bodies make room for new ones. only the index is on the heap, so
+// a cached body costs the collector nothing. bodies are keyed by recipe version, an edited recipe's old body is
+// never read again and ages out
+@Service
+public class RecipeBodyStore {
+
+    public record Body(String description, String instructions, String ingredients) {
+    }
+
+    public enum Field {
+        DESCRIPTION, INSTRUCTIONS, INGREDIENTS
+    }
+
+    private static final int CHUNK_BYTES = 8192;
+
+    // where a body sits in the slab; a reader pins it so the ring is not written over it while it is inflated
+    private static final class Slot {
+
+        private final long id;
+        private final long version;
+        private final long start;
+        private final int length;
+        // utf-8 bytes per field, -1 for null
+        private final int[] fieldLengths;
+        // readers holding the slot, -1 once evicted
+        private final AtomicInteger pins = new AtomicInteger();
+
+        private Slot(long id, long version, long start, int length, int[] fieldLengths) {
+            this.id = id;
+            this.version = version;
+            this.start = start;
+            this.length = length;
+            this.fieldLengths = fieldLengths;
+        }
+
+        private boolean pin() {
+            while (true) {
+                int current = pins.get();
+                if (current < 0) {
+                    return false;
+                }
+                if (pins.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void unpin() {
+            pins.decrementAndGet();
+        }
+
+        private boolean evict() {
+            return pins.compareAndSet(0, -1);
+        }
+
+        private int rawLength() {
+            int total = 0;
+            for (int fieldLength : fieldLengths) {
+                total += Math.max(0, fieldLength);
+            }
+            return total;
+        }
+    }
+
+    private final Arena arena;
+    private final MemorySegment slab;
+    private final Map<Long, Slot> index = new ConcurrentHashMap<>();
+    // every slot still in the slab in write order, guarded by the store's lock
+    private final ArrayDeque<Slot> ring = new ArrayDeque<>();
+    private long head;
+    private long used;
+    private long raw;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    @Autowired
+    public RecipeBodyStore(InvalidationBus invalidationBus,
+                           @Value("${recipe-bodies.capacity-mb:64}") long capacityMb) {
+        this(capacityMb * 1024 * 1024);
+        invalidationBus.subscribe(new InvalidationBus.Handler() {
+            @Override
+            public void invalidate(List<Invalidation> batch) {
+                batch.stream()
+                        .filter(invalidation -> invalidation.aggregateType().equals("Recipe"))
+                        .forEach(invalidation -> drop(invalidation.id()));
+            }
+
+            @Override
+            public void invalidateAll() {
+                index.clear();
+            }
+        });
+    }
+
+    RecipeBodyStore(long capacityBytes) {
+        if (capacityBytes <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacityBytes);
+        }
+        this.arena = Arena.ofShared();
+        this.slab = arena.allocate(capacityBytes);
+    }
+
+    public boolean contains(long id) {
+        return index.containsKey(id);
+    }
+
+    // null unless this exact version is held
+    public Body get(long id, long version) {
+        Slot slot = pin(id, version);
+        if (slot == null) {
+            return null;
+        }
+        try {
+            byte[] text = new byte[slot.rawLength()];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(slab.asSlice(slot.start, slot.length).asByteBuffer());
+                int read = 0;
+                while (read < text.length) {
+                    int n = inflater.inflate(text, read, text.length - read);
+                    if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new IllegalStateException("Truncated recipe body " + id);
+                    }
+                    read += n;
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt recipe body " + id, e);
+            } finally {
+                inflater.end();
+            }
+            String[] fields = new String[slot.fieldLengths.length];
+            int offset = 0;
+            for (int i = 0; i < fields.length; i++) {
+                int fieldLength = slot.fieldLengths[i];
+                if (fieldLength >= 0) {
+                    fields[i] = new String(text, offset, fieldLength, StandardCharsets.UTF_8);
+                    offset += fieldLength;
+                }
+            }
+            return new Body(fields[0], fields[1], fields[2]);
+        } finally {
+            slot.unpin();
+        }
+    }
+
+    // one field as utf-8, inflated chunk by chunk into out; false unless this exact version is held,
+    // then nothing was written
+    public boolean writeTo(long id, long version, Field field, OutputStream out) throws IOException {
+        Slot slot = pin(id, version);
+        if (slot == null) {
+            return false;
+        }
+        try {
+            int skip = 0;
+            for (int i = 0; i < field.ordinal(); i++) {
+                skip += Math.max(0, slot.fieldLengths[i]);
+            }
+            int remaining = Math.max(0, slot.fieldLengths[field.ordinal()]);
+            byte[] chunk = new byte[CHUNK_BYTES];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(slab.asSlice(slot.start, slot.length).asByteBuffer());
+                while (remaining > 0) {
+                    int n = inflater.inflate(chunk, 0, Math.min(chunk.length, skip + remaining));
+                    if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new IllegalStateException("Truncated recipe body " + id);
+                    }
+                    int from = Math.min(n, skip);
+                    skip -= from;
+                    int write = Math.min(n - from, remaining);
+                    out.write(chunk, from, write);
+                    remaining -= write;
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt recipe body " + id, e);
+            } finally {
+                inflater.end();
+            }
+            return true;
+        } finally {
+            slot.unpin();
+        }
+    }
+
+    // best effort: a body larger than the slab, or one that would overwrite a body still being read, is not kept
+    public void put(long id, long version, Body body) {
+        byte[][] fields = {utf8(body.description()), utf8(body.instructions()), utf8(body.ingredients())};
+        int[] fieldLengths = new int[fields.length];
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        for (int i = 0; i < fields.length; i++) {
+            fieldLengths[i] = fields[i] == null ? -1 : fields[i].length;
+            if (fields[i] != null) {
+                text.writeBytes(fields[i]);
+            }
+        }
+        byte[] compressed = deflate(text.toByteArray());
+        if (compressed.length > slab.byteSize()) {
+            skipped.incrementAndGet();
+            return;
+        }
+
+        synchronized (this) {
+            long start = head;
+            if (start + compressed.length > slab.byteSize()) {
+                // the rest of this lap stays unused, what is still there is the oldest and goes first
+                while (!ring.isEmpty() && ring.peekFirst().start >= head) {
+                    if (!evictOldest()) {
+                        skipped.incrementAndGet();
+                        return;
+                    }
+                }
+                start = 0;
+            }
+            while (!ring.isEmpty() && ring.peekFirst().start >= start
+                    && ring.peekFirst().start < start + compressed.length) {
+                if (!evictOldest()) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+            }
+            MemorySegment.copy(compressed, 0, slab, ValueLayout.JAVA_BYTE, start, compressed.length);
+            Slot slot = new Slot(id, version, start, compressed.length, fieldLengths);
+            ring.addLast(slot);
+            used += slot.length;
+            raw += slot.rawLength();
+            head = start + compressed.length;
+            index.put(id, slot);
+        }
+        stored.incrementAndGet();
+    }
+
+    public void drop(long id) {
+        index.remove(id);
+    }
+
+    public RecipeBodyStatsDto stats() {
+        synchronized (this) {
+            return RecipeBodyStatsDto.builder()
+                    .entries((long) index.size())
+                    .capacityBytes(slab.byteSize())
+                    .usedBytes(used)
+                    .rawBytes(raw)
+                    .hits(hits.get())
+                    .misses(misses.get())
+                    .stored(stored.get())
+                    .skipped(skipped.get())
+                    .evicted(evicted.get())
+                    .build();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (this) {
+            index.clear();
+            ring.clear();
+            arena.close();
+        }
+    }
+
+    private Slot pin(long id, long version) {
+        Slot slot = index.get(id);
+        if (slot == null || slot.version != version || !slot.pin()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return slot;
+    }
+
+    private boolean evictOldest() {
+        Slot oldest = ring.peekFirst();
+        if (!oldest.evict()) {
+            return false;
+        }
+        ring.pollFirst();
+        index.remove(oldest.id, oldest);
+        used -= oldest.length;
+        raw -= oldest.rawLength();
+        evicted.incrementAndGet();
+        return true;
+    }
+
+    // speed over ratio, a body is deflated on the read that missed
+    private static byte[] deflate(byte[] text) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(text);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, text.length / 2));
+            byte[] chunk = new byte[CHUNK_BYTES];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] utf8(String text) {
+        return text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,51 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository.MacroRow;
+
+import java.util.List;
+
+// column-wise snapshot of recipe macros, scanned without touching entities or boxing
+public final class RecipeCatalog {
+
+    public static final int UNKNOWN_COOK_TIME = -1;
+
+    final long[] ids;
+    final int[] calories;
+    final int[] protein;
+    final int[] fat;
+    final int[] carbs;
+    final int[] cookTime;
+
+    public RecipeCatalog(long[] ids, int[] calories, int[] protein, int[] fat, int[] carbs, int[] cookTime) {
+        this.ids = ids;
+        this.calories = calories;
+        this.protein = protein;
+        this.fat = fat;
+        this.carbs = carbs;
+        this.cookTime = cookTime;
+    }
+
+    public static RecipeCatalog of(List<MacroRow> rows) {
+        int n = rows.size();
+        long[] ids = new long[n];
+        int[] calories = new int[n], protein = new int[n], fat = new int[n], carbs = new int[n], cookTime = new int[n];
+        for (int i = 0; i < n; i++) {
+            MacroRow row = rows.get(i);
+            ids[i] = row.getId();
+            calories[i] = valueOf(row.getCalories());
+            protein[i] = valueOf(row.getProtein());
+            fat[i] = valueOf(row.getFat());
+            carbs[i] = valueOf(row.getCarbs());
+            cookTime[i] = row.getCookTimeMinutes() == null ? UNKNOWN_COOK_TIME : row.getCookTimeMinutes();
+        }
+        return new RecipeCatalog(ids, calories, protein, fat, carbs, cookTime);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    private static int valueOf(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
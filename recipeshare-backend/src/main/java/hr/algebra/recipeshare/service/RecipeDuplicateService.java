@@ -0,0 +1,264 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.common.LshIndex;
+import hr.algebra.common.MinHash;
+import hr.algebra.common.Transactions;
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository.SignatureRow;
+import hr.algebra.recipeshare.model.DuplicateGroupDto;
+import hr.algebra.recipeshare.model.DuplicateReportDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// near-duplicate recipes: every recipe is signed with MinHash over word shingles of its text when written,
+// candidates come from an in-memory LSH index and a periodic sweep groups everything above the threshold.
+// a recipe without a single word gets an empty signature and is never indexed nor matched
+@Service
+public class RecipeDuplicateService {
+
+    // refused by reject-on-create, carries the recipes it is too close to
+    public static class DuplicateRecipeException extends IllegalArgumentException {
+
+        private final List<Long> duplicates;
+
+        public DuplicateRecipeException(List<Long> duplicates) {
+            super("Near-duplicate of recipes: " + duplicates);
+            this.duplicates = List.copyOf(duplicates);
+        }
+
+        public List<Long> getDuplicates() {
+            return duplicates;
+        }
+    }
+
+    private static final int SHINGLE_WORDS = 3;
+    private static final int BACKFILL_BATCH = 500;
+    // signatures are stored with the recipe, changing the seed invalidates all of them
+    private static final long SEED = 0x5EEDD0C5L;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final RecipeJpaRepository recipeJpaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MinHash minHash;
+    private final int bands;
+    private final int rows;
+    private final double threshold;
+    private final boolean rejectOnCreate;
+
+    private volatile LshIndex index;
+    // set while a sweep builds its replacement index, so writes in the meantime land in both
+    private volatile LshIndex rebuilding;
+    private volatile DuplicateReportDto report;
+
+    public RecipeDuplicateService(RecipeJpaRepository recipeJpaRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${duplicates.bands:16}") int bands,
+                                  @Value("${duplicates.rows:8}") int rows,
+                                  @Value("${duplicates.threshold:0.8}") double threshold,
+                                  @Value("${duplicates.reject-on-create:false}") boolean rejectOnCreate) {
+        this.recipeJpaRepository = recipeJpaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.minHash = new MinHash(bands * rows, SEED);
+        this.bands = bands;
+        this.rows = rows;
+        this.threshold = threshold;
+        this.rejectOnCreate = rejectOnCreate;
+        this.index = new LshIndex(bands, rows);
+        this.report = DuplicateReportDto.builder().recipes(0).groups(List.of()).build();
+    }
+
+    public int[] signature(RecipeEntity recipe) {
+        List<Long> shingles = new ArrayList<>();
+        shingle(0, recipe.getTitle(), shingles);
+        shingle(1, recipe.getIngredients(), shingles);
+        shingle(2, recipe.getInstructions(), shingles);
+        if (shingles.isEmpty()) {
+            return new int[0];
+        }
+        return minHash.signature(shingles.stream().mapToLong(Long::longValue).distinct().toArray());
+    }
+
+    // signs a recipe about to be created, refusing it when reject-on-create is on and it has a near-duplicate
+    public int[] signForCreate(RecipeEntity recipe) {
+        int[] signature = signature(recipe);
+        if (rejectOnCreate && signature.length > 0) {
+            List<Long> duplicates = findDuplicates(null, signature);
+            if (!duplicates.isEmpty()) {
+                throw new DuplicateRecipeException(duplicates);
+            }
+        }
+        return signature;
+    }
+
+    public List<Long> duplicatesOf(Long recipeId) {
+        int[] signature = index.signature(recipeId);
+        return signature == null ? List.of() : findDuplicates(recipeId, signature);
+    }
+
+    public DuplicateReportDto getReport() {
+        return report;
+    }
+
+    // a recipe whose text lost every word leaves the index
+    public void onSaved(long recipeId, int[] signature) {
+        if (signature.length == 0) {
+            onDeleted(recipeId);
+            return;
+        }
+        Transactions.afterCommit(() -> {
+            index.add(recipeId, signature);
+            LshIndex next = rebuilding;
+            if (next != null) {
+                next.add(recipeId, signature);
+            }
+        });
+    }
+
+    public void onDeleted(long recipeId) {
+        Transactions.afterCommit(() -> {
+            index.remove(recipeId);
+            LshIndex next = rebuilding;
+            if (next != null) {
+                next.remove(recipeId);
+            }
+        });
+    }
+
+    // signs recipes written before signatures existed, rebuilds the index from the table and regroups duplicates
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${duplicates.sweep-cron:0 45 * * * *}")
+    public synchronized void sweep() {
+        int backfilled = 0;
+        List<RecipeEntity> signed;
+        do {
+            signed = transactionTemplate.execute(_ -> {
+                List<RecipeEntity> unsigned = recipeJpaRepository.findTop500ByMinhashIsNullAndDeletedAtIsNullOrderByIdAsc();
+                unsigned.forEach(recipe -> recipe.setMinhash(signature(recipe)));
+                recipeJpaRepository.saveAllAndFlush(unsigned);
+                return unsigned;
+            });
+            backfilled += signed == null ? 0 : signed.size();
+        } while (signed != null && signed.size() == BACKFILL_BATCH);
+
+        LshIndex next = new LshIndex(bands, rows);
+        rebuilding = next;
+        try {
+            for (SignatureRow row : recipeJpaRepository.findSignatureRows()) {
+                if (row.getMinhash().length == minHash.size()) {
+                    next.add(row.getId(), row.getMinhash());
+                }
+            }
+            index = next;
+        } finally {
+            rebuilding = null;
+        }
+
+        List<DuplicateGroupDto> groups = group(next);
+        report = DuplicateReportDto.builder()
+                .sweptAt(Instant.now())
+                .recipes(next.size())
+                .groups(groups)
+                .build();
+        LoggerSingleton.INSTANCE.info("Duplicate sweep signed " + backfilled + " recipes and found "
+                + groups.size() + " duplicate groups among " + next.size());
+    }
+
+    private List<Long> findDuplicates(Long selfId, int[] signature) {
+        LshIndex current = index;
+        return current.candidates(signature).stream()
+                .filter(id -> !id.equals(selfId))
+                .filter(id -> {
+                    int[] other = current.signature(id);
+                    return other != null && MinHash.similarity(signature, other) >= threshold;
+                })
+                .sorted()
+                .toList();
+    }
+
+    // verified candidate pairs are joined with union-find, each component is one group
+    private List<DuplicateGroupDto> group(LshIndex snapshot) {
+        List<Long> ids = snapshot.ids();
+        Map<Long, Long> parent = new HashMap<>();
+        Map<Long, Double> best = new HashMap<>();
+        for (long id : ids) {
+            int[] signature = snapshot.signature(id);
+            for (long candidate : snapshot.candidates(signature)) {
+                if (candidate <= id) {
+                    continue;
+                }
+                double similarity = MinHash.similarity(signature, snapshot.signature(candidate));
+                if (similarity >= threshold) {
+                    long root = union(parent, id, candidate);
+                    best.merge(root, similarity, Math::max);
+                }
+            }
+        }
+        Map<Long, List<Long>> components = new HashMap<>();
+        for (long id : parent.keySet()) {
+            components.computeIfAbsent(find(parent, id), _ -> new ArrayList<>()).add(id);
+        }
+        return components.values().stream()
+                .map(members -> {
+                    members.sort(null);
+                    double similarity = members.stream()
+                            .mapToDouble(member -> best.getOrDefault(member, 0.0))
+                            .max().orElse(0);
+                    return DuplicateGroupDto.builder().recipeIds(members).similarity(similarity).build();
+                })
+                .sorted((a, b) -> Long.compare(a.getRecipeIds().getFirst(), b.getRecipeIds().getFirst()))
+                .toList();
+    }
+
+    private static long union(Map<Long, Long> parent, long a, long b) {
+        long rootA = find(parent, a);
+        long rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent.put(Math.max(rootA, rootB), Math.min(rootA, rootB));
+        }
+        return Math.min(rootA, rootB);
+    }
+
+    private static long find(Map<Long, Long> parent, long id) {
+        long root = id;
+        Long up;
+        while ((up = parent.get(root)) != null && up != root) {
+            root = up;
+        }
+        parent.put(id, root);
+        parent.putIfAbsent(root, root);
+        return root;
+    }
+
+    // every field is shingled on its own, so a title never forms a shingle with the start of the ingredients
+    private static void shingle(int field, String text, List<Long> shingles) {
+        if (text == null) {
+            return;
+        }
+        String[] words = Arrays.stream(NON_WORD.split(text.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+        int window = Math.min(SHINGLE_WORDS, words.length);
+        for (int start = 0; start + window <= words.length && window > 0; start++) {
+            long hash = field;
+            for (int w = start; w < start + window; w++) {
+                hash = MinHash.mix(hash * 31 + words[w].hashCode());
+            }
+            shingles.add(hash);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.common.ShardedIds;
+import hr.algebra.recipeshare.dao.repository.RecipeLikeJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// likes are toggled in memory and written behind in batches, the like rows decide the like_count delta
+@Service
+public class RecipeLikeService {
+
+    private final RecipeLikeJdbcRepository likeRepository;
+    private final TrendingService trendingService;
+    private final ShardRouter shardRouter;
+
+    // every like as this node last saw it
+    private final Set<Like> likes = ConcurrentHashMap.newKeySet();
+    // the latest wanted state of each like toggled since the last flush
+    private final Map<Like, Toggle> pending = new ConcurrentHashMap<>();
+    private final Map<Long, LikeCounter> counters = new ConcurrentHashMap<>();
+
+    public RecipeLikeService(RecipeLikeJdbcRepository likeRepository, TrendingService trendingService,
+                             ShardRouter shardRouter) {
+        this.likeRepository = likeRepository;
+        this.trendingService = trendingService;
+        this.shardRouter = shardRouter;
+    }
+
+    // false when this node already saw the like, it is still written in case another node removed it
+    public boolean like(Long recipeId, Long userId) {
+        Like key = new Like(recipeId, userId);
+        boolean added = likes.add(key);
+        toggle(key, true, added ? 1 : 0);
+        if (added) {
+            trendingService.onLiked(recipeId);
+        }
+        return added;
+    }
+
+    // false when this node never saw the like, it is still deleted in case another node wrote it
+    public boolean unlike(Long recipeId, Long userId) {
+        Like key = new Like(recipeId, userId);
+        boolean removed = likes.remove(key);
+        toggle(key, false, removed ? -1 : 0);
+        return removed;
+    }
+
+    public boolean isLiked(Long recipeId, Long userId) {
+        return likes.contains(new Like(recipeId, userId));
+    }
+
+    // likes not yet reflected in recipes.like_count
+    public long pendingDelta(Long recipeId) {
+        LikeCounter counter = counters.get(recipeId);
+        return counter == null ? 0 : counter.shown.sum() + counter.written;
+    }
+
+    // before the web server takes requests; the ShardRouter it depends on already brought up the schema
+    @PostConstruct
+    public void loadLikes() {
+        likeRepository.forEachLike((recipeId, userId) -> likes.add(new Like(recipeId, userId)));
+        LoggerSingleton.INSTANCE.info("Loaded " + likes.size() + " recipe likes");
+    }
+
+    // like rows are on the home shard, each like_count is flushed on its recipe's shard
+    @Scheduled(fixedDelayString = "${likes.flush-interval-ms:1000}",
+            initialDelayString = "${likes.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        Map<Like, Toggle> taken = new HashMap<>();
+        for (Like key : pending.keySet()) {
+            Toggle toggle = pending.remove(key);
+            if (toggle != null) {
+                taken.put(key, toggle);
+            }
+        }
+        List<Like> inserts = new ArrayList<>();
+        List<Like> deletes = new ArrayList<>();
+        taken.forEach((key, toggle) -> (toggle.liked() ? inserts : deletes).add(key));
+
+        int added = write(inserts, taken, this::writeInserts, 1);
+        int removed = write(deletes, taken, likeRepository::deleteLikes, -1);
+
+        Map<Integer, List<Map.Entry<Long, Long>>> deltas = new TreeMap<>();
+        counters.forEach((recipeId, counter) -> {
+            if (counter.written != 0) {
+                deltas.computeIfAbsent(ShardedIds.slotOf(recipeId), _ -> new ArrayList<>())
+                        .add(Map.entry(recipeId, counter.written));
+            }
+        });
+
+        int updated = 0;
+        for (List<Map.Entry<Long, Long>> slotDeltas : deltas.values()) {
+            int[] rows;
+            try {
+                rows = shardRouter.on(slotDeltas.getFirst().getKey(), () -> likeRepository.incrementLikeCounts(slotDeltas));
+            } catch (DataAccessException e) {
+                LoggerSingleton.INSTANCE.error("Like count flush failed, retrying next round: " + e.getMessage());
+                continue;
+            }
+            for (int i = 0; i < slotDeltas.size(); i++) {
+                Map.Entry<Long, Long> delta = slotDeltas.get(i);
+                // the driver may only report success without a count
+                if (i < rows.length && (rows[i] > 0 || rows[i] == Statement.SUCCESS_NO_INFO)) {
+                    counters.get(delta.getKey()).written -= delta.getValue();
+                    updated++;
+                } else {
+                    LoggerSingleton.INSTANCE.warn("Like count of recipe " + delta.getKey()
+                            + " updated no row, retrying next round");
+                }
+            }
+        }
+        if (added > 0 || removed > 0 || updated > 0) {
+            LoggerSingleton.INSTANCE.debug("Flushed likes: " + added + " added, " + removed + " removed, "
+                    + updated + " recipes updated");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // only the rows a batch really changed count, a failed batch goes back to pending
+    private int write(List<Like> keys, Map<Like, Toggle> taken, Function<List<long[]>, int[]> statement, int sign) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        int[] rows;
+        try {
+            rows = statement.apply(keys.stream().map(key -> new long[]{key.recipeId(), key.userId()}).toList());
+        } catch (DataAccessException e) {
+            LoggerSingleton.INSTANCE.error("Like flush failed, retrying next round: " + e.getMessage());
+            keys.forEach(key -> pending.merge(key, taken.get(key), Toggle::after));
+            return 0;
+        }
+        int changed = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            Like key = keys.get(i);
+            LikeCounter counter = counter(key.recipeId());
+            // a driver that rewrites batches only reports success, the toggle is then taken as done
+            if (i < rows.length && (rows[i] > 0 || rows[i] == Statement.SUCCESS_NO_INFO)) {
+                counter.written += sign;
+                changed++;
+            }
+            counter.shown.add(-taken.get(key).shown());
+        }
+        return changed;
+    }
+
+    // rows inserted per like, 0 when it already existed
+    private int[] writeInserts(List<long[]> inserts) {
+        try {
+            return likeRepository.insertLikes(inserts);
+        } catch (DataAccessException e) {
+            // a like pointing at a missing recipe or user must not block the whole batch
+            int[] rows = new int[inserts.size()];
+            for (int i = 0; i < inserts.size(); i++) {
+                long[] pair = inserts.get(i);
+                try {
+                    rows[i] = likeRepository.insertLike(pair[0], pair[1]);
+                } catch (DataIntegrityViolationException rowError) {
+                    LoggerSingleton.INSTANCE.warn("Dropping like " + pair[0] + "/" + pair[1] + ": " + rowError.getMessage());
+                    likes.remove(new Like(pair[0], pair[1]));
+                }
+            }
+            return rows;
+        }
+    }
+
+    private void toggle(Like key, boolean liked, int shown) {
+        if (shown != 0) {
+            counter(key.recipeId()).shown.add(shown);
+        }
+        pending.merge(key, new Toggle(liked, shown), Toggle::after);
+    }
+
+    private LikeCounter counter(Long recipeId) {
+        return counters.computeIfAbsent(recipeId, _ -> new LikeCounter());
+    }
+
+    // sharded ids use all 64 bits, so the pair no longer packs into one long
+    private record Like(long recipeId, long userId) {
+    }
+
+    // the wanted state and what the toggles changed in the shown count meanwhile
+    private record Toggle(boolean liked, int shown) {
+
+        // this toggle came first, the later one wins the state
+        private Toggle after(Toggle later) {
+            return new Toggle(later.liked(), shown + later.shown());
+        }
+    }
+
+    private static final class LikeCounter {
+        // toggles of this node not written yet
+        private final LongAdder shown = new LongAdder();
+        // rows written but not yet in like_count, only touched by flush()
+        private volatile long written;
+    }
+}
@@ -0,0 +1,84 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.common.Transactions;
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.RecipeRatingEntity;
+import hr.algebra.recipeshare.dao.RecipeRatingId;
+import hr.algebra.recipeshare.dao.RecipeRatingStatsEntity;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.RecipeRatingJpaRepository;
+import hr.algebra.recipeshare.dao.repository.RecipeRatingStatsJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.mapper.RecipeRatingStatsMapper;
+import hr.algebra.recipeshare.model.RecipeRatingStatsDto;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Service
+public class RecipeRatingService {
+
+    private final RecipeRatingJpaRepository ratingRepository;
+    private final RecipeRatingStatsJpaRepository statsRepository;
+    private final RecipeJpaRepository recipeJpaRepository;
+    private final UserJpaRepository userJpaRepository;
+    private final RecipeRatingStatsMapper statsMapper;
+    private final RatingLeaderboardService leaderboardService;
+    private final ShardRouter shardRouter;
+
+    public RecipeRatingService(RecipeRatingJpaRepository ratingRepository, RecipeRatingStatsJpaRepository statsRepository,
+                               RecipeJpaRepository recipeJpaRepository, UserJpaRepository userJpaRepository,
+                               RecipeRatingStatsMapper statsMapper, RatingLeaderboardService leaderboardService,
+                               ShardRouter shardRouter) {
+        this.ratingRepository = ratingRepository;
+        this.statsRepository = statsRepository;
+        this.recipeJpaRepository = recipeJpaRepository;
+        this.userJpaRepository = userJpaRepository;
+        this.statsMapper = statsMapper;
+        this.leaderboardService = leaderboardService;
+        this.shardRouter = shardRouter;
+    }
+
+    public Optional<RecipeRatingStatsDto> getStats(Long recipeId) {
+        return statsRepository.findById(recipeId).map(statsMapper::toDto);
+    }
+
+    @Transactional
+    public RecipeRatingStatsDto rate(Long recipeId, Long userId, Integer rating) {
+        LoggerSingleton.INSTANCE.debug("Calling rate for recipe: " + recipeId);
+        if (rating == null || rating < RecipeRatingStatsEntity.MIN_RATING || rating > RecipeRatingStatsEntity.MAX_RATING) {
+            throw new IllegalArgumentException("Rating out of range: " + rating);
+        }
+        // ratings live on the home shard, the recipe and the user on their own
+        RecipeEntity recipe = shardRouter.read(recipeId, () -> recipeJpaRepository.findById(recipeId))
+                .orElseThrow(() -> new RuntimeException("Not found: " + recipeId));
+        if (!shardRouter.read(userId, () -> userJpaRepository.existsById(userId))) {
+            throw new RuntimeException("Not found: " + userId);
+        }
+
+        // the stats row lock serializes ratings of one recipe, so the previous rating read below is stable
+        statsRepository.ensureExists(recipeId);
+        RecipeRatingStatsEntity stats = statsRepository.lockByRecipeId(recipeId).orElseThrow();
+
+        RecipeRatingId id = new RecipeRatingId(recipeId, userId);
+        RecipeRatingEntity entity = ratingRepository.findById(id)
+                .orElseGet(() -> RecipeRatingEntity.builder().id(id).build());
+        Integer previous = entity.getRating();
+        if (rating.equals(previous)) {
+            return statsMapper.toDto(stats);
+        }
+
+        entity.setRating(rating);
+        ratingRepository.save(entity);
+        stats.apply(previous, rating);
+
+        long sum = stats.getRatingSum();
+        long count = stats.getRatingCount();
+        Integer cookTime = recipe.getCookTimeMinutes();
+        Transactions.afterCommit(() -> leaderboardService.onRatingChanged(recipeId, cookTime, sum, count));
+        LoggerSingleton.INSTANCE.info("Rated recipe: " + recipeId);
+        return statsMapper.toDto(stats);
+    }
+}
@@ -0,0 +1,160 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.recipeshare.dao.repository.RecipeSimilarityJdbcRepository;
+import hr.algebra.recipeshare.dao.repository.RecipeSimilarityJdbcRepository.Authorship;
+import hr.algebra.recipeshare.dao.repository.RecipeSimilarityJdbcRepository.InteractionHandler;
+import hr.algebra.recipeshare.dao.repository.RecipeSimilarityJdbcRepository.Neighbors;
+import hr.algebra.recipeshare.model.SimilarRecipeDto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+// "you may also like": neighbors are precomputed by a batch run over likes, ratings and authorship,
+// serving is one map lookup and never touches the database
+@Service
+public class RecipeRecommendationService {
+
+    private final RecipeSimilarityJdbcRepository similarityRepository;
+    private final ShardRouter shardRouter;
+    private final ForkJoinPool pool;
+    private final int neighbors;
+    private final int maxUserInteractions;
+    private final double minScore;
+
+    private volatile Map<Long, Neighbors> byRecipe = Map.of();
+
+    public RecipeRecommendationService(RecipeSimilarityJdbcRepository similarityRepository,
+                                       ShardRouter shardRouter,
+                                       @Value("${recommendations.parallelism:0}") int parallelism,
+                                       @Value("${recommendations.neighbors:20}") int neighbors,
+                                       @Value("${recommendations.max-user-interactions:1000}") int maxUserInteractions,
+                                       @Value("${recommendations.min-score:0.05}") double minScore) {
+        if (neighbors <= 0) {
+            throw new IllegalArgumentException("Neighbors must be positive: " + neighbors);
+        }
+        this.similarityRepository = similarityRepository;
+        this.shardRouter = shardRouter;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.neighbors = neighbors;
+        this.maxUserInteractions = maxUserInteractions;
+        this.minScore = minScore;
+    }
+
+    public List<SimilarRecipeDto> similar(Long recipeId, int limit) {
+        Neighbors found = byRecipe.get(recipeId);
+        if (found == null) {
+            return List.of();
+        }
+        int size = Math.max(0, Math.min(limit, found.neighborIds().length));
+        List<SimilarRecipeDto> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new SimilarRecipeDto(found.neighborIds()[i], (double) found.scores()[i]));
+        }
+        return result;
+    }
+
+    // the last run survives restarts, so serving doesn't wait for the next rebuild
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<Long, Neighbors> loaded = new HashMap<>();
+        similarityRepository.forEachNeighbors(row -> loaded.put(row.recipeId(), row));
+        byRecipe = loaded;
+        LoggerSingleton.INSTANCE.info("Loaded recommendations for " + loaded.size() + " recipes");
+    }
+
+    @Scheduled(cron = "${recommendations.rebuild-cron:0 15 3 * * *}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        ItemSimilarity.Builder builder = new ItemSimilarity.Builder();
+        List<Authorship> authors = new ArrayList<>(shardRouter.scatter(similarityRepository::findAuthors));
+        authors.sort(Comparator.comparingLong(Authorship::recipeId));
+        Interactions interactions = new Interactions(authors, builder::add);
+        similarityRepository.forEachInteraction(interactions::add);
+        interactions.finish();
+        ItemSimilarity similarity = builder.build();
+        List<Neighbors> rows = similarity.topNeighbors(pool, neighbors, maxUserInteractions, minScore);
+
+        similarityRepository.replaceAll(rows);
+        Map<Long, Neighbors> rebuilt = new HashMap<>(rows.size() * 2);
+        rows.forEach(row -> rebuilt.put(row.recipeId(), row));
+        byRecipe = rebuilt;
+        LoggerSingleton.INSTANCE.info("Rebuilt recommendations for " + similarity.recipes() + " recipes in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // likes and ratings merged with the authors, both in recipe order: the author's pair gets 1 more, a recipe
+    // without an author row was deleted and is left out, pairs that add up to nothing are dropped
+    private static final class Interactions {
+        private final List<Authorship> authors;
+        private final InteractionHandler target;
+        private int nextAuthor;
+        private long recipeId = -1;
+        private boolean live;
+        private long authorId;
+        private boolean authorSeen;
+
+        private Interactions(List<Authorship> authors, InteractionHandler target) {
+            this.authors = authors;
+            this.target = target;
+        }
+
+        private void add(long recipeId, long userId, double weight) {
+            if (recipeId != this.recipeId) {
+                finishRecipe();
+                startRecipe(recipeId);
+            }
+            if (!live) {
+                return;
+            }
+            if (userId == authorId) {
+                weight += 1;
+                authorSeen = true;
+            }
+            if (weight != 0) {
+                target.accept(recipeId, userId, weight);
+            }
+        }
+
+        private void finish() {
+            finishRecipe();
+            startRecipe(Long.MAX_VALUE);
+        }
+
+        // recipes nobody liked or rated before this one only have their author
+        private void startRecipe(long recipeId) {
+            while (nextAuthor < authors.size() && authors.get(nextAuthor).recipeId() < recipeId) {
+                Authorship only = authors.get(nextAuthor++);
+                target.accept(only.recipeId(), only.userId(), 1);
+            }
+            this.recipeId = recipeId;
+            live = nextAuthor < authors.size() && authors.get(nextAuthor).recipeId() == recipeId;
+            if (live) {
+                authorId = authors.get(nextAuthor++).userId();
+                authorSeen = false;
+            }
+        }
+
+        private void finishRecipe() {
+            if (live && !authorSeen) {
+                target.accept(recipeId, authorId, 1);
+            }
+            live = false;
+        }
+    }
+}
@@ -1,41 +1,267 @@
 package hr.algebra.recipeshare.service;
 
 import hr.algebra.common.AbstractCrud;
+import hr.algebra.common.Transactions;
 import hr.algebra.recipeshare.dao.RecipeEntity;
-import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.UserStatsEntity.Contribution;
 import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
 import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
 import hr.algebra.recipeshare.mapper.RecipeMapper;
 import hr.algebra.recipeshare.model.RecipeDto;
 import hr.algebra.recipeshare.model.UserDto;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @Service
 public class RecipeService extends AbstractCrud<RecipeEntity, RecipeDto> {
 
+    private static final Set<String> PATCHABLE = Set.of("title", "description", "instructions", "cookTimeMinutes",
+            "ingredients", "calories", "protein", "fat", "carbs");
+
     private final UserJpaRepository userJpaRepository;
     private final RecipeJpaRepository recipeJpaRepository;
     private final RecipeMapper recipeMapper;
+    private final RecipeLikeService recipeLikeService;
+    private final RecipeDuplicateService recipeDuplicateService;
+    private final RecipeAutocompleteService recipeAutocompleteService;
+    private final NutritionService nutritionService;
+    private final ShardRouter shardRouter;
+    private final UserStatsService userStatsService;
+    private final RecipeBodyStore recipeBodyStore;
+    private final ResponseBodyCache responseBodyCache;
+    private final TrendingService trendingService;
 
     public RecipeService(RecipeJpaRepository repository, RecipeMapper mapper,
-                         UserJpaRepository userJpaRepository, RecipeJpaRepository recipeJpaRepository, RecipeMapper recipeMapper) {
+                         UserJpaRepository userJpaRepository, RecipeJpaRepository recipeJpaRepository, RecipeMapper recipeMapper,
+                         RecipeLikeService recipeLikeService,
+                         RecipeDuplicateService recipeDuplicateService,
+                         RecipeAutocompleteService recipeAutocompleteService, NutritionService nutritionService,
+                         ShardRouter shardRouter, UserStatsService userStatsService,
+                         RecipeBodyStore recipeBodyStore, ResponseBodyCache responseBodyCache,
+                         TrendingService trendingService) {
         super(repository, mapper);
         this.userJpaRepository = userJpaRepository;
         this.recipeJpaRepository = recipeJpaRepository;
         this.recipeMapper = recipeMapper;
+        this.recipeLikeService = recipeLikeService;
+        this.recipeDuplicateService = recipeDuplicateService;
+        this.recipeAutocompleteService = recipeAutocompleteService;
+        this.nutritionService = nutritionService;
+        this.shardRouter = shardRouter;
+        this.userStatsService = userStatsService;
+        this.recipeBodyStore = recipeBodyStore;
+        this.responseBodyCache = responseBodyCache;
+        this.trendingService = trendingService;
+    }
+
+    @Override
+    public Optional<RecipeDto> findById(Long id) {
+        return findWithBody(id).map(this::withPendingLikes);
+    }
+
+    // an encoded response stays good while the version and the like count, unflushed likes included, are unchanged
+    public Optional<ResponseBodyCache.Encoded> findEncoded(Long id) {
+        return shardRouter.on(id, () -> recipeJpaRepository.findHeaderById(id))
+                .flatMap(header -> responseBodyCache.encoded("Recipe", id,
+                        validator(header.getVersion(), likeCount(id, header.getLikeCount())), header.getVersion() != null,
+                        () -> findById(id)));
+    }
+
+    // what the ETag of a full recipe is made from
+    public static String validator(Long version, long likeCount) {
+        return version + ":" + likeCount;
+    }
+
+    // the same over every recipe of a user, for responses listing them
+    public String listValidator(Long userId) {
+        List<RecipeJpaRepository.VersionRow> rows = shardRouter.on(userId,
+                () -> recipeJpaRepository.findVersionRowsByUserId(userId));
+        long hash = 1;
+        for (RecipeJpaRepository.VersionRow row : rows) {
+            hash = 31 * hash + row.getId();
+            hash = 31 * hash + (row.getVersion() == null ? 0 : row.getVersion());
+            hash = 31 * hash + likeCount(row.getId(), row.getLikeCount());
+        }
+        return rows.size() + ":" + Long.toHexString(hash);
+    }
+
+    // a recipe whose body is held at its current version is read without the text columns,
+    // anything else is read whole and its body kept for the next read
+    private Optional<RecipeDto> findWithBody(Long id) {
+        if (recipeBodyStore.contains(id)) {
+            Optional<RecipeJpaRepository.HeaderRow> header = shardRouter.on(id, () -> recipeJpaRepository.findHeaderById(id));
+            if (header.isEmpty()) {
+                return Optional.empty();
+            }
+            RecipeBodyStore.Body body = recipeBodyStore.get(id, header.get().getVersion());
+            if (body != null) {
+                return Optional.of(toDto(header.get(), body));
+            }
+        }
+        Optional<RecipeDto> loaded = super.findById(id);
+        loaded.ifPresent(this::keepBody);
+        return loaded;
+    }
+
+    // the version one field can be streamed at, empty for no such recipe
+    public Optional<Long> findBodyVersion(Long id) {
+        Optional<Long> version = shardRouter.on(id, () -> recipeJpaRepository.findHeaderById(id))
+                .map(RecipeJpaRepository.HeaderRow::getVersion);
+        if (version.isPresent() && !recipeBodyStore.contains(id)) {
+            super.findById(id).ifPresent(this::keepBody);
+        }
+        return version;
+    }
+
+    // inflated from the body store straight into out; a body evicted or edited since is read from the row instead
+    public void writeText(Long id, long version, RecipeBodyStore.Field field, OutputStream out) throws IOException {
+        if (recipeBodyStore.writeTo(id, version, field, out)) {
+            return;
+        }
+        Optional<RecipeDto> loaded = super.findById(id);
+        if (loaded.isEmpty()) {
+            return;
+        }
+        keepBody(loaded.get());
+        String text = switch (field) {
+            case DESCRIPTION -> loaded.get().getDescription();
+            case INSTRUCTIONS -> loaded.get().getInstructions();
+            case INGREDIENTS -> loaded.get().getIngredients();
+        };
+        if (text != null) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    // a body read inside a transaction may be one it wrote itself, it is kept only once that committed
+    private void keepBody(RecipeDto dto) {
+        if (dto.getVersion() == null) {
+            return;
+        }
+        long id = dto.getId();
+        long version = dto.getVersion();
+        RecipeBodyStore.Body body = new RecipeBodyStore.Body(dto.getDescription(), dto.getInstructions(),
+                dto.getIngredients());
+        Transactions.afterCommit(() -> recipeBodyStore.put(id, version, body));
+    }
+
+    private static RecipeDto toDto(RecipeJpaRepository.HeaderRow header, RecipeBodyStore.Body body) {
+        return RecipeDto.builder()
+                .id(header.getId())
+                .userId(header.getUserId())
+                .title(header.getTitle())
+                .description(body.description())
+                .instructions(body.instructions())
+                .cookTimeMinutes(header.getCookTimeMinutes())
+                .ingredients(body.ingredients())
+                .calories(header.getCalories())
+                .protein(header.getProtein())
+                .fat(header.getFat())
+                .carbs(header.getCarbs())
+                .likeCount(header.getLikeCount())
+                .version(header.getVersion())
+                .build();
     }
 
     public List<RecipeDto> getAllByUserId(Long userId) {
-        List<RecipeEntity> entities = recipeJpaRepository.getAllByUserId(userId);
-        return recipeMapper.toDtoList(entities);
+        List<RecipeEntity> entities = shardRouter.on(userId, () -> recipeJpaRepository.getAllByUserId(userId));
+        List<RecipeDto> recipes = recipeMapper.toDtoList(entities);
+        recipes.forEach(this::withPendingLikes);
+        return recipes;
+    }
+
+    @Override
+    @Transactional
+    public RecipeDto create(RecipeDto dto) {
+        RecipeDto created = super.create(dto);
+        recipeJpaRepository.findById(created.getId())
+                .ifPresent(recipe -> {
+                    userStatsService.onCreated(recipe);
+                    recipeDuplicateService.onSaved(recipe.getId(), recipe.getMinhash());
+                    recipeAutocompleteService.onCreated(recipe.getId(), recipe.getTitle(), recipe.getLikeCount());
+                    nutritionService.onIngredientsChanged(recipe.getId());
+                    trendingService.onCreated(recipe.getId());
+                });
+        return created;
+    }
+
+    // a recipe lives with its owner, its id carries the owner's slot
+    @Override
+    protected <T> T onShard(Long id, Supplier<T> work) {
+        return shardRouter.on(id, work);
+    }
+
+    @Override
+    protected <T> T onNewShard(RecipeDto dto, Supplier<T> work) {
+        return shardRouter.on(dto.getUserId(), work);
+    }
+
+    private long likeCount(Long id, Long stored) {
+        return (stored == null ? 0 : stored) + recipeLikeService.pendingDelta(id);
+    }
+
+    // like_count lags behind the in-memory counters until the next flush
+    private RecipeDto withPendingLikes(RecipeDto dto) {
+        long stored = dto.getLikeCount() == null ? 0 : dto.getLikeCount();
+        dto.setLikeCount(stored + recipeLikeService.pendingDelta(dto.getId()));
+        return dto;
+    }
+
+    // meal plans holding the recipe pick up new macros from its outbox event
+    @Override
+    protected RecipeEntity updateEntity(RecipeEntity existing, RecipeDto dto) {
+        List<String> textBefore = text(existing);
+        String titleBefore = existing.getTitle();
+        String ingredientsBefore = existing.getIngredients();
+        Contribution statsBefore = Contribution.of(existing);
+        RecipeEntity updated = super.updateEntity(existing, dto);
+        userStatsService.onChanged(updated.getUser().getId(), statsBefore, Contribution.of(updated));
+        if (!textBefore.equals(text(updated))) {
+            updated.setMinhash(recipeDuplicateService.signature(updated));
+            recipeDuplicateService.onSaved(updated.getId(), updated.getMinhash());
+        }
+        if (!Objects.equals(titleBefore, updated.getTitle())) {
+            recipeAutocompleteService.onRenamed(updated.getId(), titleBefore, updated.getTitle());
+        }
+        if (!Objects.equals(ingredientsBefore, updated.getIngredients())) {
+            nutritionService.onIngredientsChanged(updated.getId());
+        }
+        return updated;
+    }
+
+    @Override
+    protected Set<String> patchableFields() {
+        return PATCHABLE;
     }
 
     @Override
     protected void preCreate(RecipeEntity entity, RecipeDto dto) {
         super.preCreate(entity, dto);
         applyReferences(entity, dto);
+        entity.setMinhash(recipeDuplicateService.signForCreate(entity));
+    }
+
+    @Override
+    protected void preDelete(RecipeEntity entity) {
+        super.preDelete(entity);
+        userStatsService.onDeleted(entity);
+        recipeDuplicateService.onDeleted(entity.getId());
+        recipeAutocompleteService.onDeleted(entity.getId(), entity.getTitle());
+        trendingService.onDeleted(entity.getId());
+    }
+
+    private static List<String> text(RecipeEntity recipe) {
+        return Arrays.asList(recipe.getTitle(), recipe.getIngredients(), recipe.getInstructions());
     }
 
     private void applyReferences(RecipeEntity entity, RecipeDto dto){
@@ -0,0 +1,267 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.Transactions;
+import hr.algebra.recipeshare.model.Invalidation;
+import hr.algebra.recipeshare.model.ResponseCacheStatsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// the JSON of hot reads kept encoded, so a hit skips the mapper and Jackson and goes out as bytes: one response per
+// row, held with the validator it was encoded at and a gzipped copy. bounded by the bytes held, the least recently
+// read goes first; writes through AbstractCrud and the other invalidations on the bus drop entries early
+@Service
+public class ResponseBodyCache {
+
+    // eTag is the header value or null, gzip null when it would not be smaller. the ETag is the weak validator:
+    // it changes with everything the body shows and is shared by the gzipped and the plain bytes
+    public record Encoded(String eTag, byte[] json, byte[] gzip) {
+
+        private long size() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+
+    private record Entry(String validator, Encoded encoded) {
+    }
+
+    private static final int GZIP_MIN_BYTES = 256;
+    private static final List<MediaType> BINARY = List.of(MediaType.parseMediaType("application/cbor"),
+            MediaType.parseMediaType("application/x-jackson-smile"));
+
+    private final JsonMapper jsonMapper;
+    private final long maxBytes;
+    // access ordered, guarded by the cache's lock
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    // bumped by every invalidation, an encoding started before one is not kept
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong invalidated = new AtomicLong();
+
+    @Autowired
+    public ResponseBodyCache(JsonMapper jsonMapper,
+                             InvalidationBus invalidationBus,
+                             @Value("${response-cache.max-mb:32}") long maxMb) {
+        this(jsonMapper, maxMb * 1024 * 1024);
+        invalidationBus.subscribe(new InvalidationBus.Handler() {
+            @Override
+            public void invalidate(List<Invalidation> batch) {
+                batch.forEach(invalidation -> drop(invalidation.aggregateType(), invalidation.id()));
+            }
+
+            @Override
+            public void invalidateAll() {
+                clear();
+            }
+        });
+    }
+
+    ResponseBodyCache(JsonMapper jsonMapper, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Max bytes must be positive: " + maxBytes);
+        }
+        this.jsonMapper = jsonMapper;
+        this.maxBytes = maxBytes;
+    }
+
+    // the response as held while its validator still matches, otherwise loaded, encoded and kept; empty when there
+    // is nothing to load. encoded inside a transaction it is kept only once that committed. a tagged response goes
+    // out with the validator as its ETag
+    public Optional<Encoded> encoded(String aggregateType, long id, String validator, boolean tagged,
+                                     Supplier<? extends Optional<?>> load) {
+        String key = key(aggregateType, id);
+        long started;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.validator().equals(validator)) {
+                hits.incrementAndGet();
+                return Optional.of(entry.encoded());
+            }
+            misses.incrementAndGet();
+            started = generation;
+        }
+        Optional<?> body = load.get();
+        if (body.isEmpty()) {
+            return Optional.empty();
+        }
+        Encoded encoded = encode(body.get(), tagged ? weakETag(validator) : null);
+        Transactions.afterCommit(() -> keep(key, new Entry(validator, encoded), started));
+        return Optional.of(encoded);
+    }
+
+    public synchronized void drop(String aggregateType, long id) {
+        generation++;
+        Entry removed = entries.remove(key(aggregateType, id));
+        if (removed != null) {
+            bytes -= removed.encoded().size();
+            invalidated.incrementAndGet();
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        invalidated.addAndGet(entries.size());
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized ResponseCacheStatsDto stats() {
+        return ResponseCacheStatsDto.builder()
+                .entries((long) entries.size())
+                .bytes(bytes)
+                .maxBytes(maxBytes)
+                .hits(hits.get())
+                .misses(misses.get())
+                .evicted(evicted.get())
+                .invalidated(invalidated.get())
+                .build();
+    }
+
+    // the bytes as they are, gzipped when the client takes gzip at least as gladly as the plain bytes
+    public static ResponseEntity<byte[]> respond(Encoded encoded, String acceptEncoding) {
+        boolean gzip = encoded.gzip() != null && acceptsGzip(acceptEncoding);
+        byte[] body = gzip ? encoded.gzip() : encoded.json();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.length)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (encoded.eTag() != null) {
+            response.header(HttpHeaders.ETAG, encoded.eTag());
+        }
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // only JSON is held, a client preferring cbor or smile is encoded for per request; each type is as welcome as
+    // the most specific accepted range covering it says, JSON wins ties as the default
+    public static boolean acceptsJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        try {
+            List<MediaType> types = MediaType.parseMediaTypes(accept);
+            if (types.isEmpty()) {
+                return true;
+            }
+            double json = quality(types, MediaType.APPLICATION_JSON);
+            return json > 0 && BINARY.stream().allMatch(binary -> quality(types, binary) <= json);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    public static String weakETag(String validator) {
+        return "W/\"" + validator + "\"";
+    }
+
+    // an explicit gzip entry, else the * entry; identity is acceptable unless ruled out the same way
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+        Double gzip = null;
+        Double identity = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].strip().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].strip();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).strip());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            switch (name) {
+                case "gzip", "x-gzip" -> gzip = quality;
+                case "identity" -> identity = quality;
+                case "*" -> any = quality;
+                default -> {
+                }
+            }
+        }
+        double gzipQuality = gzip != null ? gzip : any != null ? any : 0;
+        double identityQuality = identity != null ? identity : any != null && any == 0 ? 0 : 1;
+        return gzipQuality > 0 && gzipQuality >= identityQuality;
+    }
+
+    private static double quality(List<MediaType> accepted, MediaType type) {
+        MediaType best = null;
+        for (MediaType range : accepted) {
+            if (range.includes(type) && (best == null || specificity(range) > specificity(best))) {
+                best = range;
+            }
+        }
+        return best == null ? 0 : best.getQualityValue();
+    }
+
+    // type/subtype over type/* over */*
+    private static int specificity(MediaType range) {
+        return range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+    }
+
+    private synchronized void keep(String key, Entry entry, long started) {
+        long size = entry.encoded().size();
+        if (generation != started || size > maxBytes) {
+            return;
+        }
+        Entry replaced = entries.put(key, entry);
+        bytes += size - (replaced == null ? 0 : replaced.encoded().size());
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Entry evictedEntry = eldest.next().getValue();
+            eldest.remove();
+            bytes -= evictedEntry.encoded().size();
+            evicted.incrementAndGet();
+        }
+    }
+
+    private Encoded encode(Object body, String eTag) {
+        byte[] json = jsonMapper.writeValueAsBytes(body);
+        byte[] gzip = json.length < GZIP_MIN_BYTES ? null : gzip(json);
+        return new Encoded(eTag, json,
+                gzip != null && gzip.length < json.length ? gzip : null);
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String key(String aggregateType, long id) {
+        return aggregateType + ":" + id;
+    }
+}
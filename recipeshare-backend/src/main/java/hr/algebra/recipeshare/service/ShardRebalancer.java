@@ -0,0 +1,167 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.common.ShardedIds;
+import hr.algebra.recipeshare.configuration.ShardDataSources;
+import hr.algebra.recipeshare.model.ShardStatsDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+// moves slots to the shard the ring asks for while the application keeps running: one slot at a time is
+// blocked, its users, their stats and recipes are copied, the placement flips and only then the source rows go
+@Service
+public class ShardRebalancer {
+
+    // parents first, a recipe needs its user on the target
+    private static final List<Table> TABLES = List.of(
+            new Table("users", "id"),
+            new Table("user_stats", "user_id"),
+            new Table("recipes", "user_id"));
+
+    private record Table(String name, String slotColumn) {
+        private String select() {
+            return "SELECT * FROM " + name + " WHERE " + ShardedIds.slotSql(slotColumn) + " = ?";
+        }
+
+        private String delete() {
+            return "DELETE FROM " + name + " WHERE " + ShardedIds.slotSql(slotColumn) + " = ?";
+        }
+    }
+
+    private final ShardRouter shardRouter;
+
+    public ShardRebalancer(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    public ShardStatsDto stats() {
+        return stats(0);
+    }
+
+    // the new ring must only name configured shards; dropping one from it drains that shard
+    public synchronized ShardStatsDto rebalance(Collection<String> ring) {
+        if (!shardRouter.enabled()) {
+            throw new IllegalStateException("Sharding is not enabled");
+        }
+        if (ring.isEmpty()) {
+            throw new IllegalArgumentException("A ring needs at least one shard");
+        }
+        shardRouter.resize(ring);
+        long moved = 0;
+        for (int slot = 0; slot < ShardedIds.SLOTS; slot++) {
+            String from = shardRouter.placement(slot);
+            String to = shardRouter.owner(slot);
+            if (!from.equals(to)) {
+                move(slot, from, to);
+                moved++;
+            }
+        }
+        LoggerSingleton.INSTANCE.info("Rebalanced " + moved + " slots over " + ring);
+        return stats(moved);
+    }
+
+    private void move(int slot, String from, String to) {
+        ShardDataSources shards = shardRouter.dataSources();
+        shardRouter.exclusive(slot, () -> {
+            int copied = inTransaction(shards.get(to), target -> {
+                int rows = 0;
+                for (Table table : TABLES) {
+                    rows += copy(new JdbcTemplate(shards.get(from)), target, table, slot);
+                }
+                return rows;
+            });
+            // from here on the slot is read from the target, the source rows are only leftovers
+            shardRouter.place(slot, to);
+            try {
+                inTransaction(shards.get(from), source -> {
+                    for (Table table : TABLES.reversed()) {
+                        source.update(table.delete(), slot);
+                    }
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                LoggerSingleton.INSTANCE.error("Slot " + slot + " moved to " + to + " but its rows stay on "
+                        + from + ": " + e.getMessage());
+            }
+            LoggerSingleton.INSTANCE.info("Moved slot " + slot + " from " + from + " to " + to
+                    + " with " + copied + " rows");
+            return null;
+        });
+    }
+
+    // a slot is a 1/1024 share of the users, small enough to hold while it is copied
+    private static int copy(JdbcTemplate source, JdbcTemplate target, Table table, int slot) {
+        List<String> columns = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        source.query(table.select(), rs -> {
+            ResultSetMetaData meta = rs.getMetaData();
+            if (columns.isEmpty()) {
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    columns.add(meta.getColumnName(i).toLowerCase());
+                }
+            }
+            Object[] row = new Object[columns.size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = rs.getObject(i + 1);
+            }
+            rows.add(row);
+        }, slot);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        String insert = "INSERT INTO " + table.name() + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        target.batchUpdate(insert, rows, rows.size(), (ps, row) -> {
+            for (int i = 0; i < row.length; i++) {
+                // arrays belong to the connection that read them
+                if (row[i] instanceof Array array) {
+                    ps.setArray(i + 1, ps.getConnection().createArrayOf(array.getBaseTypeName(),
+                            (Object[]) array.getArray()));
+                } else {
+                    ps.setObject(i + 1, row[i]);
+                }
+            }
+        });
+        return rows.size();
+    }
+
+    private static <T> T inTransaction(DataSource dataSource, Function<JdbcTemplate, T> work) {
+        return new TransactionTemplate(new DataSourceTransactionManager(dataSource))
+                .execute(_ -> work.apply(new JdbcTemplate(dataSource)));
+    }
+
+    private ShardStatsDto stats(long moved) {
+        Map<String, Long> slots = new TreeMap<>();
+        shardRouter.shards().forEach(shard -> slots.put(shard, 0L));
+        long misplaced = 0;
+        if (shardRouter.enabled()) {
+            for (int slot = 0; slot < ShardedIds.SLOTS; slot++) {
+                String placement = shardRouter.placement(slot);
+                slots.merge(placement, 1L, Long::sum);
+                if (!placement.equals(shardRouter.owner(slot))) {
+                    misplaced++;
+                }
+            }
+        }
+        return ShardStatsDto.builder()
+                .shards(shardRouter.shards())
+                .ring(shardRouter.ringMembers())
+                .slots(slots)
+                .misplaced(misplaced)
+                .moved(moved)
+                .build();
+    }
+}
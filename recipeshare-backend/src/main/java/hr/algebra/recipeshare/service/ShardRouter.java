@@ -0,0 +1,276 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.ConsistentHashRing;
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.common.ShardContext;
+import hr.algebra.common.ShardedIds;
+import hr.algebra.recipeshare.configuration.ShardDataSources;
+import hr.algebra.recipeshare.dao.ShardPlacementEntity;
+import hr.algebra.recipeshare.dao.repository.ShardPlacementJpaRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// users and their recipes are spread over the shards by the slot in their ids: the ring says where a slot
+// should live, shard_placements where it does, and the two only differ until ShardRebalancer moved it.
+// with sharding off every call simply runs on the one datasource
+@Service
+public class ShardRouter {
+
+    // scatter reads and relays are not about one slot, an insert under them fails in ShardedIds
+    private static final int NO_SLOT = -1;
+
+    private final ShardDataSources shards;
+    private final ShardPlacementJpaRepository placementRepository;
+    private final TransactionTemplate readOnly;
+    private final int virtualNodes;
+    private final AtomicReferenceArray<String> placements = new AtomicReferenceArray<>(ShardedIds.SLOTS);
+    private final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[ShardedIds.SLOTS];
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile ConsistentHashRing<String> ring;
+
+    public ShardRouter(ObjectProvider<ShardDataSources> shards,
+                       ShardPlacementJpaRepository placementRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${sharding.ring:}") List<String> ring,
+                       @Value("${sharding.virtual-nodes:128}") int virtualNodes) {
+        this.shards = shards.getIfAvailable();
+        this.placementRepository = placementRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.virtualNodes = virtualNodes;
+        for (int slot = 0; slot < locks.length; slot++) {
+            locks[slot] = new ReentrantReadWriteLock();
+        }
+        if (this.shards != null) {
+            List<String> members = ring.isEmpty() ? this.shards.names() : ring;
+            members.forEach(this.shards::get);
+            this.ring = new ConsistentHashRing<>(members, virtualNodes);
+        }
+    }
+
+    // slots nobody placed yet go where the ring says, from then on only a rebalance moves them
+    @PostConstruct
+    public void loadPlacements() {
+        if (shards == null) {
+            return;
+        }
+        placementRepository.findAll().forEach(placement -> placements.set(placement.getSlot(), placement.getShard()));
+        List<ShardPlacementEntity> missing = new ArrayList<>();
+        for (int slot = 0; slot < ShardedIds.SLOTS; slot++) {
+            if (placements.get(slot) == null) {
+                missing.add(ShardPlacementEntity.builder()
+                        .slot(slot)
+                        .shard(ring.nodeFor(slot))
+                        .placedAt(Instant.now())
+                        .build());
+            }
+        }
+        if (!missing.isEmpty()) {
+            try {
+                placementRepository.saveAll(missing);
+            } catch (DataIntegrityViolationException e) {
+                // another node placed them first, its placements are the ones that count
+                placementRepository.findAll().forEach(placement -> placements.set(placement.getSlot(), placement.getShard()));
+                return;
+            }
+            missing.forEach(placement -> placements.set(placement.getSlot(), placement.getShard()));
+        }
+        LoggerSingleton.INSTANCE.info("Routing " + ShardedIds.SLOTS + " slots over shards " + shards.names());
+    }
+
+    public boolean enabled() {
+        return shards != null;
+    }
+
+    // runs work on the shard of a user, or of anything whose id was generated for that user
+    public <T> T on(Long id, Supplier<T> work) {
+        return id == null ? work.get() : onSlot(ShardedIds.slotOf(id), work);
+    }
+
+    // a new user gets a random slot, its id and every id made for it later carry that slot
+    public <T> T onNewSlot(Supplier<T> work) {
+        return onSlot(ThreadLocalRandom.current().nextInt(ShardedIds.SLOTS), work);
+    }
+
+    // the slot's read lock is held until the surrounding transaction completes, so a move waits for
+    // writes that already started there and later ones wait for the move
+    <T> T onSlot(int slot, Supplier<T> work) {
+        if (shards == null) {
+            return work.get();
+        }
+        Lock lock = locks[slot].readLock();
+        lock.lock();
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+        }
+        try {
+            String shard = placements.get(slot);
+            pin(shard);
+            return ShardContext.call(new ShardContext.Route(slot, shard), work);
+        } finally {
+            if (!inTransaction) {
+                lock.unlock();
+            }
+        }
+    }
+
+    // the home shard whatever slot the caller works on, for the tables only it keeps
+    public <T> T onHome(Supplier<T> work) {
+        if (shards == null) {
+            return work.get();
+        }
+        return ShardContext.call(new ShardContext.Route(NO_SLOT, shards.home()), work);
+    }
+
+    // a read on the shard of a user or its recipes from code working on another one, like the home shard tables:
+    // it gets a transaction of its own on another thread, so the caller's transaction stays where it is
+    public <T> T read(Long id, Supplier<T> query) {
+        if (shards == null || id == null) {
+            return query.get();
+        }
+        int slot = ShardedIds.slotOf(id);
+        return await(placements.get(slot), executor.submit(() -> onSlot(slot, () -> readOnly.execute(_ -> query.get()))));
+    }
+
+    // the same query on every shard at once, results concatenated; for the few reads that are not about one user
+    public <T> List<T> scatter(Supplier<List<T>> query) {
+        if (shards == null) {
+            return query.get();
+        }
+        Map<String, Future<List<T>>> parts = new LinkedHashMap<>();
+        for (String shard : shards.names()) {
+            parts.put(shard, executor.submit(() -> ShardContext.call(new ShardContext.Route(NO_SLOT, shard),
+                    () -> readOnly.execute(_ -> query.get()))));
+        }
+        List<T> result = new ArrayList<>();
+        parts.forEach((shard, part) -> result.addAll(await(shard, part)));
+        return result;
+    }
+
+    // one shard after the other on this thread, for jobs that work through per-shard tables like the outbox
+    public void forEachShard(Runnable work) {
+        if (shards == null) {
+            work.run();
+            return;
+        }
+        for (String shard : shards.names()) {
+            ShardContext.call(new ShardContext.Route(NO_SLOT, shard), () -> {
+                work.run();
+                return null;
+            });
+        }
+    }
+
+    public List<String> shards() {
+        return shards == null ? List.of() : shards.names();
+    }
+
+    public List<String> ringMembers() {
+        return ring == null ? List.of() : ring.members();
+    }
+
+    String placement(int slot) {
+        return placements.get(slot);
+    }
+
+    String owner(int slot) {
+        return ring.nodeFor(slot);
+    }
+
+    ShardDataSources dataSources() {
+        return shards;
+    }
+
+    void resize(Collection<String> members) {
+        members.forEach(shards::get);
+        ring = new ConsistentHashRing<>(members, virtualNodes);
+    }
+
+    // nothing reads or writes the slot while work runs, what was already running on it finishes first
+    <T> T exclusive(int slot, Supplier<T> work) {
+        Lock lock = locks[slot].writeLock();
+        lock.lock();
+        try {
+            return work.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void place(int slot, String shard) {
+        placementRepository.save(ShardPlacementEntity.builder()
+                .slot(slot)
+                .shard(shard)
+                .placedAt(Instant.now())
+                .build());
+        placements.set(slot, shard);
+    }
+
+    // one transaction holds one connection, so it stays on the shard its first routed call picked
+    private void pin(String shard) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Object pinned = TransactionSynchronizationManager.getResource(this);
+        if (pinned == null) {
+            TransactionSynchronizationManager.bindResource(this, shard);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ShardRouter.this);
+                }
+            });
+        } else if (!pinned.equals(shard)) {
+            throw new IllegalStateException("Transaction already works on shard " + pinned + ", not " + shard);
+        }
+    }
+
+    private static <T> T await(String shard, Future<T> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading shard " + shard);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Reading shard " + shard + " failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,131 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.MealPlanItemEntity;
+import hr.algebra.recipeshare.dao.repository.MealPlanItemJpaRepository;
+import hr.algebra.recipeshare.dao.repository.MealPlanJpaRepository;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository.IngredientsRow;
+import hr.algebra.recipeshare.model.IngredientUnit;
+import hr.algebra.recipeshare.model.ShoppingListDto;
+import hr.algebra.recipeshare.model.ShoppingListItemDto;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// one shopping list line per ingredient name and base unit, summed over every recipe of a meal plan
+@Service
+public class ShoppingListService {
+
+    private static final IngredientUnit[] LARGER = {IngredientUnit.KG, IngredientUnit.L};
+
+    private final MealPlanJpaRepository mealPlanRepository;
+    private final MealPlanItemJpaRepository itemRepository;
+    private final RecipeJpaRepository recipeJpaRepository;
+    private final IngredientParser ingredientParser;
+    private final ShardRouter shardRouter;
+
+    public ShoppingListService(MealPlanJpaRepository mealPlanRepository,
+                               MealPlanItemJpaRepository itemRepository,
+                               RecipeJpaRepository recipeJpaRepository,
+                               IngredientParser ingredientParser,
+                               ShardRouter shardRouter) {
+        this.mealPlanRepository = mealPlanRepository;
+        this.itemRepository = itemRepository;
+        this.recipeJpaRepository = recipeJpaRepository;
+        this.ingredientParser = ingredientParser;
+        this.shardRouter = shardRouter;
+    }
+
+    public ShoppingListDto build(Long planId) {
+        mealPlanRepository.findById(planId)
+                .filter(plan -> plan.getDeletedAt() == null)
+                .orElseThrow(() -> new RuntimeException("Not found: " + planId));
+
+        // a recipe planned several times is parsed and merged once with its servings summed
+        Map<Long, Double> servings = itemRepository.findAllByMealPlanIdOrderByDayIndexAscIdAsc(planId).stream()
+                .collect(Collectors.groupingBy(MealPlanItemEntity::getRecipeId, LinkedHashMap::new,
+                        Collectors.summingDouble(MealPlanItemEntity::getServings)));
+        Totals totals = new Totals();
+        if (!servings.isEmpty()) {
+            Set<Long> recipeIds = servings.keySet();
+            for (IngredientsRow row : shardRouter.scatter(() -> recipeJpaRepository.findIngredientsByIdIn(recipeIds))) {
+                totals.add(ingredientParser.parse(row.getIngredients()), servings.get(row.getId()));
+            }
+        }
+        return ShoppingListDto.builder()
+                .mealPlanId(planId)
+                .items(totals.toItems())
+                .build();
+    }
+
+    private static ShoppingListItemDto item(String name, IngredientUnit unit, double amount, int recipes) {
+        if (unit == null) {
+            return ShoppingListItemDto.builder().name(name).recipes(recipes).build();
+        }
+        IngredientUnit shown = unit;
+        for (IngredientUnit larger : LARGER) {
+            if (larger.base() == unit && amount >= larger.toBase(1)) {
+                shown = larger;
+            }
+        }
+        return ShoppingListItemDto.builder()
+                .name(name)
+                .quantity(Math.round(shown.fromBase(amount) * 100) / 100.0)
+                .unit(shown == IngredientUnit.PIECE ? null : shown.symbol())
+                .recipes(recipes)
+                .build();
+    }
+
+    // slots are indexes into parallel arrays, so merging is a map lookup and a double add
+    private static final class Totals {
+        private final Map<String, Integer> slots = new HashMap<>();
+        private String[] names = new String[16];
+        private IngredientUnit[] units = new IngredientUnit[16];
+        private double[] amounts = new double[16];
+        private int[] recipes = new int[16];
+        private int size;
+
+        private void add(IngredientParser.Parsed parsed, double servings) {
+            for (int i = 0; i < parsed.size(); i++) {
+                String name = parsed.names[i];
+                IngredientUnit unit = parsed.units[i];
+                int slot = slots.computeIfAbsent(name + '|' + (unit == null ? "" : unit.name()),
+                        _ -> newSlot(name, unit));
+                if (unit != null) {
+                    amounts[slot] += parsed.amounts[i] * servings;
+                }
+                recipes[slot]++;
+            }
+        }
+
+        private int newSlot(String name, IngredientUnit unit) {
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+                units = Arrays.copyOf(units, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+                recipes = Arrays.copyOf(recipes, size * 2);
+            }
+            names[size] = name;
+            units[size] = unit;
+            return size++;
+        }
+
+        private List<ShoppingListItemDto> toItems() {
+            List<ShoppingListItemDto> items = new ArrayList<>(size);
+            for (int slot = 0; slot < size; slot++) {
+                items.add(item(names[slot], units[slot], amounts[slot], recipes[slot]));
+            }
+            items.sort(Comparator.comparing(ShoppingListItemDto::getName)
+                    .thenComparing(ShoppingListItemDto::getUnit, Comparator.nullsFirst(Comparator.naturalOrder())));
+            return items;
+        }
+    }
+}
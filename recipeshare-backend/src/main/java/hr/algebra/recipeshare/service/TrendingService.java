@@ -0,0 +1,203 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.DecayedWindow;
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.common.TopK;
+import hr.algebra.common.Transactions;
+import hr.algebra.recipeshare.dao.TrendingScoreEntity;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.TrendingScoreJpaRepository;
+import hr.algebra.recipeshare.model.TrendingPageDto;
+import hr.algebra.recipeshare.model.TrendingRecipeDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// recipes ranked by their recent views, likes and creation, each weighted and decaying with a half-life, over a
+// sliding window of per-minute buckets held in memory. every tick renders the ranking into an immutable feed that
+// pages are cut from, cursors point into the feed they started on for as long as it is kept. the scores are
+// written to the home shard every few minutes and picked up again on start. views and likes only start a recipe's
+// counters once it was seen a few times, created and restored recipes start right away
+@Service
+public class TrendingService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final long BUCKET_MILLIS = 60_000;
+
+    // one rendering of the ranking, pages of it never change
+    private record Feed(long generation, List<TrendingRecipeDto> recipes) {
+    }
+
+    private final RecipeJpaRepository recipeJpaRepository;
+    private final TrendingScoreJpaRepository trendingScoreJpaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final DecayedWindow window;
+    private final double viewWeight;
+    private final double likeWeight;
+    private final double createWeight;
+    private final int size;
+    private final int keptFeeds;
+    // newest first, replaced whole by every tick
+    private volatile List<Feed> feeds = List.of(new Feed(0, List.of()));
+
+    public TrendingService(RecipeJpaRepository recipeJpaRepository,
+                           TrendingScoreJpaRepository trendingScoreJpaRepository,
+                           TransactionTemplate transactionTemplate,
+                           ShardRouter shardRouter,
+                           @Value("${trending.window-minutes:60}") int windowMinutes,
+                           @Value("${trending.half-life-minutes:30}") long halfLifeMinutes,
+                           @Value("${trending.size:200}") int size,
+                           @Value("${trending.kept-feeds:6}") int keptFeeds,
+                           @Value("${trending.max-tracked:20000}") int maxTracked,
+                           @Value("${trending.admit-after:2}") int admitAfter,
+                           @Value("${trending.view-weight:1}") double viewWeight,
+                           @Value("${trending.like-weight:5}") double likeWeight,
+                           @Value("${trending.create-weight:10}") double createWeight) {
+        if (keptFeeds <= 0) {
+            throw new IllegalArgumentException("Kept feeds must be positive: " + keptFeeds);
+        }
+        this.recipeJpaRepository = recipeJpaRepository;
+        this.trendingScoreJpaRepository = trendingScoreJpaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.window = new DecayedWindow(windowMinutes, BUCKET_MILLIS, halfLifeMinutes * BUCKET_MILLIS, size,
+                maxTracked, admitAfter, System.currentTimeMillis());
+        this.viewWeight = viewWeight;
+        this.likeWeight = likeWeight;
+        this.createWeight = createWeight;
+        this.size = size;
+        this.keptFeeds = keptFeeds;
+    }
+
+    // only for a recipe that was found, every id asked for would otherwise compete for the tracked slots
+    public void onViewed(Long recipeId) {
+        window.add(recipeId, viewWeight, System.currentTimeMillis());
+    }
+
+    public void onLiked(Long recipeId) {
+        window.add(recipeId, likeWeight, System.currentTimeMillis());
+    }
+
+    public void onCreated(Long recipeId) {
+        Transactions.afterCommit(() -> window.seed(recipeId, createWeight, System.currentTimeMillis()));
+    }
+
+    public void onDeleted(Long recipeId) {
+        Transactions.afterCommit(() -> window.remove(recipeId));
+    }
+
+    // a cursor of a feed no longer kept continues at the same offset of the current one
+    public TrendingPageDto page(String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Feed> kept = feeds;
+        Feed feed = kept.getFirst();
+        int offset = 0;
+        if (cursor != null) {
+            long[] parsed = parseCursor(cursor);
+            offset = (int) parsed[1];
+            for (Feed candidate : kept) {
+                if (candidate.generation() == parsed[0]) {
+                    feed = candidate;
+                    break;
+                }
+            }
+        }
+        List<TrendingRecipeDto> recipes = feed.recipes();
+        int from = Math.min(offset, recipes.size());
+        int to = Math.min(from + pageSize, recipes.size());
+        String nextCursor = to < recipes.size() ? feed.generation() + ":" + to : null;
+        return new TrendingPageDto(recipes.subList(from, to), nextCursor);
+    }
+
+    // drops what slid out of the window and renders the next feed; recipes deleted meanwhile leave the ranking
+    @Scheduled(fixedDelayString = "${trending.tick-ms:10000}", initialDelayString = "${trending.tick-ms:10000}")
+    public synchronized void tick() {
+        long now = System.currentTimeMillis();
+        window.advance(now);
+        List<TopK.Ranked> top = window.top(size, now);
+        List<Long> ids = top.stream().map(TopK.Ranked::id).toList();
+        Map<Long, RecipeJpaRepository.TitleRow> rows = ids.isEmpty() ? Map.of()
+                : shardRouter.scatter(() -> recipeJpaRepository.findTitleRowsByIdIn(ids)).stream()
+                .collect(Collectors.toMap(RecipeJpaRepository.TitleRow::getId, Function.identity()));
+
+        List<TrendingRecipeDto> recipes = new ArrayList<>(top.size());
+        for (TopK.Ranked entry : top) {
+            RecipeJpaRepository.TitleRow row = rows.get(entry.id());
+            if (row == null) {
+                window.remove(entry.id());
+                continue;
+            }
+            recipes.add(TrendingRecipeDto.builder()
+                    .id(row.getId())
+                    .title(row.getTitle())
+                    .likeCount(row.getLikeCount())
+                    .score(entry.score())
+                    .build());
+        }
+
+        List<Feed> kept = new ArrayList<>(keptFeeds);
+        kept.add(new Feed(feeds.getFirst().generation() + 1, List.copyOf(recipes)));
+        feeds.stream().limit(keptFeeds - 1).forEach(kept::add);
+        feeds = List.copyOf(kept);
+    }
+
+    // the whole ranking as of now, the history within the window collapses into one bucket at the snapshot time
+    @Scheduled(fixedDelayString = "${trending.snapshot-ms:300000}", initialDelayString = "${trending.snapshot-ms:300000}")
+    public synchronized void snapshot() {
+        Instant now = Instant.now();
+        List<TrendingScoreEntity> scores = window.top(size, now.toEpochMilli()).stream()
+                .map(entry -> TrendingScoreEntity.builder()
+                        .recipeId(entry.id())
+                        .score(entry.score())
+                        .snapshotAt(now)
+                        .build())
+                .toList();
+        try {
+            transactionTemplate.executeWithoutResult(_ -> {
+                trendingScoreJpaRepository.deleteAllInBatch();
+                trendingScoreJpaRepository.saveAll(scores);
+            });
+        } catch (DataAccessException e) {
+            LoggerSingleton.INSTANCE.error("Trending snapshot failed, retrying next round: " + e.getMessage());
+        }
+    }
+
+    // scores older than the window are skipped by the window itself
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        int restored = 0;
+        for (TrendingScoreEntity score : trendingScoreJpaRepository.findAll()) {
+            if (window.seed(score.getRecipeId(), score.getScore(), score.getSnapshotAt().toEpochMilli())) {
+                restored++;
+            }
+        }
+        tick();
+        LoggerSingleton.INSTANCE.info("Restored " + restored + " trending scores");
+    }
+
+    private static long[] parseCursor(String cursor) {
+        int colon = cursor.indexOf(':');
+        try {
+            long generation = Long.parseLong(cursor.substring(0, colon));
+            int offset = Integer.parseInt(cursor.substring(colon + 1));
+            if (offset < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new long[]{generation, offset};
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.BloomFilter;
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.model.AvailabilityDto;
+import hr.algebra.recipeshare.model.AvailabilityStatsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// whether a username or email is still free, answered from Bloom filters over every stored name: a miss is
+// definitely free, only a probable hit is looked up on the shards. names are compared trimmed and lower case.
+// soft deleted users keep their names, so nothing ever leaves a filter; names freed by a rename stay in as false
+// positives until the nightly rebuild
+@Service
+public class UserAvailabilityService {
+
+    private record Filters(BloomFilter usernames, BloomFilter emails) {
+
+        private void add(String username, String email) {
+            if (username != null) {
+                usernames.put(normalize(username));
+            }
+            if (email != null) {
+                emails.put(normalize(email));
+            }
+        }
+    }
+
+    private final UserJpaRepository userRepository;
+    private final ShardRouter shardRouter;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+    // null until first built, every name is looked up meanwhile
+    private volatile Filters filters;
+    // names saved while a rebuild reads the users, guarded by the service's lock
+    private List<String[]> savedDuringRebuild;
+
+    private final AtomicLong definitelyFree = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    public UserAvailabilityService(UserJpaRepository userRepository,
+                                   ShardRouter shardRouter,
+                                   @Value("${availability.expected-users:100000}") long expectedUsers,
+                                   @Value("${availability.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.shardRouter = shardRouter;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public AvailabilityDto check(String username, String email) {
+        Filters current = filters;
+        return AvailabilityDto.builder()
+                .username(username == null ? null
+                        : isFree(username, current == null ? null : current.usernames(), userRepository::findIdsByLowerUsername))
+                .email(email == null ? null
+                        : isFree(email, current == null ? null : current.emails(), userRepository::findIdsByLowerEmail))
+                .build();
+    }
+
+    // called before the row is written, so a committed name is never reported free; a rolled back one is only a
+    // false positive
+    public synchronized void onSaved(String username, String email) {
+        Filters current = filters;
+        if (current != null) {
+            current.add(username, email);
+        }
+        if (savedDuringRebuild != null) {
+            savedDuringRebuild.add(new String[]{username, email});
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    // sized for twice the users there are, the shards are read in parallel and the filters filled from a parallel
+    // stream since puts do not lock
+    @Scheduled(cron = "${availability.rebuild-cron:0 40 3 * * *}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            savedDuringRebuild = new ArrayList<>();
+        }
+        List<UserJpaRepository.NameRow> rows;
+        try {
+            rows = shardRouter.scatter(userRepository::findNameRows);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                savedDuringRebuild = null;
+            }
+            throw e;
+        }
+        long expected = Math.max(expectedUsers, rows.size() * 2L);
+        Filters built = new Filters(new BloomFilter(expected, falsePositiveRate),
+                new BloomFilter(expected, falsePositiveRate));
+        rows.parallelStream().forEach(row -> built.add(row.getUsername(), row.getEmail()));
+        synchronized (this) {
+            savedDuringRebuild.forEach(names -> built.add(names[0], names[1]));
+            savedDuringRebuild = null;
+            filters = built;
+        }
+        LoggerSingleton.INSTANCE.info("Built availability filters over " + rows.size() + " users in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    public AvailabilityStatsDto stats() {
+        Filters current = filters;
+        AvailabilityStatsDto.AvailabilityStatsDtoBuilder stats = AvailabilityStatsDto.builder()
+                .ready(current != null)
+                .definitelyFree(definitelyFree.get())
+                .lookups(lookups.get())
+                .falsePositives(falsePositives.get());
+        if (current != null) {
+            stats.bits(current.usernames().bits())
+                    .hashes(current.usernames().hashes())
+                    .expectedUsernameFalsePositiveRate(current.usernames().expectedFalsePositiveRate())
+                    .expectedEmailFalsePositiveRate(current.emails().expectedFalsePositiveRate());
+        }
+        return stats.build();
+    }
+
+    // the unique indexes are per shard, so a probable hit asks every shard; a blank name is never free
+    private boolean isFree(String name, BloomFilter filter, Function<String, List<Long>> lookup) {
+        String normalized = normalize(name);
+        if (normalized.isEmpty()) {
+            return false;
+        }
+        if (filter != null && !filter.mightContain(normalized)) {
+            definitelyFree.incrementAndGet();
+            return true;
+        }
+        lookups.incrementAndGet();
+        boolean free = shardRouter.scatter(() -> lookup.apply(normalized)).isEmpty();
+        if (free && filter != null) {
+            falsePositives.incrementAndGet();
+        }
+        return free;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
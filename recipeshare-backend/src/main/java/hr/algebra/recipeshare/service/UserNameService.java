@@ -0,0 +1,182 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserNameJdbcRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// the unique constraints on users only hold within one shard, so with sharding on every username and email is
+// also claimed in user_names on the home shard before the user row is written. a claim gets its user once that
+// transaction committed and is released when it rolled back, login finds the user's shard through it. with
+// sharding off the one users table keeps the names unique by itself and nothing is claimed
+@Service
+public class UserNameService {
+
+    public static final String USERNAME = "username";
+    public static final String EMAIL = "email";
+
+    private final UserNameJdbcRepository userNameRepository;
+    private final UserJpaRepository userRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate homeTransaction;
+    private final Duration claimGrace;
+
+    public UserNameService(UserNameJdbcRepository userNameRepository,
+                           UserJpaRepository userRepository,
+                           ShardRouter shardRouter,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${user-names.claim-grace-minutes:10}") long claimGraceMinutes) {
+        this.userNameRepository = userNameRepository;
+        this.userRepository = userRepository;
+        this.shardRouter = shardRouter;
+        // its own transaction, the caller's is pinned to the user's shard
+        this.homeTransaction = new TransactionTemplate(transactionManager);
+        this.homeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.claimGrace = Duration.ofMinutes(claimGraceMinutes);
+    }
+
+    // called in the user's transaction before its row is written, a new user or a rename; a name another user
+    // holds fails the transaction the way the unique constraint would. names the user gave up are released
+    // after the commit
+    public void claim(UserEntity user) {
+        if (!shardRouter.enabled()) {
+            return;
+        }
+        Map<String, String> held = user.getId() == null ? Map.of()
+                : onHome(() -> userNameRepository.findNamesByUserId(user.getId()));
+        List<String[]> claimed = new ArrayList<>(2);
+        for (String[] wanted : List.of(new String[]{USERNAME, user.getUsername()}, new String[]{EMAIL, user.getEmail()})) {
+            String kind = wanted[0];
+            String name = wanted[1];
+            if (name == null || name.equals(held.get(kind))) {
+                continue;
+            }
+            if (onHome(() -> userNameRepository.insert(kind, name, null)) == 0) {
+                release(claimed);
+                throw new DataIntegrityViolationException("The " + kind + " is already taken: " + name);
+            }
+            claimed.add(wanted);
+        }
+        if (claimed.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        assign(user.getId(), claimed, held);
+                    } else {
+                        release(claimed);
+                    }
+                } catch (DataAccessException e) {
+                    LoggerSingleton.INSTANCE.warn("Settling name claims of user " + user.getId()
+                            + " failed, reconcile picks them up: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    // empty with sharding off and while the claim still waits for its user
+    public Optional<Long> findUserId(String kind, String name) {
+        if (!shardRouter.enabled() || name == null) {
+            return Optional.empty();
+        }
+        return onHome(() -> userNameRepository.findUserId(kind, name));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcile();
+    }
+
+    // claims every name of every user, which also covers the users from before sharding was turned on and claims
+    // whose transaction never came back to assign them. claims still without a user after the grace period belong
+    // to transactions that never committed and are released. a name two users already share is only logged, those
+    // users can log in by username until one of them renames
+    @Scheduled(cron = "${user-names.reconcile-cron:0 50 3 * * *}")
+    public void reconcile() {
+        if (!shardRouter.enabled()) {
+            return;
+        }
+        Instant claimedBefore = Instant.now().minus(claimGrace);
+        List<Object[]> names = new ArrayList<>();
+        for (UserJpaRepository.NameRow row : shardRouter.scatter(userRepository::findNameRows)) {
+            names.add(new Object[]{USERNAME, row.getUsername(), row.getId()});
+            names.add(new Object[]{EMAIL, row.getEmail(), row.getId()});
+        }
+        int[] inserted = onHome(() -> userNameRepository.insertAll(names));
+        int added = 0;
+        int conflicts = 0;
+        for (int i = 0; i < names.size(); i++) {
+            if (inserted[i] > 0) {
+                added++;
+                continue;
+            }
+            String kind = (String) names.get(i)[0];
+            String name = (String) names.get(i)[1];
+            long userId = (Long) names.get(i)[2];
+            Optional<Long> holder = onHome(() -> userNameRepository.findUserId(kind, name));
+            if (holder.isEmpty()) {
+                onHome(() -> userNameRepository.assign(kind, name, userId));
+            } else if (holder.get() != userId) {
+                conflicts++;
+                LoggerSingleton.INSTANCE.error("The " + kind + " " + name + " is used by users " + holder.get()
+                        + " and " + userId);
+            }
+        }
+        int released = 0;
+        for (String[] claim : onHome(() -> userNameRepository.findUnassigned(claimedBefore))) {
+            released += onHome(() -> userNameRepository.deleteUnassigned(claim[0], claim[1]));
+        }
+        LoggerSingleton.INSTANCE.info("Reconciled user names: " + added + " claimed, " + released + " released, "
+                + conflicts + " shared by two users");
+    }
+
+    private void assign(Long userId, List<String[]> claimed, Map<String, String> held) {
+        onHome(() -> {
+            for (String[] name : claimed) {
+                userNameRepository.assign(name[0], name[1], userId);
+                String previous = held.get(name[0]);
+                if (previous != null) {
+                    userNameRepository.deleteAssigned(name[0], previous, userId);
+                }
+            }
+            return null;
+        });
+    }
+
+    private void release(List<String[]> claimed) {
+        if (claimed.isEmpty()) {
+            return;
+        }
+        onHome(() -> {
+            claimed.forEach(name -> userNameRepository.deleteUnassigned(name[0], name[1]));
+            return null;
+        });
+    }
+
+    private <T> T onHome(Supplier<T> work) {
+        return shardRouter.onHome(() -> homeTransaction.execute(_ -> work.get()));
+    }
+}
@@ -1,6 +1,7 @@
 package hr.algebra.recipeshare.service;
 
 import hr.algebra.common.AbstractCrud;
+import hr.algebra.common.LoggerSingleton;
 import hr.algebra.recipeshare.dao.UserEntity;
 import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
 import hr.algebra.recipeshare.mapper.UserMapper;
@@ -11,28 +12,83 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
 @Service
 public class UserService extends AbstractCrud<UserEntity, UserDto> {
 
+    // the password and the avatar have their own flows
+    private static final Set<String> PATCHABLE = Set.of("username", "email", "bio");
+
     private final UserJpaRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final ShardRouter shardRouter;
+    private final UserStatsService userStatsService;
+    private final UserAvailabilityService userAvailabilityService;
+    private final UserNameService userNameService;
 
-    public UserService(UserJpaRepository repository, UserMapper mapper, UserJpaRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService) {
+    public UserService(UserJpaRepository repository, UserMapper mapper, UserJpaRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService, ShardRouter shardRouter, UserStatsService userStatsService, UserAvailabilityService userAvailabilityService, UserNameService userNameService) {
         super(repository, mapper);
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
+        this.shardRouter = shardRouter;
+        this.userStatsService = userStatsService;
+        this.userAvailabilityService = userAvailabilityService;
+        this.userNameService = userNameService;
+    }
+
+    // a profile page is this one read, the stats come along from user_stats
+    @Override
+    public Optional<UserDto> findById(Long id) {
+        return shardRouter.on(id, () -> userRepository.findWithStats(id)).map(row -> {
+            UserDto dto = getMapper().toDto(row.getUser());
+            dto.setStats(userStatsService.toDto(id, row.getStats()));
+            return dto;
+        });
+    }
+
+    public Optional<Long> findVersion(Long id) {
+        return shardRouter.on(id, () -> userRepository.findVersionById(id));
+    }
+
+    @Override
+    protected <T> T onShard(Long id, Supplier<T> work) {
+        return shardRouter.on(id, work);
+    }
+
+    @Override
+    protected <T> T onNewShard(UserDto dto, Supplier<T> work) {
+        return shardRouter.onNewSlot(work);
     }
 
     @Override
     protected void preCreate(UserEntity entity, UserDto userDto) {
         super.preCreate(entity, userDto);
         entity.setPasswordHash(passwordEncoder.encode(userDto.getPasswordHash()));
+        userNameService.claim(entity);
+        userAvailabilityService.onSaved(entity.getUsername(), entity.getEmail());
+    }
+
+    // covers renames through update and patch
+    @Override
+    protected void preUpdate(UserEntity entity) {
+        super.preUpdate(entity);
+        userNameService.claim(entity);
+        userAvailabilityService.onSaved(entity.getUsername(), entity.getEmail());
+    }
+
+    @Override
+    protected Set<String> patchableFields() {
+        return PATCHABLE;
     }
 
     public LoginResponse login(LoginRequest request) {
-        UserEntity user = userRepository.findByEmail(request.getEmail())
+        UserEntity user = findByEmail(request.getEmail())
                 .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
 
         if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
@@ -48,4 +104,30 @@ public class UserService extends AbstractCrud<UserEntity, UserDto> {
                 .email(user.getEmail())
                 .build();
     }
+
+    // the user a token was issued to, found the same way as on login but through the username's claim
+    public Optional<Long> findIdByUsername(String username) {
+        Optional<Long> userId = userNameService.findUserId(UserNameService.USERNAME, username);
+        if (userId.isPresent()) {
+            return userId;
+        }
+        return shardRouter.scatter(() -> userRepository.findByUsername(username).stream().toList()).stream()
+                .findFirst()
+                .map(UserEntity::getId);
+    }
+
+    // the email's claim says which shard holds the user; without one, sharding off or a claim not assigned yet,
+    // every shard is asked and an email found on two of them is refused rather than guessed
+    private Optional<UserEntity> findByEmail(String email) {
+        Optional<Long> userId = userNameService.findUserId(UserNameService.EMAIL, email);
+        if (userId.isPresent()) {
+            return shardRouter.on(userId.get(), () -> userRepository.findByEmail(email));
+        }
+        List<UserEntity> found = shardRouter.scatter(() -> userRepository.findByEmail(email).stream().toList());
+        if (found.size() > 1) {
+            LoggerSingleton.INSTANCE.error("Email " + email + " is used by " + found.size() + " users, refusing login");
+            return Optional.empty();
+        }
+        return found.stream().findFirst();
+    }
 }
@@ -0,0 +1,189 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.CacheInvalidator;
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.common.ShardedIds;
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.UserStatsEntity;
+import hr.algebra.recipeshare.dao.UserStatsEntity.Contribution;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserStatsJpaRepository;
+import hr.algebra.recipeshare.mapper.UserStatsMapper;
+import hr.algebra.recipeshare.model.UserStatsDto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// profile numbers per user, changed as a delta in the same transaction as the recipe write so a profile is one
+// row read; the repair run recomputes them from the recipes in parallel chunks
+@Service
+public class UserStatsService {
+
+    private final UserStatsJpaRepository statsRepository;
+    private final UserJpaRepository userJpaRepository;
+    private final RecipeJpaRepository recipeJpaRepository;
+    private final UserStatsMapper statsMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final CacheInvalidator cacheInvalidator;
+    private final ExecutorService executor;
+    private final int chunkSize;
+
+    public UserStatsService(UserStatsJpaRepository statsRepository,
+                            UserJpaRepository userJpaRepository,
+                            RecipeJpaRepository recipeJpaRepository,
+                            UserStatsMapper statsMapper,
+                            TransactionTemplate transactionTemplate,
+                            ShardRouter shardRouter,
+                            CacheInvalidator cacheInvalidator,
+                            @Value("${user-stats.repair-workers:2}") int workers,
+                            @Value("${user-stats.repair-chunk-size:500}") int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.statsRepository = statsRepository;
+        this.userJpaRepository = userJpaRepository;
+        this.recipeJpaRepository = recipeJpaRepository;
+        this.statsMapper = statsMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.cacheInvalidator = cacheInvalidator;
+        this.executor = Executors.newFixedThreadPool(workers);
+        this.chunkSize = chunkSize;
+    }
+
+    // a user without a row has no recipes yet
+    public UserStatsDto toDto(Long userId, UserStatsEntity stats) {
+        return statsMapper.toDto(stats == null ? UserStatsEntity.empty(userId) : stats);
+    }
+
+    @Transactional
+    public void onCreated(RecipeEntity recipe) {
+        change(recipe.getUser().getId(), null, Contribution.of(recipe), null);
+    }
+
+    @Transactional
+    public void onChanged(Long userId, Contribution before, Contribution after) {
+        change(userId, before, after, null);
+    }
+
+    // the recipe is still live in this transaction, so the range recompute has to skip it
+    @Transactional
+    public void onDeleted(RecipeEntity recipe) {
+        change(recipe.getUser().getId(), Contribution.of(recipe), null, recipe.getId());
+    }
+
+    // the stats row lock serializes the writes of one user's recipes
+    private void change(Long userId, Contribution removed, Contribution added, Long excluded) {
+        if (Objects.equals(removed, added)) {
+            return;
+        }
+        statsRepository.ensureExists(userId);
+        UserStatsEntity stats = statsRepository.lockByUserId(userId).orElseThrow();
+        boolean exact = removed == null || stats.remove(removed);
+        if (added != null) {
+            stats.add(added);
+        }
+        if (!exact) {
+            recomputeRanges(stats, excluded);
+        }
+        // the stats travel with UserDto
+        cacheInvalidator.invalidate("User", userId, () -> CacheInvalidator.NO_VERSION);
+    }
+
+    // a min or max that went away can only be found again in the recipes, one pass over the user's index range
+    private void recomputeRanges(UserStatsEntity stats, Long excluded) {
+        RecipeJpaRepository.RangeRow ranges = recipeJpaRepository.findRanges(stats.getUserId(), excluded);
+        stats.getCalories().setMin(ranges.getMinCalories());
+        stats.getCalories().setMax(ranges.getMaxCalories());
+        stats.getProtein().setMin(ranges.getMinProtein());
+        stats.getProtein().setMax(ranges.getMaxProtein());
+        stats.getFat().setMin(ranges.getMinFat());
+        stats.getFat().setMax(ranges.getMaxFat());
+        stats.getCarbs().setMin(ranges.getMinCarbs());
+        stats.getCarbs().setMax(ranges.getMaxCarbs());
+        stats.getCookTime().setMin(ranges.getMinCookTime());
+        stats.getCookTime().setMax(ranges.getMaxCookTime());
+    }
+
+    @Scheduled(cron = "${user-stats.repair-cron:0 50 3 * * *}")
+    public synchronized void repair() {
+        long start = System.nanoTime();
+        List<Long> userIds = shardRouter.scatter(userJpaRepository::findAllIds);
+        // a chunk never spans slots, so it runs on one shard
+        Map<Integer, List<Long>> bySlot = userIds.stream()
+                .sorted()
+                .collect(Collectors.groupingBy(ShardedIds::slotOf, TreeMap::new, Collectors.toList()));
+        List<Callable<Integer>> chunks = new ArrayList<>();
+        bySlot.values().forEach(ids -> {
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+                chunks.add(() -> repair(chunk));
+            }
+        });
+
+        int repaired = 0;
+        int failed = 0;
+        try {
+            for (Future<Integer> done : executor.invokeAll(chunks)) {
+                try {
+                    repaired += done.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    LoggerSingleton.INSTANCE.error("User stats chunk failed, retrying next run: "
+                            + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        LoggerSingleton.INSTANCE.info("Repaired stats of " + repaired + " users in " + chunks.size() + " chunks ("
+                + failed + " failed) in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    // rows are locked before the recipes are read, a recipe write in between waits and applies its delta on top
+    public int repair(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        Integer repaired = shardRouter.on(userIds.getFirst(), () -> transactionTemplate.execute(_ -> {
+            userIds.forEach(statsRepository::ensureExists);
+            Map<Long, UserStatsEntity> stats = statsRepository.lockAllByUserIdIn(userIds).stream()
+                    .collect(Collectors.toMap(UserStatsEntity::getUserId, Function.identity()));
+            stats.values().forEach(UserStatsEntity::reset);
+            stats.keySet().forEach(userId -> cacheInvalidator.invalidate("User", userId, () -> CacheInvalidator.NO_VERSION));
+            for (RecipeJpaRepository.StatsRow row : recipeJpaRepository.findStatsRowsByUserIdIn(userIds)) {
+                UserStatsEntity owner = stats.get(row.getUserId());
+                if (owner != null) {
+                    owner.add(new Contribution(row.getCalories(), row.getProtein(), row.getFat(), row.getCarbs(),
+                            row.getCookTimeMinutes()));
+                }
+            }
+            return stats.size();
+        }));
+        return repaired == null ? 0 : repaired;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,47 @@
+package hr.algebra.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterUnitTest {
+
+    private static final int EXPECTED = 10_000;
+    private static final double RATE = 0.01;
+
+    @Test
+    void mightContain_shouldFindEveryPutKey() {
+        BloomFilter filter = new BloomFilter(EXPECTED, RATE);
+        for (int i = 0; i < EXPECTED; i++) {
+            filter.put("user" + i);
+        }
+
+        for (int i = 0; i < EXPECTED; i++) {
+            assertTrue(filter.mightContain("user" + i));
+        }
+    }
+
+    @Test
+    void mightContain_shouldStayNearFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(EXPECTED, RATE);
+        for (int i = 0; i < EXPECTED; i++) {
+            filter.put("user" + i);
+        }
+
+        int hits = 0;
+        for (int i = 0; i < EXPECTED; i++) {
+            if (filter.mightContain("other" + i)) {
+                hits++;
+            }
+        }
+
+        assertTrue(hits < EXPECTED * RATE * 2, "false positives: " + hits);
+        assertEquals(RATE, filter.expectedFalsePositiveRate(), RATE);
+    }
+
+    @Test
+    void constructor_shouldRejectInvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(EXPECTED, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, RATE));
+    }
+}
@@ -0,0 +1,141 @@
+package hr.algebra.common;
+
+import hr.algebra.common.CompletionTrie.Completion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionTrieUnitTest {
+
+    private static final int K = 3;
+
+    private CompletionTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new CompletionTrie(K);
+    }
+
+    @Test
+    void complete_shouldReturnMostPopularUnderPrefix() {
+        trie.insert("pasta carbonara", new Completion(1, "Pasta carbonara", 5));
+        trie.insert("pasta pesto", new Completion(2, "Pasta pesto", 9));
+        trie.insert("pastry", new Completion(3, "Pastry", 1));
+        trie.insert("pizza", new Completion(4, "Pizza", 20));
+
+        assertEquals(List.of(2L, 1L, 3L), ids(trie.complete("pas", 10)));
+        assertEquals(List.of(2L, 1L), ids(trie.complete("pasta", 10)));
+        assertEquals(List.of(4L, 2L), ids(trie.complete("p", 2)));
+        assertTrue(trie.complete("pasto", 10).isEmpty());
+    }
+
+    @Test
+    void remove_shouldPromoteNextBest() {
+        for (long id = 1; id <= 5; id++) {
+            trie.insert("soup " + id, new Completion(id, "Soup " + id, id));
+        }
+        assertEquals(List.of(5L, 4L, 3L), ids(trie.complete("soup", 10)));
+
+        assertNotNull(trie.remove("soup 5", 5));
+        assertNull(trie.remove("soup 5", 5));
+        assertNull(trie.remove("soup", 4));
+
+        assertEquals(List.of(4L, 3L, 2L), ids(trie.complete("soup", 10)));
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    void insert_shouldReplaceSameId() {
+        trie.insert("salad", new Completion(1, "Salad", 1));
+        trie.insert("salad", new Completion(1, "Salad", 7));
+
+        assertEquals(1, trie.size());
+        assertEquals(7, trie.complete("sal", 10).getFirst().score());
+    }
+
+    @Test
+    void complete_shouldMatchBruteForceAfterRandomChanges() {
+        Random random = new Random(42);
+        Map<Long, String> keys = new HashMap<>();
+        Map<Long, Long> scores = new HashMap<>();
+        for (int step = 0; step < 5_000; step++) {
+            long id = random.nextInt(500);
+            if (keys.containsKey(id) && random.nextInt(3) == 0) {
+                trie.remove(keys.remove(id), id);
+                scores.remove(id);
+            } else {
+                String key = randomKey(random);
+                long score = random.nextInt(50);
+                if (keys.containsKey(id)) {
+                    trie.remove(keys.get(id), id);
+                }
+                keys.put(id, key);
+                scores.put(id, score);
+                trie.insert(key, new Completion(id, key, score));
+            }
+        }
+
+        assertEquals(keys.size(), trie.size());
+        for (int i = 0; i < 500; i++) {
+            String key = randomKey(random);
+            String prefix = key.substring(0, 1 + random.nextInt(key.length()));
+            List<Long> expected = keys.entrySet().stream()
+                    .filter(e -> e.getValue().startsWith(prefix))
+                    .map(Map.Entry::getKey)
+                    .sorted(Comparator.comparingLong((Long id) -> -scores.get(id)).thenComparingLong(id -> id))
+                    .limit(K)
+                    .toList();
+            assertEquals(expected, ids(trie.complete(prefix, K)), "prefix " + prefix);
+        }
+    }
+
+    @Test
+    void complete_shouldStayWellUnderMillisecond() {
+        Random random = new Random(7);
+        String[] words = {"chicken", "chickpea", "chili", "chocolate", "cheese", "cherry", "pasta", "pastry",
+                "pie", "pizza", "soup", "salad", "salmon", "sauce", "beef", "bean", "bread", "brownie"};
+        List<String> prefixes = new ArrayList<>();
+        for (int id = 0; id < 200_000; id++) {
+            String key = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]
+                    + " " + Integer.toString(id, 36);
+            trie.insert(key, new Completion(id, key, random.nextInt(1000)));
+            if (id % 1000 == 0) {
+                prefixes.add(key.substring(0, 1 + random.nextInt(key.length() - 1)));
+            }
+        }
+
+        for (String prefix : prefixes) {
+            trie.complete(prefix, K);
+        }
+        int lookups = 100_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            assertFalse(trie.complete(prefixes.get(i % prefixes.size()), K).isEmpty());
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / lookups;
+        LoggerSingleton.INSTANCE.info(String.format("[autocomplete] %d titles, %.2f us per lookup", trie.size(), micros));
+
+        assertTrue(micros < 100, "lookup took " + micros + " us");
+    }
+
+    private static String randomKey(Random random) {
+        StringBuilder key = new StringBuilder();
+        int length = 1 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            key.append((char) ('a' + random.nextInt(3)));
+        }
+        return key.toString();
+    }
+
+    private static List<Long> ids(List<Completion> completions) {
+        return completions.stream().map(Completion::id).toList();
+    }
+}
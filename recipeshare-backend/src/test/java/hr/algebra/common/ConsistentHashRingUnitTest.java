@@ -0,0 +1,67 @@
+package hr.algebra.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingUnitTest {
+
+    private static final int KEYS = 10_000;
+    private static final int VIRTUAL_NODES = 128;
+
+    @Test
+    void nodeFor_shouldSpreadKeysRoughlyEvenly() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(List.of("a", "b", "c"), VIRTUAL_NODES);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (long key = 0; key < KEYS; key++) {
+            counts.merge(ring.nodeFor(key), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(count > KEYS / 5, "share was " + count));
+    }
+
+    @Test
+    void with_shouldOnlyMoveKeysToTheNewMember() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(List.of("a", "b", "c"), VIRTUAL_NODES);
+        ConsistentHashRing<String> grown = ring.with("d");
+
+        int moved = 0;
+        for (long key = 0; key < KEYS; key++) {
+            String before = ring.nodeFor(key);
+            String after = grown.nodeFor(key);
+            if (!before.equals(after)) {
+                assertEquals("d", after);
+                moved++;
+            }
+        }
+
+        assertTrue(moved > KEYS / 8 && moved < KEYS / 3, "moved " + moved);
+        assertTrue(grown.contains("d"));
+        assertFalse(ring.contains("d"));
+    }
+
+    @Test
+    void without_shouldHandOutOnlyTheRemovedMembersKeys() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(List.of("a", "b", "c"), VIRTUAL_NODES);
+        ConsistentHashRing<String> shrunk = ring.without("b");
+
+        for (long key = 0; key < KEYS; key++) {
+            String before = ring.nodeFor(key);
+            if (!before.equals("b")) {
+                assertEquals(before, shrunk.nodeFor(key));
+            }
+        }
+        assertEquals(List.of("a", "c"), shrunk.members());
+    }
+
+    @Test
+    void constructor_shouldRejectEmptyRing() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing<>(List.of(), VIRTUAL_NODES));
+    }
+}
@@ -0,0 +1,52 @@
+package hr.algebra.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchUnitTest {
+
+    private static final int WIDTH = 1024;
+    private static final int DEPTH = 4;
+
+    @Test
+    void add_shouldNeverUnderCount() {
+        CountMinSketch sketch = new CountMinSketch(WIDTH, DEPTH);
+        for (long key = 0; key < 5000; key++) {
+            sketch.add(key, key % 10 + 1);
+        }
+
+        for (long key = 0; key < 5000; key++) {
+            assertTrue(sketch.estimate(key) >= key % 10 + 1);
+        }
+    }
+
+    @Test
+    void add_shouldCountFrequentKeyClosely() {
+        CountMinSketch sketch = new CountMinSketch(WIDTH, DEPTH);
+        for (long key = 0; key < 2000; key++) {
+            sketch.add(key, 1);
+        }
+
+        for (int i = 0; i < 999; i++) {
+            sketch.add(42, 1);
+        }
+
+        assertTrue(sketch.add(42, 1) - 1000 < 20);
+    }
+
+    @Test
+    void decay_shouldHalveCounts() {
+        CountMinSketch sketch = new CountMinSketch(WIDTH, DEPTH);
+        sketch.add(7, 100);
+
+        sketch.decay();
+
+        assertEquals(50, sketch.estimate(7));
+    }
+
+    @Test
+    void constructor_shouldRejectWidthNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(1000, DEPTH));
+    }
+}
@@ -0,0 +1,111 @@
+package hr.algebra.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecayedWindowUnitTest {
+
+    private static final int BUCKETS = 10;
+    private static final long BUCKET_MILLIS = 60_000;
+    private static final long HALF_LIFE_MILLIS = 5 * BUCKET_MILLIS;
+    private static final int CAPACITY = 3;
+    private static final int MAX_KEYS = 10;
+    private static final long START = 1_000 * BUCKET_MILLIS;
+
+    @Test
+    void add_shouldRankRecentWeightAboveOlder() {
+        DecayedWindow window = new DecayedWindow(BUCKETS, BUCKET_MILLIS, HALF_LIFE_MILLIS, CAPACITY, MAX_KEYS, 1, START);
+        window.add(1, 1, START);
+        window.add(2, 1, START + HALF_LIFE_MILLIS);
+
+        List<TopK.Ranked> top = window.top(CAPACITY, START + HALF_LIFE_MILLIS);
+
+        assertEquals(List.of(2L, 1L), top.stream().map(TopK.Ranked::id).toList());
+        assertEquals(1.0, top.get(0).score(), 1e-9);
+        assertEquals(0.5, top.get(1).score(), 1e-9);
+    }
+
+    @Test
+    void add_shouldKeepOnlyCapacityRanked() {
+        DecayedWindow window = new DecayedWindow(BUCKETS, BUCKET_MILLIS, HALF_LIFE_MILLIS, CAPACITY, MAX_KEYS, 1, START);
+        for (long key = 1; key <= 5; key++) {
+            window.add(key, key, START);
+        }
+
+        List<Long> ids = window.top(CAPACITY, START).stream().map(TopK.Ranked::id).toList();
+
+        assertEquals(List.of(5L, 4L, 3L), ids);
+    }
+
+    @Test
+    void advance_shouldKeepScoresWhileRescaling() {
+        DecayedWindow window = new DecayedWindow(BUCKETS, BUCKET_MILLIS, HALF_LIFE_MILLIS, CAPACITY, MAX_KEYS, 1, START);
+        window.add(1, 4, START);
+
+        window.advance(START + HALF_LIFE_MILLIS);
+
+        assertEquals(2.0, window.top(CAPACITY, START + HALF_LIFE_MILLIS).getFirst().score(), 1e-9);
+    }
+
+    @Test
+    void advance_shouldDropBucketsOutsideWindow() {
+        DecayedWindow window = new DecayedWindow(BUCKETS, BUCKET_MILLIS, HALF_LIFE_MILLIS, CAPACITY, MAX_KEYS, 1, START);
+        window.add(1, 1, START);
+        window.add(2, 1, START + BUCKETS * BUCKET_MILLIS / 2);
+
+        window.advance(START + BUCKETS * BUCKET_MILLIS);
+
+        assertEquals(List.of(2L), window.top(CAPACITY, START + BUCKETS * BUCKET_MILLIS).stream()
+                .map(TopK.Ranked::id).toList());
+        assertEquals(1, window.size());
+    }
+
+    @Test
+    void add_shouldRejectMomentOutsideWindow() {
+        DecayedWindow window = new DecayedWindow(BUCKETS, BUCKET_MILLIS, HALF_LIFE_MILLIS, CAPACITY, MAX_KEYS, 1, START);
+
+        assertFalse(window.add(1, 1, START - BUCKETS * BUCKET_MILLIS));
+        assertTrue(window.add(1, 1, START - (BUCKETS - 1) * BUCKET_MILLIS));
+    }
+
+    @Test
+    void remove_shouldDropKeyFromRanking() {
+        DecayedWindow window = new DecayedWindow(BUCKETS, BUCKET_MILLIS, HALF_LIFE_MILLIS, CAPACITY, MAX_KEYS, 1, START);
+        window.add(1, 1, START);
+
+        window.remove(1);
+
+        assertTrue(window.top(CAPACITY, START).isEmpty());
+        assertEquals(0, window.size());
+    }
+
+    @Test
+    void add_shouldOnlyTrackKeysSeenOften() {
+        DecayedWindow window = new DecayedWindow(BUCKETS, BUCKET_MILLIS, HALF_LIFE_MILLIS, CAPACITY, MAX_KEYS, 2, START);
+
+        assertFalse(window.add(1, 1, START));
+        assertEquals(0, window.size());
+        assertTrue(window.add(1, 1, START));
+        assertTrue(window.seed(2, 1, START));
+
+        assertEquals(2, window.size());
+    }
+
+    @Test
+    void advance_shouldTrimToMaxKeysKeepingTheRanked() {
+        DecayedWindow window = new DecayedWindow(BUCKETS, BUCKET_MILLIS, HALF_LIFE_MILLIS, CAPACITY, MAX_KEYS, 1, START);
+        for (long key = 1; key <= 2 * MAX_KEYS; key++) {
+            window.add(key, key, START);
+        }
+        assertEquals(MAX_KEYS, window.size());
+
+        window.advance(START);
+
+        assertTrue(window.size() < MAX_KEYS);
+        assertEquals(List.of(10L, 9L, 8L), window.top(CAPACITY, START).stream().map(TopK.Ranked::id).toList());
+        assertTrue(window.add(2 * MAX_KEYS + 1, 1, START));
+    }
+}
@@ -0,0 +1,45 @@
+package hr.algebra.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeavyHittersUnitTest {
+
+    private static final int CAPACITY = 3;
+    private static final int WIDTH = 1024;
+    private static final int DEPTH = 4;
+
+    @Test
+    void add_shouldRankMostFrequentKeys() {
+        HeavyHitters hitters = new HeavyHitters(CAPACITY, WIDTH, DEPTH);
+        for (long key = 100; key < 600; key++) {
+            hitters.add(key);
+        }
+        for (int i = 0; i < 300; i++) {
+            hitters.add(1);
+            if (i % 2 == 0) {
+                hitters.add(2);
+            }
+            if (i % 4 == 0) {
+                hitters.add(3);
+            }
+        }
+
+        List<Long> ids = hitters.top(CAPACITY).stream().map(TopK.Ranked::id).toList();
+
+        assertEquals(List.of(1L, 2L, 3L), ids);
+    }
+
+    @Test
+    void decay_shouldHalveRanking() {
+        HeavyHitters hitters = new HeavyHitters(CAPACITY, WIDTH, DEPTH);
+        hitters.add(1, 64);
+
+        hitters.decay();
+
+        assertEquals(new TopK.Ranked(1, 32), hitters.top(CAPACITY).getFirst());
+    }
+}
@@ -0,0 +1,59 @@
+package hr.algebra.common;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LshIndexUnitTest {
+
+    private static final int BANDS = 16;
+    private static final int ROWS = 8;
+
+    private final MinHash minHash = new MinHash(BANDS * ROWS, 7);
+    private LshIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new LshIndex(BANDS, ROWS);
+    }
+
+    @Test
+    void candidates_shouldFindNearDuplicatesOnly() {
+        index.add(1, minHash.signature(LongStream.range(0, 100).toArray()));
+        index.add(2, minHash.signature(LongStream.range(1000, 1100).toArray()));
+
+        Set<Long> candidates = index.candidates(minHash.signature(LongStream.range(2, 100).toArray()));
+
+        assertEquals(Set.of(1L), candidates);
+    }
+
+    @Test
+    void remove_shouldDropIdFromBuckets() {
+        int[] signature = minHash.signature(LongStream.range(0, 100).toArray());
+        index.add(1, signature);
+        index.remove(1);
+
+        assertTrue(index.candidates(signature).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void add_shouldReplacePreviousSignature() {
+        int[] before = minHash.signature(LongStream.range(0, 100).toArray());
+        int[] after = minHash.signature(LongStream.range(500, 600).toArray());
+        index.add(1, before);
+        index.add(1, after);
+
+        assertTrue(index.candidates(before).isEmpty());
+        assertEquals(Set.of(1L), index.candidates(after));
+    }
+
+    @Test
+    void add_shouldRejectWrongSignatureLength() {
+        assertThrows(IllegalArgumentException.class, () -> index.add(1, new int[BANDS]));
+    }
+}
@@ -0,0 +1,38 @@
+package hr.algebra.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinHashUnitTest {
+
+    private static final int HASHES = 128;
+    private static final long SEED = 42;
+    private static final double TOLERANCE = 0.1;
+
+    private final MinHash minHash = new MinHash(HASHES, SEED);
+
+    @Test
+    void similarity_shouldEstimateJaccard() {
+        // 0..99 and 20..119 share 80 of 120 shingles
+        int[] a = minHash.signature(LongStream.range(0, 100).toArray());
+        int[] b = minHash.signature(LongStream.range(20, 120).toArray());
+
+        assertEquals(80.0 / 120, MinHash.similarity(a, b), TOLERANCE);
+    }
+
+    @Test
+    void signature_shouldBeStableForSameSeed() {
+        long[] shingles = LongStream.range(0, 50).toArray();
+
+        assertArrayEquals(minHash.signature(shingles), new MinHash(HASHES, SEED).signature(shingles));
+        assertEquals(1.0, MinHash.similarity(minHash.signature(shingles), minHash.signature(shingles)));
+    }
+
+    @Test
+    void similarity_shouldRejectDifferentLengths() {
+        assertThrows(IllegalArgumentException.class, () -> MinHash.similarity(new int[2], new int[3]));
+    }
+}
@@ -0,0 +1,52 @@
+package hr.algebra.common;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferUnitTest {
+
+    private static final int CAPACITY = 3;
+
+    private RingBuffer<Integer> buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new RingBuffer<>(CAPACITY);
+    }
+
+    @Test
+    void add_shouldKeepInsertionOrderBelowCapacity() {
+        buffer.add(1);
+        buffer.add(2);
+
+        assertEquals(List.of(1, 2), buffer.toList());
+        assertEquals(2, buffer.size());
+    }
+
+    @Test
+    void add_shouldOverwriteOldestWhenFull() {
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(i);
+        }
+
+        assertEquals(List.of(3, 4, 5), buffer.toList());
+        assertEquals(3, buffer.get(0));
+        assertEquals(CAPACITY, buffer.size());
+    }
+
+    @Test
+    void get_shouldRejectIndexOutsideContent() {
+        buffer.add(1);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(1));
+    }
+
+    @Test
+    void constructor_shouldRejectNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(0));
+    }
+}
@@ -0,0 +1,47 @@
+package hr.algebra.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedIdsUnitTest {
+
+    @Test
+    void next_shouldCarryTheSlot() {
+        ShardedIds ids = new ShardedIds(3);
+
+        for (int slot : new int[]{0, 1, 517, ShardedIds.SLOTS - 1}) {
+            assertEquals(slot, ShardedIds.slotOf(ids.next(slot)));
+        }
+    }
+
+    @Test
+    void next_shouldBeUniqueAndIncreasingPastTheSequence() {
+        ShardedIds ids = new ShardedIds(0);
+        Set<Long> seen = new HashSet<>();
+
+        // more than the 256 ids one millisecond holds
+        long previous = 0;
+        for (int i = 0; i < 5_000; i++) {
+            long id = ids.next(7);
+            assertTrue(seen.add(id));
+            assertTrue(id > previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    void slotOf_shouldPutLegacyIdsOnSlotZero() {
+        assertEquals(0, ShardedIds.slotOf(1));
+        assertEquals(0, ShardedIds.slotOf(2_000_000));
+    }
+
+    @Test
+    void constructor_shouldRejectNodeOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardedIds(ShardedIds.NODES));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedIds(0).next(ShardedIds.SLOTS));
+    }
+}
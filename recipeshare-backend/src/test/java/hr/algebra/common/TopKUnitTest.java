@@ -0,0 +1,77 @@
+package hr.algebra.common;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKUnitTest {
+
+    private static final int CAPACITY = 3;
+    private static final int LIMIT = 10;
+
+    private TopK topK;
+
+    @BeforeEach
+    void setUp() {
+        topK = new TopK(CAPACITY);
+    }
+
+    @Test
+    void offer_shouldKeepHighestScoresInOrder() {
+        topK.offer(1, 1.0);
+        topK.offer(2, 4.0);
+        topK.offer(3, 3.0);
+        topK.offer(4, 5.0);
+
+        List<Long> ids = topK.top(LIMIT).stream().map(TopK.Ranked::id).toList();
+
+        assertEquals(List.of(4L, 2L, 3L), ids);
+    }
+
+    @Test
+    void offer_shouldReplaceExistingScore() {
+        topK.offer(1, 1.0);
+        topK.offer(2, 2.0);
+        topK.offer(1, 3.0);
+
+        List<TopK.Ranked> top = topK.top(LIMIT);
+
+        assertEquals(2, top.size());
+        assertEquals(new TopK.Ranked(1, 3.0), top.get(0));
+    }
+
+    @Test
+    void offer_shouldBreakTiesById() {
+        topK.offer(7, 2.0);
+        topK.offer(5, 2.0);
+
+        assertEquals(5L, topK.top(LIMIT).get(0).id());
+    }
+
+    @Test
+    void remove_shouldDropEntry() {
+        topK.offer(1, 1.0);
+        topK.offer(2, 2.0);
+
+        topK.remove(2);
+
+        assertEquals(1, topK.size());
+        assertEquals(1L, topK.top(LIMIT).get(0).id());
+    }
+
+    @Test
+    void merge_shouldKeepBestOfBoth() {
+        TopK other = new TopK(CAPACITY);
+        topK.offer(1, 1.0);
+        topK.offer(2, 2.0);
+        other.offer(3, 3.0);
+        other.offer(4, 4.0);
+
+        List<Long> ids = topK.merge(other).top(LIMIT).stream().map(TopK.Ranked::id).toList();
+
+        assertEquals(List.of(4L, 3L, 2L), ids);
+    }
+}
@@ -0,0 +1,30 @@
+package hr.algebra.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionedUnitTest {
+
+    @Test
+    void fromETag_shouldReadStrongWeakAndRecipeTags() {
+        assertEquals(3L, Versioned.fromETag("\"3\""));
+        assertEquals(3L, Versioned.fromETag("W/\"3\""));
+        assertEquals(3L, Versioned.fromETag(" W/\"3:12\" "));
+    }
+
+    @Test
+    void fromETag_shouldSkipTheCheckOnlyWithoutHeaderOrForAnyVersion() {
+        assertNull(Versioned.fromETag(null));
+        assertNull(Versioned.fromETag("*"));
+    }
+
+    @Test
+    void fromETag_shouldNeverMatchWhatItCannotRead() {
+        assertEquals(Versioned.NO_MATCH, Versioned.fromETag("\"abc\""));
+        assertEquals(Versioned.NO_MATCH, Versioned.fromETag("\"3\", \"4\""));
+        assertEquals(Versioned.NO_MATCH, Versioned.fromETag("3"));
+        assertEquals(Versioned.NO_MATCH, Versioned.fromETag("\"\""));
+        assertEquals(Versioned.NO_MATCH, Versioned.fromETag("\"-5\""));
+    }
+}
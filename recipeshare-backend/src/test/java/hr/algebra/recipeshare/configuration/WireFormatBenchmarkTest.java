@@ -0,0 +1,113 @@
+package hr.algebra.recipeshare.configuration;
+
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.recipeshare.model.RecipeDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatBenchmarkTest {
+
+    private static final int RECIPE_COUNT = 50;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 500;
+    private static final int TEXT_REPEAT = 40;
+
+    private static final String INSTRUCTIONS_LINE = "Stir the sauce gently and simmer until it thickens. ";
+    private static final String INGREDIENTS_LINE = "200 g pasta, 2 cloves garlic, 100 ml cream, ";
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final CBORMapper cborMapper = CBORMapper.builder().build();
+    private final SmileMapper smileMapper = SmileMapper.builder().build();
+
+    private List<RecipeDto> payload;
+
+    @BeforeEach
+    void setUp() {
+        payload = new ArrayList<>();
+        for (long i = 0; i < RECIPE_COUNT; i++) {
+            payload.add(RecipeDto.builder()
+                    .id(i)
+                    .userId(i % 5)
+                    .title("Recipe " + i)
+                    .description("Description for recipe " + i)
+                    .instructions(INSTRUCTIONS_LINE.repeat(TEXT_REPEAT))
+                    .ingredients(INGREDIENTS_LINE.repeat(TEXT_REPEAT))
+                    .cookTimeMinutes((int) (10 + i))
+                    .calories((int) (300 + i))
+                    .protein(20)
+                    .fat(10)
+                    .carbs(50)
+                    .build());
+        }
+    }
+
+    @Test
+    void binaryFormats_shouldRoundTripAndBeSmallerThanJson() {
+        int jsonBytes = roundTrip(jsonMapper).length;
+
+        assertTrue(roundTrip(cborMapper).length < jsonBytes);
+        assertTrue(roundTrip(smileMapper).length < jsonBytes);
+    }
+
+    // wall-clock timing, excluded from the default build
+    @Test
+    @Tag("benchmark")
+    void binaryFormats_shouldBeMeasured() {
+        measure("json", jsonMapper);
+        measure("cbor", cborMapper);
+        measure("smile", smileMapper);
+    }
+
+    private byte[] roundTrip(ObjectMapper mapper) {
+        byte[] encoded = mapper.writeValueAsBytes(payload);
+        RecipeDto[] decoded = mapper.readValue(encoded, RecipeDto[].class);
+        assertEquals(payload, List.of(decoded));
+        return encoded;
+    }
+
+    private void measure(String name, ObjectMapper mapper) {
+        byte[] encoded = roundTrip(mapper);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(payload), RecipeDto[].class);
+        }
+
+        long encodeStart = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            encoded = mapper.writeValueAsBytes(payload);
+        }
+        long encodeNanos = (System.nanoTime() - encodeStart) / MEASURED_ROUNDS;
+
+        long decodeStart = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            mapper.readValue(encoded, RecipeDto[].class);
+        }
+        long decodeNanos = (System.nanoTime() - decodeStart) / MEASURED_ROUNDS;
+
+        LoggerSingleton.INSTANCE.info(String.format("[wire-format] %-5s bytes=%d gzip=%d encode=%dus decode=%dus",
+                name, encoded.length, gzipSize(encoded), encodeNanos / 1000, decodeNanos / 1000));
+    }
+
+    private static int gzipSize(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,101 @@
+package hr.algebra.recipeshare.controller;
+
+import hr.algebra.recipeshare.filters.JwtAuthenticationFilter;
+import hr.algebra.recipeshare.service.AvatarService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AvatarController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class AvatarControllerWebMvcTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AvatarService avatarService;
+
+    @MockitoBean
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @TempDir
+    private Path dir;
+
+    private static final Long USER_ID = 1L;
+    private static final String HASH = "ab".repeat(32);
+    private static final int SIZE = 128;
+    private static final byte[] BYTES = {(byte) 0x89, 'P', 'N', 'G', 1, 2, 3};
+    private static final String AVATAR_URL = AvatarService.URL_PREFIX + HASH;
+
+    @Test
+    void serve_shouldStreamResizedFileWithImmutableCaching() throws Exception {
+        Path file = Files.write(dir.resolve(HASH + "-" + SIZE + ".png"), BYTES);
+        when(avatarService.size(SIZE)).thenReturn(SIZE);
+        when(avatarService.file(HASH, SIZE)).thenReturn(new AvatarService.AvatarFile(file, "image/png", true));
+
+        mockMvc.perform(get("/api/avatars/{hash}", HASH).param("size", String.valueOf(SIZE)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/png"))
+                .andExpect(content().bytes(BYTES))
+                .andExpect(header().string("ETag", "\"" + HASH + "-" + SIZE + ".png\""))
+                .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"));
+    }
+
+    @Test
+    void serve_shouldAnswerNotModifiedForMatchingEtag() throws Exception {
+        Path file = Files.write(dir.resolve(HASH + "-" + SIZE + ".png"), BYTES);
+        when(avatarService.size(any())).thenReturn(SIZE);
+        when(avatarService.file(HASH, SIZE)).thenReturn(new AvatarService.AvatarFile(file, "image/png", true));
+
+        mockMvc.perform(get("/api/avatars/{hash}", HASH).header("If-None-Match", "\"" + HASH + "-" + SIZE + ".png\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void serve_shouldReturnNotFoundForUnknownHash() throws Exception {
+        when(avatarService.size(any())).thenReturn(SIZE);
+        when(avatarService.file(any(), eq(SIZE))).thenReturn(null);
+
+        mockMvc.perform(get("/api/avatars/{hash}", HASH))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void upload_shouldMapOutcomes() throws Exception {
+        when(avatarService.upload(eq(USER_ID), any()))
+                .thenReturn(new AvatarService.Upload(AvatarService.Outcome.ACCEPTED, AVATAR_URL))
+                .thenReturn(new AvatarService.Upload(AvatarService.Outcome.TOO_LARGE, null))
+                .thenReturn(new AvatarService.Upload(AvatarService.Outcome.BUSY, null));
+
+        mockMvc.perform(post("/api/users/{id}/avatar", USER_ID).contentType("image/png").content(BYTES))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.avatarUrl").value(AVATAR_URL));
+        mockMvc.perform(post("/api/users/{id}/avatar", USER_ID).contentType("image/png").content(BYTES))
+                .andExpect(status().isContentTooLarge());
+        mockMvc.perform(post("/api/users/{id}/avatar", USER_ID).contentType("image/png").content(BYTES))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void upload_shouldRejectNonImageContentType() throws Exception {
+        mockMvc.perform(post("/api/users/{id}/avatar", USER_ID).contentType("text/plain").content("hello"))
+                .andExpect(status().isUnsupportedMediaType());
+        verify(avatarService, never()).upload(any(), any());
+    }
+}
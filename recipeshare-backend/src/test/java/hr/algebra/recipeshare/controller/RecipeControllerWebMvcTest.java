@@ -3,12 +3,17 @@ package hr.algebra.recipeshare.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import hr.algebra.recipeshare.mapper.RecipeMapper;
 import hr.algebra.recipeshare.model.RecipeDto;
+import hr.algebra.recipeshare.service.HotKeyService;
 import hr.algebra.recipeshare.service.JwtService;
+import hr.algebra.recipeshare.service.RecipeDuplicateService;
 import hr.algebra.recipeshare.service.RecipeService;
+import hr.algebra.recipeshare.service.TrendingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -21,6 +26,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -39,6 +46,12 @@ class RecipeControllerWebMvcTest {
     @MockitoBean
     private JwtService jwtService;
 
+    @MockitoBean
+    private HotKeyService hotKeyService;
+
+    @MockitoBean
+    private TrendingService trendingService;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     private RecipeDto recipeDto;
@@ -53,6 +66,9 @@ class RecipeControllerWebMvcTest {
     private static final int CARBS = 2;
     private static final int CALORIES = 200;
     private static final int COOK_TIME_MINUTES = 10;
+    private static final MediaType MERGE_PATCH = MediaType.parseMediaType("application/merge-patch+json");
+    private static final long VERSION = 3L;
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
 
     @BeforeEach
     void setUp() {
@@ -99,6 +115,9 @@ class RecipeControllerWebMvcTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(RECIPE_ID))
                 .andExpect(jsonPath("$.title").value(TITLE));
+
+        verify(trendingService).onViewed(RECIPE_ID);
+        verify(hotKeyService).recordRecipe(RECIPE_ID);
     }
 
     @Test
@@ -108,6 +127,31 @@ class RecipeControllerWebMvcTest {
 
         mockMvc.perform(get("/api/recipe/{id}", RECIPE_ID))
                 .andExpect(status().isNotFound());
+
+        verify(trendingService, never()).onViewed(RECIPE_ID);
+        verify(hotKeyService, never()).recordRecipe(RECIPE_ID);
+    }
+
+    @Test
+    void findById_shouldReturnCbor_whenAccepted() throws Exception {
+        when(recipeService.findById(RECIPE_ID))
+                .thenReturn(Optional.of(recipeDto));
+
+        mockMvc.perform(get("/api/recipe/{id}", RECIPE_ID)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    void findById_shouldReturnSmile_whenAccepted() throws Exception {
+        when(recipeService.findById(RECIPE_ID))
+                .thenReturn(Optional.of(recipeDto));
+
+        mockMvc.perform(get("/api/recipe/{id}", RECIPE_ID)
+                        .accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE));
     }
 
     @Test
@@ -123,6 +167,32 @@ class RecipeControllerWebMvcTest {
                 .andExpect(jsonPath("$.title").value(TITLE));
     }
 
+    @Test
+    void patch_shouldPassIfMatchVersionAndReturnNewETag() throws Exception {
+        recipeDto.setVersion(VERSION + 1);
+        when(recipeService.patch(eq(RECIPE_ID), any(), eq(VERSION))).thenReturn(recipeDto);
+
+        mockMvc.perform(patch("/api/recipe/{id}", RECIPE_ID)
+                        .contentType(MERGE_PATCH)
+                        .header(HttpHeaders.IF_MATCH, "\"" + VERSION + "\"")
+                        .content("{\"cookTimeMinutes\": 25}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + (VERSION + 1) + ":0\""))
+                .andExpect(jsonPath("$.title").value(TITLE));
+    }
+
+    @Test
+    void patch_shouldReturn412_whenVersionIsStale() throws Exception {
+        when(recipeService.patch(eq(RECIPE_ID), any(), eq(VERSION)))
+                .thenThrow(new OptimisticLockingFailureException("stale"));
+
+        mockMvc.perform(patch("/api/recipe/{id}", RECIPE_ID)
+                        .contentType(MERGE_PATCH)
+                        .header(HttpHeaders.IF_MATCH, "\"" + VERSION + "\"")
+                        .content("{\"title\": \"Other\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void create_shouldReturnCreatedRecipe() throws Exception {
         when(recipeService.create(any(RecipeDto.class)))
@@ -136,6 +206,18 @@ class RecipeControllerWebMvcTest {
                 .andExpect(jsonPath("$.title").value(TITLE));
     }
 
+    @Test
+    void create_shouldReturn409_whenNearDuplicate() throws Exception {
+        when(recipeService.create(any(RecipeDto.class)))
+                .thenThrow(new RecipeDuplicateService.DuplicateRecipeException(List.of(RECIPE_ID)));
+
+        mockMvc.perform(post("/api/recipe")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(recipeDto)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.duplicates[0]").value(RECIPE_ID));
+    }
+
     @Test
     void delete_shouldReturn204() throws Exception {
         doNothing().when(recipeService).delete(RECIPE_ID);
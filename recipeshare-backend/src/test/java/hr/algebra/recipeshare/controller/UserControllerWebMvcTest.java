@@ -9,6 +9,9 @@ import hr.algebra.recipeshare.mapper.UserMapper;
 import hr.algebra.recipeshare.model.LoginRequest;
 import hr.algebra.recipeshare.model.LoginResponse;
 import hr.algebra.recipeshare.model.UserDto;
+import hr.algebra.recipeshare.model.AvailabilityDto;
+import hr.algebra.recipeshare.service.HotKeyService;
+import hr.algebra.recipeshare.service.UserAvailabilityService;
 import hr.algebra.recipeshare.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -45,6 +48,12 @@ class UserControllerWebMvcTest {
     @MockitoBean
     private UserMapper userMapper;
 
+    @MockitoBean
+    private HotKeyService hotKeyService;
+
+    @MockitoBean
+    private UserAvailabilityService userAvailabilityService;
+
     @MockitoBean
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -93,6 +102,8 @@ class UserControllerWebMvcTest {
                 .andExpect(jsonPath("$.id").value(USER_ID))
                 .andExpect(jsonPath("$.username").value(USERNAME))
                 .andExpect(jsonPath("$.email").value(EMAIL));
+
+        verify(hotKeyService).recordUser(USER_ID);
     }
 
     @Test
@@ -101,6 +112,25 @@ class UserControllerWebMvcTest {
 
         mockMvc.perform(get("/api/users/{id}", USER_ID))
                 .andExpect(status().isNotFound());
+
+        verify(hotKeyService, never()).recordUser(USER_ID);
+    }
+
+    @Test
+    void availability_shouldReturnAnswerPerField() throws Exception {
+        when(userAvailabilityService.check(USERNAME, null))
+                .thenReturn(AvailabilityDto.builder().username(false).build());
+
+        mockMvc.perform(get("/api/users/availability").param("username", USERNAME))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value(false))
+                .andExpect(jsonPath("$.email").doesNotExist());
+    }
+
+    @Test
+    void availability_shouldReturn400_whenNothingAsked() throws Exception {
+        mockMvc.perform(get("/api/users/availability"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -0,0 +1,166 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.ExportJobEntity;
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.ExportJobJpaRepository;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.model.ExportJobDto;
+import hr.algebra.recipeshare.model.ExportJobStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class AccountExportServiceIntegrationTest {
+
+    @Autowired
+    private AccountExportService accountExportService;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private RecipeJpaRepository recipeJpaRepository;
+
+    @Autowired
+    private ExportJobJpaRepository exportJobJpaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${exports.storage-path}")
+    private String storagePath;
+
+    private UserEntity john;
+    private RecipeEntity first;
+
+    @BeforeEach
+    void setup() {
+        john = userJpaRepository.save(UserEntity.builder()
+                .username("john_export")
+                .email("john_export@test.com")
+                .passwordHash("hashed-password")
+                .build());
+        first = recipe("Pancakes");
+        recipe("Omelette");
+        recipe("Shakshuka");
+        jdbcTemplate.update("INSERT INTO recipe_likes (recipe_id, user_id, created_at) VALUES (?, ?, NOW())",
+                first.getId(), john.getId());
+    }
+
+    @Test
+    void stream_shouldWriteOneNdjsonEntryPerSection() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        accountExportService.stream(john.getId(), out);
+
+        Map<String, List<String>> entries = unzip(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(List.of("user.ndjson", "recipes.ndjson", "comments.ndjson", "likes.ndjson", "ratings.ndjson"),
+                List.copyOf(entries.keySet()));
+        assertEquals(1, entries.get("user.ndjson").size());
+        assertTrue(entries.get("user.ndjson").getFirst().startsWith("{\"id\":" + john.getId() + ","));
+        assertFalse(entries.get("user.ndjson").getFirst().contains("password"));
+        assertEquals(3, entries.get("recipes.ndjson").size());
+        assertTrue(entries.get("recipes.ndjson").getFirst().contains("\"title\":\"Pancakes\""));
+        assertEquals(1, entries.get("likes.ndjson").size());
+        assertTrue(entries.get("comments.ndjson").isEmpty());
+    }
+
+    @Test
+    void run_shouldWriteArchiveAndExposeIt() throws IOException {
+        ExportJobDto started = accountExportService.start(john.getId());
+        assertEquals(ExportJobStatus.QUEUED, started.getStatus());
+        assertEquals(started.getId(), accountExportService.start(john.getId()).getId());
+
+        accountExportService.run(started.getId());
+
+        ExportJobDto done = accountExportService.job(john.getId(), started.getId()).orElseThrow();
+        assertEquals(ExportJobStatus.DONE, done.getStatus());
+        assertEquals(5L, done.getExportedRows());
+        assertNotNull(done.getDownloadUrl());
+        Path archive = accountExportService.archive(john.getId(), started.getId());
+        assertEquals(done.getArchiveBytes(), Files.size(archive));
+        assertNull(accountExportService.archive(john.getId() + 1, started.getId()));
+        try (InputStream in = Files.newInputStream(archive)) {
+            assertEquals(3, unzip(in).get("recipes.ndjson").size());
+        }
+    }
+
+    @Test
+    void run_shouldResumeFromCheckpointAndDropUnrecordedTail() throws IOException {
+        ExportJobDto started = accountExportService.start(john.getId());
+        Path dir = Files.createDirectories(Path.of(storagePath).resolve(String.valueOf(started.getId())));
+        // a previous run finished the user entry and had flushed the first recipe when it died
+        String userLine = "{\"id\":" + john.getId() + ",\"kept\":true}\n";
+        String firstLine = "{\"id\":" + first.getId() + ",\"title\":\"Pancakes\"}\n";
+        Files.writeString(dir.resolve("user.ndjson"), userLine);
+        Files.writeString(dir.resolve("recipes.ndjson"), firstLine + "{\"id\":" + (first.getId() + 1) + ",\"tit");
+        ExportJobEntity job = exportJobJpaRepository.findById(started.getId()).orElseThrow();
+        job.setStatus(ExportJobStatus.RUNNING);
+        job.setSection(1);
+        job.setLastKey(first.getId());
+        job.setWrittenBytes((long) firstLine.getBytes(StandardCharsets.UTF_8).length);
+        job.setExportedRows(2L);
+        job.setUpdatedAt(Instant.now().minusSeconds(3600));
+        exportJobJpaRepository.saveAndFlush(job);
+
+        accountExportService.run(started.getId());
+
+        Map<String, List<String>> entries;
+        try (InputStream in = Files.newInputStream(accountExportService.archive(john.getId(), started.getId()))) {
+            entries = unzip(in);
+        }
+        assertEquals(List.of(userLine.strip()), entries.get("user.ndjson"));
+        List<String> recipes = entries.get("recipes.ndjson");
+        assertEquals(3, recipes.size());
+        assertEquals(firstLine.strip(), recipes.getFirst());
+        assertTrue(recipes.get(1).contains("\"title\":\"Omelette\""));
+        assertEquals(5L, accountExportService.job(john.getId(), started.getId()).orElseThrow().getExportedRows());
+    }
+
+    private RecipeEntity recipe(String title) {
+        return recipeJpaRepository.saveAndFlush(RecipeEntity.builder()
+                .user(john)
+                .title(title)
+                .ingredients("2 eggs")
+                .instructions("cook")
+                .build());
+    }
+
+    private static Map<String, List<String>> unzip(InputStream in) throws IOException {
+        Map<String, List<String>> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(in)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String content = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                entries.put(entry.getName(), content.lines().toList());
+            }
+        }
+        return entries;
+    }
+}
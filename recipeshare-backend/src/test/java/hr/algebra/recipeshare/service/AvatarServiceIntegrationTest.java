@@ -0,0 +1,115 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class AvatarServiceIntegrationTest {
+
+    @Autowired
+    private AvatarService avatarService;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private static final String USERNAME = "john_avatar";
+    private static final String EMAIL = "john_avatar@test.com";
+    private static final String PASSWORD_HASHED = "hashed-password";
+    private static final long RESIZE_TIMEOUT_MS = 10_000;
+
+    private UserEntity john;
+
+    @BeforeEach
+    void setup() {
+        john = userJpaRepository.save(
+                UserEntity.builder()
+                        .username(USERNAME)
+                        .email(EMAIL)
+                        .passwordHash(PASSWORD_HASHED)
+                        .build()
+        );
+    }
+
+    @Test
+    void upload_shouldStoreUnderHashAndResizeInBackground() throws Exception {
+        AvatarService.Upload upload = avatarService.upload(john.getId(), new ByteArrayInputStream(png(300, 200)));
+
+        assertEquals(AvatarService.Outcome.ACCEPTED, upload.outcome());
+        String hash = upload.avatarUrl().substring(AvatarService.URL_PREFIX.length());
+        entityManager.clear();
+        assertEquals(upload.avatarUrl(), userJpaRepository.findById(john.getId()).orElseThrow().getAvatarUrl());
+
+        int size = avatarService.size(100);
+        AvatarService.AvatarFile file = awaitResized(hash, size);
+        BufferedImage resized = ImageIO.read(file.path().toFile());
+        assertEquals(size, resized.getWidth());
+        assertEquals(size, resized.getHeight());
+    }
+
+    @Test
+    void upload_shouldDedupeIdenticalImages() throws Exception {
+        byte[] image = png(50, 50);
+
+        AvatarService.Upload first = avatarService.upload(john.getId(), new ByteArrayInputStream(image));
+        AvatarService.Upload second = avatarService.upload(john.getId(), new ByteArrayInputStream(image));
+
+        assertEquals(first.avatarUrl(), second.avatarUrl());
+    }
+
+    @Test
+    void upload_shouldRefuseNonImagesAndOversizedBodies() throws Exception {
+        assertEquals(AvatarService.Outcome.UNSUPPORTED,
+                avatarService.upload(john.getId(), new ByteArrayInputStream("<svg/>".getBytes())).outcome());
+        assertEquals(AvatarService.Outcome.TOO_LARGE,
+                avatarService.upload(john.getId(), new ByteArrayInputStream(new byte[6 * 1024 * 1024])).outcome());
+        assertNull(avatarService.file("not-a-hash", avatarService.size(null)));
+    }
+
+    private AvatarService.AvatarFile awaitResized(String hash, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + RESIZE_TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            AvatarService.AvatarFile file = avatarService.file(hash, size);
+            if (file != null && file.immutable()) {
+                return file;
+            }
+            Thread.sleep(20);
+        }
+        return fail("Avatar was not resized in time");
+    }
+
+    // random noise keeps every test image distinct from leftovers of earlier runs
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        image.setRGB(0, 0, ThreadLocalRandom.current().nextInt());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
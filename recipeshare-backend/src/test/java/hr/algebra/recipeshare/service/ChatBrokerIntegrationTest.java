@@ -0,0 +1,184 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.model.ChatDto;
+import hr.algebra.recipeshare.model.ChatMessageDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ChatBrokerIntegrationTest {
+
+    @Autowired
+    private ChatBroker chatBroker;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatMessageWriter chatMessageWriter;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final String USERNAME_JOHN = "john_chat";
+    private static final String EMAIL_JOHN = "john_chat@test.com";
+    private static final String USERNAME_ALICE = "alice_chat";
+    private static final String EMAIL_ALICE = "alice_chat@test.com";
+    private static final String USERNAME_BOB = "bob_chat";
+    private static final String EMAIL_BOB = "bob_chat@test.com";
+    private static final String PASSWORD_HASHED = "hashed-password";
+
+    private static final String HELLO = "hello";
+    private static final String SECOND = "second";
+    private static final String THIRD = "third";
+
+    private static final String COUNT_MESSAGES =
+            "SELECT COUNT(*) FROM chat_messages WHERE chat_id = ?";
+
+    private UserEntity john;
+    private UserEntity alice;
+    private UserEntity bob;
+    private ChatDto chat;
+
+    @BeforeEach
+    void setup() {
+        john = saveUser(USERNAME_JOHN, EMAIL_JOHN);
+        alice = saveUser(USERNAME_ALICE, EMAIL_ALICE);
+        bob = saveUser(USERNAME_BOB, EMAIL_BOB);
+        chat = chatService.create(ChatDto.builder()
+                .group(false)
+                .memberIds(List.of(john.getId(), alice.getId()))
+                .build());
+    }
+
+    @Test
+    void create_shouldRejectDirectChatWithThreeMembers() {
+        ChatDto dto = ChatDto.builder()
+                .group(false)
+                .memberIds(List.of(john.getId(), alice.getId(), bob.getId()))
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> chatService.create(dto));
+    }
+
+    @Test
+    void publish_shouldFanOutToJoinedMembers() {
+        RecordingSubscriber johnClient = new RecordingSubscriber(john.getId(), 10);
+        RecordingSubscriber aliceClient = new RecordingSubscriber(alice.getId(), 10);
+        chatBroker.join(johnClient, chat.getId(), null);
+        chatBroker.join(aliceClient, chat.getId(), null);
+
+        ChatMessageDto sent = chatBroker.publish(chat.getId(), john.getId(), HELLO);
+
+        assertEquals(1L, sent.getSeq());
+        assertTrue(aliceClient.last().contains(HELLO));
+        assertTrue(johnClient.last().contains(HELLO));
+    }
+
+    @Test
+    void publish_shouldRejectNonMember() {
+        assertThrows(IllegalArgumentException.class, () -> chatBroker.publish(chat.getId(), bob.getId(), HELLO));
+        assertThrows(IllegalArgumentException.class,
+                () -> chatBroker.join(new RecordingSubscriber(bob.getId(), 10), chat.getId(), null));
+    }
+
+    @Test
+    void join_shouldReplayMissedMessagesFromMemory() {
+        chatBroker.publish(chat.getId(), john.getId(), HELLO);
+        chatBroker.publish(chat.getId(), john.getId(), SECOND);
+        chatBroker.publish(chat.getId(), john.getId(), THIRD);
+        // nothing is flushed yet, so the replay can only come from the ring buffer
+        assertEquals(0, jdbcTemplate.queryForObject(COUNT_MESSAGES, Integer.class, chat.getId()));
+
+        RecordingSubscriber reconnected = new RecordingSubscriber(alice.getId(), 10);
+        chatBroker.join(reconnected, chat.getId(), 1L);
+
+        // joined frame followed by seq 2 and 3
+        assertEquals(3, reconnected.received.size());
+        assertTrue(reconnected.received.get(1).contains(SECOND));
+        assertTrue(reconnected.received.get(2).contains(THIRD));
+    }
+
+    @Test
+    void publish_shouldDropSlowSubscriber() {
+        RecordingSubscriber slow = new RecordingSubscriber(alice.getId(), 2);
+        chatBroker.join(slow, chat.getId(), null);
+
+        chatBroker.publish(chat.getId(), john.getId(), HELLO);
+        chatBroker.publish(chat.getId(), john.getId(), SECOND);
+        chatBroker.publish(chat.getId(), john.getId(), THIRD);
+
+        assertEquals(2, slow.received.size());
+        assertEquals(1, slow.rejected);
+    }
+
+    @Test
+    void flush_shouldPersistMessagesInBatch() {
+        chatBroker.publish(chat.getId(), john.getId(), HELLO);
+        chatBroker.publish(chat.getId(), alice.getId(), SECOND);
+
+        chatMessageWriter.flush();
+
+        assertEquals(2, jdbcTemplate.queryForObject(COUNT_MESSAGES, Integer.class, chat.getId()));
+        List<ChatMessageDto> history = chatService.getMessages(chat.getId(), null, 10);
+        assertEquals(List.of(SECOND, HELLO), history.stream().map(ChatMessageDto::getBody).toList());
+    }
+
+    private UserEntity saveUser(String username, String email) {
+        return userJpaRepository.save(
+                UserEntity.builder()
+                        .username(username)
+                        .email(email)
+                        .passwordHash(PASSWORD_HASHED)
+                        .build()
+        );
+    }
+
+    private static final class RecordingSubscriber implements ChatBroker.Subscriber {
+        private final long userId;
+        private final int capacity;
+        private final List<String> received = new ArrayList<>();
+        private int rejected;
+
+        private RecordingSubscriber(long userId, int capacity) {
+            this.userId = userId;
+            this.capacity = capacity;
+        }
+
+        @Override
+        public long userId() {
+            return userId;
+        }
+
+        @Override
+        public boolean deliver(String payload) {
+            if (received.size() >= capacity) {
+                rejected++;
+                return false;
+            }
+            received.add(payload);
+            return true;
+        }
+
+        private String last() {
+            return received.getLast();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.CommentReportJdbcRepository;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.model.CommentDto;
+import hr.algebra.recipeshare.service.CommentReportService.Outcome;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class CommentReportServiceIntegrationTest {
+
+    @Autowired
+    private CommentReportService commentReportService;
+
+    @Autowired
+    private CommentReportJdbcRepository commentReportJdbcRepository;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private RecipeJpaRepository recipeJpaRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private static final String USERNAME_JOHN = "john_reports";
+    private static final String EMAIL_JOHN = "john_reports@test.com";
+    private static final String USERNAME_ALICE = "alice_reports";
+    private static final String EMAIL_ALICE = "alice_reports@test.com";
+    private static final String USERNAME_BOB = "bob_reports";
+    private static final String EMAIL_BOB = "bob_reports@test.com";
+    private static final String PASSWORD_HASHED = "hashed-password";
+    private static final String RECIPE_X = "x";
+    private static final String REASON = "spam";
+
+    private static final String COUNT_PENDING =
+            "SELECT COUNT(*) FROM comment_reports WHERE comment_id = ? AND processed_at IS NULL";
+
+    private UserEntity alice;
+    private UserEntity bob;
+    private CommentDto comment;
+
+    @BeforeEach
+    void setup() {
+        UserEntity john = saveUser(USERNAME_JOHN, EMAIL_JOHN);
+        alice = saveUser(USERNAME_ALICE, EMAIL_ALICE);
+        bob = saveUser(USERNAME_BOB, EMAIL_BOB);
+        RecipeEntity recipe = recipeJpaRepository.save(
+                RecipeEntity.builder()
+                        .user(john)
+                        .title(RECIPE_X)
+                        .instructions(RECIPE_X)
+                        .ingredients(RECIPE_X)
+                        .build()
+        );
+        comment = commentService.create(CommentDto.builder()
+                .recipeId(recipe.getId())
+                .userId(john.getId())
+                .body(RECIPE_X)
+                .build());
+        entityManager.flush();
+    }
+
+    @Test
+    void report_shouldCoalesceRepeatedReports() {
+        assertEquals(Outcome.QUEUED, commentReportService.report(comment.getId(), alice.getId(), REASON));
+        assertEquals(Outcome.DUPLICATE, commentReportService.report(comment.getId(), alice.getId(), REASON));
+
+        assertEquals(1, jdbcTemplate.queryForObject(COUNT_PENDING, Integer.class, comment.getId()));
+    }
+
+    @Test
+    void report_shouldRejectWhenQueueIsFull() {
+        CommentReportService bounded = new CommentReportService(
+                commentReportJdbcRepository, transactionTemplate, 1, 10, 1, 5);
+        try {
+            assertEquals(Outcome.QUEUED, bounded.report(comment.getId(), alice.getId(), REASON));
+            assertEquals(Outcome.REJECTED, bounded.report(comment.getId(), bob.getId(), REASON));
+        } finally {
+            bounded.shutdown();
+        }
+    }
+
+    @Test
+    void processBatch_shouldDrainQueueAndHideReportedComment() {
+        commentReportService.report(comment.getId(), alice.getId(), REASON);
+        assertTrue(commentReportService.stats().getDepth() >= 1);
+
+        assertEquals(1, commentReportService.processBatch());
+        assertEquals(0, jdbcTemplate.queryForObject(COUNT_PENDING, Integer.class, comment.getId()));
+        assertFalse(isDeleted());
+
+        commentReportService.report(comment.getId(), bob.getId(), REASON);
+        commentReportService.processBatch();
+
+        assertTrue(isDeleted());
+        assertEquals(0L, commentReportService.stats().getLagMillis());
+    }
+
+    private boolean isDeleted() {
+        entityManager.clear();
+        return commentService.findById(comment.getId()).orElseThrow().getDeleted();
+    }
+
+    private UserEntity saveUser(String username, String email) {
+        return userJpaRepository.save(
+                UserEntity.builder()
+                        .username(username)
+                        .email(email)
+                        .passwordHash(PASSWORD_HASHED)
+                        .build()
+        );
+    }
+}
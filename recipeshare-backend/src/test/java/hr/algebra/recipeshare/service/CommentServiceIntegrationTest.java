@@ -0,0 +1,184 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.model.CommentDto;
+import hr.algebra.recipeshare.model.CommentPageDto;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class CommentServiceIntegrationTest {
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private RecipeJpaRepository recipeJpaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private static final String USERNAME_JOHN = "john_comments";
+    private static final String EMAIL_JOHN = "john_comments@test.com";
+    private static final String AVATAR_JOHN = "john.png";
+    private static final String USERNAME_ALICE = "alice_comments";
+    private static final String EMAIL_ALICE = "alice_comments@test.com";
+    private static final String PASSWORD_HASHED = "hashed-password";
+    private static final String RECIPE_X = "x";
+
+    private static final String ROOT = "root";
+    private static final String REPLY_A = "reply a";
+    private static final String REPLY_B = "reply b";
+    private static final String NESTED = "nested under a";
+    private static final int PAGE_TWO = 2;
+    private static final int PAGE_LARGE = 50;
+
+    private UserEntity john;
+    private UserEntity alice;
+    private RecipeEntity recipe;
+
+    @BeforeEach
+    void setup() {
+        john = saveUser(USERNAME_JOHN, EMAIL_JOHN, AVATAR_JOHN);
+        alice = saveUser(USERNAME_ALICE, EMAIL_ALICE, null);
+        recipe = recipeJpaRepository.save(
+                RecipeEntity.builder()
+                        .user(john)
+                        .title(RECIPE_X)
+                        .instructions(RECIPE_X)
+                        .ingredients(RECIPE_X)
+                        .build()
+        );
+    }
+
+    @Test
+    void create_shouldResolveAuthorAndDepth() {
+        CommentDto root = comment(john, null, ROOT);
+        CommentDto reply = comment(alice, root.getId(), REPLY_A);
+
+        assertEquals(0, root.getDepth());
+        assertEquals(1, reply.getDepth());
+        assertEquals(USERNAME_JOHN, root.getAuthorUsername());
+        assertEquals(AVATAR_JOHN, root.getAuthorAvatarUrl());
+        assertEquals(USERNAME_ALICE, reply.getAuthorUsername());
+    }
+
+    @Test
+    void create_shouldIncrementParentReplyCount() {
+        CommentDto root = comment(john, null, ROOT);
+        comment(alice, root.getId(), REPLY_A);
+        comment(alice, root.getId(), REPLY_B);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(2, commentService.findById(root.getId()).orElseThrow().getReplyCount());
+    }
+
+    @Test
+    void getThread_shouldReturnSubtreeDepthFirst() {
+        CommentDto root = comment(john, null, ROOT);
+        CommentDto replyA = comment(alice, root.getId(), REPLY_A);
+        comment(john, root.getId(), REPLY_B);
+        comment(john, replyA.getId(), NESTED);
+        comment(john, null, RECIPE_X);
+
+        CommentPageDto page = commentService.getThread(root.getId(), null, PAGE_LARGE);
+
+        assertEquals(List.of(REPLY_A, NESTED, REPLY_B), bodies(page));
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getThread_shouldPageWithCursor() {
+        CommentDto root = comment(john, null, ROOT);
+        CommentDto replyA = comment(alice, root.getId(), REPLY_A);
+        comment(john, root.getId(), REPLY_B);
+        comment(john, replyA.getId(), NESTED);
+
+        CommentPageDto first = commentService.getThread(root.getId(), null, PAGE_TWO);
+        CommentPageDto second = commentService.getThread(root.getId(), first.getNextCursor(), PAGE_TWO);
+
+        assertEquals(List.of(REPLY_A, NESTED), bodies(first));
+        assertEquals(List.of(REPLY_B), bodies(second));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void getTopLevel_shouldPageNewestFirst() {
+        CommentDto first = comment(john, null, REPLY_A);
+        comment(alice, first.getId(), NESTED);
+        comment(john, null, REPLY_B);
+        comment(john, null, ROOT);
+
+        CommentPageDto page = commentService.getTopLevel(recipe.getId(), null, PAGE_TWO);
+        CommentPageDto next = commentService.getTopLevel(recipe.getId(), page.getNextCursor(), PAGE_TWO);
+
+        assertEquals(List.of(ROOT, REPLY_B), bodies(page));
+        assertEquals(List.of(REPLY_A), bodies(next));
+    }
+
+    @Test
+    void getReplies_shouldReturnDirectChildrenOnly() {
+        CommentDto root = comment(john, null, ROOT);
+        CommentDto replyA = comment(alice, root.getId(), REPLY_A);
+        comment(john, root.getId(), REPLY_B);
+        comment(john, replyA.getId(), NESTED);
+
+        assertEquals(List.of(REPLY_A, REPLY_B), bodies(commentService.getReplies(root.getId(), null, PAGE_LARGE)));
+    }
+
+    @Test
+    void delete_shouldHideBodyButKeepThread() {
+        CommentDto root = comment(john, null, ROOT);
+        CommentDto reply = comment(alice, root.getId(), REPLY_A);
+
+        commentService.delete(root.getId());
+
+        CommentDto deleted = commentService.findById(root.getId()).orElseThrow();
+        assertTrue(deleted.getDeleted());
+        assertNull(deleted.getBody());
+        assertEquals(List.of(reply.getId()),
+                commentService.getThread(root.getId(), null, PAGE_LARGE).getComments().stream().map(CommentDto::getId).toList());
+    }
+
+    private CommentDto comment(UserEntity author, Long parentId, String body) {
+        return commentService.create(CommentDto.builder()
+                .recipeId(recipe.getId())
+                .userId(author.getId())
+                .parentId(parentId)
+                .body(body)
+                .build());
+    }
+
+    private static List<String> bodies(CommentPageDto page) {
+        return page.getComments().stream().map(CommentDto::getBody).toList();
+    }
+
+    private UserEntity saveUser(String username, String email, String avatarUrl) {
+        return userJpaRepository.save(
+                UserEntity.builder()
+                        .username(username)
+                        .email(email)
+                        .passwordHash(PASSWORD_HASHED)
+                        .avatarUrl(avatarUrl)
+                        .build()
+        );
+    }
+}
@@ -0,0 +1,61 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.model.HotKeysDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class HotKeyServiceIntegrationTest {
+
+    @Autowired
+    private HotKeyService hotKeyService;
+
+    private static final long HOT_RECIPE = 910_001L;
+    private static final long WARM_RECIPE = 910_002L;
+    private static final long HOT_USER = 910_003L;
+    private static final int LIMIT = 100;
+
+    @Test
+    void top_shouldRankRecordedReads() {
+        for (int i = 0; i < 50; i++) {
+            hotKeyService.recordRecipe(HOT_RECIPE);
+        }
+        for (int i = 0; i < 10; i++) {
+            hotKeyService.recordRecipe(WARM_RECIPE);
+        }
+        hotKeyService.recordUser(HOT_USER);
+
+        HotKeysDto top = hotKeyService.top(LIMIT);
+
+        int hot = indexOf(top, HOT_RECIPE);
+        int warm = indexOf(top, WARM_RECIPE);
+        assertTrue(hot >= 0 && warm > hot);
+        assertTrue(top.getUsers().stream().anyMatch(key -> key.getId() == HOT_USER));
+    }
+
+    @Test
+    void prewarm_shouldReadEveryKeyOfSnapshot() {
+        hotKeyService.recordRecipe(HOT_RECIPE);
+        hotKeyService.recordUser(HOT_USER);
+        hotKeyService.persist();
+        HotKeysDto snapshot = hotKeyService.top(LIMIT);
+
+        assertEquals(snapshot.getRecipes().size() + snapshot.getUsers().size(), hotKeyService.prewarm());
+    }
+
+    private static int indexOf(HotKeysDto top, long id) {
+        for (int i = 0; i < top.getRecipes().size(); i++) {
+            if (top.getRecipes().get(i).getId() == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
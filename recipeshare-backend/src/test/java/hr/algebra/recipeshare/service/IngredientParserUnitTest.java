@@ -0,0 +1,69 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.model.IngredientUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngredientParserUnitTest {
+
+    private static final int CACHE_SIZE = 2;
+    private static final double DELTA = 1e-9;
+
+    private IngredientParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new IngredientParser(CACHE_SIZE);
+    }
+
+    @Test
+    void parse_shouldReadQuantityUnitAndName() {
+        IngredientParser.Parsed parsed = parser.parse("200 g pasta\n1,5 kg (fresh) tomatoes\n2 tbsp. olive oil");
+
+        assertEquals(3, parsed.size());
+        assertLine(parsed, 0, "pasta", IngredientUnit.G, 200);
+        assertLine(parsed, 1, "tomatoes", IngredientUnit.G, 1500);
+        assertLine(parsed, 2, "olive oil", IngredientUnit.ML, 30);
+    }
+
+    @Test
+    void parse_shouldReadFractionsRangesAndCounts() {
+        IngredientParser.Parsed parsed = parser.parse("1 1/2 cups milk, ½ tsp salt, 2-3 eggs, 3 tomatoes");
+
+        assertLine(parsed, 0, "milk", IngredientUnit.ML, 360);
+        assertLine(parsed, 1, "salt", IngredientUnit.ML, 2.5);
+        assertLine(parsed, 2, "egg", IngredientUnit.PIECE, 3);
+        assertLine(parsed, 3, "tomato", IngredientUnit.PIECE, 3);
+    }
+
+    @Test
+    void parse_shouldKeepLinesWithoutQuantity() {
+        IngredientParser.Parsed parsed = parser.parse("Chicken, pepper to taste");
+
+        assertEquals(2, parsed.size());
+        assertEquals("chicken", parsed.names[0]);
+        assertNull(parsed.units[0]);
+        assertTrue(Double.isNaN(parsed.amounts[0]));
+        assertEquals("pepper", parsed.names[1]);
+    }
+
+    @Test
+    void parse_shouldReuseResultForSameText() {
+        IngredientParser.Parsed first = parser.parse("200 g pasta");
+        IngredientParser.Parsed second = parser.parse("200 g pasta");
+        parser.parse("100 g rice");
+        parser.parse("50 g oats");
+
+        assertSame(first, second);
+        assertEquals(CACHE_SIZE, parser.cachedCount());
+        assertNotSame(first, parser.parse("200 g pasta"));
+    }
+
+    private static void assertLine(IngredientParser.Parsed parsed, int i, String name, IngredientUnit unit, double amount) {
+        assertEquals(name, parsed.names[i]);
+        assertEquals(unit, parsed.units[i]);
+        assertEquals(amount, parsed.amounts[i], DELTA);
+    }
+}
@@ -0,0 +1,126 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.model.Invalidation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InvalidationBusIntegrationTest {
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static final String RECIPE = "Recipe";
+    private static final String NODE = "node-a";
+    private static final long TIMEOUT_MS = 2000;
+    private static final long ROLLED_BACK_ID = 900_001L;
+    private static final long COMMITTED_ID = 900_002L;
+    private static final long REWRITTEN_ID = 900_003L;
+
+    private final List<Invalidation> seen = new CopyOnWriteArrayList<>();
+    private final AtomicInteger flushes = new AtomicInteger();
+    private final InvalidationBus.Handler handler = new InvalidationBus.Handler() {
+        @Override
+        public void invalidate(List<Invalidation> batch) {
+            seen.addAll(batch);
+        }
+
+        @Override
+        public void invalidateAll() {
+            flushes.incrementAndGet();
+        }
+    };
+
+    @BeforeEach
+    void subscribe() {
+        invalidationBus.subscribe(handler);
+    }
+
+    @AfterEach
+    void unsubscribe() {
+        invalidationBus.unsubscribe(handler);
+    }
+
+    @Test
+    void invalidate_shouldReachHandlersAfterCommitOnly() throws InterruptedException {
+        transactionTemplate.executeWithoutResult(status -> {
+            invalidationBus.invalidate(RECIPE, ROLLED_BACK_ID, () -> 1L);
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(_ -> invalidationBus.invalidate(RECIPE, COMMITTED_ID, () -> 1L));
+
+        assertEquals(List.of(new Invalidation(RECIPE, COMMITTED_ID, 1L)), await(COMMITTED_ID));
+        Thread.sleep(50);
+        assertTrue(seen(ROLLED_BACK_ID).isEmpty());
+    }
+
+    @Test
+    void invalidate_shouldCoalesceWritesOfOneRow() {
+        transactionTemplate.executeWithoutResult(_ -> {
+            invalidationBus.invalidate(RECIPE, REWRITTEN_ID, () -> 4L);
+            invalidationBus.invalidate(RECIPE, REWRITTEN_ID, () -> 5L);
+        });
+
+        assertEquals(List.of(new Invalidation(RECIPE, REWRITTEN_ID, 5L)), await(REWRITTEN_ID));
+    }
+
+    @Test
+    void flushAll_shouldDropEveryCache() {
+        invalidationBus.flushAll();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+        while (flushes.get() == 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertTrue(flushes.get() > 0);
+    }
+
+    @Test
+    void encode_shouldSplitLongBatchesAndRoundTrip() {
+        List<Invalidation> batch = new ArrayList<>();
+        for (long id = 0; id < 1000; id++) {
+            batch.add(new Invalidation(RECIPE, id, id % 7));
+        }
+
+        List<String> payloads = InvalidationBus.encode(NODE, batch, false);
+
+        assertTrue(payloads.size() > 1);
+        assertTrue(payloads.stream().allMatch(p -> p.length() <= InvalidationBus.MAX_PAYLOAD_BYTES));
+        List<Invalidation> decoded = payloads.stream()
+                .flatMap(p -> InvalidationBus.decode("node-b", p).stream())
+                .toList();
+        assertEquals(batch, decoded);
+        assertNull(InvalidationBus.decode(NODE, payloads.getFirst()));
+        assertEquals(List.of(NODE + "|*"), InvalidationBus.encode(NODE, batch, true));
+    }
+
+    // other tests' writes reach the handler too, only the rows a test wrote are looked at
+    private List<Invalidation> seen(long id) {
+        return seen.stream().filter(i -> i.aggregateType().equals(RECIPE) && i.id() == id).toList();
+    }
+
+    private List<Invalidation> await(long id) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+        while (seen(id).isEmpty() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        return seen(id);
+    }
+}
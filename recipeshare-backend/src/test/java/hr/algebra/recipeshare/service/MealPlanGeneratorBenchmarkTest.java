@@ -0,0 +1,110 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.LoggerSingleton;
+import hr.algebra.recipeshare.model.Macros;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MealPlanGeneratorBenchmarkTest {
+
+    private static final int[] CATALOG_SIZES = {1_000, 10_000, 50_000};
+    private static final int[] PARALLELISM = {1, 2, 4};
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int DAYS = 7;
+    private static final int MEALS_PER_DAY = 3;
+    private static final int MAX_REPEATS = 2;
+    private static final int BEAM_WIDTH = 64;
+    private static final int MAX_CANDIDATES = 300;
+    private static final long BUDGET_MS = 200;
+    // scheduling noise on a loaded machine, the search itself stops at the budget
+    private static final long SLACK_MS = 150;
+
+    private static final Macros TARGET = new Macros(2200, 150, 70, 230);
+
+    @Test
+    void generate_shouldFillEveryDay() {
+        ForkJoinPool pool = new ForkJoinPool(PARALLELISM[1]);
+        try {
+            assertShape(run(new MealPlanSearch(pool, BEAM_WIDTH, MAX_CANDIDATES), syntheticCatalog(CATALOG_SIZES[0])));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // wall-clock timing, excluded from the default build
+    @Test
+    @Tag("benchmark")
+    void generate_shouldScaleWithCatalogAndStayWithinBudget() {
+        for (int size : CATALOG_SIZES) {
+            RecipeCatalog catalog = syntheticCatalog(size);
+            for (int parallelism : PARALLELISM) {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    measure(catalog, pool, parallelism);
+                } finally {
+                    pool.shutdownNow();
+                }
+            }
+        }
+    }
+
+    private void measure(RecipeCatalog catalog, ForkJoinPool pool, int parallelism) {
+        MealPlanSearch search = new MealPlanSearch(pool, BEAM_WIDTH, MAX_CANDIDATES);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(search, catalog);
+        }
+
+        long worstMs = 0;
+        long totalNanos = 0;
+        int completed = 0;
+        double error = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            MealPlanSearch.Result result = run(search, catalog);
+            long nanos = System.nanoTime() - start;
+            totalNanos += nanos;
+            worstMs = Math.max(worstMs, TimeUnit.NANOSECONDS.toMillis(nanos));
+            completed += result.complete() ? 1 : 0;
+            error = result.days().stream().mapToDouble(MealPlanSearch.Day::error).average().orElseThrow();
+            assertShape(result);
+        }
+
+        LoggerSingleton.INSTANCE.info(String.format(
+                "[meal-plan-generator] recipes=%-6d threads=%d avg=%dms worst=%dms complete=%d/%d error=%.4f",
+                catalog.size(), parallelism, totalNanos / MEASURED_ROUNDS / 1_000_000, worstMs,
+                completed, MEASURED_ROUNDS, error));
+        assertTrue(worstMs <= BUDGET_MS + SLACK_MS, "worst run took " + worstMs + "ms");
+    }
+
+    private static void assertShape(MealPlanSearch.Result result) {
+        assertEquals(DAYS, result.days().size());
+        result.days().forEach(day -> assertEquals(MEALS_PER_DAY, day.recipeIds().length));
+    }
+
+    private static MealPlanSearch.Result run(MealPlanSearch search, RecipeCatalog catalog) {
+        return search.search(catalog, TARGET, DAYS, MEALS_PER_DAY, null, MAX_REPEATS,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(BUDGET_MS));
+    }
+
+    private static RecipeCatalog syntheticCatalog(int size) {
+        Random random = new Random(size);
+        long[] ids = new long[size];
+        int[] calories = new int[size], protein = new int[size], fat = new int[size], carbs = new int[size], cookTime = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = i + 1;
+            calories[i] = 150 + random.nextInt(1200);
+            protein[i] = 5 + random.nextInt(70);
+            fat[i] = 2 + random.nextInt(50);
+            carbs[i] = 10 + random.nextInt(140);
+            cookTime[i] = 5 + random.nextInt(120);
+        }
+        return new RecipeCatalog(ids, calories, protein, fat, carbs, cookTime);
+    }
+}
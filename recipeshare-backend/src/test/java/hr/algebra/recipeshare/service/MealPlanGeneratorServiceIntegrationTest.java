@@ -0,0 +1,130 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.model.GeneratedDayDto;
+import hr.algebra.recipeshare.model.GeneratedMealPlanDto;
+import hr.algebra.recipeshare.model.Macros;
+import hr.algebra.recipeshare.model.MealPlanGenerationRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class MealPlanGeneratorServiceIntegrationTest {
+
+    @Autowired
+    private MealPlanGeneratorService mealPlanGeneratorService;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private RecipeJpaRepository recipeJpaRepository;
+
+    private static final String USERNAME = "john_generator";
+    private static final String EMAIL = "john_generator@test.com";
+    private static final String PASSWORD_HASHED = "hashed-password";
+    private static final String RECIPE_X = "x";
+
+    private static final int QUICK = 15;
+    private static final int SLOW = 120;
+    private static final long BUDGET_MS = 1000;
+
+    private UserEntity john;
+    private RecipeEntity oats;
+    private RecipeEntity chicken;
+    private RecipeEntity salmon;
+    private RecipeEntity slowStew;
+
+    @BeforeEach
+    void setup() {
+        john = userJpaRepository.save(
+                UserEntity.builder()
+                        .username(USERNAME)
+                        .email(EMAIL)
+                        .passwordHash(PASSWORD_HASHED)
+                        .build()
+        );
+        // oats + chicken + salmon hit 2000/140/70/220 exactly
+        oats = saveRecipe(500, 30, 15, 60, QUICK);
+        chicken = saveRecipe(700, 50, 25, 70, QUICK);
+        salmon = saveRecipe(800, 60, 30, 90, QUICK);
+        slowStew = saveRecipe(700, 50, 25, 70, SLOW);
+        saveRecipe(1500, 10, 90, 150, QUICK);
+        saveRecipe(250, 5, 5, 45, QUICK);
+        mealPlanGeneratorService.refreshCatalog();
+    }
+
+    @Test
+    void generate_shouldFindExactDay() {
+        GeneratedMealPlanDto plan = mealPlanGeneratorService.generate(request(1, null));
+
+        assertEquals(1, plan.getDays().size());
+        assertTrue(plan.getComplete());
+        GeneratedDayDto day = plan.getDays().getFirst();
+        assertEquals(new Macros(2000, 140, 70, 220), day.getTotals());
+        assertEquals(0.0, day.getError());
+        assertEquals(3, day.getRecipeIds().size());
+    }
+
+    @Test
+    void generate_shouldRespectCookTimeLimit() {
+        GeneratedMealPlanDto plan = mealPlanGeneratorService.generate(request(2, QUICK));
+
+        assertEquals(2, plan.getDays().size());
+        for (GeneratedDayDto day : plan.getDays()) {
+            assertFalse(day.getRecipeIds().contains(slowStew.getId()));
+            assertEquals(Set.of(oats.getId(), chicken.getId(), salmon.getId()), Set.copyOf(day.getRecipeIds()));
+        }
+    }
+
+    @Test
+    void generate_shouldLimitRepeatsAcrossDays() {
+        GeneratedMealPlanDto plan = mealPlanGeneratorService.generate(request(3, QUICK));
+
+        assertEquals(3, plan.getDays().size());
+        long oatsDays = plan.getDays().stream().filter(day -> day.getRecipeIds().contains(oats.getId())).count();
+        assertTrue(oatsDays <= 2);
+        assertTrue(plan.getDays().get(2).getError() > 0);
+    }
+
+    @Test
+    void generate_shouldRejectMissingCalorieTarget() {
+        MealPlanGenerationRequest request = request(1, null);
+        request.setCalories(null);
+
+        assertThrows(IllegalArgumentException.class, () -> mealPlanGeneratorService.generate(request));
+    }
+
+    private MealPlanGenerationRequest request(int days, Integer maxCookTime) {
+        return new MealPlanGenerationRequest(2000, 140, 70, 220, days, 3, maxCookTime, BUDGET_MS);
+    }
+
+    private RecipeEntity saveRecipe(int calories, int protein, int fat, int carbs, int cookTime) {
+        return recipeJpaRepository.save(
+                RecipeEntity.builder()
+                        .user(john)
+                        .title(RECIPE_X)
+                        .instructions(RECIPE_X)
+                        .ingredients(RECIPE_X)
+                        .cookTimeMinutes(cookTime)
+                        .calories(calories)
+                        .protein(protein)
+                        .fat(fat)
+                        .carbs(carbs)
+                        .build()
+        );
+    }
+}
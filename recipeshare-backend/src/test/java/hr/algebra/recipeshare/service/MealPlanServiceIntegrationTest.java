@@ -0,0 +1,190 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.mapper.RecipeMapper;
+import hr.algebra.recipeshare.model.Macros;
+import hr.algebra.recipeshare.model.MealPlanDto;
+import hr.algebra.recipeshare.model.MealPlanItemDto;
+import hr.algebra.recipeshare.model.MealSlot;
+import hr.algebra.recipeshare.model.RecipeDto;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class MealPlanServiceIntegrationTest {
+
+    @Autowired
+    private MealPlanService mealPlanService;
+
+    @Autowired
+    private MealPlanItemService mealPlanItemService;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeMapper recipeMapper;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private RecipeJpaRepository recipeJpaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private static final String USERNAME = "john_plans";
+    private static final String EMAIL = "john_plans@test.com";
+    private static final String PASSWORD_HASHED = "hashed-password";
+    private static final String RECIPE_X = "x";
+    private static final String PLAN_NAME = "Week";
+
+    private static final int DAYS = 10;
+    private static final int MONDAY = 0;
+    private static final int TUESDAY = 1;
+
+    private UserEntity john;
+    private RecipeEntity pasta;
+    private RecipeEntity salad;
+    private MealPlanDto plan;
+
+    @BeforeEach
+    void setup() {
+        john = userJpaRepository.save(
+                UserEntity.builder()
+                        .username(USERNAME)
+                        .email(EMAIL)
+                        .passwordHash(PASSWORD_HASHED)
+                        .build()
+        );
+        pasta = saveRecipe(600, 20, 15, 90);
+        salad = saveRecipe(200, 5, 10, 20);
+        plan = mealPlanService.create(MealPlanDto.builder()
+                .userId(john.getId())
+                .name(PLAN_NAME)
+                .days(DAYS)
+                .build());
+    }
+
+    @Test
+    void create_shouldStartWithEmptyTotals() {
+        assertEquals(DAYS, plan.getDaily().size());
+        assertEquals(2, plan.getWeekly().size());
+        assertEquals(Macros.ZERO, plan.getTotal());
+    }
+
+    @Test
+    void addItem_shouldAccumulateDailyAndWeeklyTotals() {
+        addItem(pasta, MONDAY, 1.0);
+        addItem(salad, MONDAY, 2.0);
+        addItem(salad, TUESDAY, 1.0);
+
+        MealPlanDto loaded = reload();
+
+        assertEquals(new Macros(1000, 30, 35, 130), loaded.getDaily().get(MONDAY));
+        assertEquals(new Macros(200, 5, 10, 20), loaded.getDaily().get(TUESDAY));
+        assertEquals(new Macros(1200, 35, 45, 150), loaded.getWeekly().getFirst());
+        assertEquals(Macros.ZERO, loaded.getWeekly().get(1));
+    }
+
+    @Test
+    void updateItem_shouldMoveAndRePortion() {
+        MealPlanItemDto item = addItem(pasta, MONDAY, 1.0);
+
+        mealPlanItemService.updateItem(plan.getId(), item.getId(),
+                MealPlanItemDto.builder().dayIndex(TUESDAY).servings(0.5).build());
+
+        MealPlanDto loaded = reload();
+        assertEquals(Macros.ZERO, loaded.getDaily().get(MONDAY));
+        assertEquals(new Macros(300, 10, 8, 45), loaded.getDaily().get(TUESDAY));
+    }
+
+    @Test
+    void removeItem_shouldSubtractContribution() {
+        MealPlanItemDto item = addItem(pasta, MONDAY, 1.5);
+        addItem(salad, MONDAY, 1.0);
+
+        mealPlanItemService.removeItem(plan.getId(), item.getId());
+
+        assertEquals(new Macros(200, 5, 10, 20), reload().getDaily().get(MONDAY));
+    }
+
+    @Test
+    void propagate_shouldApplyRecipeMacroChanges() {
+        addItem(pasta, MONDAY, 2.0);
+        addItem(salad, TUESDAY, 1.0);
+
+        RecipeDto changed = recipeMapper.toDto(pasta);
+        changed.setCalories(500);
+        recipeService.update(pasta.getId(), changed);
+
+        assertEquals(1, mealPlanItemService.propagate(List.of(pasta.getId())));
+        assertEquals(0, mealPlanItemService.propagate(List.of(pasta.getId())));
+
+        MealPlanDto loaded = reload();
+        assertEquals(new Macros(1000, 40, 30, 180), loaded.getDaily().get(MONDAY));
+        assertEquals(1200, loaded.getTotal().calories());
+    }
+
+    @Test
+    void reconcile_shouldApplyChangesNeverMarkedDirty() {
+        addItem(pasta, MONDAY, 1.0);
+
+        pasta.setCalories(500);
+        entityManager.flush();
+
+        mealPlanItemService.reconcile();
+
+        assertEquals(new Macros(500, 20, 15, 90), reload().getDaily().get(MONDAY));
+    }
+
+    @Test
+    void addItem_shouldRejectDayOutsidePlan() {
+        assertThrows(IllegalArgumentException.class, () -> addItem(pasta, DAYS, 1.0));
+    }
+
+    private MealPlanItemDto addItem(RecipeEntity recipe, int day, double servings) {
+        return mealPlanItemService.addItem(plan.getId(), MealPlanItemDto.builder()
+                .recipeId(recipe.getId())
+                .dayIndex(day)
+                .mealSlot(MealSlot.DINNER)
+                .servings(servings)
+                .build());
+    }
+
+    private MealPlanDto reload() {
+        entityManager.flush();
+        entityManager.clear();
+        return mealPlanService.findById(plan.getId()).orElseThrow();
+    }
+
+    private RecipeEntity saveRecipe(int calories, int protein, int fat, int carbs) {
+        return recipeJpaRepository.save(
+                RecipeEntity.builder()
+                        .user(john)
+                        .title(RECIPE_X)
+                        .instructions(RECIPE_X)
+                        .ingredients(RECIPE_X)
+                        .calories(calories)
+                        .protein(protein)
+                        .fat(fat)
+                        .carbs(carbs)
+                        .build()
+        );
+    }
+}
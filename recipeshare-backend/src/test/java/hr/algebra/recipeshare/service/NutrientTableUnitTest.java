@@ -0,0 +1,57 @@
+package hr.algebra.recipeshare.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NutrientTableUnitTest {
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void find_shouldLocateEveryWrittenName() throws IOException {
+        List<NutrientTable.Entry> entries = NutrientTable.parseCsv("""
+                # name,kcal,protein,fat,carbs,g/ml,g/piece
+                tomato,18,0.9,0.2,3.9,0,120
+                egg,143,12.6,9.5,0.7,1,50
+                crème fraîche,292,2.4,30,2.8,1,0
+                olive oil,884,0,100,0,0.91,0
+                """);
+        Path path = dir.resolve("nutrients.bin");
+        NutrientTable.write(path, entries, 42);
+
+        try (NutrientTable table = NutrientTable.open(path)) {
+            assertEquals(4, table.size());
+            assertEquals(42, table.sourceHash());
+            for (NutrientTable.Entry entry : entries) {
+                assertEquals(entry, table.get(table.find(entry.name())));
+            }
+            assertEquals(-1, table.find("olive"));
+            assertEquals(-1, table.find("zucchini"));
+            assertEquals(-1, table.find("a"));
+        }
+    }
+
+    @Test
+    void write_shouldRejectNamesThatDontFitARecord() {
+        List<NutrientTable.Entry> entries = List.of(
+                new NutrientTable.Entry("x".repeat(41), 1, 1, 1, 1, 0, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> NutrientTable.write(dir.resolve("long.bin"), entries, 0));
+    }
+
+    @Test
+    void open_shouldRejectForeignFile() throws IOException {
+        Path path = dir.resolve("foreign.bin");
+        Files.writeString(path, "definitely not a nutrient table");
+
+        assertThrows(IllegalStateException.class, () -> NutrientTable.open(path));
+    }
+}
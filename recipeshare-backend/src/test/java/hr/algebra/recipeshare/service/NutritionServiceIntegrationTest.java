@@ -0,0 +1,103 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class NutritionServiceIntegrationTest {
+
+    @Autowired
+    private NutritionService nutritionService;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private RecipeJpaRepository recipeJpaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private static final String USERNAME = "john_nutrition";
+    private static final String EMAIL = "john_nutrition@test.com";
+    private static final String PASSWORD_HASHED = "hashed-password";
+    // 200 g pasta 742 kcal, 2 eggs 100 g 143 kcal, 1 tbsp olive oil 13.65 g 120.7 kcal
+    private static final String INGREDIENTS = "200 g spaghetti, 2 eggs, 1 tbsp olive oil, salt";
+    private static final double DELTA = 1;
+
+    private UserEntity john;
+
+    @BeforeEach
+    void setup() {
+        john = userJpaRepository.save(
+                UserEntity.builder()
+                        .username(USERNAME)
+                        .email(EMAIL)
+                        .passwordHash(PASSWORD_HASHED)
+                        .build()
+        );
+    }
+
+    @Test
+    void estimate_shouldSumMatchedIngredientsByWeight() {
+        NutritionService.Estimate estimate = nutritionService.estimate(INGREDIENTS);
+
+        assertEquals(3, estimate.measured());
+        assertEquals(3, estimate.matched());
+        assertEquals(742 + 143 + 120.7, estimate.calories(), DELTA);
+        assertEquals(26 + 12.6, estimate.protein(), DELTA);
+        assertEquals(3 + 9.5 + 13.65, estimate.fat(), DELTA);
+    }
+
+    @Test
+    void recompute_shouldOverwriteTypedMacrosWhenEveryLineMatches() {
+        RecipeEntity recipe = save(INGREDIENTS, 5, null);
+
+        nutritionService.recompute(recipe.getId());
+
+        RecipeEntity updated = reload(recipe);
+        assertEquals(1006, updated.getCalories(), DELTA);
+        assertEquals(39, updated.getProtein(), DELTA);
+        assertEquals(recipe.getVersion() + 1, updated.getVersion());
+    }
+
+    @Test
+    void recompute_shouldOnlyFillMissingMacrosOnPartialMatch() {
+        RecipeEntity recipe = save(INGREDIENTS + ", 3 dragonfruits", 5, null);
+
+        nutritionService.recompute(recipe.getId());
+
+        RecipeEntity updated = reload(recipe);
+        assertEquals(5, updated.getCalories());
+        assertEquals(39, updated.getProtein(), DELTA);
+    }
+
+    private RecipeEntity save(String ingredients, Integer calories, Integer protein) {
+        return recipeJpaRepository.saveAndFlush(RecipeEntity.builder()
+                .user(john)
+                .title("Carbonara-ish")
+                .ingredients(ingredients)
+                .instructions("cook")
+                .calories(calories)
+                .protein(protein)
+                .build());
+    }
+
+    private RecipeEntity reload(RecipeEntity recipe) {
+        entityManager.clear();
+        return recipeJpaRepository.findById(recipe.getId()).orElseThrow();
+    }
+}
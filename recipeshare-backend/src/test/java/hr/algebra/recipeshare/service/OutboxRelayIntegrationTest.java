@@ -0,0 +1,181 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.ChangeType;
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.OutboxJdbcRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.model.ChangeEvent;
+import hr.algebra.recipeshare.model.RecipeDto;
+import hr.algebra.recipeshare.model.SubscriberStatsDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class OutboxRelayIntegrationTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private ChangeEventBus changeEventBus;
+
+    @Autowired
+    private OutboxJdbcRepository outboxRepository;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    private static final String USERNAME = "john_outbox";
+    private static final String EMAIL = "john_outbox@test.com";
+    private static final String PASSWORD_HASHED = "hashed-password";
+    private static final int CAPACITY = 16;
+
+    private final List<ChangeEventBus.Subscription> subscriptions = new ArrayList<>();
+    private UserEntity john;
+
+    @BeforeEach
+    void setup() {
+        john = userJpaRepository.save(
+                UserEntity.builder()
+                        .username(USERNAME)
+                        .email(EMAIL)
+                        .passwordHash(PASSWORD_HASHED)
+                        .build()
+        );
+    }
+
+    @AfterEach
+    void unsubscribe() {
+        subscriptions.forEach(ChangeEventBus.Subscription::close);
+    }
+
+    @Test
+    void crud_shouldWriteOutboxEventsInTheSameTransaction() {
+        long before = outboxRepository.countPending();
+
+        RecipeDto recipe = create();
+        recipe.setTitle("Renamed");
+        recipeService.update(recipe.getId(), recipe);
+        recipeService.delete(recipe.getId());
+
+        List<ChangeEvent> events = outboxRepository.claimPending(1000, Instant.now()).stream()
+                .filter(event -> event.aggregateType().equals("Recipe") && event.aggregateId() == recipe.getId())
+                .toList();
+        assertEquals(List.of(ChangeType.CREATED, ChangeType.UPDATED, ChangeType.DELETED),
+                events.stream().map(ChangeEvent::type).toList());
+        assertEquals(before + 3, outboxRepository.countPending());
+    }
+
+    @Test
+    void relayBatch_shouldDeliverToEverySubscriberAndMarkPublished() {
+        List<ChangeEvent> first = new CopyOnWriteArrayList<>();
+        List<ChangeEvent> second = new CopyOnWriteArrayList<>();
+        subscriptions.add(changeEventBus.subscribe("test-first", CAPACITY, first::add));
+        subscriptions.add(changeEventBus.subscribe("test-second", CAPACITY, second::add));
+        RecipeDto recipe = create();
+
+        outboxRelay.relay();
+
+        assertEquals(0, outboxRepository.countPending());
+        assertTrue(first.stream().anyMatch(event -> event.aggregateId() == recipe.getId()
+                && event.type() == ChangeType.CREATED));
+        assertEquals(first, second);
+        SubscriberStatsDto stats = outboxRelay.stats().getSubscribers().stream()
+                .filter(s -> s.getName().equals("test-first")).findFirst().orElseThrow();
+        assertEquals(first.size(), stats.getHandled());
+    }
+
+    @Test
+    void relayBatch_shouldLeaveEventsPendingWhenASubscriberFails() {
+        subscriptions.add(changeEventBus.subscribe("test-failing", CAPACITY, _ -> {
+            throw new IllegalStateException("index unavailable");
+        }));
+        create();
+        long pending = outboxRepository.countPending();
+
+        assertEquals(0, outboxRelay.relayBatch());
+        assertEquals(pending, outboxRepository.countPending());
+        assertTrue(outboxRelay.stats().getRedeliveries() > 0);
+    }
+
+    @Test
+    void relay_shouldDeadLetterAPoisonEventAndRelayTheOnesBehindIt() {
+        RecipeDto poison = create();
+        RecipeDto next = create();
+        List<ChangeEvent> handled = new CopyOnWriteArrayList<>();
+        subscriptions.add(changeEventBus.subscribe("test-poison", CAPACITY, event -> {
+            if (event.aggregateId() == poison.getId()) {
+                throw new IllegalStateException("cannot index " + event.aggregateId());
+            }
+            handled.add(event);
+        }));
+
+        // the test profile allows three attempts without backoff
+        for (int round = 0; round < 4; round++) {
+            outboxRelay.relay();
+        }
+
+        assertEquals(0, outboxRepository.countPending());
+        assertEquals(1, outboxRepository.countDeadLetters());
+        assertEquals(1L, outboxRelay.stats().getDeadLetters());
+        assertTrue(handled.stream().anyMatch(event -> event.aggregateId() == next.getId()));
+    }
+
+    @Test
+    void publish_shouldSkipWhatIsStillQueuedOfATimedOutBatch() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<ChangeEvent> handled = new CopyOnWriteArrayList<>();
+        subscriptions.add(changeEventBus.subscribe("test-slow", CAPACITY, event -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            handled.add(event);
+        }));
+        ChangeEvent first = event(1);
+        ChangeEvent second = event(2);
+
+        assertFalse(changeEventBus.publish(List.of(first, second), Duration.ofMillis(50)));
+        release.countDown();
+        assertTrue(changeEventBus.publish(List.of(event(3)), Duration.ofSeconds(5)));
+
+        assertEquals(List.of(1L, 3L), handled.stream().map(ChangeEvent::id).toList());
+        SubscriberStatsDto stats = changeEventBus.stats().stream()
+                .filter(s -> s.getName().equals("test-slow")).findFirst().orElseThrow();
+        assertEquals(1, stats.getSkipped());
+    }
+
+    private static ChangeEvent event(long id) {
+        return new ChangeEvent(id, "Recipe", id, ChangeType.CREATED, Instant.now());
+    }
+
+    private RecipeDto create() {
+        return recipeService.create(RecipeDto.builder()
+                .userId(john.getId())
+                .title("Outbox soup")
+                .ingredients("water")
+                .instructions("boil")
+                .build());
+    }
+}
@@ -0,0 +1,117 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.model.AutocompleteSuggestionDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class RecipeAutocompleteServiceIntegrationTest {
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private RecipeJpaRepository recipeJpaRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @TempDir
+    private Path snapshotDir;
+
+    private static final String USERNAME = "john_autocomplete";
+    private static final String EMAIL = "john_autocomplete@test.com";
+    private static final String PASSWORD_HASHED = "hashed-password";
+    private static final int TOP_K = 5;
+
+    private UserEntity john;
+    private RecipeAutocompleteService autocompleteService;
+
+    @BeforeEach
+    void setup() {
+        john = userJpaRepository.save(
+                UserEntity.builder()
+                        .username(USERNAME)
+                        .email(EMAIL)
+                        .passwordHash(PASSWORD_HASHED)
+                        .build()
+        );
+        autocompleteService = new RecipeAutocompleteService(
+                recipeJpaRepository, shardRouter, snapshotDir.resolve("autocomplete.snapshot").toString(), TOP_K);
+    }
+
+    @Test
+    void complete_shouldRankByLikesAndIgnoreAccents() {
+        RecipeEntity brulee = save("Crème brûlée", 3);
+        RecipeEntity bread = save("Cream bread zzq", 10);
+        save("Creme caramel zzq", 1);
+
+        autocompleteService.rebuild();
+
+        assertEquals(List.of(brulee.getId()), ids(autocompleteService.complete("CREME BRU", 10)));
+        List<Long> creams = ids(autocompleteService.complete("crem", 10));
+        assertTrue(creams.indexOf(bread.getId()) < creams.indexOf(brulee.getId()));
+    }
+
+    @Test
+    void complete_shouldRespectLimitAndIgnoreBlankQuery() {
+        for (int i = 0; i < TOP_K + 3; i++) {
+            save("Zzq soup " + i, i);
+        }
+
+        autocompleteService.rebuild();
+
+        assertEquals(2, autocompleteService.complete("zzq", 2).size());
+        assertEquals(TOP_K, autocompleteService.complete("zzq", 100).size());
+        assertTrue(autocompleteService.complete("  ", 10).isEmpty());
+    }
+
+    @Test
+    void loadSnapshot_shouldServeWithoutDatabaseUntilCaughtUp() {
+        RecipeEntity soup = save("Zzq pumpkin soup", 4);
+        autocompleteService.rebuild();
+        assertTrue(Files.exists(snapshotDir.resolve("autocomplete.snapshot")));
+
+        recipeJpaRepository.delete(soup);
+        RecipeAutocompleteService restarted = new RecipeAutocompleteService(
+                recipeJpaRepository, shardRouter, snapshotDir.resolve("autocomplete.snapshot").toString(), TOP_K);
+        assertTrue(restarted.loadSnapshot());
+
+        assertEquals(List.of(soup.getId()), ids(restarted.complete("zzq pump", 10)));
+
+        restarted.rebuild();
+
+        assertTrue(restarted.complete("zzq pump", 10).isEmpty());
+    }
+
+    private RecipeEntity save(String title, long likes) {
+        return recipeJpaRepository.save(RecipeEntity.builder()
+                .user(john)
+                .title(title)
+                .ingredients("water")
+                .instructions("cook")
+                .likeCount(likes)
+                .build());
+    }
+
+    private static List<Long> ids(List<AutocompleteSuggestionDto> suggestions) {
+        return suggestions.stream().map(AutocompleteSuggestionDto::getRecipeId).toList();
+    }
+}
@@ -0,0 +1,101 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.model.RecipeBodyStatsDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeBodyStoreUnitTest {
+
+    private static final long CAPACITY = 4096;
+    private static final long ID = 7;
+    private static final long VERSION = 3;
+    private static final RecipeBodyStore.Body BODY = new RecipeBodyStore.Body(null,
+            "Whisk the eggs, fold in the crème fraîche. ".repeat(20), "2 eggs\n100 ml crème fraîche");
+
+    private RecipeBodyStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new RecipeBodyStore(CAPACITY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void get_shouldReturnBodyOfStoredVersionOnly() {
+        store.put(ID, VERSION, BODY);
+
+        assertEquals(BODY, store.get(ID, VERSION));
+        assertNull(store.get(ID, VERSION + 1));
+        assertNull(store.get(ID + 1, VERSION));
+    }
+
+    @Test
+    void put_shouldKeepBodyDeflated() {
+        store.put(ID, VERSION, BODY);
+
+        RecipeBodyStatsDto stats = store.stats();
+        assertTrue(stats.getUsedBytes() < stats.getRawBytes() / 4);
+    }
+
+    @Test
+    void writeTo_shouldStreamOneField() throws IOException {
+        store.put(ID, VERSION, BODY);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertTrue(store.writeTo(ID, VERSION, RecipeBodyStore.Field.INGREDIENTS, out));
+        assertEquals(BODY.ingredients(), out.toString(StandardCharsets.UTF_8));
+        assertFalse(store.writeTo(ID, VERSION + 1, RecipeBodyStore.Field.INGREDIENTS, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void put_shouldEvictOldestBodiesWhenSlabIsFull() {
+        Random random = new Random(42);
+        for (long id = 1; id <= 30; id++) {
+            store.put(id, VERSION, new RecipeBodyStore.Body(null, randomText(random, 1000), randomText(random, 100)));
+        }
+
+        assertFalse(store.contains(1));
+        assertTrue(store.contains(30));
+        assertNotNull(store.get(30, VERSION));
+        RecipeBodyStatsDto stats = store.stats();
+        assertTrue(stats.getEvicted() > 0);
+        assertTrue(stats.getUsedBytes() <= CAPACITY);
+    }
+
+    @Test
+    void put_shouldSkipBodyLargerThanSlab() {
+        store.put(ID, VERSION, new RecipeBodyStore.Body(null, randomText(new Random(1), 20_000), ""));
+
+        assertFalse(store.contains(ID));
+        assertEquals(1L, store.stats().getSkipped());
+    }
+
+    @Test
+    void drop_shouldForgetBody() {
+        store.put(ID, VERSION, BODY);
+
+        store.drop(ID);
+
+        assertNull(store.get(ID, VERSION));
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+}
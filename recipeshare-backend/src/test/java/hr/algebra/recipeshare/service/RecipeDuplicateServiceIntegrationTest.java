@@ -0,0 +1,145 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.model.DuplicateGroupDto;
+import hr.algebra.recipeshare.model.RecipeDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class RecipeDuplicateServiceIntegrationTest {
+
+    @Autowired
+    private RecipeDuplicateService duplicateService;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private RecipeJpaRepository recipeJpaRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static final String USERNAME = "john_duplicates";
+    private static final String EMAIL = "john_duplicates@test.com";
+    private static final String PASSWORD_HASHED = "hashed-password";
+    private static final String TITLE = "Creamy garlic chicken pasta";
+    private static final String INGREDIENTS = "400 g penne pasta, 2 chicken breasts, 4 cloves garlic, 200 ml cream, "
+            + "50 g parmesan, 1 tbsp olive oil, salt, black pepper, fresh basil";
+    private static final String INSTRUCTIONS = "Boil the pasta until al dente. Sear the chicken in olive oil until "
+            + "golden, then slice. Fry the garlic, pour in the cream and simmer until thick. Stir in the parmesan, "
+            + "add chicken and pasta, toss and serve with basil.";
+    private static final int BANDS = 16;
+    private static final int ROWS = 8;
+    private static final double THRESHOLD = 0.8;
+
+    private UserEntity john;
+
+    @BeforeEach
+    void setup() {
+        john = userJpaRepository.save(
+                UserEntity.builder()
+                        .username(USERNAME)
+                        .email(EMAIL)
+                        .passwordHash(PASSWORD_HASHED)
+                        .build()
+        );
+    }
+
+    @Test
+    void sweep_shouldGroupNearDuplicates() {
+        RecipeDto original = create(TITLE, INGREDIENTS, INSTRUCTIONS);
+        RecipeDto repost = create(TITLE + "!", INGREDIENTS, INSTRUCTIONS.replace("golden", "golden brown"));
+        RecipeDto other = create("Tomato soup", "1 kg tomatoes, 1 onion, 500 ml stock",
+                "Roast the tomatoes and the onion, blend with the stock and season.");
+
+        duplicateService.sweep();
+
+        DuplicateGroupDto group = duplicateService.getReport().getGroups().stream()
+                .filter(g -> g.getRecipeIds().contains(original.getId()))
+                .findFirst().orElseThrow();
+        assertEquals(List.of(original.getId(), repost.getId()), group.getRecipeIds());
+        assertTrue(group.getSimilarity() >= THRESHOLD);
+        assertEquals(List.of(repost.getId()), duplicateService.duplicatesOf(original.getId()));
+        assertTrue(duplicateService.duplicatesOf(other.getId()).isEmpty());
+    }
+
+    @Test
+    void sweep_shouldSignRecipesWrittenWithoutSignature() {
+        RecipeEntity unsigned = recipeJpaRepository.save(RecipeEntity.builder()
+                .user(john)
+                .title(TITLE)
+                .ingredients(INGREDIENTS)
+                .instructions(INSTRUCTIONS)
+                .build());
+
+        duplicateService.sweep();
+
+        assertNotNull(recipeJpaRepository.findById(unsigned.getId()).orElseThrow().getMinhash());
+    }
+
+    @Test
+    void update_shouldResignChangedText() {
+        RecipeDto recipe = create(TITLE, INGREDIENTS, INSTRUCTIONS);
+        int[] before = recipeJpaRepository.findById(recipe.getId()).orElseThrow().getMinhash();
+
+        recipe.setInstructions("Something else entirely, nothing like the original.");
+        recipeService.update(recipe.getId(), recipe);
+
+        assertFalse(Arrays.equals(before, recipeJpaRepository.findById(recipe.getId()).orElseThrow().getMinhash()));
+    }
+
+    @Test
+    void signForCreate_shouldRejectDuplicateWhenEnabled() {
+        create(TITLE, INGREDIENTS, INSTRUCTIONS);
+        RecipeDuplicateService rejecting = new RecipeDuplicateService(
+                recipeJpaRepository, transactionTemplate, BANDS, ROWS, THRESHOLD, true);
+        rejecting.sweep();
+
+        RecipeEntity copy = RecipeEntity.builder().title(TITLE).ingredients(INGREDIENTS).instructions(INSTRUCTIONS).build();
+
+        assertThrows(IllegalArgumentException.class, () -> rejecting.signForCreate(copy));
+    }
+
+    @Test
+    void signForCreate_shouldNeverMatchRecipesWithoutWords() {
+        RecipeDto stored = create("...", null, "!!");
+        RecipeDuplicateService rejecting = new RecipeDuplicateService(
+                recipeJpaRepository, transactionTemplate, BANDS, ROWS, THRESHOLD, true);
+        rejecting.sweep();
+
+        RecipeEntity empty = RecipeEntity.builder().title("?").instructions("-").build();
+
+        assertEquals(0, rejecting.signForCreate(empty).length);
+        assertEquals(0, recipeJpaRepository.findById(stored.getId()).orElseThrow().getMinhash().length);
+        assertTrue(rejecting.duplicatesOf(stored.getId()).isEmpty());
+    }
+
+    private RecipeDto create(String title, String ingredients, String instructions) {
+        return recipeService.create(RecipeDto.builder()
+                .userId(john.getId())
+                .title(title)
+                .ingredients(ingredients)
+                .instructions(instructions)
+                .build());
+    }
+}
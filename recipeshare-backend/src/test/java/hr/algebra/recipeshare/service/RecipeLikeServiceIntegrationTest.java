@@ -0,0 +1,147 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class RecipeLikeServiceIntegrationTest {
+
+    @Autowired
+    private RecipeLikeService recipeLikeService;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private RecipeJpaRepository recipeJpaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final String USERNAME_JOHN = "john_likes";
+    private static final String EMAIL_JOHN = "john_likes@test.com";
+    private static final String USERNAME_ALICE = "alice_likes";
+    private static final String EMAIL_ALICE = "alice_likes@test.com";
+    private static final String PASSWORD_HASHED = "hashed-password";
+
+    private static final String RECIPE_TITLE = "Pasta";
+    private static final String RECIPE_X = "x";
+
+    private static final String COUNT_LIKES =
+            "SELECT COUNT(*) FROM recipe_likes WHERE recipe_id = ?";
+    private static final String SELECT_LIKE_COUNT =
+            "SELECT like_count FROM recipes WHERE id = ?";
+
+    private UserEntity john;
+    private UserEntity alice;
+    private RecipeEntity recipe;
+
+    @BeforeEach
+    void setup() {
+        john = userJpaRepository.save(
+                UserEntity.builder()
+                        .username(USERNAME_JOHN)
+                        .email(EMAIL_JOHN)
+                        .passwordHash(PASSWORD_HASHED)
+                        .build()
+        );
+        alice = userJpaRepository.save(
+                UserEntity.builder()
+                        .username(USERNAME_ALICE)
+                        .email(EMAIL_ALICE)
+                        .passwordHash(PASSWORD_HASHED)
+                        .build()
+        );
+        recipe = recipeJpaRepository.save(
+                RecipeEntity.builder()
+                        .user(john)
+                        .title(RECIPE_TITLE)
+                        .instructions(RECIPE_X)
+                        .ingredients(RECIPE_X)
+                        .build()
+        );
+    }
+
+    @Test
+    void like_shouldBeIdempotent() {
+        assertTrue(recipeLikeService.like(recipe.getId(), alice.getId()));
+        assertFalse(recipeLikeService.like(recipe.getId(), alice.getId()));
+
+        assertTrue(recipeLikeService.isLiked(recipe.getId(), alice.getId()));
+        assertEquals(1, recipeLikeService.pendingDelta(recipe.getId()));
+    }
+
+    @Test
+    void findById_shouldIncludeUnflushedLikes() {
+        recipeLikeService.like(recipe.getId(), alice.getId());
+        recipeLikeService.like(recipe.getId(), john.getId());
+
+        assertEquals(2L, recipeService.findById(recipe.getId()).orElseThrow().getLikeCount());
+    }
+
+    @Test
+    void flush_shouldWriteLikesAndCount() {
+        recipeLikeService.like(recipe.getId(), alice.getId());
+        recipeLikeService.like(recipe.getId(), john.getId());
+        recipeLikeService.unlike(recipe.getId(), john.getId());
+
+        recipeLikeService.flush();
+
+        assertEquals(0, recipeLikeService.pendingDelta(recipe.getId()));
+        assertEquals(1, jdbcTemplate.queryForObject(COUNT_LIKES, Integer.class, recipe.getId()));
+        assertEquals(1L, jdbcTemplate.queryForObject(SELECT_LIKE_COUNT, Long.class, recipe.getId()));
+    }
+
+    @Test
+    void unlike_shouldRemoveFlushedLike() {
+        recipeLikeService.like(recipe.getId(), alice.getId());
+        recipeLikeService.flush();
+
+        assertTrue(recipeLikeService.unlike(recipe.getId(), alice.getId()));
+        recipeLikeService.flush();
+
+        assertFalse(recipeLikeService.isLiked(recipe.getId(), alice.getId()));
+        assertEquals(0, jdbcTemplate.queryForObject(COUNT_LIKES, Integer.class, recipe.getId()));
+        assertEquals(0L, jdbcTemplate.queryForObject(SELECT_LIKE_COUNT, Long.class, recipe.getId()));
+    }
+
+    @Test
+    void like_shouldNotCountARowAnotherNodeAlreadyWrote() {
+        jdbcTemplate.update("INSERT INTO recipe_likes (recipe_id, user_id) VALUES (?, ?)", recipe.getId(), alice.getId());
+
+        recipeLikeService.like(recipe.getId(), alice.getId());
+        recipeLikeService.flush();
+
+        assertEquals(0, recipeLikeService.pendingDelta(recipe.getId()));
+        assertEquals(1, jdbcTemplate.queryForObject(COUNT_LIKES, Integer.class, recipe.getId()));
+        assertEquals(0L, jdbcTemplate.queryForObject(SELECT_LIKE_COUNT, Long.class, recipe.getId()));
+    }
+
+    @Test
+    void unlike_shouldDeleteARowThisNodeNeverSaw() {
+        jdbcTemplate.update("INSERT INTO recipe_likes (recipe_id, user_id) VALUES (?, ?)", recipe.getId(), alice.getId());
+        jdbcTemplate.update("UPDATE recipes SET like_count = 1 WHERE id = ?", recipe.getId());
+
+        assertFalse(recipeLikeService.unlike(recipe.getId(), alice.getId()));
+        recipeLikeService.flush();
+
+        assertEquals(0, jdbcTemplate.queryForObject(COUNT_LIKES, Integer.class, recipe.getId()));
+        assertEquals(0L, jdbcTemplate.queryForObject(SELECT_LIKE_COUNT, Long.class, recipe.getId()));
+    }
+}
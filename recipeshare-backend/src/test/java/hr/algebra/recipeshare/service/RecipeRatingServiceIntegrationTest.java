@@ -0,0 +1,136 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.model.CookTimeBucket;
+import hr.algebra.recipeshare.model.LeaderboardEntryDto;
+import hr.algebra.recipeshare.model.RecipeRatingStatsDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class RecipeRatingServiceIntegrationTest {
+
+    @Autowired
+    private RecipeRatingService recipeRatingService;
+
+    @Autowired
+    private RatingLeaderboardService leaderboardService;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private RecipeJpaRepository recipeJpaRepository;
+
+    private static final String USERNAME_JOHN = "john_ratings";
+    private static final String EMAIL_JOHN = "john_ratings@test.com";
+    private static final String USERNAME_ALICE = "alice_ratings";
+    private static final String EMAIL_ALICE = "alice_ratings@test.com";
+    private static final String PASSWORD_HASHED = "hashed-password";
+
+    private static final String RECIPE_X = "x";
+    private static final int QUICK_COOK_TIME = 10;
+    private static final int LONG_COOK_TIME = 120;
+    private static final int LIMIT = 100;
+
+    private UserEntity john;
+    private UserEntity alice;
+    private RecipeEntity quickRecipe;
+    private RecipeEntity longRecipe;
+
+    @BeforeEach
+    void setup() {
+        john = saveUser(USERNAME_JOHN, EMAIL_JOHN);
+        alice = saveUser(USERNAME_ALICE, EMAIL_ALICE);
+        quickRecipe = saveRecipe(QUICK_COOK_TIME);
+        longRecipe = saveRecipe(LONG_COOK_TIME);
+    }
+
+    @Test
+    void rate_shouldMaintainAggregates() {
+        recipeRatingService.rate(quickRecipe.getId(), john.getId(), 4);
+        RecipeRatingStatsDto stats = recipeRatingService.rate(quickRecipe.getId(), alice.getId(), 2);
+
+        assertEquals(2L, stats.getCount());
+        assertEquals(3.0, stats.getAverage());
+        assertArrayEquals(new long[]{0, 1, 0, 1, 0}, stats.getHistogram());
+    }
+
+    @Test
+    void rate_shouldReplacePreviousRating() {
+        recipeRatingService.rate(quickRecipe.getId(), john.getId(), 1);
+        RecipeRatingStatsDto stats = recipeRatingService.rate(quickRecipe.getId(), john.getId(), 5);
+
+        assertEquals(1L, stats.getCount());
+        assertEquals(5.0, stats.getAverage());
+        assertArrayEquals(new long[]{0, 0, 0, 0, 1}, stats.getHistogram());
+        assertEquals(stats, recipeRatingService.getStats(quickRecipe.getId()).orElseThrow());
+    }
+
+    @Test
+    void rate_shouldRejectOutOfRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> recipeRatingService.rate(quickRecipe.getId(), john.getId(), 6));
+    }
+
+    @Test
+    void rebuild_shouldRankOverallAndPerBucket() {
+        recipeRatingService.rate(quickRecipe.getId(), john.getId(), 3);
+        recipeRatingService.rate(longRecipe.getId(), john.getId(), 5);
+
+        leaderboardService.rebuild();
+
+        List<Long> overall = ids(leaderboardService.top(null, LIMIT));
+        assertTrue(overall.indexOf(longRecipe.getId()) < overall.indexOf(quickRecipe.getId()));
+        assertTrue(ids(leaderboardService.top(CookTimeBucket.QUICK, LIMIT)).contains(quickRecipe.getId()));
+        assertFalse(ids(leaderboardService.top(CookTimeBucket.QUICK, LIMIT)).contains(longRecipe.getId()));
+        assertTrue(ids(leaderboardService.top(CookTimeBucket.LONG, LIMIT)).contains(longRecipe.getId()));
+    }
+
+    @Test
+    void top_shouldReturnNothingForNegativeLimit() {
+        recipeRatingService.rate(quickRecipe.getId(), john.getId(), 4);
+        leaderboardService.rebuild();
+
+        assertTrue(leaderboardService.top(null, -1).isEmpty());
+    }
+
+    private static List<Long> ids(List<LeaderboardEntryDto> entries) {
+        return entries.stream().map(LeaderboardEntryDto::getRecipeId).toList();
+    }
+
+    private UserEntity saveUser(String username, String email) {
+        return userJpaRepository.save(
+                UserEntity.builder()
+                        .username(username)
+                        .email(email)
+                        .passwordHash(PASSWORD_HASHED)
+                        .build()
+        );
+    }
+
+    private RecipeEntity saveRecipe(int cookTimeMinutes) {
+        return recipeJpaRepository.save(
+                RecipeEntity.builder()
+                        .user(john)
+                        .title(RECIPE_X)
+                        .instructions(RECIPE_X)
+                        .ingredients(RECIPE_X)
+                        .cookTimeMinutes(cookTimeMinutes)
+                        .build()
+        );
+    }
+}
@@ -0,0 +1,126 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.RecipeLikeJdbcRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.model.SimilarRecipeDto;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class RecipeRecommendationServiceIntegrationTest {
+
+    @Autowired
+    private RecipeRecommendationService recommendationService;
+
+    @Autowired
+    private RecipeRatingService recipeRatingService;
+
+    @Autowired
+    private RecipeLikeJdbcRepository recipeLikeJdbcRepository;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private RecipeJpaRepository recipeJpaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private static final String PASSWORD_HASHED = "hashed-password";
+    private static final String RECIPE_X = "x";
+    private static final int LIMIT = 10;
+    private static final int WORST_RATING = 1;
+    private static final double DELTA = 1e-6;
+
+    private RecipeEntity pasta;
+    private RecipeEntity pizza;
+    private RecipeEntity soup;
+    private RecipeEntity stew;
+
+    @BeforeEach
+    void setup() {
+        UserEntity anna = saveUser("anna_recommend");
+        UserEntity ben = saveUser("ben_recommend");
+        UserEntity cleo = saveUser("cleo_recommend");
+        UserEntity dora = saveUser("dora_recommend");
+        pasta = saveRecipe(anna);
+        pizza = saveRecipe(ben);
+        soup = saveRecipe(cleo);
+        stew = saveRecipe(cleo);
+        // anna and ben like each other's recipes, dora likes pasta and soup, anna dislikes soup
+        recipeLikeJdbcRepository.insertLike(pizza.getId(), anna.getId());
+        recipeLikeJdbcRepository.insertLike(pasta.getId(), ben.getId());
+        recipeLikeJdbcRepository.insertLike(pasta.getId(), dora.getId());
+        recipeLikeJdbcRepository.insertLike(soup.getId(), dora.getId());
+        recipeRatingService.rate(soup.getId(), anna.getId(), WORST_RATING);
+        entityManager.flush();
+        recommendationService.rebuild();
+    }
+
+    @Test
+    void similar_shouldRankRecipesSharingUsers() {
+        List<SimilarRecipeDto> similar = recommendationService.similar(pizza.getId(), LIMIT);
+
+        assertEquals(pasta.getId(), similar.getFirst().getRecipeId());
+    }
+
+    @Test
+    void similar_shouldDropPairsCancelledByDislikes() {
+        List<SimilarRecipeDto> similar = recommendationService.similar(soup.getId(), LIMIT);
+
+        // soup and pasta share dora's like and anna's dislike, which cancel out
+        assertEquals(List.of(stew.getId()), similar.stream().map(SimilarRecipeDto::getRecipeId).toList());
+        assertEquals(1 / Math.sqrt(3), similar.getFirst().getScore(), DELTA);
+    }
+
+    @Test
+    void load_shouldRestoreLastRun() {
+        List<SimilarRecipeDto> before = recommendationService.similar(pasta.getId(), LIMIT);
+
+        recommendationService.load();
+
+        assertFalse(before.isEmpty());
+        assertEquals(before, recommendationService.similar(pasta.getId(), LIMIT));
+    }
+
+    @Test
+    void similar_shouldBeEmptyForUnknownRecipe() {
+        assertTrue(recommendationService.similar(-1L, LIMIT).isEmpty());
+    }
+
+    private UserEntity saveUser(String username) {
+        return userJpaRepository.save(
+                UserEntity.builder()
+                        .username(username)
+                        .email(username + "@test.com")
+                        .passwordHash(PASSWORD_HASHED)
+                        .build()
+        );
+    }
+
+    private RecipeEntity saveRecipe(UserEntity author) {
+        return recipeJpaRepository.save(
+                RecipeEntity.builder()
+                        .user(author)
+                        .title(RECIPE_X)
+                        .instructions(RECIPE_X)
+                        .ingredients(RECIPE_X)
+                        .build()
+        );
+    }
+}
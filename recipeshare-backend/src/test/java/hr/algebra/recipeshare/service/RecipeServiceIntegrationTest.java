@@ -1,5 +1,6 @@
 package hr.algebra.recipeshare.service;
 
+import hr.algebra.common.Versioned;
 import hr.algebra.recipeshare.dao.RecipeEntity;
 import hr.algebra.recipeshare.dao.UserEntity;
 import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
@@ -9,8 +10,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.util.List;
 
@@ -30,6 +33,9 @@ class RecipeServiceIntegrationTest {
     @Autowired
     private RecipeJpaRepository recipeJpaRepository;
 
+    @Autowired
+    private JsonMapper jsonMapper;
+
     private static final String USERNAME_JOHN = "john_doe";
     private static final String EMAIL_JOHN = "john@test.com";
     private static final String PASSWORD_HASHED = "hashed-password";
@@ -148,6 +154,51 @@ class RecipeServiceIntegrationTest {
         assertEquals(NEW_INSTRUCTIONS, persisted.getInstructions());
     }
 
+    @Test
+    void patch_shouldApplyOnlySuppliedFieldsAndBumpVersion() {
+        RecipeEntity entity = recipeJpaRepository.saveAndFlush(
+                RecipeEntity.builder()
+                        .user(user)
+                        .title(OLD_TITLE)
+                        .description(RECIPE1_DESC)
+                        .instructions(OLD_INSTRUCTIONS)
+                        .ingredients(OLD_INGREDIENTS)
+                        .build()
+        );
+        Long version = entity.getVersion();
+
+        RecipeDto patched = recipeService.patch(entity.getId(),
+                jsonMapper.readTree("{\"cookTimeMinutes\": 25, \"description\": null}"), version);
+
+        assertEquals(25, patched.getCookTimeMinutes());
+        assertNull(patched.getDescription());
+        assertEquals(OLD_TITLE, patched.getTitle());
+        assertEquals(OLD_INSTRUCTIONS, patched.getInstructions());
+        assertEquals(version + 1, patched.getVersion());
+    }
+
+    @Test
+    void patch_shouldRejectStaleVersionAndUnpatchableFields() {
+        RecipeEntity entity = recipeJpaRepository.saveAndFlush(
+                RecipeEntity.builder()
+                        .user(user)
+                        .title(OLD_TITLE)
+                        .instructions(OLD_INSTRUCTIONS)
+                        .ingredients(OLD_INGREDIENTS)
+                        .build()
+        );
+        Long version = entity.getVersion();
+        recipeService.patch(entity.getId(), jsonMapper.readTree("{\"title\": \"" + NEW_TITLE + "\"}"), version);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> recipeService.patch(entity.getId(),
+                jsonMapper.readTree("{\"title\": \"" + RECIPE_X + "\"}"), version));
+        assertThrows(OptimisticLockingFailureException.class, () -> recipeService.patch(entity.getId(),
+                jsonMapper.readTree("{\"title\": \"" + RECIPE_X + "\"}"), Versioned.fromETag("\"abc\"")));
+        assertThrows(IllegalArgumentException.class, () -> recipeService.patch(entity.getId(),
+                jsonMapper.readTree("{\"likeCount\": 1000}"), null));
+        assertEquals(NEW_TITLE, recipeJpaRepository.findById(entity.getId()).orElseThrow().getTitle());
+    }
+
     @Test
     void delete_shouldSoftDeleteRecipe() {
         RecipeEntity entity = recipeJpaRepository.save(
@@ -0,0 +1,123 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.model.RecipeDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseBodyCacheUnitTest {
+
+    private static final long MAX_BYTES = 4096;
+    private static final String RECIPE = "Recipe";
+    private static final long ID = 7;
+    private static final long VERSION = 3;
+    private static final String VALIDATOR = "3:10";
+    private static final String INSTRUCTIONS = "Stir slowly until thick. ".repeat(40);
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ResponseBodyCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ResponseBodyCache(jsonMapper, MAX_BYTES);
+    }
+
+    @Test
+    void encoded_shouldSkipLoadWhileValidatorMatches() {
+        ResponseBodyCache.Encoded first = cache.encoded(RECIPE, ID, VALIDATOR, true, () -> load(ID)).orElseThrow();
+        ResponseBodyCache.Encoded second = cache.encoded(RECIPE, ID, VALIDATOR, true, () -> load(ID)).orElseThrow();
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals("W/\"" + VALIDATOR + "\"", first.eTag());
+        assertEquals(ID, jsonMapper.readValue(first.json(), RecipeDto.class).getId());
+    }
+
+    @Test
+    void encoded_shouldReloadWhenValidatorChangesOrRowIsDropped() {
+        cache.encoded(RECIPE, ID, VALIDATOR, true, () -> load(ID));
+        cache.encoded(RECIPE, ID, "4:10", true, () -> load(ID));
+        cache.drop(RECIPE, ID);
+        cache.encoded(RECIPE, ID, "4:10", true, () -> load(ID));
+
+        assertEquals(3, loads.get());
+        assertEquals(1L, cache.stats().getInvalidated());
+    }
+
+    @Test
+    void encoded_shouldBeEmptyWhenNothingToLoad() {
+        assertTrue(cache.encoded(RECIPE, ID, VALIDATOR, true, Optional::empty).isEmpty());
+        assertEquals(0L, cache.stats().getEntries());
+    }
+
+    @Test
+    void encoded_shouldEvictLeastRecentlyReadBeyondMaxBytes() {
+        for (long id = 1; id <= 20; id++) {
+            long current = id;
+            cache.encoded(RECIPE, id, VALIDATOR, true, () -> load(current));
+            cache.encoded(RECIPE, 1, VALIDATOR, true, () -> load(1));
+        }
+
+        assertTrue(cache.stats().getBytes() <= MAX_BYTES);
+        assertTrue(cache.stats().getEvicted() > 0);
+        int before = loads.get();
+        cache.encoded(RECIPE, 1, VALIDATOR, true, () -> load(1));
+        cache.encoded(RECIPE, 2, VALIDATOR, true, () -> load(2));
+        assertEquals(before + 1, loads.get());
+    }
+
+    @Test
+    void respond_shouldServeGzipOnlyWhenAccepted() throws IOException {
+        ResponseBodyCache.Encoded encoded = cache.encoded(RECIPE, ID, VALIDATOR, true, () -> load(ID)).orElseThrow();
+        assertNotNull(encoded.gzip());
+
+        ResponseEntity<byte[]> plain = ResponseBodyCache.respond(encoded, null);
+        ResponseEntity<byte[]> gzipped = ResponseBodyCache.respond(encoded, "gzip, deflate");
+
+        assertArrayEquals(encoded.json(), plain.getBody());
+        assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(encoded.gzip().length, gzipped.getHeaders().getContentLength());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getBody()))) {
+            assertArrayEquals(encoded.json(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void respond_shouldHonourGzipQuality() {
+        ResponseBodyCache.Encoded encoded = cache.encoded(RECIPE, ID, VALIDATOR, true, () -> load(ID)).orElseThrow();
+
+        assertNull(ResponseBodyCache.respond(encoded, "gzip;q=0, identity").getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNull(ResponseBodyCache.respond(encoded, "gzip;q=0.5, identity").getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", ResponseBodyCache.respond(encoded, "*").getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", ResponseBodyCache.respond(encoded, "deflate, GZIP;q=1.0").getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void acceptsJson_shouldFollowQualityAndSpecificity() {
+        assertTrue(ResponseBodyCache.acceptsJson(null));
+        assertTrue(ResponseBodyCache.acceptsJson("application/json"));
+        assertTrue(ResponseBodyCache.acceptsJson("*/*"));
+        assertFalse(ResponseBodyCache.acceptsJson("application/cbor"));
+        assertFalse(ResponseBodyCache.acceptsJson("application/json;q=0.5, application/cbor"));
+        assertTrue(ResponseBodyCache.acceptsJson("application/cbor;q=0.5, application/json"));
+        assertFalse(ResponseBodyCache.acceptsJson("application/json;q=0, */*"));
+    }
+
+    private Optional<RecipeDto> load(long id) {
+        loads.incrementAndGet();
+        return Optional.of(RecipeDto.builder().id(id).title("Risotto").instructions(INSTRUCTIONS).version(VERSION).build());
+    }
+}
@@ -0,0 +1,220 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.common.ShardedIds;
+import hr.algebra.recipeshare.configuration.ShardDataSources;
+import hr.algebra.recipeshare.model.CommentDto;
+import hr.algebra.recipeshare.model.LoginRequest;
+import hr.algebra.recipeshare.model.RecipeDto;
+import hr.algebra.recipeshare.model.ShardStatsDto;
+import hr.algebra.recipeshare.model.UserDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// three in-memory H2 databases, the ring starts with two of them; not @Transactional, every call has to
+// open its own connection on the right shard
+@SpringBootTest(properties = {
+        "sharding.enabled=true",
+        "sharding.home=home",
+        "sharding.ring=home,shard1",
+        "spring.datasource.url=jdbc:h2:mem:shard_home;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "sharding.datasources.shard1.url=jdbc:h2:mem:shard_one;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "sharding.datasources.shard1.username=sa",
+        "sharding.datasources.shard2.url=jdbc:h2:mem:shard_two;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "sharding.datasources.shard2.username=sa"
+})
+@ActiveProfiles("test")
+@Import(ShardingIntegrationTest.ShardSchemas.class)
+class ShardingIntegrationTest {
+
+    private static final String PASSWORD = "secret-password";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @Autowired
+    private RecipeLikeService recipeLikeService;
+
+    @Autowired
+    private RecipeRatingService recipeRatingService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private ShardDataSources shardDataSources;
+
+    // hibernate only creates the schema on the home shard, the others get a copy before anything runs
+    @TestConfiguration
+    static class ShardSchemas {
+
+        @EventListener(ContextRefreshedEvent.class)
+        public void copySchema(ContextRefreshedEvent event) {
+            ShardDataSources shards = event.getApplicationContext().getBean(ShardDataSources.class);
+            List<String> script = new JdbcTemplate(shards.get(shards.home())).queryForList("SCRIPT NODATA", String.class);
+            for (String shard : shards.names()) {
+                if (shard.equals(shards.home())) {
+                    continue;
+                }
+                JdbcTemplate jdbc = new JdbcTemplate(shards.get(shard));
+                jdbc.execute("DROP ALL OBJECTS");
+                script.stream()
+                        .filter(statement -> !statement.startsWith("--") && !statement.startsWith("CREATE USER"))
+                        .forEach(jdbc::execute);
+            }
+        }
+    }
+
+    @Test
+    void create_shouldKeepEveryUserWithTheirRecipesOnOneShard() {
+        Map<String, Integer> perShard = new HashMap<>();
+        for (UserDto user : createUsers("route", 20)) {
+            RecipeDto recipe = recipe(user);
+            String shard = shardOf("users", user.getId());
+            perShard.merge(shard, 1, Integer::sum);
+
+            assertEquals(ShardedIds.slotOf(user.getId()), ShardedIds.slotOf(recipe.getId()));
+            assertEquals(shard, shardOf("recipes", recipe.getId()));
+            assertEquals(user.getUsername(), userService.findById(user.getId()).orElseThrow().getUsername());
+            assertEquals(recipe.getTitle(), recipeService.findById(recipe.getId()).orElseThrow().getTitle());
+            assertEquals(1, recipeService.getAllByUserId(user.getId()).size());
+        }
+        assertTrue(perShard.size() > 1, "all users landed on " + perShard.keySet());
+    }
+
+    @Test
+    void login_shouldFindUsersOnEveryShard() {
+        for (UserDto user : createUsers("login", 6)) {
+            assertEquals(user.getId(), userService.login(new LoginRequest(user.getEmail(), PASSWORD)).getUserId());
+        }
+    }
+
+    @Test
+    void create_shouldRejectNamesTakenOnAnotherShard() {
+        List<UserDto> users = createUsers("unique", 8);
+        for (UserDto user : users) {
+            // a new user lands on a random slot, most of these go to a shard other than the taken name's
+            assertThrows(DataIntegrityViolationException.class, () -> userService.create(UserDto.builder()
+                    .username(user.getUsername())
+                    .email("other_" + user.getEmail())
+                    .passwordHash(PASSWORD)
+                    .build()));
+            assertThrows(DataIntegrityViolationException.class, () -> userService.create(UserDto.builder()
+                    .username("other_" + user.getUsername())
+                    .email(user.getEmail())
+                    .passwordHash(PASSWORD)
+                    .build()));
+        }
+        // the failed creates released what they had claimed
+        UserDto freed = userService.create(UserDto.builder()
+                .username("other_" + users.getFirst().getUsername())
+                .email("other_" + users.getFirst().getEmail())
+                .passwordHash(PASSWORD)
+                .build());
+        assertEquals(freed.getId(), userService.login(new LoginRequest(freed.getEmail(), PASSWORD)).getUserId());
+    }
+
+    @Test
+    void flush_shouldCountLikesOnTheShardOfTheirRecipe() {
+        List<UserDto> users = createUsers("likes", 6);
+        List<RecipeDto> recipes = users.stream().map(this::recipe).toList();
+        recipes.forEach(recipe -> recipeLikeService.like(recipe.getId(), users.getFirst().getId()));
+
+        recipeLikeService.flush();
+
+        for (RecipeDto recipe : recipes) {
+            Long likeCount = new JdbcTemplate(shardDataSources.get(shardOf("recipes", recipe.getId())))
+                    .queryForObject("SELECT like_count FROM recipes WHERE id = ?", Long.class, recipe.getId());
+            assertEquals(1L, likeCount);
+            assertEquals(0, recipeLikeService.pendingDelta(recipe.getId()));
+        }
+    }
+
+    @Test
+    void rateAndComment_shouldFindRecipesAndUsersOnEveryShard() {
+        List<UserDto> users = createUsers("home", 6);
+        for (RecipeDto recipe : users.stream().map(this::recipe).toList()) {
+            long rated = 0;
+            for (UserDto user : users) {
+                assertEquals(++rated, recipeRatingService.rate(recipe.getId(), user.getId(), 4).getCount());
+                CommentDto comment = commentService.create(CommentDto.builder()
+                        .recipeId(recipe.getId())
+                        .userId(user.getId())
+                        .body("tasty")
+                        .build());
+                assertEquals(user.getUsername(), commentService.findById(comment.getId()).orElseThrow().getAuthorUsername());
+            }
+        }
+    }
+
+    @Test
+    void rebalance_shouldMoveSlotsToTheNewShardWithoutLosingRows() {
+        List<UserDto> users = createUsers("move", 30);
+        users.forEach(this::recipe);
+
+        ShardStatsDto stats = shardRebalancer.rebalance(List.of("home", "shard1", "shard2"));
+
+        assertTrue(stats.getMoved() > 0);
+        assertEquals(0L, stats.getMisplaced());
+        assertTrue(stats.getSlots().get("shard2") > 0);
+        int onNewShard = 0;
+        for (UserDto user : users) {
+            String shard = shardOf("users", user.getId());
+            assertEquals(shard, shardOf("recipes", recipeService.getAllByUserId(user.getId()).getFirst().getId()));
+            assertEquals(user.getEmail(), userService.findById(user.getId()).orElseThrow().getEmail());
+            onNewShard += shard.equals("shard2") ? 1 : 0;
+        }
+        assertTrue(onNewShard > 0);
+    }
+
+    private List<UserDto> createUsers(String prefix, int count) {
+        List<UserDto> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(userService.create(UserDto.builder()
+                    .username(prefix + "_sharded_" + i)
+                    .email(prefix + "_sharded_" + i + "@test.com")
+                    .passwordHash(PASSWORD)
+                    .build()));
+        }
+        return users;
+    }
+
+    private RecipeDto recipe(UserDto user) {
+        return recipeService.create(RecipeDto.builder()
+                .userId(user.getId())
+                .title("Soup of " + user.getUsername())
+                .ingredients("1 l water")
+                .instructions("boil")
+                .build());
+    }
+
+    // the one shard that holds the row, fails when it is missing or left behind somewhere
+    private String shardOf(String table, Long id) {
+        List<String> holders = shardDataSources.names().stream()
+                .filter(shard -> new JdbcTemplate(shardDataSources.get(shard))
+                        .queryForObject("SELECT COUNT(*) FROM " + table + " WHERE id = ?", Long.class, id) > 0)
+                .toList();
+        assertEquals(1, holders.size(), table + " " + id + " is on " + holders);
+        return holders.getFirst();
+    }
+}
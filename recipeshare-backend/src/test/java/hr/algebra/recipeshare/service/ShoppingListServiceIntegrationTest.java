@@ -0,0 +1,127 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.model.MealPlanDto;
+import hr.algebra.recipeshare.model.MealPlanItemDto;
+import hr.algebra.recipeshare.model.MealSlot;
+import hr.algebra.recipeshare.model.ShoppingListDto;
+import hr.algebra.recipeshare.model.ShoppingListItemDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ShoppingListServiceIntegrationTest {
+
+    @Autowired
+    private ShoppingListService shoppingListService;
+
+    @Autowired
+    private MealPlanService mealPlanService;
+
+    @Autowired
+    private MealPlanItemService mealPlanItemService;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private RecipeJpaRepository recipeJpaRepository;
+
+    private static final String USERNAME = "john_shopping";
+    private static final String EMAIL = "john_shopping@test.com";
+    private static final String PASSWORD_HASHED = "hashed-password";
+    private static final String RECIPE_X = "x";
+    private static final String PLAN_NAME = "Week";
+    private static final int DAYS = 7;
+
+    private UserEntity john;
+    private MealPlanDto plan;
+
+    @BeforeEach
+    void setup() {
+        john = userJpaRepository.save(
+                UserEntity.builder()
+                        .username(USERNAME)
+                        .email(EMAIL)
+                        .passwordHash(PASSWORD_HASHED)
+                        .build()
+        );
+        plan = mealPlanService.create(MealPlanDto.builder()
+                .userId(john.getId())
+                .name(PLAN_NAME)
+                .days(DAYS)
+                .build());
+    }
+
+    @Test
+    void build_shouldMergeQuantitiesAcrossRecipesAndUnits() {
+        RecipeEntity pasta = saveRecipe("600 g pasta, 200 ml cream, 2 cloves garlic, salt");
+        RecipeEntity soup = saveRecipe("0.5 kg pasta\n1 l stock\n1 clove garlic\nsalt to taste");
+        addItem(pasta, 0, 1.0);
+        addItem(pasta, 1, 0.5);
+        addItem(soup, 2, 1.0);
+
+        List<ShoppingListItemDto> items = shoppingListService.build(plan.getId()).getItems();
+
+        assertEquals(List.of("cream", "garlic", "pasta", "salt", "stock"),
+                items.stream().map(ShoppingListItemDto::getName).toList());
+        assertItem(items.get(0), 300.0, "ml", 1);
+        assertItem(items.get(1), 4.0, "clove", 2);
+        assertItem(items.get(2), 1.4, "kg", 2);
+        assertItem(items.get(3), null, null, 2);
+        assertItem(items.get(4), 1.0, "l", 1);
+    }
+
+    @Test
+    void build_shouldReturnEmptyListForEmptyPlan() {
+        ShoppingListDto list = shoppingListService.build(plan.getId());
+
+        assertEquals(plan.getId(), list.getMealPlanId());
+        assertTrue(list.getItems().isEmpty());
+    }
+
+    @Test
+    void build_shouldFailForMissingPlan() {
+        assertThrows(RuntimeException.class, () -> shoppingListService.build(-1L));
+    }
+
+    private static void assertItem(ShoppingListItemDto item, Double quantity, String unit, int recipes) {
+        assertEquals(quantity, item.getQuantity());
+        assertEquals(unit, item.getUnit());
+        assertEquals(recipes, item.getRecipes());
+    }
+
+    private void addItem(RecipeEntity recipe, int day, double servings) {
+        mealPlanItemService.addItem(plan.getId(), MealPlanItemDto.builder()
+                .recipeId(recipe.getId())
+                .dayIndex(day)
+                .mealSlot(MealSlot.DINNER)
+                .servings(servings)
+                .build());
+    }
+
+    private RecipeEntity saveRecipe(String ingredients) {
+        return recipeJpaRepository.save(
+                RecipeEntity.builder()
+                        .user(john)
+                        .title(RECIPE_X)
+                        .instructions(RECIPE_X)
+                        .ingredients(ingredients)
+                        .calories(500)
+                        .build()
+        );
+    }
+}
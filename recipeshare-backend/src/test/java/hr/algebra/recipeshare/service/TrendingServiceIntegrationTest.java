@@ -0,0 +1,113 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.RecipeEntity;
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.repository.RecipeJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.model.TrendingPageDto;
+import hr.algebra.recipeshare.model.TrendingRecipeDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class TrendingServiceIntegrationTest {
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private RecipeJpaRepository recipeJpaRepository;
+
+    private static final String USERNAME = "john_trending";
+    private static final String EMAIL = "john_trending@test.com";
+    private static final String PASSWORD_HASHED = "hashed-password";
+    private static final String HOT_TITLE = "Trending Pasta";
+    private static final String WARM_TITLE = "Trending Soup";
+    private static final String RECIPE_X = "x";
+    private static final long MISSING_RECIPE = 920_001L;
+    private static final int HOT_VIEWS = 10_000;
+    private static final int WARM_VIEWS = 5_000;
+
+    private RecipeEntity hot;
+    private RecipeEntity warm;
+
+    @BeforeEach
+    void setup() {
+        UserEntity john = userJpaRepository.save(
+                UserEntity.builder()
+                        .username(USERNAME)
+                        .email(EMAIL)
+                        .passwordHash(PASSWORD_HASHED)
+                        .build()
+        );
+        hot = recipeJpaRepository.save(recipe(john, HOT_TITLE));
+        warm = recipeJpaRepository.save(recipe(john, WARM_TITLE));
+    }
+
+    @Test
+    void page_shouldRankByWeightedActivity() {
+        for (int i = 0; i < HOT_VIEWS; i++) {
+            trendingService.onViewed(hot.getId());
+        }
+        for (int i = 0; i < WARM_VIEWS; i++) {
+            trendingService.onViewed(warm.getId());
+        }
+        trendingService.onViewed(MISSING_RECIPE);
+
+        trendingService.tick();
+        TrendingPageDto page = trendingService.page(null, 2);
+
+        assertEquals(hot.getId(), page.getRecipes().get(0).getId());
+        assertEquals(HOT_TITLE, page.getRecipes().get(0).getTitle());
+        assertEquals(warm.getId(), page.getRecipes().get(1).getId());
+        assertTrue(trendingService.page(null, 100).getRecipes().stream()
+                .map(TrendingRecipeDto::getId)
+                .noneMatch(id -> id == MISSING_RECIPE));
+    }
+
+    @Test
+    void page_shouldContinueFromCursorAcrossTicks() {
+        for (int i = 0; i < HOT_VIEWS; i++) {
+            trendingService.onViewed(hot.getId());
+        }
+        for (int i = 0; i < WARM_VIEWS; i++) {
+            trendingService.onViewed(warm.getId());
+        }
+        trendingService.tick();
+
+        TrendingPageDto first = trendingService.page(null, 1);
+        for (int i = 0; i < 2 * HOT_VIEWS; i++) {
+            trendingService.onViewed(warm.getId());
+        }
+        trendingService.tick();
+        TrendingPageDto second = trendingService.page(first.getNextCursor(), 1);
+
+        assertEquals(hot.getId(), first.getRecipes().getFirst().getId());
+        assertEquals(warm.getId(), second.getRecipes().getFirst().getId());
+    }
+
+    @Test
+    void page_shouldRejectInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> trendingService.page("not-a-cursor", 1));
+    }
+
+    private static RecipeEntity recipe(UserEntity user, String title) {
+        return RecipeEntity.builder()
+                .user(user)
+                .title(title)
+                .instructions(RECIPE_X)
+                .ingredients(RECIPE_X)
+                .build();
+    }
+}
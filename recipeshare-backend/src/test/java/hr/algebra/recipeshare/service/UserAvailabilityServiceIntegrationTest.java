@@ -0,0 +1,75 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.model.AvailabilityDto;
+import hr.algebra.recipeshare.model.UserDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class UserAvailabilityServiceIntegrationTest {
+
+    @Autowired
+    private UserAvailabilityService userAvailabilityService;
+
+    @Autowired
+    private UserService userService;
+
+    private static final String USERNAME = "john_available";
+    private static final String EMAIL = "john_available@test.com";
+    private static final String PASSWORD = "password123";
+    private static final String FREE_USERNAME = "nobody_available";
+    private static final String FREE_EMAIL = "nobody_available@test.com";
+
+    @Test
+    void check_shouldReportCreatedNamesTaken() {
+        createUser();
+
+        AvailabilityDto availability = userAvailabilityService.check(" John_Available ", EMAIL.toUpperCase());
+
+        assertFalse(availability.getUsername());
+        assertFalse(availability.getEmail());
+    }
+
+    @Test
+    void check_shouldReportUnknownNamesFree() {
+        createUser();
+
+        AvailabilityDto availability = userAvailabilityService.check(FREE_USERNAME, FREE_EMAIL);
+
+        assertTrue(availability.getUsername());
+        assertTrue(availability.getEmail());
+    }
+
+    @Test
+    void check_shouldOnlyAnswerWhatWasAsked() {
+        AvailabilityDto availability = userAvailabilityService.check(FREE_USERNAME, null);
+
+        assertTrue(availability.getUsername());
+        assertNull(availability.getEmail());
+    }
+
+    @Test
+    void rebuild_shouldKeepStoredNames() {
+        createUser();
+
+        userAvailabilityService.rebuild();
+
+        assertTrue(userAvailabilityService.stats().getReady());
+        assertFalse(userAvailabilityService.check(USERNAME, EMAIL).getUsername());
+    }
+
+    private void createUser() {
+        userService.create(UserDto.builder()
+                .username(USERNAME)
+                .email(EMAIL)
+                .passwordHash(PASSWORD)
+                .build());
+    }
+}
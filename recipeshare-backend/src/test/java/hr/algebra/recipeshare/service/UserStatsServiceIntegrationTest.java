@@ -0,0 +1,141 @@
+package hr.algebra.recipeshare.service;
+
+import hr.algebra.recipeshare.dao.UserEntity;
+import hr.algebra.recipeshare.dao.UserStatsEntity;
+import hr.algebra.recipeshare.dao.repository.UserJpaRepository;
+import hr.algebra.recipeshare.dao.repository.UserStatsJpaRepository;
+import hr.algebra.recipeshare.model.CookTimeBucket;
+import hr.algebra.recipeshare.model.RecipeDto;
+import hr.algebra.recipeshare.model.UserStatsDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class UserStatsServiceIntegrationTest {
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private UserStatsJpaRepository userStatsJpaRepository;
+
+    private static final String USERNAME_JOHN = "john_stats";
+    private static final String EMAIL_JOHN = "john_stats@test.com";
+    private static final String PASSWORD_HASHED = "hashed-password";
+    private static final String RECIPE_X = "x";
+
+    private static final int QUICK_COOK_TIME = 10;
+    private static final int LONG_COOK_TIME = 90;
+    private static final int LOW_CALORIES = 300;
+    private static final int HIGH_CALORIES = 700;
+    private static final int NEW_CALORIES = 400;
+
+    private UserEntity john;
+
+    @BeforeEach
+    void setup() {
+        john = userJpaRepository.save(UserEntity.builder()
+                .username(USERNAME_JOHN)
+                .email(EMAIL_JOHN)
+                .passwordHash(PASSWORD_HASHED)
+                .build());
+    }
+
+    @Test
+    void findById_shouldReturnEmptyStats_whenUserHasNoRecipes() {
+        UserStatsDto stats = userService.findById(john.getId()).orElseThrow().getStats();
+
+        assertEquals(0L, stats.getRecipeCount());
+        assertNull(stats.getCalories().getAverage());
+        assertNull(stats.getCookTime().getMin());
+    }
+
+    @Test
+    void create_shouldMaintainAggregates() {
+        createRecipe(LOW_CALORIES, QUICK_COOK_TIME);
+        createRecipe(HIGH_CALORIES, LONG_COOK_TIME);
+
+        UserStatsDto stats = userService.findById(john.getId()).orElseThrow().getStats();
+
+        assertEquals(2L, stats.getRecipeCount());
+        assertEquals(500.0, stats.getCalories().getAverage());
+        assertEquals(LOW_CALORIES, stats.getCalories().getMin());
+        assertEquals(HIGH_CALORIES, stats.getCalories().getMax());
+        assertEquals(QUICK_COOK_TIME, stats.getCookTime().getMin());
+        assertEquals(1L, stats.getCookTimeHistogram().get(CookTimeBucket.QUICK));
+        assertEquals(1L, stats.getCookTimeHistogram().get(CookTimeBucket.LONG));
+    }
+
+    @Test
+    void update_shouldRecomputeRange_whenExtremeChanges() {
+        createRecipe(LOW_CALORIES, QUICK_COOK_TIME);
+        RecipeDto high = createRecipe(HIGH_CALORIES, LONG_COOK_TIME);
+
+        high.setCalories(NEW_CALORIES);
+        recipeService.update(high.getId(), high);
+
+        UserStatsDto stats = userService.findById(john.getId()).orElseThrow().getStats();
+        assertEquals(NEW_CALORIES, stats.getCalories().getMax());
+        assertEquals(350.0, stats.getCalories().getAverage());
+    }
+
+    @Test
+    void delete_shouldDropRecipeFromStats() {
+        RecipeDto quick = createRecipe(LOW_CALORIES, QUICK_COOK_TIME);
+        createRecipe(HIGH_CALORIES, LONG_COOK_TIME);
+
+        recipeService.delete(quick.getId());
+
+        UserStatsDto stats = userService.findById(john.getId()).orElseThrow().getStats();
+        assertEquals(1L, stats.getRecipeCount());
+        assertEquals(HIGH_CALORIES, stats.getCalories().getMin());
+        assertEquals(LONG_COOK_TIME, stats.getCookTime().getMin());
+        assertEquals(0L, stats.getCookTimeHistogram().get(CookTimeBucket.QUICK));
+    }
+
+    @Test
+    void repair_shouldRecomputeFromRecipes() {
+        createRecipe(LOW_CALORIES, QUICK_COOK_TIME);
+        createRecipe(HIGH_CALORIES, LONG_COOK_TIME);
+        UserStatsEntity drifted = userStatsJpaRepository.findById(john.getId()).orElseThrow();
+        drifted.reset();
+        userStatsJpaRepository.flush();
+
+        assertEquals(1, userStatsService.repair(List.of(john.getId())));
+
+        UserStatsDto stats = userService.findById(john.getId()).orElseThrow().getStats();
+        assertEquals(2L, stats.getRecipeCount());
+        assertEquals((long) (LOW_CALORIES + HIGH_CALORIES), stats.getCalories().getSum());
+        assertEquals(LONG_COOK_TIME, stats.getCookTime().getMax());
+    }
+
+    private RecipeDto createRecipe(int calories, int cookTimeMinutes) {
+        return recipeService.create(RecipeDto.builder()
+                .userId(john.getId())
+                .title(RECIPE_X)
+                .instructions(RECIPE_X)
+                .ingredients(RECIPE_X)
+                .calories(calories)
+                .cookTimeMinutes(cookTimeMinutes)
+                .build());
+    }
+}